@@ -0,0 +1,116 @@
+package com.lms.bench;
+
+import com.lms.analytics.CirculationAggregates;
+import com.lms.analytics.CirculationAnalytics;
+import com.lms.analytics.CirculationReport;
+import com.lms.model.Book;
+import com.lms.model.LendingRecord;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full circulation report over years of loans: the single-threaded loop
+ * callers wrote before ("naive"), CirculationAnalytics' fork/join reduction
+ * ("parallel"), and a read of the incrementally maintained
+ * CirculationAggregates ("materialized"). CirculationAnalyticsTest checks
+ * that all three agree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+    private static final int TITLES = 50_000;
+    private static final int PATRONS = 20_000;
+    private static final int OPEN_LOANS = 50_000;
+    private static final int DAYS = 3 * 365;
+
+    @Param({"1000000"})
+    int closedLoans;
+
+    private Library library;
+    private LendingService lending;
+    private CirculationAnalytics analytics;
+    private CirculationAggregates aggregates;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = new Library();
+        for (Book book : new CatalogGenerator(BenchSupport.SEED, TITLES).books(TITLES)) library.addBook(book);
+        lending = new LendingService(library);
+        aggregates = new CirculationAggregates(lending, library);
+        SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+        today = LocalDate.now();
+        LocalDate start = today.minusDays(DAYS);
+        for (int i = 0; i < closedLoans; i++) {
+            LocalDate borrowed = start.plusDays(random.nextInt(DAYS - 30));
+            lending.restoreClosedLoan(new LendingRecord(UUID.randomUUID().toString(),
+                    CatalogGenerator.isbn(random.nextInt(TITLES)), "P" + random.nextInt(PATRONS), "Title",
+                    borrowed, borrowed.plusWeeks(2), borrowed.plusDays(1 + random.nextInt(28))));
+        }
+        for (int i = 0; i < OPEN_LOANS; i++) {
+            LocalDate borrowed = today.minusDays(random.nextInt(70));
+            lending.restoreOpenLoan(new LendingRecord(UUID.randomUUID().toString(),
+                    CatalogGenerator.isbn(random.nextInt(TITLES)), "P" + random.nextInt(PATRONS), "Title",
+                    borrowed, borrowed.plusDays(56 + random.nextInt(14)), null));
+        }
+        analytics = new CirculationAnalytics();
+    }
+
+    @Benchmark
+    public CirculationReport naive() {
+        return naiveReport(lending.getAllLendingRecords(), library, today);
+    }
+
+    @Benchmark
+    public CirculationReport parallel() {
+        return analytics.report(lending, library, today);
+    }
+
+    @Benchmark
+    public CirculationReport materialized() {
+        return aggregates.report(today);
+    }
+
+    /** One pass over the records, looking each loan's book up as it goes. */
+    static CirculationReport naiveReport(List<LendingRecord> records, Library library, LocalDate asOf) {
+        long returned = 0;
+        long overdue = 0;
+        long returnedDays = 0;
+        Map<String, Long> perAuthor = new HashMap<>();
+        Map<Integer, Long> perYear = new HashMap<>();
+        Map<YearMonth, Long> perMonth = new HashMap<>();
+        for (LendingRecord r : records) {
+            Optional<Book> book = library.getBook(r.getBookIsbn());
+            if (book.isPresent()) {
+                perAuthor.merge(book.get().getAuthor(), 1L, Long::sum);
+                perYear.merge(book.get().getPublicationYear(), 1L, Long::sum);
+            }
+            perMonth.merge(YearMonth.from(r.getBorrowedDate()), 1L, Long::sum);
+            if (r.getReturnedDate() != null) {
+                returned++;
+                returnedDays += ChronoUnit.DAYS.between(r.getBorrowedDate(), r.getReturnedDate());
+                if (r.getReturnedDate().isAfter(r.getDueDate())) overdue++;
+            } else if (r.getDueDate().isBefore(asOf)) {
+                overdue++;
+            }
+        }
+        return new CirculationReport(asOf, records.size(), returned, overdue, returnedDays, perAuthor, perYear, perMonth);
+    }
+}
@@ -0,0 +1,105 @@
+package com.lms.bench;
+
+import com.lms.service.CirculationExecutor;
+import com.lms.service.CirculationOp;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A kiosk burst: BURST checkouts followed by returns of the ones that
+ * succeeded, either submitted as two batches to a CirculationExecutor or
+ * made one call at a time on LendingService. Scores are per operation.
+ * Each iteration starts from a fresh library and ends with every copy back.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchCirculationBenchmark {
+    static final int BURST = 1024;
+
+    @Param({"100000"})
+    int catalogSize;
+
+    @Param({"10000"})
+    int patronCount;
+
+    @Param({"executor", "direct"})
+    String mode;
+
+    private Library library;
+    private LendingService lending;
+    private CirculationExecutor executor;
+    private CatalogGenerator.Zipf popularity;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        BenchSupport.quietLogging();
+        popularity = new CatalogGenerator.Zipf(catalogSize, 0.9);
+        random = new SplittableRandom(BenchSupport.SEED);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        library = new Library();
+        lending = new LendingService(library);
+        BenchSupport.populate(library, catalogSize, patronCount);
+        if (mode.equals("executor")) executor = new CirculationExecutor(lending);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        if (executor != null) executor.close();
+        executor = null;
+        long lent = library.streamAllBooks()
+                .filter(b -> b.getAvailableCopies() != b.getTotalCopies()).count();
+        if (lent != 0 || !lending.getOpenLoans().isEmpty()) {
+            throw new IllegalStateException(lent + " books still have copies lent");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * BURST)
+    public int burst() {
+        List<CirculationOp> checkouts = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            checkouts.add(CirculationOp.checkout(CatalogGenerator.patronId(random.nextInt(patronCount)),
+                    CatalogGenerator.isbn(popularity.sample(random))));
+        }
+        List<CirculationOp> returns = new ArrayList<>(BURST);
+        if (executor != null) {
+            List<CompletableFuture<Boolean>> lent = executor.submitAll(checkouts);
+            for (int i = 0; i < BURST; i++) {
+                if (lent.get(i).join()) returns.add(returnOf(checkouts.get(i)));
+            }
+            List<CompletableFuture<Boolean>> back = executor.submitAll(returns);
+            for (CompletableFuture<Boolean> f : back) {
+                if (!f.join()) throw new IllegalStateException("Checked-out book could not be returned");
+            }
+        } else {
+            for (CirculationOp op : checkouts) {
+                if (lending.checkoutBook(op.getPatronId(), op.getIsbn())) returns.add(returnOf(op));
+            }
+            for (CirculationOp op : returns) {
+                if (!lending.returnBook(op.getPatronId(), op.getIsbn())) {
+                    throw new IllegalStateException("Checked-out book could not be returned");
+                }
+            }
+        }
+        return returns.size();
+    }
+
+    private static CirculationOp returnOf(CirculationOp checkout) {
+        return CirculationOp.returnBook(checkout.getPatronId(), checkout.getIsbn());
+    }
+}
@@ -0,0 +1,44 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.Library;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/** Shared setup for the benchmarks. */
+final class BenchSupport {
+    static final long SEED = 42;
+
+    private BenchSupport() {}
+
+    /**
+     * The services log every checkout and return at INFO; formatting those
+     * lines would dominate the numbers, so benchmarks run with logging off.
+     */
+    static void quietLogging() {
+        Logger.getLogger("").setLevel(Level.OFF);
+    }
+
+    /** Adds a generated catalog and patron base to the library. */
+    static void populate(Library library, int catalogSize, int patronCount) {
+        CatalogGenerator generator = new CatalogGenerator(SEED, catalogSize);
+        for (Book book : generator.books(catalogSize)) library.addBook(book);
+        for (Patron patron : generator.patrons(patronCount)) library.addPatron(patron);
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
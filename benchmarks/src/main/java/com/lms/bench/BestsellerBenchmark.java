@@ -0,0 +1,90 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every thread checks out and returns copies of one multi-copy title, the
+ * worst case for a single shared availability flag. Run with several threads
+ * (-t N, or ThreadSweep) to see how checkouts scale with the copy count.
+ *
+ * Outstanding loans are counted independently of the library; the benchmark
+ * fails if they ever exceed the number of copies, and each iteration ends by
+ * checking that every copy is back on the shelf.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BestsellerBenchmark {
+
+    private static final String ISBN = CatalogGenerator.isbn(0);
+
+    @Param({"1", "50"})
+    int copies;
+
+    @Param({"10000"})
+    int patronCount;
+
+    private Library library;
+    private LendingService lending;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong threadSeeds = new AtomicLong(BenchSupport.SEED);
+
+    @State(Scope.Thread)
+    public static class Picker {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setup(BestsellerBenchmark bench) {
+            random = new SplittableRandom(bench.threadSeeds.incrementAndGet());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        BenchSupport.quietLogging();
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        library = new Library();
+        lending = new LendingService(library);
+        library.addBook(new Book(ISBN, "Bestseller", "Author", 2024, copies));
+        for (int i = 0; i < patronCount; i++) {
+            library.addPatron(new Patron(CatalogGenerator.patronId(i), "Patron " + i, ""));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyCopies() {
+        Book book = library.getBook(ISBN).orElseThrow();
+        if (book.getAvailableCopies() != copies || outstanding.get() != 0) {
+            throw new IllegalStateException("Copies not returned: " + book);
+        }
+    }
+
+    @Benchmark
+    public boolean checkoutReturn(Picker picker) {
+        String patronId = CatalogGenerator.patronId(picker.random.nextInt(patronCount));
+        if (!lending.checkoutBook(patronId, ISBN)) return false;
+        if (outstanding.incrementAndGet() > copies) {
+            throw new IllegalStateException("More than " + copies + " copies lent");
+        }
+        outstanding.decrementAndGet();
+        if (!lending.returnBook(patronId, ISBN)) {
+            throw new IllegalStateException("Checked-out copy could not be returned");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,162 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic catalogs with realistic skew.
+ *
+ * Title words and authors are drawn from Zipf distributions, so a few words
+ * ("history", "java", ...) appear in many titles and a few prolific authors
+ * write much of the catalog, as in real collections. Titles are 1-6 words,
+ * publication years lean towards recent decades, and ISBNs are valid ISBN-13s.
+ * The same seed always produces the same data.
+ */
+public final class CatalogGenerator {
+    private static final String[] WORDS = {
+        "the", "history", "java", "introduction", "guide", "of", "world", "art", "science", "modern",
+        "programming", "design", "war", "life", "data", "systems", "practical", "theory", "american",
+        "new", "complete", "essential", "advanced", "music", "philosophy", "economics", "love", "city",
+        "patterns", "architecture", "algorithms", "secret", "garden", "night", "river", "mountain",
+        "ocean", "empire", "revolution", "mind", "language", "children", "stories", "poems", "letters",
+        "physics", "chemistry", "biology", "mathematics", "statistics", "learning", "machine", "deep",
+        "networks", "cooking", "travel", "journey", "shadow", "light", "dark", "house", "kingdom",
+        "queen", "king", "dragon", "winter", "summer", "memoir", "handbook", "principles", "practice",
+        "engineering", "software", "concurrency", "performance", "distributed", "database", "cloud",
+        "security", "politics", "society", "culture", "ancient", "rome", "greece", "china", "india",
+        "africa", "europe", "medicine", "health", "psychology", "education", "leadership", "business",
+        "finance", "marketing", "strategy", "nature", "climate", "energy", "future", "time", "space"
+    };
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William",
+        "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+        "Charles", "Karen", "Haruki", "Chimamanda", "Gabriel", "Toni", "Leo", "Jane", "Fyodor", "Agatha",
+        "Arundhati", "Orhan", "Isabel", "Kazuo", "Zadie", "Salman", "Ursula", "Jorge", "Virginia"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+        "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore",
+        "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Lewis",
+        "Robinson", "Walker", "Murakami", "Adichie", "Marquez", "Morrison", "Tolstoy", "Austen", "Pamuk",
+        "Allende", "Ishiguro", "Rushdie", "Borges", "Woolf", "Roy", "Christie", "Dostoevsky", "Le Guin"
+    };
+
+    private final SplittableRandom random;
+    private final Zipf words = new Zipf(WORDS.length, 1.0);
+    private final Zipf authors;
+
+    public CatalogGenerator(long seed, int catalogSize) {
+        this.random = new SplittableRandom(seed);
+        // Roughly one author per eight books, with a long tail
+        this.authors = new Zipf(Math.max(1, catalogSize / 8), 1.1);
+    }
+
+    public List<Book> books(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(new Book(isbn(i), title(), author(authors.sample(random)), year()));
+        }
+        return books;
+    }
+
+    public List<Patron> patrons(int count) {
+        List<Patron> patrons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            patrons.add(new Patron(patronId(i), name, "patron" + i + "@example.org"));
+        }
+        return patrons;
+    }
+
+    /**
+     * Queries as users type them: mostly single popular words, some two-word
+     * phrases and some author surnames.
+     */
+    public String[] queries(int count) {
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                queries[i] = WORDS[words.sample(random)];
+            } else if (kind < 8) {
+                queries[i] = WORDS[words.sample(random)] + " " + WORDS[words.sample(random)];
+            } else {
+                queries[i] = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            }
+        }
+        return queries;
+    }
+
+    public static String isbn(int i) {
+        String body = "978" + String.format("%09d", i);
+        int sum = 0;
+        for (int d = 0; d < 12; d++) {
+            int digit = body.charAt(d) - '0';
+            sum += (d % 2 == 0) ? digit : digit * 3;
+        }
+        return body + ((10 - sum % 10) % 10);
+    }
+
+    public static String patronId(int i) {
+        return "P" + i;
+    }
+
+    // ---------- Internals ----------
+    private String title() {
+        // Mostly two or three words, occasionally up to six
+        int length = 1 + Math.min(5, (int) (-Math.log(1 - random.nextDouble()) * 1.5));
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < length; w++) {
+            String word = WORDS[words.sample(random)];
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return sb.toString();
+    }
+
+    private String author(int id) {
+        // Stable name per author id
+        String first = FIRST_NAMES[id % FIRST_NAMES.length];
+        String last = LAST_NAMES[(id / FIRST_NAMES.length) % LAST_NAMES.length];
+        int suffix = id / (FIRST_NAMES.length * LAST_NAMES.length);
+        return suffix == 0 ? first + " " + last : first + " " + last + " " + suffix;
+    }
+
+    private int year() {
+        // Skewed towards recent years: 2024 minus an exponential-ish age
+        double age = -Math.log(1 - random.nextDouble()) * 20;
+        return 2024 - (int) Math.min(age, 500);
+    }
+
+    /** Zipf(n, s) sampler using a precomputed CDF and binary search. */
+    public static final class Zipf {
+        private final double[] cdf;
+
+        public Zipf(int n, double exponent) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1.0 / Math.pow(k, exponent);
+                cdf[k - 1] = sum;
+            }
+            for (int k = 0; k < n; k++) cdf[k] /= sum;
+        }
+
+        public int sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            int lo = 0;
+            int hi = cdf.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cdf[mid] < u) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
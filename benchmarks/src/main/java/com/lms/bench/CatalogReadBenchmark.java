@@ -0,0 +1,95 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.service.Library;
+import com.lms.store.BookStore;
+import com.lms.store.InMemoryBookStore;
+import com.lms.strategy.SearchByTitle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Catalog reads mixed with writes at 1000:1 from several threads: one in
+ * every 1000 operations updates, removes or re-adds a random book.
+ * "snapshot" is the default store, which hands out shared immutable
+ * snapshots; "copying" keeps books in a ConcurrentHashMap and copies the
+ * catalog on every read, as the Library did before. Run with -prof gc to
+ * compare allocation per operation.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Threads(4)
+@State(Scope.Benchmark)
+public class CatalogReadBenchmark {
+    private static final int WRITE_EVERY = 1000;
+
+    @Param({"10000", "100000"})
+    int catalogSize;
+
+    @Param({"snapshot", "copying"})
+    String store;
+
+    private Library library;
+    private String[] queries;
+
+    @State(Scope.Thread)
+    public static class Ops {
+        final SplittableRandom random = new SplittableRandom();
+        int count;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = new Library(store.equals("snapshot") ? new InMemoryBookStore() : new CopyingBookStore());
+        library.setSearchStrategy(new SearchByTitle());
+        BenchSupport.populate(library, catalogSize, 0);
+        queries = new CatalogGenerator(BenchSupport.SEED + 1, catalogSize).queries(1024);
+    }
+
+    /** Lists one page of the catalog. */
+    @Benchmark
+    public List<Book> listPage(Ops ops) {
+        maybeWrite(ops);
+        List<Book> all = library.getAllBooks();
+        int from = ops.random.nextInt(Math.max(1, all.size() - 20));
+        return all.subList(from, Math.min(all.size(), from + 20));
+    }
+
+    /** A plain (scanning) title search, which reads the whole catalog. */
+    @Benchmark
+    public List<Book> scanSearch(Ops ops) {
+        maybeWrite(ops);
+        return library.searchBooks(queries[ops.random.nextInt(queries.length)], 10);
+    }
+
+    private void maybeWrite(Ops ops) {
+        if (++ops.count % WRITE_EVERY != 0) return;
+        String isbn = CatalogGenerator.isbn(ops.random.nextInt(catalogSize));
+        library.getBook(isbn).ifPresent(book -> {
+            library.removeBook(isbn);
+            library.addBook(book);
+        });
+    }
+
+    /** The previous default store, for comparison. */
+    static final class CopyingBookStore implements BookStore {
+        private final Map<String, Book> books = new ConcurrentHashMap<>();
+
+        @Override public Book get(String isbn) { return books.get(isbn); }
+        @Override public void put(Book book) { books.put(book.getIsbn(), book); }
+        @Override public Book remove(String isbn) { return books.remove(isbn); }
+        @Override public boolean contains(String isbn) { return books.containsKey(isbn); }
+        @Override public int size() { return books.size(); }
+        @Override public Stream<Book> stream() { return books.values().stream(); }
+    }
+}
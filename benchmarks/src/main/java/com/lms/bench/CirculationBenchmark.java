@@ -0,0 +1,91 @@
+package com.lms.bench;
+
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checkout/return throughput through LendingService.
+ *
+ * Books are picked with Zipf skew, so with several threads (-t N, or the
+ * ThreadSweep runner) popular titles are genuinely contended. A checkout that
+ * loses the race returns false rather than retrying. Every iteration
+ * starts from a fresh library, since patron and lending history grow with
+ * each operation, and ends by checking that no copy was lent twice: every
+ * successful checkout was returned, so all books must be back on the shelf.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CirculationBenchmark {
+
+    @Param({"10000", "100000"})
+    int catalogSize;
+
+    @Param({"1000", "100000"})
+    int patronCount;
+
+    private Library library;
+    private LendingService lending;
+    private CatalogGenerator.Zipf popularity;
+    private final AtomicLong threadSeeds = new AtomicLong(BenchSupport.SEED);
+
+    @State(Scope.Thread)
+    public static class Picker {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setup(CirculationBenchmark bench) {
+            random = new SplittableRandom(bench.threadSeeds.incrementAndGet());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        BenchSupport.quietLogging();
+        popularity = new CatalogGenerator.Zipf(catalogSize, 0.9);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        library = new Library();
+        lending = new LendingService(library);
+        BenchSupport.populate(library, catalogSize, patronCount);
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyNoDoubleLending() {
+        if (!lending.getOpenLoans().isEmpty()) {
+            throw new IllegalStateException(lending.getOpenLoans().size() + " loans left open");
+        }
+        long lent = library.streamAllBooks()
+                .filter(b -> b.getAvailableCopies() != b.getTotalCopies()).count();
+        if (lent != 0) throw new IllegalStateException(lent + " books still have copies lent");
+    }
+
+    @Benchmark
+    public boolean checkoutReturn(Picker picker) {
+        String patronId = CatalogGenerator.patronId(picker.random.nextInt(patronCount));
+        String isbn = CatalogGenerator.isbn(popularity.sample(picker.random));
+        if (!lending.checkoutBook(patronId, isbn)) return false;
+        if (!lending.returnBook(patronId, isbn)) {
+            throw new IllegalStateException("Checked-out book could not be returned: " + isbn);
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean libraryBorrowReturn(Picker picker) {
+        String patronId = CatalogGenerator.patronId(picker.random.nextInt(patronCount));
+        String isbn = CatalogGenerator.isbn(popularity.sample(picker.random));
+        if (!library.borrowBook(patronId, isbn)) return false;
+        return library.returnBook(patronId, isbn);
+    }
+}
@@ -0,0 +1,91 @@
+package com.lms.bench;
+
+import com.lms.model.LendingRecord;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Overdue and per-patron history queries against years of closed loans,
+ * through the due-date index and the month partitions ("indexed") and by
+ * filtering getLendingRecords(), which is what callers did before ("scan").
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HistoryBenchmark {
+
+    private static final int PATRONS = 20_000;
+    private static final int TITLES = 50_000;
+    private static final int OPEN_LOANS = 50_000;
+    private static final int DAYS = 3 * 365;
+
+    @Param({"1000000"})
+    int closedLoans;
+
+    private LendingService lending;
+    private LocalDate today;
+    private LocalDate from;
+    private LocalDate to;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        lending = new LendingService(new Library());
+        random = new SplittableRandom(BenchSupport.SEED);
+        today = LocalDate.now();
+        LocalDate start = today.minusDays(DAYS);
+        for (int i = 0; i < closedLoans; i++) {
+            LocalDate borrowed = start.plusDays(random.nextInt(DAYS - 30));
+            lending.restoreClosedLoan(new LendingRecord(UUID.randomUUID().toString(),
+                    CatalogGenerator.isbn(random.nextInt(TITLES)), "P" + random.nextInt(PATRONS), "Title",
+                    borrowed, borrowed.plusWeeks(2), borrowed.plusDays(1 + random.nextInt(28))));
+        }
+        // Open loans spread over the last ten weeks, about one in ten of them overdue
+        for (int i = 0; i < OPEN_LOANS; i++) {
+            LocalDate borrowed = today.minusDays(random.nextInt(70));
+            lending.restoreOpenLoan(new LendingRecord(UUID.randomUUID().toString(),
+                    CatalogGenerator.isbn(random.nextInt(TITLES)), "P" + random.nextInt(PATRONS), "Title",
+                    borrowed, borrowed.plusDays(56 + random.nextInt(14)), null));
+        }
+        from = today.minusDays(180);
+        to = today;
+    }
+
+    @Benchmark
+    public List<LendingRecord> overdueIndexed() {
+        return lending.getOverdueLoans(today);
+    }
+
+    @Benchmark
+    public List<LendingRecord> overdueScan() {
+        return lending.getLendingRecords().stream()
+                .filter(r -> r.isOpen() && r.getDueDate().isBefore(today))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<LendingRecord> patronRangeIndexed() {
+        return lending.getLendingHistory().forPatron("P" + random.nextInt(PATRONS), from, to);
+    }
+
+    @Benchmark
+    public List<LendingRecord> patronRangeScan() {
+        String patronId = "P" + random.nextInt(PATRONS);
+        return lending.getLendingRecords().stream()
+                .filter(r -> !r.isOpen() && r.getPatronId().equals(patronId)
+                        && !r.getBorrowedDate().isBefore(from) && !r.getBorrowedDate().isAfter(to))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,81 @@
+package com.lms.bench;
+
+import com.lms.ingest.CatalogImporter;
+import com.lms.ingest.ImportResult;
+import com.lms.model.Book;
+import com.lms.service.Library;
+import com.lms.strategy.IndexedSearchByTitle;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a catalog feed into an empty, title-indexed library.
+ *
+ * "importer" runs CatalogImporter over a generated CSV file (parallel parse,
+ * batched inserts, one index rebuild at the end); "addBook" reads the same
+ * file line by line and calls Library.addBook per record, the way callers
+ * loaded books before. Both are checked to load every record.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+
+    @Param({"100000", "1000000"})
+    int records;
+
+    @Param({"importer", "addBook"})
+    String loader;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        BenchSupport.quietLogging();
+        file = Files.createTempFile("lms-import-bench", ".csv");
+        List<Book> books = new CatalogGenerator(BenchSupport.SEED, records).books(records);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("isbn,title,author,year\n");
+            for (Book b : books) {
+                out.write(b.getIsbn() + ',' + b.getTitle() + ',' + b.getAuthor() + ',' + b.getPublicationYear() + '\n');
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Library load() throws IOException {
+        Library library = new Library();
+        library.setSearchStrategy(new IndexedSearchByTitle());
+        if (loader.equals("importer")) {
+            ImportResult result = new CatalogImporter(library).importFile(file);
+            if (result.getRejectedRecords() != 0) throw new IllegalStateException("Rejected: " + result.getRejections());
+        } else {
+            try (BufferedReader in = Files.newBufferedReader(file)) {
+                in.readLine(); // header
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    String[] f = line.split(",");
+                    library.addBook(new Book(f[0], f[1], f[2], Integer.parseInt(f[3])));
+                }
+            }
+        }
+        if (library.getBookCount() != records) {
+            throw new IllegalStateException("Loaded " + library.getBookCount() + " of " + records);
+        }
+        return library;
+    }
+}
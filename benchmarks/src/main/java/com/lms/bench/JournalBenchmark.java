@@ -0,0 +1,87 @@
+package com.lms.bench;
+
+import com.lms.persistence.PersistenceManager;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.ReservationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checkout/return throughput with the write-ahead log attached, to compare
+ * against CirculationBenchmark. With syncCommit every mutation waits for
+ * its group-commit fsync; without it the log is flushed in the background.
+ * Each iteration writes to a fresh directory.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({"10000"})
+    int catalogSize;
+
+    @Param({"10000"})
+    int patronCount;
+
+    @Param({"false", "true"})
+    boolean syncCommit;
+
+    private Path dir;
+    private Library library;
+    private LendingService lending;
+    private PersistenceManager persistence;
+    private CatalogGenerator.Zipf popularity;
+    private final AtomicLong threadSeeds = new AtomicLong(BenchSupport.SEED);
+
+    @State(Scope.Thread)
+    public static class Picker {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setup(JournalBenchmark bench) {
+            random = new SplittableRandom(bench.threadSeeds.incrementAndGet());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        BenchSupport.quietLogging();
+        popularity = new CatalogGenerator.Zipf(catalogSize, 0.9);
+    }
+
+    @Setup(Level.Iteration)
+    public void setupIteration() throws IOException {
+        dir = Files.createTempDirectory("lms-journal-bench");
+        library = new Library();
+        lending = new LendingService(library);
+        persistence = PersistenceManager.open(dir, library, lending, new ReservationService(),
+                syncCommit, Duration.ZERO);
+        BenchSupport.populate(library, catalogSize, patronCount);
+        persistence.sync();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        persistence.close();
+        BenchSupport.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public boolean checkoutReturn(Picker picker) {
+        String patronId = CatalogGenerator.patronId(picker.random.nextInt(patronCount));
+        String isbn = CatalogGenerator.isbn(popularity.sample(picker.random));
+        if (!lending.checkoutBook(patronId, isbn)) return false;
+        return lending.returnBook(patronId, isbn);
+    }
+}
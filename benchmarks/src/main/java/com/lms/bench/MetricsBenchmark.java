@@ -0,0 +1,28 @@
+package com.lms.bench;
+
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of instrumenting one call: two nanoTime reads plus a histogram
+ * record. Run with -prof gc to confirm it allocates nothing, and with
+ * -t N to see contention on the shared counters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private final OperationMetrics metrics = new MetricsRegistry().operation("bench");
+
+    @Benchmark
+    public void record() {
+        metrics.record(System.nanoTime(), true);
+    }
+}
@@ -0,0 +1,83 @@
+package com.lms.bench;
+
+import com.lms.model.Patron;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Patron lookup by email and by name prefix. "scan" filters
+ * getAllPatrons(), as callers had to before the patron indexes; "index"
+ * uses Library.findPatronByEmail / findPatronsByName.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatronLookupBenchmark {
+    @Param({"100000"})
+    int patronCount;
+
+    @Param({"scan", "index"})
+    String lookup;
+
+    private Library library;
+    private String[] emails;
+    private String[] namePrefixes;
+
+    @State(Scope.Thread)
+    public static class Ops {
+        final SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = new Library();
+        List<Patron> patrons = new CatalogGenerator(BenchSupport.SEED, 0).patrons(patronCount);
+        for (Patron patron : patrons) library.addPatron(patron);
+        emails = new String[patronCount];
+        namePrefixes = new String[patronCount];
+        for (int i = 0; i < patronCount; i++) {
+            Patron patron = patrons.get(i);
+            emails[i] = patron.getEmail().toUpperCase(Locale.ROOT);
+            // "Ada Lovelace" -> "ada lov"
+            String[] words = patron.getName().toLowerCase(Locale.ROOT).split(" ");
+            namePrefixes[i] = words[0] + " " + words[1].substring(0, Math.min(3, words[1].length()));
+        }
+    }
+
+    @Benchmark
+    public Optional<Patron> byEmail(Ops ops) {
+        String email = emails[ops.random.nextInt(patronCount)];
+        if (lookup.equals("index")) return library.findPatronByEmail(email);
+        for (Patron patron : library.getAllPatrons()) {
+            if (patron.getEmail().equalsIgnoreCase(email)) return Optional.of(patron);
+        }
+        return Optional.empty();
+    }
+
+    @Benchmark
+    public List<Patron> byName(Ops ops) {
+        String query = namePrefixes[ops.random.nextInt(patronCount)];
+        if (lookup.equals("index")) return library.findPatronsByName(query, 10);
+        String[] wanted = query.split(" ");
+        List<Patron> result = new ArrayList<>();
+        for (Patron patron : library.getAllPatrons()) {
+            String[] words = patron.getName().toLowerCase(Locale.ROOT).split(" ");
+            if (words[0].startsWith(wanted[0]) && words[1].startsWith(wanted[1])) {
+                result.add(patron);
+                if (result.size() == 10) break;
+            }
+        }
+        return result;
+    }
+}
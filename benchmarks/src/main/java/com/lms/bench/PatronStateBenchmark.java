@@ -0,0 +1,78 @@
+package com.lms.bench;
+
+import com.lms.model.Patron;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-patron state on the circulation hot path: a checkout/return cycle
+ * against a patron already holding {@code loansHeld} books, one history
+ * append, and reading the whole history back. Patrons start with
+ * {@code historyLength} past borrows; with historyLimit above 0 only that
+ * many are kept. Run with -prof gc to see allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatronStateBenchmark {
+    private static final int PATRONS = 1024;
+    private static final int CATALOG = 100_000;
+
+    @Param({"10", "50"})
+    int loansHeld;
+
+    @Param({"1000"})
+    int historyLength;
+
+    @Param({"0", "100"})
+    int historyLimit;
+
+    private Patron[] patrons;
+    private String[] isbns;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        random = new SplittableRandom(BenchSupport.SEED);
+        isbns = new String[CATALOG];
+        for (int i = 0; i < CATALOG; i++) isbns[i] = CatalogGenerator.isbn(i);
+        patrons = new Patron[PATRONS];
+        for (int p = 0; p < PATRONS; p++) {
+            Patron patron = new Patron(CatalogGenerator.patronId(p), "Patron " + p, "p" + p + "@example.org");
+            patron.setHistoryLimit(historyLimit);
+            for (int i = 0; i < loansHeld; i++) patron.borrow(isbns[random.nextInt(CATALOG)]);
+            for (int i = 0; i < historyLength; i++) patron.addToHistory(isbns[random.nextInt(CATALOG)]);
+            patrons[p] = patron;
+        }
+    }
+
+    /** Borrow, check and return one book, as LendingService does per loan. */
+    @Benchmark
+    public boolean borrowAndReturn() {
+        Patron patron = patrons[random.nextInt(PATRONS)];
+        String isbn = isbns[random.nextInt(CATALOG)];
+        if (patron.hasBorrowed(isbn)) return false;
+        patron.borrow(isbn);
+        return patron.hasBorrowed(isbn) && patron.returned(isbn);
+    }
+
+    @Benchmark
+    public void appendHistory() {
+        patrons[random.nextInt(PATRONS)].addToHistory(isbns[random.nextInt(CATALOG)]);
+    }
+
+    /** The full history, as the recommenders read it. */
+    @Benchmark
+    public int readHistory() {
+        List<String> history = patrons[random.nextInt(PATRONS)].getHistoryIsbns();
+        int hash = 0;
+        for (String isbn : history) hash += isbn.length();
+        return hash;
+    }
+}
@@ -0,0 +1,76 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.query.BookQuery;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-field queries: a generated title word, a 10-year publication range,
+ * a borrow threshold and availability. "bitmap" runs them through
+ * Library.query; "scan" filters the whole catalog with the same predicates,
+ * as chaining the single-field strategies would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    @Param({"bitmap", "scan"})
+    String engine;
+
+    private Library library;
+    private BookQuery[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = new Library();
+        BenchSupport.populate(library, catalogSize, 0);
+
+        SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+        CatalogGenerator.Zipf popular = new CatalogGenerator.Zipf(catalogSize, 1.0);
+        for (int i = 0; i < catalogSize; i++) {
+            library.getBook(CatalogGenerator.isbn(popular.sample(random))).ifPresent(b -> library.recordBorrow("P0", b));
+        }
+
+        String[] words = new CatalogGenerator(BenchSupport.SEED + 1, catalogSize).queries(QUERIES);
+        queries = new BookQuery[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            int from = 1950 + random.nextInt(70);
+            queries[i] = new BookQuery()
+                    .titleContains(words[i])
+                    .publishedBetween(from, from + 9)
+                    .minTimesBorrowed(random.nextInt(3))
+                    .availableOnly();
+        }
+        if (engine.equals("bitmap")) library.query(new BookQuery());   // build the bitmaps up front
+    }
+
+    @Benchmark
+    public List<Book> firstPage() {
+        BookQuery query = queries[next++ & (QUERIES - 1)];
+        if (engine.equals("bitmap")) return library.query(query).page(0, 20);
+        return library.streamAllBooks().filter(query::matches).limit(20).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int count() {
+        BookQuery query = queries[next++ & (QUERIES - 1)];
+        if (engine.equals("bitmap")) return library.query(query).count();
+        return (int) library.streamAllBooks().filter(query::matches).count();
+    }
+}
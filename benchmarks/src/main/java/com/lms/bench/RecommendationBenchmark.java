@@ -0,0 +1,98 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.recommend.ItemRecommender;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.RecommendationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RecommendationService.recommendBooks for random patrons.
+ *
+ * Each patron first borrows historyLength books: half drawn from overall
+ * (Zipf) popularity and half from a small neighbourhood of the catalog that
+ * stands in for the patron's taste, so co-borrow patterns exist. The engine
+ * is either plain popularity or the item-to-item recommender, whose
+ * similarity table is built during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecommendationBenchmark {
+    private static final int TASTE_WIDTH = 200;
+
+    @Param({"10000", "100000"})
+    int catalogSize;
+
+    @Param({"1000", "10000"})
+    int patronCount;
+
+    @Param({"20"})
+    int historyLength;
+
+    @Param({"popularity", "item"})
+    String engine;
+
+    private RecommendationService service;
+    private ItemRecommender recommender;
+    private final AtomicLong threadSeeds = new AtomicLong(BenchSupport.SEED);
+
+    @State(Scope.Thread)
+    public static class Picker {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setup(RecommendationBenchmark bench) {
+            random = new SplittableRandom(bench.threadSeeds.incrementAndGet());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        Library library = new Library();
+        LendingService lending = new LendingService(library);
+        BenchSupport.populate(library, catalogSize, patronCount);
+
+        if (engine.equals("item")) {
+            recommender = new ItemRecommender();
+            service = new RecommendationService(library, recommender);
+        } else {
+            service = new RecommendationService(library);
+        }
+
+        SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+        CatalogGenerator.Zipf popularity = new CatalogGenerator.Zipf(catalogSize, 0.9);
+        for (int p = 0; p < patronCount; p++) {
+            String patronId = CatalogGenerator.patronId(p);
+            int taste = random.nextInt(catalogSize);
+            for (int i = 0; i < historyLength; i++) {
+                int book = i % 2 == 0
+                        ? popularity.sample(random)
+                        : (taste + random.nextInt(TASTE_WIDTH)) % catalogSize;
+                String isbn = CatalogGenerator.isbn(book);
+                if (lending.checkoutBook(patronId, isbn)) lending.returnBook(patronId, isbn);
+            }
+        }
+        if (recommender != null) recommender.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (recommender != null) recommender.close();
+    }
+
+    @Benchmark
+    public List<Book> recommendBooks(Picker picker) {
+        return service.recommendBooks(CatalogGenerator.patronId(picker.random.nextInt(patronCount)));
+    }
+}
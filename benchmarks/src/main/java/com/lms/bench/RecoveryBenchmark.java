@@ -0,0 +1,76 @@
+package com.lms.bench;
+
+import com.lms.persistence.PersistenceManager;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.ReservationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restart time: recovering a library from disk into empty services.
+ *
+ * Setup writes a catalog plus logOps checkout/return pairs. With "log"
+ * recovery replays the whole write-ahead log; with "snapshot" a checkpoint
+ * was taken at the end, so recovery loads the snapshot and an empty tail.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+
+    @Param({"10000"})
+    int catalogSize;
+
+    @Param({"10000"})
+    int patronCount;
+
+    @Param({"100000"})
+    int logOps;
+
+    @Param({"log", "snapshot"})
+    String recoverFrom;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        BenchSupport.quietLogging();
+        dir = Files.createTempDirectory("lms-recovery-bench");
+        Library library = new Library();
+        LendingService lending = new LendingService(library);
+        try (PersistenceManager persistence = PersistenceManager.open(dir, library, lending, new ReservationService())) {
+            BenchSupport.populate(library, catalogSize, patronCount);
+            SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+            for (int i = 0; i < logOps; i++) {
+                String patronId = CatalogGenerator.patronId(random.nextInt(patronCount));
+                String isbn = CatalogGenerator.isbn(random.nextInt(catalogSize));
+                if (lending.checkoutBook(patronId, isbn)) lending.returnBook(patronId, isbn);
+            }
+            if (recoverFrom.equals("snapshot")) persistence.checkpoint();
+            persistence.sync();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchSupport.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Library recover() throws IOException {
+        Library library = new Library();
+        LendingService lending = new LendingService(library);
+        PersistenceManager persistence = PersistenceManager.open(dir, library, lending, new ReservationService());
+        persistence.close();
+        return library;
+    }
+}
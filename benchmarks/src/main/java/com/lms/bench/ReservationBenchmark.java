@@ -0,0 +1,66 @@
+package com.lms.bench;
+
+import com.lms.model.Patron;
+import com.lms.service.ReservationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReservationService.handleBookReturn against long reservation queues.
+ *
+ * Each benchmark thread owns one ISBN with queueLength waiting patrons. A
+ * cycle returns the book, which hands it to the head of the queue, and that
+ * patron immediately reserves it again, so the queue length stays constant.
+ * The queue rotates, so the patron at the head is known without reading it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int queueLength;
+
+    private ReservationService reservations;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class HotBook {
+        String isbn;
+        List<Patron> patrons;
+        int head;
+
+        @Setup(Level.Trial)
+        public void setup(ReservationBenchmark bench) {
+            int thread = bench.threads.getAndIncrement();
+            isbn = CatalogGenerator.isbn(thread);
+            patrons = new ArrayList<>(bench.queueLength);
+            for (int i = 0; i < bench.queueLength; i++) {
+                Patron patron = new Patron("T" + thread + "-" + CatalogGenerator.patronId(i), "Reader " + i, "");
+                patrons.add(patron);
+                bench.reservations.reserveBook(isbn, patron);
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        reservations = new ReservationService();
+    }
+
+    @Benchmark
+    public void returnAndRequeue(HotBook book) {
+        reservations.handleBookReturn(book.isbn);
+        Patron served = book.patrons.get(book.head);
+        book.head = book.head + 1 == book.patrons.size() ? 0 : book.head + 1;
+        reservations.reserveBook(book.isbn, served);
+    }
+}
@@ -0,0 +1,89 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.service.Library;
+import com.lms.strategy.FuzzySearchByAuthor;
+import com.lms.strategy.IndexedSearchByAuthor;
+import com.lms.strategy.IndexedSearchByTitle;
+import com.lms.strategy.PrefixSearchByTitle;
+import com.lms.strategy.SearchByAuthor;
+import com.lms.strategy.SearchByISBN;
+import com.lms.strategy.SearchByTitle;
+import com.lms.strategy.SearchStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Library.searchBooks per SearchStrategy over generated catalogs.
+ * Queries follow the generator's word and author skew; ISBN search looks up
+ * ISBNs of random catalog books.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    int catalogSize;
+
+    @Param({"title", "author", "isbn", "indexed-title", "indexed-author"})
+    String strategy;
+
+    private Library library;
+    private String[] queries;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String next(String[] queries) {
+            return queries[next++ & (QUERIES - 1)];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = new Library();
+        library.setSearchStrategy(strategyFor(strategy));
+        BenchSupport.populate(library, catalogSize, 0);
+
+        if (strategy.equals("isbn")) {
+            SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+            queries = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) queries[i] = CatalogGenerator.isbn(random.nextInt(catalogSize));
+        } else {
+            queries = new CatalogGenerator(BenchSupport.SEED + 1, catalogSize).queries(QUERIES);
+        }
+    }
+
+    @Benchmark
+    public List<Book> searchAll(Cursor cursor) {
+        return library.searchBooks(cursor.next(queries));
+    }
+
+    @Benchmark
+    public List<Book> searchTop10(Cursor cursor) {
+        return library.searchBooks(cursor.next(queries), 10);
+    }
+
+    static SearchStrategy strategyFor(String name) {
+        switch (name) {
+            case "title": return new SearchByTitle();
+            case "author": return new SearchByAuthor();
+            case "isbn": return new SearchByISBN();
+            case "indexed-title": return new IndexedSearchByTitle();
+            case "indexed-author": return new IndexedSearchByAuthor();
+            case "prefix-title": return new PrefixSearchByTitle();
+            case "fuzzy-author": return new FuzzySearchByAuthor();
+            default: throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.lms.bench;
+
+import com.lms.cache.SearchCache;
+import com.lms.model.Book;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Library.searchBooks (top 10) for Zipf-skewed queries drawn from a pool of
+ * distinct queries, mixed with circulation: one in {@code writeEvery}
+ * operations checks a random book out or returns one. "none" searches every
+ * time; "field" caches with field-level invalidation, so loans only
+ * invalidate results that depend on availability or popularity; "global"
+ * drops every cached result on any catalog change.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchCacheBenchmark {
+    private static final int DISTINCT_QUERIES = 4096;
+    private static final int PATRONS = 1000;
+
+    @Param({"100000"})
+    int catalogSize;
+
+    @Param({"title", "indexed-title"})
+    String strategy;
+
+    @Param({"none", "field", "global"})
+    String cache;
+
+    @Param({"100"})
+    int writeEvery;
+
+    private Library library;
+    private LendingService lending;
+    private String[] queries;
+    private CatalogGenerator.Zipf popularity;
+
+    @State(Scope.Thread)
+    public static class Ops {
+        final SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+        int count;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = new Library();
+        library.setSearchStrategy(SearchBenchmark.strategyFor(strategy));
+        BenchSupport.populate(library, catalogSize, PATRONS);
+        lending = new LendingService(library);
+        if (!cache.equals("none")) library.setSearchCache(new SearchCache(50_000, cache.equals("field")));
+        queries = new CatalogGenerator(BenchSupport.SEED + 1, catalogSize).queries(DISTINCT_QUERIES);
+        popularity = new CatalogGenerator.Zipf(DISTINCT_QUERIES, 1.0);
+    }
+
+    @Benchmark
+    public List<Book> search(Ops ops) {
+        if (++ops.count % writeEvery == 0) {
+            String patron = CatalogGenerator.patronId(ops.random.nextInt(PATRONS));
+            String isbn = CatalogGenerator.isbn(ops.random.nextInt(catalogSize));
+            if (!lending.returnBook(patron, isbn)) lending.checkoutBook(patron, isbn);
+        }
+        return library.searchBooks(queries[popularity.sample(ops.random)], 10);
+    }
+}
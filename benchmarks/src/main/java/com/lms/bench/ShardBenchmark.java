@@ -0,0 +1,92 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.Library;
+import com.lms.shard.ShardedLibrary;
+import com.lms.strategy.IndexedSearchByTitle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ShardedLibrary with in-process shards: scatter-gather top-10 title
+ * search and most-borrowed, and a checkout/return pair that usually spans
+ * two shards (book and patron homes differ). One shard is the unsharded
+ * baseline plus the facade's overhead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ShardBenchmark {
+    private static final int QUERIES = 1024;
+    private static final int PATRONS = 10_000;
+
+    @Param({"1", "4", "8"})
+    int shards;
+
+    @Param({"1000000"})
+    int catalogSize;
+
+    private ShardedLibrary library;
+    private String[] queries;
+    private CatalogGenerator.Zipf popularity;
+    private final AtomicLong threadSeeds = new AtomicLong(BenchSupport.SEED);
+
+    @State(Scope.Thread)
+    public static class Picker {
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setup(ShardBenchmark bench) {
+            random = new SplittableRandom(bench.threadSeeds.incrementAndGet());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = ShardedLibrary.inProcess(shards, () -> {
+            Library shard = new Library();
+            shard.setSearchStrategy(new IndexedSearchByTitle());
+            return shard;
+        });
+        CatalogGenerator generator = new CatalogGenerator(BenchSupport.SEED, catalogSize);
+        library.addBooks(generator.books(catalogSize));
+        for (Patron patron : generator.patrons(PATRONS)) library.addPatron(patron);
+        queries = new CatalogGenerator(BenchSupport.SEED + 1, catalogSize).queries(QUERIES);
+        popularity = new CatalogGenerator.Zipf(catalogSize, 0.9);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        library.close();
+    }
+
+    @Benchmark
+    public List<Book> searchTop10(Picker picker) {
+        return library.searchBooks(queries[picker.random.nextInt(QUERIES)], 10);
+    }
+
+    @Benchmark
+    public List<Book> mostBorrowed() {
+        return library.getMostBorrowedBooks(10);
+    }
+
+    @Benchmark
+    public boolean checkoutReturn(Picker picker) {
+        String patronId = CatalogGenerator.patronId(picker.random.nextInt(PATRONS));
+        String isbn = CatalogGenerator.isbn(popularity.sample(picker.random));
+        if (!library.checkoutBook(patronId, isbn)) return false;
+        if (!library.returnBook(patronId, isbn)) {
+            throw new IllegalStateException("Checked-out book could not be returned: " + isbn);
+        }
+        return true;
+    }
+}
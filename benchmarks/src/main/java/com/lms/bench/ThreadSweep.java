@@ -0,0 +1,32 @@
+package com.lms.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks once per thread count, since JMH takes the
+ * thread count as a run option rather than a @Param.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar com.lms.bench.ThreadSweep [regex] [1,2,4,8]
+ */
+public final class ThreadSweep {
+    private ThreadSweep() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "CirculationBenchmark";
+        String counts = args.length > 1 ? args[1] : "1,2,4,8";
+        for (String count : counts.split(",")) {
+            int threads = Integer.parseInt(count.trim());
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.CSV)
+                    .result("jmh-" + threads + "-threads.csv")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
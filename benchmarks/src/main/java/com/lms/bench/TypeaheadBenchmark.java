@@ -0,0 +1,78 @@
+package com.lms.bench;
+
+import com.lms.model.Book;
+import com.lms.service.Library;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-10 suggestions per keystroke. "prefix-title" and "indexed-title" get
+ * every prefix of generated title queries ("d", "dr", "dra", ...);
+ * "fuzzy-author" and "author" get author surnames with one random typo.
+ * The typeahead budget is 5 ms per query at the 99th percentile.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TypeaheadBenchmark {
+    private static final int QUERIES = 4096;
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    @Param({"prefix-title", "indexed-title", "fuzzy-author", "author"})
+    String strategy;
+
+    private Library library;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchSupport.quietLogging();
+        library = new Library();
+        library.setSearchStrategy(SearchBenchmark.strategyFor(strategy));
+        BenchSupport.populate(library, catalogSize, 0);
+
+        // Skewed popularity, as after months of circulation
+        SplittableRandom random = new SplittableRandom(BenchSupport.SEED);
+        CatalogGenerator.Zipf popular = new CatalogGenerator.Zipf(catalogSize, 1.0);
+        for (int i = 0; i < catalogSize; i++) {
+            library.getBook(CatalogGenerator.isbn(popular.sample(random))).ifPresent(b -> library.recordBorrow("P0", b));
+        }
+
+        String[] typed = new CatalogGenerator(BenchSupport.SEED + 1, catalogSize).queries(QUERIES);
+        queries = new String[QUERIES];
+        int n = 0;
+        for (int i = 0; n < QUERIES; i++) {
+            String query = typed[i % typed.length];
+            if (strategy.endsWith("title")) {
+                for (int len = 1; len <= query.length() && n < QUERIES; len++) queries[n++] = query.substring(0, len);
+            } else {
+                queries[n++] = typo(query.substring(query.lastIndexOf(' ') + 1), random);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Book> suggest() {
+        return library.searchBooks(queries[next++ & (QUERIES - 1)], 10);
+    }
+
+    private static String typo(String word, SplittableRandom random) {
+        if (word.length() < 4) return word;
+        int at = 1 + random.nextInt(word.length() - 2);
+        switch (random.nextInt(3)) {
+            case 0: return word.substring(0, at) + word.substring(at + 1);                  // deletion
+            case 1: return word.substring(0, at) + 'e' + word.substring(at);                // insertion
+            default: return word.substring(0, at) + word.charAt(at + 1) + word.charAt(at)   // transposition
+                    + word.substring(at + 2);
+        }
+    }
+}
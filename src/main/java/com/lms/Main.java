@@ -4,6 +4,7 @@ import com.lms.model.Book;
 import com.lms.model.Patron;
 import com.lms.service.Library;
 import com.lms.service.LendingService;
+import com.lms.strategy.IndexedSearchByTitle;
 import com.lms.strategy.SearchByAuthor;
 import com.lms.strategy.SearchByISBN;
 import com.lms.strategy.SearchByTitle;
@@ -67,6 +68,12 @@ public class Main {
         System.out.println("\nSearch by ISBN 'ISBN004':");
         isbnSearch.forEach(b -> System.out.println(b.getTitle()));
 
+        // Indexed, ranked title search (top 2)
+        library.setSearchStrategy(new IndexedSearchByTitle());
+        List<Book> rankedSearch = library.searchBooks("java", 2);
+        System.out.println("\nTop 2 indexed title matches for 'java':");
+        rankedSearch.forEach(b -> System.out.println(b.getTitle()));
+
         // ---------- Recommendations Demo ----------
         System.out.println("\n=== Recommendations Demo ===");
         System.out.println("Top 3 most borrowed books:");
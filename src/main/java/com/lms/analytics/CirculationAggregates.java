@@ -0,0 +1,115 @@
+package com.lms.analytics;
+
+import com.lms.model.LendingRecord;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.LoanListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circulation totals kept current as loans open and close, so dashboards
+ * read counters instead of rescanning the lending history.
+ *
+ * Loan, return, overdue-return and duration counts and loans per ISBN and
+ * per month are updated on every checkout and return (and every restored
+ * loan). A report adds the open overdue loans from the service's due-date
+ * index and folds the per-ISBN counts into authors and years, so it costs
+ * O(distinct ISBNs lent + overdue loans), not O(loans), and equals what
+ * CirculationAnalytics computes from the records.
+ *
+ * Create it when the lending service is quiet (at startup, before or after
+ * recovery): it seeds itself from the existing records and then follows
+ * changes, and a loan made during seeding could be counted twice or not at
+ * all. Counters are updated without locks; a report taken during a checkout
+ * may see part of it.
+ */
+public class CirculationAggregates implements LoanListener, AutoCloseable {
+    private final LendingService lending;
+    private final Library library;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder returned = new LongAdder();
+    private final LongAdder overdueReturns = new LongAdder();
+    private final LongAdder returnedDays = new LongAdder();
+    private final Map<String, LongAdder> perIsbn = new ConcurrentHashMap<>();
+    private final Map<YearMonth, LongAdder> perMonth = new ConcurrentHashMap<>();
+
+    /** Seeds from the service's current records (in parallel) and starts following it. */
+    public CirculationAggregates(LendingService lending, Library library) {
+        this.lending = lending;
+        this.library = library;
+        lending.getAllLendingRecords().parallelStream().forEach(record -> {
+            loanOpened(record);
+            if (record.getReturnedDate() != null) loanClosed(record);
+        });
+        lending.addLoanListener(this);
+    }
+
+    // ---------- LoanListener ----------
+
+    @Override
+    public void loanOpened(LendingRecord record) {
+        total.increment();
+        perIsbn.computeIfAbsent(record.getBookIsbn(), k -> new LongAdder()).increment();
+        perMonth.computeIfAbsent(YearMonth.from(record.getBorrowedDate()), k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void loanClosed(LendingRecord record) {
+        LocalDate returnedDate = record.getReturnedDate();
+        returned.increment();
+        returnedDays.add(ChronoUnit.DAYS.between(record.getBorrowedDate(), returnedDate));
+        if (returnedDate.isAfter(record.getDueDate())) overdueReturns.increment();
+    }
+
+    /** Stops following the lending service. */
+    @Override
+    public void close() {
+        lending.removeLoanListener(this);
+    }
+
+    // ---------- Reads ----------
+
+    public long getTotalLoans() {
+        return total.sum();
+    }
+
+    public long getOpenLoans() {
+        return total.sum() - returned.sum();
+    }
+
+    public long getLoans(String isbn) {
+        LongAdder count = perIsbn.get(isbn);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getLoans(YearMonth month) {
+        LongAdder count = perMonth.get(month);
+        return count == null ? 0 : count.sum();
+    }
+
+    /** Mean days from borrowing to return over returned loans; 0 if none. */
+    public double getAverageLoanDays() {
+        long n = returned.sum();
+        return n == 0 ? 0 : (double) returnedDays.sum() / n;
+    }
+
+    /** The full report, with open loans due before asOf counted as overdue. */
+    public CirculationReport report(LocalDate asOf) {
+        Map<String, Long> perAuthor = new HashMap<>();
+        Map<Integer, Long> perYear = new HashMap<>();
+        perIsbn.forEach((isbn, count) -> CirculationAnalytics.countByBook(library, isbn, count.sum(), perAuthor, perYear));
+        Map<YearMonth, Long> months = new HashMap<>();
+        perMonth.forEach((month, count) -> months.put(month, count.sum()));
+        long overdue = overdueReturns.sum() + lending.countOverdueLoans(asOf);
+        return new CirculationReport(asOf, total.sum(), returned.sum(), overdue, returnedDays.sum(),
+                perAuthor, perYear, months);
+    }
+}
@@ -0,0 +1,162 @@
+package com.lms.analytics;
+
+import com.lms.model.Book;
+import com.lms.model.LendingRecord;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes CirculationReports from lending records with a fork/join
+ * reduction: the record list is split in halves down to threshold-sized
+ * ranges, each range is tallied into private counters, and the tallies are
+ * merged on the way back up. Loans are tallied per ISBN, and each ISBN is
+ * resolved to its author and year once, at the end, rather than once per
+ * loan. The result does not depend on how the work was split.
+ *
+ * For dashboards that read the same figures repeatedly, see
+ * CirculationAggregates, which keeps them up to date instead.
+ */
+public class CirculationAnalytics {
+    public static final int DEFAULT_THRESHOLD = 4096;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /** Runs in the common pool. */
+    public CirculationAnalytics() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /** @param threshold records a task tallies itself rather than splitting further */
+    public CirculationAnalytics(ForkJoinPool pool, int threshold) {
+        if (threshold <= 0) throw new IllegalArgumentException("threshold must be positive");
+        this.pool = Objects.requireNonNull(pool);
+        this.threshold = threshold;
+    }
+
+    /** Report over every loan the service knows of, open and closed, including archived months. */
+    public CirculationReport report(LendingService lending, Library library, LocalDate asOf) {
+        return report(lending.getAllLendingRecords(), library, asOf);
+    }
+
+    /** Report over the given records; the library supplies authors and publication years. */
+    public CirculationReport report(List<LendingRecord> records, Library library, LocalDate asOf) {
+        Objects.requireNonNull(asOf);
+        List<LendingRecord> indexed = records instanceof RandomAccess ? records : new ArrayList<>(records);
+        Tally tally = pool.invoke(new TallyTask(indexed, 0, indexed.size(), asOf));
+        return tally.toReport(library, asOf);
+    }
+
+    // ---------- Reduction ----------
+
+    private final class TallyTask extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<LendingRecord> records;
+        private final int from;
+        private final int to;
+        private final LocalDate asOf;
+
+        TallyTask(List<LendingRecord> records, int from, int to, LocalDate asOf) {
+            this.records = records;
+            this.from = from;
+            this.to = to;
+            this.asOf = asOf;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= threshold) {
+                Tally tally = new Tally();
+                for (int i = from; i < to; i++) tally.add(records.get(i), asOf);
+                return tally;
+            }
+            int mid = (from + to) >>> 1;
+            TallyTask left = new TallyTask(records, from, mid, asOf);
+            left.fork();
+            Tally right = new TallyTask(records, mid, to, asOf).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /** Counters for one range of records; merged pairwise. */
+    static final class Tally {
+        long total;
+        long returned;
+        long overdue;
+        long returnedDays;
+        Map<String, long[]> perIsbn = new HashMap<>();
+        Map<YearMonth, long[]> perMonth = new HashMap<>();
+
+        void add(LendingRecord record, LocalDate asOf) {
+            total++;
+            perIsbn.computeIfAbsent(record.getBookIsbn(), k -> new long[1])[0]++;
+            perMonth.computeIfAbsent(YearMonth.from(record.getBorrowedDate()), k -> new long[1])[0]++;
+            LocalDate returnedDate = record.getReturnedDate();
+            if (returnedDate != null) {
+                returned++;
+                returnedDays += ChronoUnit.DAYS.between(record.getBorrowedDate(), returnedDate);
+                if (returnedDate.isAfter(record.getDueDate())) overdue++;
+            } else if (record.getDueDate().isBefore(asOf)) {
+                overdue++;
+            }
+        }
+
+        Tally merge(Tally other) {
+            total += other.total;
+            returned += other.returned;
+            overdue += other.overdue;
+            returnedDays += other.returnedDays;
+            perIsbn = mergeCounts(perIsbn, other.perIsbn);
+            perMonth = mergeCounts(perMonth, other.perMonth);
+            return this;
+        }
+
+        CirculationReport toReport(Library library, LocalDate asOf) {
+            Map<String, Long> perAuthor = new HashMap<>();
+            Map<Integer, Long> perYear = new HashMap<>();
+            for (Map.Entry<String, long[]> e : perIsbn.entrySet()) {
+                countByBook(library, e.getKey(), e.getValue()[0], perAuthor, perYear);
+            }
+            Map<YearMonth, Long> months = new HashMap<>();
+            for (Map.Entry<YearMonth, long[]> e : perMonth.entrySet()) months.put(e.getKey(), e.getValue()[0]);
+            return new CirculationReport(asOf, total, returned, overdue, returnedDays, perAuthor, perYear, months);
+        }
+
+        // Folds the smaller map into the larger one
+        private static <K> Map<K, long[]> mergeCounts(Map<K, long[]> a, Map<K, long[]> b) {
+            if (a.size() < b.size()) {
+                Map<K, long[]> t = a;
+                a = b;
+                b = t;
+            }
+            for (Map.Entry<K, long[]> e : b.entrySet()) {
+                long[] count = a.putIfAbsent(e.getKey(), e.getValue());
+                if (count != null) count[0] += e.getValue()[0];
+            }
+            return a;
+        }
+    }
+
+    /** Adds an ISBN's loans under its book's current author and year; unknown ISBNs are skipped. */
+    static void countByBook(Library library, String isbn, long loans,
+                            Map<String, Long> perAuthor, Map<Integer, Long> perYear) {
+        Optional<Book> book = library.getBook(isbn);
+        if (book.isEmpty()) return;
+        perAuthor.merge(book.get().getAuthor(), loans, Long::sum);
+        perYear.merge(book.get().getPublicationYear(), loans, Long::sum);
+    }
+}
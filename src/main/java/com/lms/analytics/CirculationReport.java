@@ -0,0 +1,88 @@
+package com.lms.analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Circulation totals as of a date. Loans are counted in the month they were
+ * borrowed and under the author and publication year their book has now;
+ * loans of books no longer in the catalog count in every total but not per
+ * author or year. A loan is overdue if it was returned after its due date,
+ * or is still open and was due before asOf.
+ *
+ * Every figure is an exact count (durations are summed in whole days), so
+ * reports computed in any order compare equal.
+ */
+public final class CirculationReport {
+    private final LocalDate asOf;
+    private final long totalLoans;
+    private final long returnedLoans;
+    private final long overdueLoans;
+    private final long returnedLoanDays;
+    private final SortedMap<String, Long> loansPerAuthor;
+    private final SortedMap<Integer, Long> loansPerYear;
+    private final SortedMap<YearMonth, Long> loansPerMonth;
+
+    public CirculationReport(LocalDate asOf, long totalLoans, long returnedLoans, long overdueLoans,
+                             long returnedLoanDays, Map<String, Long> loansPerAuthor,
+                             Map<Integer, Long> loansPerYear, Map<YearMonth, Long> loansPerMonth) {
+        this.asOf = Objects.requireNonNull(asOf);
+        this.totalLoans = totalLoans;
+        this.returnedLoans = returnedLoans;
+        this.overdueLoans = overdueLoans;
+        this.returnedLoanDays = returnedLoanDays;
+        this.loansPerAuthor = Collections.unmodifiableSortedMap(new TreeMap<>(loansPerAuthor));
+        this.loansPerYear = Collections.unmodifiableSortedMap(new TreeMap<>(loansPerYear));
+        this.loansPerMonth = Collections.unmodifiableSortedMap(new TreeMap<>(loansPerMonth));
+    }
+
+    public LocalDate getAsOf() { return asOf; }
+    public long getTotalLoans() { return totalLoans; }
+    public long getOpenLoans() { return totalLoans - returnedLoans; }
+    public long getReturnedLoans() { return returnedLoans; }
+    public long getOverdueLoans() { return overdueLoans; }
+    /** Days from borrowing to return, summed over returned loans. */
+    public long getReturnedLoanDays() { return returnedLoanDays; }
+    public SortedMap<String, Long> getLoansPerAuthor() { return loansPerAuthor; }
+    public SortedMap<Integer, Long> getLoansPerYear() { return loansPerYear; }
+    public SortedMap<YearMonth, Long> getLoansPerMonth() { return loansPerMonth; }
+
+    /** Mean days from borrowing to return over returned loans; 0 if none. */
+    public double getAverageLoanDays() {
+        return returnedLoans == 0 ? 0 : (double) returnedLoanDays / returnedLoans;
+    }
+
+    /** Overdue loans as a fraction of all loans; 0 if none. */
+    public double getOverdueRate() {
+        return totalLoans == 0 ? 0 : (double) overdueLoans / totalLoans;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CirculationReport)) return false;
+        CirculationReport r = (CirculationReport) o;
+        return totalLoans == r.totalLoans && returnedLoans == r.returnedLoans && overdueLoans == r.overdueLoans
+                && returnedLoanDays == r.returnedLoanDays && asOf.equals(r.asOf)
+                && loansPerAuthor.equals(r.loansPerAuthor) && loansPerYear.equals(r.loansPerYear)
+                && loansPerMonth.equals(r.loansPerMonth);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(asOf, totalLoans, returnedLoans, overdueLoans, returnedLoanDays,
+                loansPerAuthor, loansPerYear, loansPerMonth);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CirculationReport(asOf=%s loans=%d open=%d overdue=%d (%.3f) avgLoanDays=%.2f authors=%d years=%d months=%d)",
+                asOf, totalLoans, getOpenLoans(), overdueLoans, getOverdueRate(), getAverageLoanDays(),
+                loansPerAuthor.size(), loansPerYear.size(), loansPerMonth.size());
+    }
+}
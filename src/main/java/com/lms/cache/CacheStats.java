@@ -0,0 +1,46 @@
+package com.lms.cache;
+
+/** Point-in-time counters of a {@link SearchCache}. */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long invalidations;
+    private final long evictions;
+    private final long rejections;
+    private final int entries;
+    private final long weight;
+
+    CacheStats(long hits, long misses, long invalidations, long evictions, long rejections, int entries, long weight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.invalidations = invalidations;
+        this.evictions = evictions;
+        this.rejections = rejections;
+        this.entries = entries;
+        this.weight = weight;
+    }
+
+    public long getHits() { return hits; }
+    /** Lookups that had to search, including those that found a stale entry. */
+    public long getMisses() { return misses; }
+    /** Entries dropped because the catalog fields they depend on changed. */
+    public long getInvalidations() { return invalidations; }
+    /** Cached entries evicted to make room. */
+    public long getEvictions() { return evictions; }
+    /** New results the admission policy turned away in favour of more frequent ones. */
+    public long getRejections() { return rejections; }
+    public int getEntries() { return entries; }
+    /** Total weight held: one per entry plus one per cached book reference. */
+    public long getWeight() { return weight; }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("search.cache hits=%d misses=%d hitRate=%.3f invalidations=%d evictions=%d rejections=%d entries=%d weight=%d",
+                hits, misses, getHitRate(), invalidations, evictions, rejections, entries, weight);
+    }
+}
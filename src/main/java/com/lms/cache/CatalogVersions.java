@@ -0,0 +1,37 @@
+package com.lms.cache;
+
+import com.lms.model.CatalogField;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One change counter per {@link CatalogField}, bumped after each change is
+ * applied. Counters only grow, so a stamp (the sum over some fields) taken
+ * before computing a result differs from any stamp taken after a later
+ * change to one of those fields.
+ *
+ * Thread-safe.
+ */
+public class CatalogVersions {
+    private static final CatalogField[] FIELDS = CatalogField.values();
+
+    private final AtomicLongArray versions = new AtomicLongArray(FIELDS.length);
+
+    public void bump(CatalogField field) {
+        versions.incrementAndGet(field.ordinal());
+    }
+
+    public long version(CatalogField field) {
+        return versions.get(field.ordinal());
+    }
+
+    /** Sum of the fields' versions; CONTENT is always included. */
+    public long stamp(Set<CatalogField> fields) {
+        long stamp = versions.get(CatalogField.CONTENT.ordinal());
+        for (CatalogField field : fields) {
+            if (field != CatalogField.CONTENT) stamp += versions.get(field.ordinal());
+        }
+        return stamp;
+    }
+}
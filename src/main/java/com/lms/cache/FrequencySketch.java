@@ -0,0 +1,76 @@
+package com.lms.cache;
+
+/**
+ * Approximate access counts for cache admission (the TinyLFU part of
+ * W-TinyLFU): a count-min sketch of 4-bit counters, sixteen to a long.
+ *
+ * Each key maps to one counter in each of four rows; its frequency is the
+ * smallest of the four, which over-counts only on collisions. Counters
+ * saturate at 15, and after about ten increments per slot every counter is
+ * halved, so the counts follow recent popularity rather than all-time totals.
+ *
+ * Not thread-safe; the cache calls it under its lock.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+    private static final long HALF_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    /** @param expectedEntries about how many keys the cache holds at once */
+    FrequencySketch(int expectedEntries) {
+        int length = Integer.highestOneBit(Math.max(8, Math.min(expectedEntries, 1 << 24)) - 1) << 1;
+        table = new long[length];
+        sampleSize = 10 * length;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = 15;
+        for (int row = 0; row < 4; row++) {
+            min = Math.min(min, (int) ((table[indexOf(hash, row)] >>> offsetOf(hash, row)) & 15));
+        }
+        return min;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int i = indexOf(hash, row);
+            int offset = offsetOf(hash, row);
+            if (((table[i] >>> offset) & 15) != 15) {
+                table[i] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) halve();
+    }
+
+    // ---------- Internals ----------
+
+    private void halve() {
+        for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & HALF_MASK;
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    // Which of the long's sixteen counters this row uses, as a bit offset
+    private static int offsetOf(int hash, int row) {
+        return ((hash >>> (row << 3)) & 15) << 2;
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
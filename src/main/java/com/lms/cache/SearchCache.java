@@ -0,0 +1,308 @@
+package com.lms.cache;
+
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
+import com.lms.model.Book;
+import com.lms.model.CatalogField;
+import com.lms.strategy.SearchStrategy;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search results, keyed by strategy type, normalized query
+ * and limit, with W-TinyLFU admission and eviction.
+ *
+ * New results enter a small LRU window (1% of the weight). What falls out of
+ * the window joins the main area's probation segment only if a frequency
+ * sketch says it is asked for more often than the entry it would push out;
+ * a second hit promotes a probation entry to the protected segment (80% of
+ * the main area). One-off queries therefore pass through the window without
+ * displacing the skewed head of the traffic. Entries weigh one plus their
+ * number of books.
+ *
+ * Each entry is stamped with the {@link CatalogVersions} of the fields its
+ * strategy depends on ({@link SearchStrategy#dependsOn()}), or of every
+ * field when field-level invalidation is off, and a lookup that finds the
+ * stamp changed drops the entry and searches again. Cached lists are
+ * unmodifiable and hold the live books, so copy counts read from them are
+ * always current.
+ *
+ * Lookups are recorded as the "search.cache" operation: a miss counts as a
+ * failure, so its failure ratio is the miss rate, and its latency includes
+ * the search a miss runs. Thread-safe.
+ */
+public class SearchCache {
+    private static final Set<CatalogField> ALL_FIELDS = Collections.unmodifiableSet(EnumSet.allOf(CatalogField.class));
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final long maxWeight;
+    private final long windowMax;
+    private final long protectedMax;
+    private final boolean fieldLevel;
+    private final FrequencySketch sketch;
+
+    private final Map<Key, Node> entries = new HashMap<>();
+    private final Segment window = new Segment();
+    private final Segment probation = new Segment();
+    private final Segment protectedSegment = new Segment();
+    private long windowWeight;
+    private long protectedWeight;
+    private long totalWeight;
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+    private long rejections;
+    private volatile OperationMetrics metrics = MetricsRegistry.global().operation("search.cache");
+
+    /** A cache of at most {@code maxWeight}, with field-level invalidation. */
+    public SearchCache(long maxWeight) {
+        this(maxWeight, true);
+    }
+
+    /**
+     * @param maxWeight  bound on entries plus cached book references
+     * @param fieldLevel invalidate entries only on changes to the fields their
+     *                   strategy depends on; otherwise on any catalog change
+     */
+    public SearchCache(long maxWeight, boolean fieldLevel) {
+        if (maxWeight <= 0) throw new IllegalArgumentException("maxWeight must be positive");
+        this.maxWeight = maxWeight;
+        this.windowMax = Math.max(1, maxWeight / 100);
+        this.protectedMax = (maxWeight - windowMax) * 4 / 5;
+        this.fieldLevel = fieldLevel;
+        this.sketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, maxWeight / 8));
+    }
+
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics.operation("search.cache");
+    }
+
+    /**
+     * The cached result for the query if it is still current; otherwise runs
+     * the search and offers its result to the cache.
+     */
+    public List<Book> get(SearchStrategy strategy, String query, int limit, CatalogVersions versions,
+                          Supplier<List<Book>> search) {
+        if (query == null) return search.get();
+        long start = System.nanoTime();
+        Key key = new Key(strategy.getClass(), strategy.normalize(query), limit);
+        // Taken before searching: a change that lands during the search leaves the entry stale
+        long stamp = versions.stamp(fieldLevel ? strategy.dependsOn() : ALL_FIELDS);
+        List<Book> cached = lookup(key, stamp);
+        if (cached != null) {
+            metrics.record(start, true);
+            return cached;
+        }
+        List<Book> result = Collections.unmodifiableList(search.get());
+        store(key, result, stamp);
+        metrics.record(start, false);
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowWeight = protectedWeight = totalWeight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, invalidations, evictions, rejections, entries.size(), totalWeight);
+    }
+
+    // ---------- Lookup ----------
+
+    private synchronized List<Book> lookup(Key key, long stamp) {
+        sketch.increment(key);
+        Node node = entries.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        if (node.stamp != stamp) {
+            drop(node);
+            invalidations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        if (node.segment == WINDOW) {
+            window.moveToBack(node);
+        } else if (node.segment == PROBATION) {
+            // Second hit since admission: promote, demoting protected LRUs past its share
+            probation.unlink(node);
+            node.segment = PROTECTED;
+            protectedSegment.append(node);
+            protectedWeight += node.weight;
+            while (protectedWeight > protectedMax && protectedSegment.head != node) {
+                Node demoted = protectedSegment.head;
+                protectedSegment.unlink(demoted);
+                protectedWeight -= demoted.weight;
+                demoted.segment = PROBATION;
+                probation.append(demoted);
+            }
+        } else {
+            protectedSegment.moveToBack(node);
+        }
+        return node.value;
+    }
+
+    // ---------- Admission and eviction ----------
+
+    private synchronized void store(Key key, List<Book> value, long stamp) {
+        long weight = 1L + value.size();
+        if (weight > maxWeight - windowMax) {
+            rejections++;
+            return;
+        }
+        Node existing = entries.get(key);
+        if (existing != null) {
+            if (existing.stamp >= stamp) return;   // a concurrent miss already stored this or newer
+            drop(existing);
+        }
+        Node node = new Node(key, value, weight, stamp);
+        entries.put(key, node);
+        window.append(node);
+        windowWeight += weight;
+        totalWeight += weight;
+        evict();
+    }
+
+    private void evict() {
+        // Window overflow moves to probation, where it has to win admission
+        Node candidate = null;
+        while (windowWeight > windowMax) {
+            Node node = window.head;
+            window.unlink(node);
+            windowWeight -= node.weight;
+            node.segment = PROBATION;
+            probation.append(node);
+            if (candidate == null) candidate = node;
+        }
+        // Each candidate duels the main area's LRU entry; the less frequent one leaves
+        long mainMax = maxWeight - windowMax;
+        while (totalWeight - windowWeight > mainMax) {
+            Node victim = probation.head;
+            if (candidate == null) {
+                drop(victim != null ? victim : protectedSegment.head);
+                evictions++;
+                continue;
+            }
+            if (victim == candidate) victim = protectedSegment.head;
+            if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                drop(victim);
+                evictions++;
+            } else {
+                Node next = candidate.next;
+                drop(candidate);
+                rejections++;
+                candidate = next;
+            }
+        }
+    }
+
+    private void drop(Node node) {
+        entries.remove(node.key);
+        totalWeight -= node.weight;
+        if (node.segment == WINDOW) {
+            window.unlink(node);
+            windowWeight -= node.weight;
+        } else if (node.segment == PROBATION) {
+            probation.unlink(node);
+        } else {
+            protectedSegment.unlink(node);
+            protectedWeight -= node.weight;
+        }
+    }
+
+    // ---------- Internals ----------
+
+    private static final class Key {
+        final Class<?> strategy;
+        final String query;
+        final int limit;
+        final int hash;
+
+        Key(Class<?> strategy, String query, int limit) {
+            this.strategy = strategy;
+            this.query = query;
+            this.limit = limit;
+            this.hash = Objects.hash(strategy, query, limit);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return limit == k.limit && strategy == k.strategy && query.equals(k.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Node {
+        final Key key;
+        final List<Book> value;
+        final long weight;
+        final long stamp;
+        byte segment = WINDOW;
+        Node prev;
+        Node next;
+
+        Node(Key key, List<Book> value, long weight, long stamp) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.stamp = stamp;
+        }
+    }
+
+    // Doubly linked LRU order: head is least recently used
+    private static final class Segment {
+        Node head;
+        Node tail;
+
+        void append(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) head = node;
+            else tail.next = node;
+            tail = node;
+        }
+
+        void unlink(Node node) {
+            if (node.prev == null) head = node.next;
+            else node.prev.next = node.next;
+            if (node.next == null) tail = node.prev;
+            else node.next.prev = node.prev;
+            node.prev = node.next = null;
+        }
+
+        void moveToBack(Node node) {
+            if (tail == node) return;
+            unlink(node);
+            append(node);
+        }
+
+        void clear() {
+            head = tail = null;
+        }
+    }
+}
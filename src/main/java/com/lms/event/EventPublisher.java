@@ -0,0 +1,208 @@
+package com.lms.event;
+
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans library events out to Flow subscribers, each behind its own bounded
+ * buffer and delivered on a daemon thread.
+ *
+ * Subscribers pace themselves with Subscription.request, and publishing
+ * never waits on them, so a checkout or return is never slowed by a
+ * subscriber. When a subscriber has fallen a full buffer behind, events it
+ * can do without are dropped for it, counted, and recorded as failures of
+ * the "events.publish" operation. Events that must arrive
+ * ({@link LibraryEvent#mustDeliver()}, e.g. HoldReady) are queued for that
+ * subscriber instead and offered again every retry interval until its buffer
+ * takes them; they keep their order among themselves but may arrive after
+ * later events of other types.
+ *
+ * Attach it after recovery: journal replay goes through the same methods and
+ * would publish the replayed history again.
+ */
+public class EventPublisher implements EventSink, Flow.Publisher<LibraryEvent>, AutoCloseable {
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+    public static final Duration DEFAULT_RETRY_INTERVAL = Duration.ofMillis(20);
+
+    private final int bufferCapacity;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService retrier;
+    private final List<Channel> channels = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong redelivered = new AtomicLong();
+    private volatile OperationMetrics metrics = MetricsRegistry.global().operation("events.publish");
+    private volatile boolean closed;
+
+    // One subscriber's buffer, and the events it must still be given
+    private static final class Channel {
+        final SubmissionPublisher<LibraryEvent> publisher;
+        final Queue<LibraryEvent> retries = new ConcurrentLinkedQueue<>();
+
+        Channel(SubmissionPublisher<LibraryEvent> publisher) {
+            this.publisher = publisher;
+        }
+    }
+
+    public EventPublisher() {
+        this(DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /** @param bufferCapacity events buffered per subscriber, rounded up to a power of two */
+    public EventPublisher(int bufferCapacity) {
+        this(bufferCapacity, DEFAULT_RETRY_INTERVAL);
+    }
+
+    /**
+     * @param bufferCapacity events buffered per subscriber, rounded up to a power of two
+     * @param retryInterval  how often events that must arrive are offered again to a full buffer
+     */
+    public EventPublisher(int bufferCapacity, Duration retryInterval) {
+        if (bufferCapacity <= 0) throw new IllegalArgumentException("bufferCapacity must be positive");
+        if (retryInterval.isNegative() || retryInterval.isZero()) throw new IllegalArgumentException("retryInterval must be positive");
+        this.bufferCapacity = bufferCapacity;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "event-delivery-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.retrier = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "event-redelivery");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = Math.max(1, retryInterval.toMillis());
+        retrier.scheduleWithFixedDelay(this::redeliver, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics.operation("events.publish");
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super LibraryEvent> subscriber) {
+        SubmissionPublisher<LibraryEvent> publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+        if (closed) publisher.close();
+        publisher.subscribe(subscriber);
+        channels.add(new Channel(publisher));
+    }
+
+    /** Offers the event to every subscriber without waiting; see the class comment for full buffers. */
+    @Override
+    public void publish(LibraryEvent event) {
+        if (closed) return;
+        long start = System.nanoTime();
+        boolean delivered = true;
+        for (Channel channel : channels) {
+            if (!offer(channel, event)) delivered = false;
+        }
+        metrics.record(start, delivered);
+    }
+
+    /** Events dropped so far, counted once per subscriber that missed them. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Events that found a buffer full and were delivered on a later attempt. */
+    public long getRedeliveredCount() {
+        return redelivered.get();
+    }
+
+    /** Events waiting for a full buffer to take them, over all subscribers. */
+    public int getRetryingCount() {
+        int n = 0;
+        for (Channel channel : channels) n += channel.retries.size();
+        return n;
+    }
+
+    public int getSubscriberCount() {
+        int n = 0;
+        for (Channel channel : channels) n += channel.publisher.getNumberOfSubscribers();
+        return n;
+    }
+
+    /** Largest number of events buffered for any one subscriber right now. */
+    public int getMaxLag() {
+        int max = 0;
+        for (Channel channel : channels) max = Math.max(max, channel.publisher.estimateMaximumLag());
+        return max;
+    }
+
+    /**
+     * Makes a last attempt at queued events, delivers what is buffered, then
+     * completes every subscriber. Later events are ignored.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        retrier.shutdownNow();
+        redeliver();
+        for (Channel channel : channels) {
+            dropped.addAndGet(channel.retries.size());
+            channel.retries.clear();
+            channel.publisher.close();
+        }
+        executor.shutdown();
+    }
+
+    // ---------- Internals ----------
+
+    // False if the event was dropped for this channel
+    private boolean offer(Channel channel, LibraryEvent event) {
+        boolean keep = event.mustDeliver();
+        // Behind earlier events still waiting, so those arrive first
+        if (keep && !channel.retries.isEmpty()) {
+            channel.retries.add(event);
+            return true;
+        }
+        int lag;
+        try {
+            lag = channel.publisher.offer(event, null);
+        } catch (IllegalStateException closedMeanwhile) {
+            return true;
+        }
+        if (lag >= 0) return true;
+        if (keep) {
+            channel.retries.add(event);
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    // Synchronized because close() runs a last pass while the retrier's may
+    // still be going; two passes could each offer the same queue head
+    private synchronized void redeliver() {
+        for (Channel channel : channels) {
+            if (channel.publisher.isClosed() || !channel.publisher.hasSubscribers()) {
+                // The subscriber cancelled; nobody is left to deliver to
+                channels.remove(channel);
+                continue;
+            }
+            for (LibraryEvent event = channel.retries.peek(); event != null; event = channel.retries.peek()) {
+                try {
+                    if (channel.publisher.offer(event, null) < 0) break;
+                } catch (IllegalStateException closedMeanwhile) {
+                    break;
+                }
+                channel.retries.poll();
+                redelivered.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.lms.event;
+
+/**
+ * Where Library, LendingService and ReservationService publish their
+ * events. Called on the mutating thread, often under a lock, so
+ * implementations must not block.
+ */
+@FunctionalInterface
+public interface EventSink {
+
+    EventSink NONE = event -> { };
+
+    void publish(LibraryEvent event);
+}
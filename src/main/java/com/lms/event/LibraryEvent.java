@@ -0,0 +1,131 @@
+package com.lms.event;
+
+import com.lms.model.Book;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Something that happened in the library, published after the change is
+ * made. Events are immutable; each type below carries the ids it concerns.
+ */
+public abstract class LibraryEvent {
+    private final String isbn;
+    private final Instant occurredAt = Instant.now();
+
+    LibraryEvent(String isbn) {
+        this.isbn = Objects.requireNonNull(isbn);
+    }
+
+    public String getIsbn() { return isbn; }
+    public Instant getOccurredAt() { return occurredAt; }
+
+    /**
+     * Whether a subscriber that is too far behind to take the event now must
+     * still get it later, rather than lose it.
+     */
+    public boolean mustDeliver() { return false; }
+
+    /** A book was added to the catalog. */
+    public static final class BookAdded extends LibraryEvent {
+        private final String title;
+
+        public BookAdded(Book book) {
+            super(book.getIsbn());
+            this.title = book.getTitle();
+        }
+
+        public String getTitle() { return title; }
+
+        @Override
+        public String toString() {
+            return "BookAdded(" + getIsbn() + ", " + title + ")";
+        }
+    }
+
+    /** A patron took a copy home. */
+    public static final class CheckedOut extends LibraryEvent {
+        private final String patronId;
+
+        public CheckedOut(String patronId, String isbn) {
+            super(isbn);
+            this.patronId = Objects.requireNonNull(patronId);
+        }
+
+        public String getPatronId() { return patronId; }
+
+        @Override
+        public String toString() {
+            return "CheckedOut(" + patronId + ", " + getIsbn() + ")";
+        }
+    }
+
+    /**
+     * A patron brought a copy back; held means it went straight to a waiting
+     * patron's hold, whose HoldReady is published just before this event.
+     */
+    public static final class Returned extends LibraryEvent {
+        private final String patronId;
+        private final boolean held;
+
+        public Returned(String patronId, String isbn, boolean held) {
+            super(isbn);
+            this.patronId = Objects.requireNonNull(patronId);
+            this.held = held;
+        }
+
+        public String getPatronId() { return patronId; }
+        public boolean isHeld() { return held; }
+
+        @Override
+        public String toString() {
+            return "Returned(" + patronId + ", " + getIsbn() + (held ? ", held)" : ")");
+        }
+    }
+
+    /** A patron joined the reservation queue for a book. */
+    public static final class Reserved extends LibraryEvent {
+        private final String patronId;
+
+        public Reserved(String patronId, String isbn) {
+            super(isbn);
+            this.patronId = Objects.requireNonNull(patronId);
+        }
+
+        public String getPatronId() { return patronId; }
+
+        @Override
+        public String toString() {
+            return "Reserved(" + patronId + ", " + getIsbn() + ")";
+        }
+    }
+
+    /**
+     * A copy is waiting for a patron who reserved it: held until expiresAt,
+     * or, with no expiry (a ReservationService without a Library), simply
+     * back on the shelf.
+     */
+    public static final class HoldReady extends LibraryEvent {
+        private final String patronId;
+        private final Instant expiresAt;
+
+        public HoldReady(String patronId, String isbn, Instant expiresAt) {
+            super(isbn);
+            this.patronId = Objects.requireNonNull(patronId);
+            this.expiresAt = expiresAt;
+        }
+
+        public String getPatronId() { return patronId; }
+        /** When the hold lapses; null if the copy was not held. */
+        public Instant getExpiresAt() { return expiresAt; }
+
+        /** The patron has to hear about the copy before the hold lapses. */
+        @Override
+        public boolean mustDeliver() { return true; }
+
+        @Override
+        public String toString() {
+            return "HoldReady(" + patronId + ", " + getIsbn() + (expiresAt == null ? ")" : ", until " + expiresAt + ")");
+        }
+    }
+}
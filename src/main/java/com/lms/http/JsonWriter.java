@@ -0,0 +1,136 @@
+package com.lms.http;
+
+import com.lms.model.Book;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming JSON writer: values go straight to the underlying
+ * writer as they are produced, so a large result set is never held as one
+ * string. Only what the server emits is supported (objects, arrays,
+ * strings, numbers and booleans); nesting is tracked just far enough to
+ * place commas.
+ */
+final class JsonWriter {
+    private static final int MAX_DEPTH = 32;
+
+    private final Writer out;
+    // Per nesting level: whether the next value needs a leading comma
+    private final boolean[] needsComma = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    JsonWriter name(String name) throws IOException {
+        separate();
+        quote(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) out.write("null");
+        else quote(value);
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /** A book as one object, with its live copy counts. */
+    JsonWriter book(Book book) throws IOException {
+        return beginObject()
+                .name("isbn").value(book.getIsbn())
+                .name("title").value(book.getTitle())
+                .name("author").value(book.getAuthor())
+                .name("year").value(book.getPublicationYear())
+                .name("availableCopies").value(book.getAvailableCopies())
+                .name("totalCopies").value(book.getTotalCopies())
+                .name("timesBorrowed").value(book.getTimesBorrowed())
+                .endObject();
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    // ---------- Internals ----------
+
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        if (depth == MAX_DEPTH) throw new IllegalStateException("JSON nested too deeply");
+        out.write(bracket);
+        needsComma[depth++] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) throw new IllegalStateException("Nothing to close");
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    // A comma before every value but the first at its level; none after a name
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth == 0) return;
+        if (needsComma[depth - 1]) out.write(',');
+        needsComma[depth - 1] = true;
+    }
+
+    private void quote(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            out.write(s, start, i - start);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default: out.write(String.format("\\u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        out.write(s, start, s.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,318 @@
+package com.lms.http;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.RecommendationService;
+import com.lms.service.ReservationService;
+import com.lms.strategy.IndexedSearchByTitle;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HTTP/JSON front end for the library services, on the JDK's built-in
+ * server, with one (virtual, where the JDK has them) thread per request.
+ *
+ * <pre>
+ * GET  /books?offset=0&amp;limit=100              catalog page
+ * GET  /books/search?q=java&amp;limit=20          active search strategy
+ * POST /loans/checkout?patron=P1&amp;isbn=123
+ * POST /loans/return?patron=P1&amp;isbn=123
+ * POST /reservations?patron=P1&amp;isbn=123
+ * POST /reservations/cancel?patron=P1&amp;isbn=123
+ * GET  /patrons/P1/recommendations
+ * </pre>
+ *
+ * Book lists are written to the response as they are serialized, in
+ * chunks, so large results are never built up as one string. If one fails
+ * part way, the error is logged and the connection dropped, so the client
+ * sees a broken response rather than a short 200. Checkout and
+ * return answer 409 when the library refuses; unknown patrons are 404 and
+ * missing parameters 400, each with an {"error": ...} body.
+ *
+ * Binds to the loopback address; put a proxy in front to expose it.
+ */
+public class LibraryHttpServer implements AutoCloseable {
+    private static final int MAX_PLATFORM_THREADS = 256;
+    private static final int WRITE_BUFFER = 8192;
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, the
+        // body waits for the client's delayed ACK (about 40 ms per request).
+        // Read once, when the first server in the JVM is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Logger logger = Logger.getLogger(LibraryHttpServer.class.getName());
+
+    private final Library library;
+    private final LendingService lending;
+    private final ReservationService reservations;
+    private final RecommendationService recommendations;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /** Listens on the loopback port (0 picks a free one) and starts serving. */
+    public LibraryHttpServer(Library library, LendingService lending, ReservationService reservations,
+                             RecommendationService recommendations, int port) throws IOException {
+        this.library = Objects.requireNonNull(library);
+        this.lending = Objects.requireNonNull(lending);
+        this.reservations = Objects.requireNonNull(reservations);
+        this.recommendations = Objects.requireNonNull(recommendations);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = RequestExecutors.perRequest(MAX_PLATFORM_THREADS);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /** Wires the services over one library, with holds routed through reservations. */
+    public static LibraryHttpServer over(Library library, int port) throws IOException {
+        LendingService lending = new LendingService(library);
+        ReservationService reservations = new ReservationService(library);
+        lending.setReservationService(reservations);
+        return new LibraryHttpServer(library, lending, reservations, new RecommendationService(library), port);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Serves an empty library with an indexed title search on the given port until the process is killed. */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) throw new IllegalArgumentException("usage: LibraryHttpServer <port>");
+        Library library = new Library();
+        library.setSearchStrategy(new IndexedSearchByTitle());
+        LibraryHttpServer server = over(library, Integer.parseInt(args[0]));
+        server.logger.info(() -> "Library HTTP server listening on port " + server.port());
+        new CountDownLatch(1).await();
+    }
+
+    /** Stops accepting, gives in-flight requests a second to finish, and stops the request threads. */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    // ---------- Routing ----------
+
+    private void handle(HttpExchange exchange) throws IOException {
+        ResponseBody body = new ResponseBody(exchange.getResponseBody());
+        exchange.setStreams(null, body);
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (HttpError e) {
+                fail(exchange, body, e.status, e.getMessage(), e);
+            } catch (NoSuchElementException e) {
+                fail(exchange, body, 404, e.getMessage(), e);
+            } catch (IllegalArgumentException e) {
+                fail(exchange, body, 400, e.getMessage(), e);
+            } catch (RuntimeException e) {
+                fail(exchange, body, 500, "Internal error", e);
+            }
+        }
+    }
+
+    // Once the headers are out the status can no longer change: abort, so the
+    // client sees a broken response rather than a short one that ends cleanly
+    private void fail(HttpExchange exchange, ResponseBody body, int status, String message, RuntimeException cause)
+            throws IOException {
+        if (exchange.getResponseCode() >= 0) {
+            logger.log(Level.WARNING, "Response aborted after headers were sent: " + exchange.getRequestURI(), cause);
+            body.abort();
+            return;
+        }
+        if (status == 500) logger.log(Level.WARNING, "Request failed: " + exchange.getRequestURI(), cause);
+        sendError(exchange, status, message);
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> params = params(exchange.getRequestURI().getRawQuery());
+        switch (path) {
+            case "/books":
+                requireMethod(exchange, "GET");
+                listBooks(exchange, params);
+                return;
+            case "/books/search":
+                requireMethod(exchange, "GET");
+                sendBooks(exchange, library.searchBooks(required(params, "q"), intParam(params, "limit", Integer.MAX_VALUE)));
+                return;
+            case "/loans/checkout":
+                requireMethod(exchange, "POST");
+                sendOutcome(exchange, lending.checkoutBook(patronOf(params).getId(), required(params, "isbn")));
+                return;
+            case "/loans/return":
+                requireMethod(exchange, "POST");
+                sendOutcome(exchange, lending.returnBook(patronOf(params).getId(), required(params, "isbn")));
+                return;
+            case "/reservations":
+                requireMethod(exchange, "POST");
+                reservations.reserveBook(required(params, "isbn"), patronOf(params));
+                sendOutcome(exchange, true);
+                return;
+            case "/reservations/cancel":
+                requireMethod(exchange, "POST");
+                sendOutcome(exchange, reservations.cancelReservation(required(params, "isbn"), patronOf(params).getId()));
+                return;
+            default:
+                if (path.startsWith("/patrons/") && path.endsWith("/recommendations")) {
+                    requireMethod(exchange, "GET");
+                    String patronId = path.substring("/patrons/".length(), path.length() - "/recommendations".length());
+                    if (library.getPatron(patronId).isEmpty()) throw new NoSuchElementException("Patron not found: " + patronId);
+                    sendBooks(exchange, recommendations.recommendBooks(patronId));
+                    return;
+                }
+                throw new HttpError(404, "No such resource: " + path);
+        }
+    }
+
+    // Pages through the shared catalog snapshot without copying it
+    private void listBooks(HttpExchange exchange, Map<String, String> params) throws IOException {
+        int offset = intParam(params, "offset", 0);
+        int limit = intParam(params, "limit", Integer.MAX_VALUE);
+        List<Book> all = library.getAllBooks();
+        int from = Math.min(offset, all.size());
+        sendBooks(exchange, all.subList(from, (int) Math.min(all.size(), (long) from + limit)));
+    }
+
+    // ---------- Responses ----------
+
+    // Closed only on success: closing after a failure would end the chunked body as if complete
+    private void sendBooks(HttpExchange exchange, List<Book> books) throws IOException {
+        Writer body = openJson(exchange, 200);
+        JsonWriter json = new JsonWriter(body);
+        json.beginArray();
+        for (Book book : books) json.book(book);
+        json.endArray();
+        body.close();
+    }
+
+    private void sendOutcome(HttpExchange exchange, boolean ok) throws IOException {
+        try (Writer body = openJson(exchange, ok ? 200 : 409)) {
+            new JsonWriter(body).beginObject().name("ok").value(ok).endObject();
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (Writer body = openJson(exchange, status)) {
+            new JsonWriter(body).beginObject().name("error").value(message).endObject();
+        }
+    }
+
+    // Length 0 selects chunked encoding, so the body streams as it is written
+    private static Writer openJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), WRITE_BUFFER);
+    }
+
+    // ---------- Parameters ----------
+
+    private static Map<String, String> params(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) throw new IllegalArgumentException("Missing parameter: " + name);
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) return defaultValue;
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + name + "=" + value);
+        }
+        if (parsed < 0) throw new IllegalArgumentException(name + " must not be negative");
+        return parsed;
+    }
+
+    private Patron patronOf(Map<String, String> params) {
+        String id = required(params, "patron");
+        Optional<Patron> patron = library.getPatron(id);
+        return patron.orElseThrow(() -> new NoSuchElementException("Patron not found: " + id));
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            throw new HttpError(405, "Use " + method);
+        }
+    }
+
+    // The exchange's response stream; an aborted one fails to close, which
+    // makes the server drop the connection instead of ending the body
+    private static final class ResponseBody extends FilterOutputStream {
+        private boolean aborted;
+
+        ResponseBody(OutputStream out) {
+            super(out);
+        }
+
+        void abort() {
+            aborted = true;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (aborted) throw new IOException("Response aborted");
+            super.close();
+        }
+    }
+
+    // An error with its HTTP status
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.lms.http;
+
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
+import com.lms.metrics.OperationStats;
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.Library;
+import com.lms.strategy.IndexedSearchByTitle;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Closed-loop load test for {@link LibraryHttpServer}: starts a server over
+ * a generated catalog on a free loopback port, then runs worker threads
+ * that each send one request at a time for the given duration, and prints
+ * throughput and per-operation latency percentiles.
+ *
+ * <pre>
+ * java -cp library.jar com.lms.http.LoadGenerator [workers] [seconds] [books] [patrons]
+ * </pre>
+ *
+ * The mix is 60% title searches, 15% checkouts, 15% returns of a book the
+ * worker's patron holds, 5% reserve-or-cancel and 5% recommendations. The
+ * first quarter of the run is warm-up and is not reported.
+ */
+public class LoadGenerator {
+    private static final String[] WORDS = {
+        "java", "history", "garden", "river", "night", "city", "ocean", "music",
+        "winter", "empire", "stone", "light", "shadow", "forest", "journey", "code",
+    };
+
+    private final int workers;
+    private final Duration duration;
+    private final int books;
+    private final int patrons;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    public LoadGenerator(int workers, Duration duration, int books, int patrons) {
+        if (workers <= 0 || books <= 0 || patrons <= 0) throw new IllegalArgumentException("counts must be positive");
+        if (duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("duration must be positive");
+        this.workers = workers;
+        this.duration = duration;
+        this.books = books;
+        this.patrons = patrons;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int books = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int patrons = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+        new LoadGenerator(workers, Duration.ofSeconds(seconds), books, patrons).run();
+    }
+
+    /** Runs the load and prints the report to standard out. */
+    public void run() throws Exception {
+        Library library = new Library();
+        library.setSearchStrategy(new IndexedSearchByTitle());
+        populate(library);
+        try (LibraryHttpServer server = LibraryHttpServer.over(library, 0)) {
+            String base = "http://127.0.0.1:" + server.port();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            long warmupNanos = duration.toNanos() / 4;
+            long start = System.nanoTime();
+            AtomicBoolean measuring = new AtomicBoolean();
+            CountDownLatch done = new CountDownLatch(workers);
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                Worker worker = new Worker(w, base, client, start + duration.toNanos(), measuring);
+                Thread t = new Thread(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        done.countDown();
+                    }
+                }, "load-" + w);
+                t.setDaemon(true);
+                threads.add(t);
+            }
+            threads.forEach(Thread::start);
+            Thread.sleep(warmupNanos / 1_000_000);
+            metrics.reset();
+            measuring.set(true);
+            long measureStart = System.nanoTime();
+            done.await();
+            double seconds = (System.nanoTime() - measureStart) / 1e9;
+            report(seconds);
+        }
+    }
+
+    private void report(double seconds) {
+        long calls = 0;
+        long failures = 0;
+        List<OperationStats> stats = metrics.snapshot();
+        for (OperationStats s : stats) {
+            calls += s.getCalls();
+            failures += s.getFailures();
+        }
+        System.out.printf("workers=%d books=%d patrons=%d measured=%.1fs%n", workers, books, patrons, seconds);
+        System.out.printf("throughput=%.0f req/s requests=%d refused=%d%n", calls / seconds, calls, failures);
+        for (OperationStats s : stats) System.out.println(s);
+    }
+
+    private void populate(Library library) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Book> catalog = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            catalog.add(new Book(isbn(i), title, "Author " + random.nextInt(books / 10 + 1),
+                    1950 + random.nextInt(75), 1 + random.nextInt(3)));
+        }
+        library.addBooks(catalog);
+        for (int p = 0; p < patrons; p++) library.addPatron(new Patron("P" + p, "Patron " + p, "p" + p + "@example.org"));
+    }
+
+    private static String isbn(int i) {
+        return String.format("978%010d", i);
+    }
+
+    // One closed-loop client, acting for a random patron per request
+    private final class Worker {
+        private final SplittableRandom random;
+        private final String base;
+        private final HttpClient client;
+        private final long endNanos;
+        private final AtomicBoolean measuring;
+        private final List<String[]> held = new ArrayList<>();   // {patron, isbn} this worker checked out
+
+        private final OperationMetrics search = metrics.operation("http.search");
+        private final OperationMetrics checkout = metrics.operation("http.checkout");
+        private final OperationMetrics giveBack = metrics.operation("http.return");
+        private final OperationMetrics reserve = metrics.operation("http.reserve");
+        private final OperationMetrics recommend = metrics.operation("http.recommend");
+
+        Worker(int id, String base, HttpClient client, long endNanos, AtomicBoolean measuring) {
+            this.random = new SplittableRandom(1000 + id);
+            this.base = base;
+            this.client = client;
+            this.endNanos = endNanos;
+            this.measuring = measuring;
+        }
+
+        void run() {
+            while (System.nanoTime() < endNanos) {
+                try {
+                    step();
+                } catch (Exception e) {
+                    Logger.getLogger(LoadGenerator.class.getName()).log(Level.WARNING, "Request failed", e);
+                    return;
+                }
+            }
+        }
+
+        private void step() throws Exception {
+            int roll = random.nextInt(100);
+            String patron = "P" + random.nextInt(patrons);
+            String isbn = isbn(random.nextInt(books));
+            if (roll < 60) {
+                send(search, "GET", "/books/search?q=" + WORDS[random.nextInt(WORDS.length)] + "&limit=20");
+            } else if (roll < 75 || (roll < 90 && held.isEmpty())) {
+                if (send(checkout, "POST", "/loans/checkout?patron=" + patron + "&isbn=" + isbn)) {
+                    held.add(new String[] { patron, isbn });
+                }
+            } else if (roll < 90) {
+                String[] loan = held.remove(random.nextInt(held.size()));
+                send(giveBack, "POST", "/loans/return?patron=" + loan[0] + "&isbn=" + loan[1]);
+            } else if (roll < 95) {
+                String path = random.nextBoolean() ? "/reservations?" : "/reservations/cancel?";
+                send(reserve, "POST", path + "patron=" + patron + "&isbn=" + isbn);
+            } else {
+                send(recommend, "GET", "/patrons/" + patron + "/recommendations");
+            }
+        }
+
+        // True on a 2xx answer; refusals (409) count as failed calls in the report
+        private boolean send(OperationMetrics op, String method, String path) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            boolean ok = response.statusCode() / 100 == 2;
+            if (measuring.get()) op.record(start, ok);
+            return ok;
+        }
+    }
+}
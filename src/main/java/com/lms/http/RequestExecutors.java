@@ -0,0 +1,55 @@
+package com.lms.http;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Executors that run each HTTP request on its own thread.
+ *
+ * On a JDK with virtual threads (21+) every request gets a virtual thread,
+ * so a request blocked on a lock or the journal costs almost nothing. The
+ * library targets Java 17, so that executor is looked up reflectively; on
+ * older JDKs requests run on a cached pool of daemon platform threads,
+ * capped at {@code maxPlatformThreads}, beyond which the server's dispatcher
+ * runs the request itself and so stops accepting until a thread frees up.
+ */
+final class RequestExecutors {
+    private static final Logger logger = Logger.getLogger(RequestExecutors.class.getName());
+
+    private RequestExecutors() {
+    }
+
+    static ExecutorService perRequest(int maxPlatformThreads) {
+        if (maxPlatformThreads <= 0) throw new IllegalArgumentException("maxPlatformThreads must be positive");
+        ExecutorService virtual = virtualThreadPerTask();
+        if (virtual != null) {
+            logger.fine("Serving requests on virtual threads");
+            return virtual;
+        }
+        logger.fine(() -> "Virtual threads unavailable, serving requests on up to "
+                + maxPlatformThreads + " platform threads");
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(0, maxPlatformThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "http-request-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor() when the running JDK has it, else null. */
+    static ExecutorService virtualThreadPerTask() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Absent before JDK 21 (or a preview feature that is not enabled)
+            return null;
+        }
+    }
+}
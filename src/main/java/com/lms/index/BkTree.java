@@ -0,0 +1,127 @@
+package com.lms.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Burkhard-Keller tree over words, by Levenshtein distance.
+ *
+ * Each child hangs off its parent at its distance from the parent's word; by
+ * the triangle inequality a search within distance d only descends into
+ * children at parent distance [dq - d, dq + d], which prunes most of the
+ * vocabulary for small d. Words are only ever added; the owner skips words
+ * that no longer occur and rebuilds the tree when they pile up.
+ *
+ * Not thread-safe; the owning index guards it.
+ */
+final class BkTree {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        final String word;
+        int[] distances = new int[0];
+        Node[] children = NO_CHILDREN;
+
+        Node(String word) {
+            this.word = word;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < distances.length; i++) if (distances[i] == distance) return children[i];
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            int n = distances.length;
+            distances = Arrays.copyOf(distances, n + 1);
+            children = Arrays.copyOf(children, n + 1);
+            distances[n] = distance;
+            children[n] = child;
+        }
+    }
+
+    interface Visitor {
+        void visit(String word, int distance);
+    }
+
+    private Node root;
+    private int size;
+
+    int size() { return size; }
+
+    void add(String word) {
+        if (root == null) {
+            root = new Node(word);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int d = distance(word, node.word, Integer.MAX_VALUE);
+            if (d == 0) return;
+            Node child = node.child(d);
+            if (child == null) {
+                node.addChild(d, new Node(word));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /** Visits every word within maxDistance of the query. */
+    void search(String query, int maxDistance, Visitor visitor) {
+        if (root == null) return;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            // Exact distance is only needed up to the widest child band we could descend into
+            int d = distance(query, node.word, maxDistance + maxChildDistance(node));
+            if (d <= maxDistance) visitor.visit(node.word, d);
+            for (int i = 0; i < node.distances.length; i++) {
+                if (Math.abs(node.distances[i] - d) <= maxDistance) pending.push(node.children[i]);
+            }
+        }
+    }
+
+    void clear() {
+        root = null;
+        size = 0;
+    }
+
+    private static int maxChildDistance(Node node) {
+        int max = 0;
+        for (int d : node.distances) max = Math.max(max, d);
+        return max;
+    }
+
+    /**
+     * Levenshtein distance, or any value above {@code bound} once the distance
+     * is known to exceed it (two-row DP with an early exit).
+     */
+    static int distance(String a, String b, int bound) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > bound) return bound + 1;
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > bound) return bound + 1;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[m];
+    }
+}
@@ -0,0 +1,32 @@
+package com.lms.index;
+
+import com.lms.model.Book;
+
+import java.util.Collection;
+
+/**
+ * A secondary structure over the catalog that the Library keeps up to date
+ * as books are added, updated and removed.
+ */
+public interface BookIndex {
+
+    /** Indexes the book, replacing any previous entry for the same ISBN. */
+    void add(Book book);
+
+    /** Indexes a batch; implementations may do the per-book work outside their lock. */
+    default void addAll(Collection<Book> books) {
+        for (Book book : books) add(book);
+    }
+
+    /**
+     * Called after each borrow of the book, once its timesBorrowed has been
+     * incremented, for indexes that rank by popularity.
+     */
+    default void borrowed(Book book) { }
+
+    /** Drops the entry for the ISBN, if present. */
+    void remove(String isbn);
+
+    /** Drops every entry. */
+    void clear();
+}
@@ -0,0 +1,179 @@
+package com.lms.index;
+
+import com.lms.model.Book;
+import com.lms.util.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Misspelling-tolerant search over the words of one Book field.
+ *
+ * The field's distinct words sit in a BK-tree, each with the postings of the
+ * books that use it. Every query word matches indexed words within
+ * {@link #maxEdits} edits ("tolkein" finds "tolkien"); a book matches when
+ * every query word does, and costs the sum of its best edit distances.
+ * Results are ordered by cost, then timesBorrowed, then ISBN.
+ */
+public class FuzzyIndex extends WordIndex {
+    // Rebuild the BK-tree once it holds this many more words than are in use
+    private static final int STALE_WORDS_BEFORE_REBUILD = 1024;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final BkTree tree = new BkTree();
+
+    public FuzzyIndex(Function<Book, String> field) {
+        super(field);
+    }
+
+    /** Edits tolerated for a query word: none up to 2 characters, 1 up to 5, then 2. */
+    public static int maxEdits(String word) {
+        if (word.length() <= 2) return 0;
+        return word.length() <= 5 ? 1 : 2;
+    }
+
+    // ---------- Queries ----------
+
+    /**
+     * Best matches for the (possibly misspelled) query, at most {@code limit}.
+     *
+     * @param catalog resolves an ISBN to the live Book
+     */
+    public List<Book> search(String query, int limit, Function<String, Optional<Book>> catalog) {
+        if (query == null || limit <= 0) return List.of();
+        String[] queryWords = wordsOf(query);
+        if (queryWords.length == 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Ranking best = new Ranking(limit);
+            if (queryWords.length == 1) {
+                // Matching words nearest first, so a book's first appearance is at its
+                // lowest cost and later ones can be skipped; nothing is materialized
+                List<String> matched = new ArrayList<>();
+                List<Integer> distances = new ArrayList<>();
+                tree.search(queryWords[0], maxEdits(queryWords[0]), (word, distance) -> {
+                    if (!postings.containsKey(word)) return;   // no longer used by any book
+                    matched.add(word);
+                    distances.add(distance);
+                });
+                Integer[] order = new Integer[matched.size()];
+                for (int i = 0; i < order.length; i++) order[i] = i;
+                Arrays.sort(order, Comparator.comparingInt(distances::get));
+                for (int i : order) {
+                    Postings p = postings.get(matched.get(i));
+                    int distance = distances.get(i);
+                    for (int j = 0; j < p.size(); j++) best.offer(p.get(j), distance);
+                }
+                return best.resolve(catalog);
+            }
+
+            IntIntHashMap costs = null;   // doc -> summed edit distance so far
+            for (String queryWord : queryWords) {
+                IntIntHashMap matches = new IntIntHashMap();
+                tree.search(queryWord, maxEdits(queryWord), (word, distance) -> {
+                    Postings p = postings.get(word);
+                    if (p == null) return;
+                    for (int i = 0; i < p.size(); i++) {
+                        int doc = p.get(i);
+                        if (matches.get(doc, Integer.MAX_VALUE) > distance) matches.put(doc, distance);
+                    }
+                });
+                costs = costs == null ? matches : intersect(costs, matches);
+                if (costs.isEmpty()) return List.of();
+            }
+            costs.forEach(best::offer);
+            return best.resolve(catalog);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Orders an already materialized list with the same semantics as
+     * {@link #search}. Used when a caller hands a plain list of books to a
+     * fuzzy strategy.
+     */
+    public static List<Book> scan(List<Book> books, String query, int limit, Function<Book, String> field) {
+        if (query == null || limit <= 0) return List.of();
+        String[] queryWords = wordsOf(query);
+        if (queryWords.length == 0) return List.of();
+        List<Book> matches = new ArrayList<>();
+        Map<Book, Integer> costs = new HashMap<>();
+        for (Book book : books) {
+            String[] bookWords = wordsOf(field.apply(book));
+            int total = 0;
+            for (String queryWord : queryWords) {
+                int bound = maxEdits(queryWord);
+                int best = bound + 1;
+                for (String word : bookWords) best = Math.min(best, BkTree.distance(queryWord, word, bound));
+                if (best > bound) {
+                    total = -1;
+                    break;
+                }
+                total += best;
+            }
+            if (total >= 0) {
+                matches.add(book);
+                costs.put(book, total);
+            }
+        }
+        matches.sort(Comparator.comparingInt((Book b) -> costs.get(b))
+                .thenComparing(Comparator.comparingInt(Book::getTimesBorrowed).reversed())
+                .thenComparing(Book::getIsbn));
+        return matches.size() <= limit ? matches : new ArrayList<>(matches.subList(0, limit));
+    }
+
+    private static IntIntHashMap intersect(IntIntHashMap costs, IntIntHashMap matches) {
+        IntIntHashMap both = new IntIntHashMap(Math.min(costs.size(), matches.size()));
+        IntIntHashMap smaller = costs.size() <= matches.size() ? costs : matches;
+        IntIntHashMap larger = smaller == costs ? matches : costs;
+        smaller.forEach((doc, cost) -> {
+            int other = larger.get(doc, -1);
+            if (other >= 0) both.put(doc, cost + other);
+        });
+        return both;
+    }
+
+    // ---------- Maintenance ----------
+    @Override
+    void indexWord(int doc, String word) {
+        Postings p = postings.get(word);
+        if (p == null) {
+            p = new Postings();
+            postings.put(word, p);
+            tree.add(word);   // no-op if the tree still has it from earlier
+        }
+        p.add(doc);
+    }
+
+    @Override
+    void unindexWord(int doc, String word) {
+        Postings p = postings.get(word);
+        if (p == null) return;
+        p.remove(doc);
+        if (!p.isEmpty()) return;
+        postings.remove(word);
+        if (tree.size() - postings.size() > Math.max(STALE_WORDS_BEFORE_REBUILD, postings.size())) {
+            tree.clear();
+            for (String w : postings.keySet()) tree.add(w);
+        }
+    }
+
+    @Override
+    void scoreIncreased(int doc) {
+        // Scores are read at query time; nothing is precomputed
+    }
+
+    @Override
+    void clearWords() {
+        postings.clear();
+        tree.clear();
+    }
+}
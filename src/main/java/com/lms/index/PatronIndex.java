@@ -0,0 +1,217 @@
+package com.lms.index;
+
+import com.lms.model.Patron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Secondary indexes over patrons: a unique hash index on normalized email
+ * (trimmed, lower-cased) and a sorted index of name words for prefix
+ * lookups, so "ann smi" finds Ann Smith and Annabel Smithers.
+ *
+ * A name lookup range-scans the words starting with the most selective
+ * query word (the one with the fewest patrons under its prefix) and checks
+ * each candidate's other words. Both the selectivity estimate and the scan
+ * stop after {@link #MAX_CANDIDATES} patron ids, so a lookup costs
+ * O(log words + MAX_CANDIDATES) however many patrons there are. A query
+ * made only of very common prefixes (e.g. "a b") can therefore return fewer
+ * than limit matches when its matches are rare among those candidates;
+ * a single word returns as soon as limit patrons start with it.
+ * Blank emails and names are not indexed.
+ *
+ * Writes are serialized by the index's monitor; lookups read the concurrent
+ * maps without locking. Registered as each patron's
+ * {@link Patron.ChangeListener}, it follows setName/setEmail and refuses an
+ * email another patron already has. The index never takes a patron's lock.
+ */
+public class PatronIndex implements Patron.ChangeListener {
+    /** Most patron ids a name lookup examines. */
+    public static final int MAX_CANDIDATES = 10_000;
+
+    private final Map<String, String> idByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<String>> idsByNameWord = new ConcurrentSkipListMap<>();
+    private final Map<String, String[]> nameWordsById = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the patron. Strict indexing refuses an email another patron
+     * has; otherwise the email stays with its first owner and this patron is
+     * simply not found by it (for records written before emails were unique).
+     *
+     * @throws IllegalArgumentException strict, and the email is taken
+     */
+    public synchronized void add(Patron patron, boolean strict) {
+        claimEmail(emailKey(patron.getEmail()), patron.getId(), strict);
+        indexName(patron.getId(), nameWords(patron.getName()));
+    }
+
+    /** Swaps the indexed entries of a patron for those of its replacement (same id). */
+    public synchronized void replace(Patron old, Patron patron, boolean strict) {
+        String id = patron.getId();
+        String oldKey = emailKey(old.getEmail());
+        String newKey = emailKey(patron.getEmail());
+        if (!newKey.equals(oldKey)) {
+            claimEmail(newKey, id, strict);
+            if (!oldKey.isEmpty()) idByEmail.remove(oldKey, id);
+        }
+        unindexName(id);
+        indexName(id, nameWords(patron.getName()));
+    }
+
+    public synchronized void remove(Patron patron) {
+        String key = emailKey(patron.getEmail());
+        if (!key.isEmpty()) idByEmail.remove(key, patron.getId());
+        unindexName(patron.getId());
+    }
+
+    /** Keeps the indexes in step with setName/setEmail on a registered patron. */
+    @Override
+    public synchronized void changing(Patron patron, String name, String email) {
+        String id = patron.getId();
+        String oldKey = emailKey(patron.getEmail());
+        String newKey = emailKey(email);
+        if (!newKey.equals(oldKey)) {
+            claimEmail(newKey, id, true);
+            if (!oldKey.isEmpty()) idByEmail.remove(oldKey, id);
+        }
+        String[] words = nameWords(name);
+        if (!Arrays.equals(words, nameWordsById.get(id))) {
+            unindexName(id);
+            indexName(id, words);
+        }
+    }
+
+    // ---------- Lookups ----------
+
+    /** Id of the patron with this email, compared trimmed and case-insensitively. */
+    public Optional<String> idForEmail(String email) {
+        String key = emailKey(email);
+        return key.isEmpty() ? Optional.empty() : Optional.ofNullable(idByEmail.get(key));
+    }
+
+    /**
+     * Ids of patrons with a name word starting with each word of the query,
+     * case-insensitively, at most limit of them, in order of the matching
+     * word. Examines at most MAX_CANDIDATES patrons (see the class comment).
+     */
+    public List<String> idsForName(String query, int limit) {
+        String[] wanted = nameWords(query);
+        if (wanted.length == 0 || limit <= 0) return List.of();
+        // The longest word when every word is past the cap
+        String lead = wanted[0];
+        for (String w : wanted) if (w.length() > lead.length()) lead = w;
+        long best = MAX_CANDIDATES;
+        for (String w : wanted) {
+            long candidates = candidates(w, best);
+            if (candidates < best) {
+                best = candidates;
+                lead = w;
+            }
+        }
+
+        Set<String> out = new LinkedHashSet<>();
+        int scanned = 0;
+        for (Set<String> ids : withPrefix(lead).values()) {
+            for (String id : ids) {
+                if (++scanned > MAX_CANDIDATES) return new ArrayList<>(out);
+                if (!out.contains(id) && coversAll(nameWordsById.get(id), wanted)) {
+                    out.add(id);
+                    if (out.size() == limit) return new ArrayList<>(out);
+                }
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    public int emailCount() {
+        return idByEmail.size();
+    }
+
+    // ---------- Normalization ----------
+
+    public static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Distinct lower-cased runs of letters and digits, sorted. */
+    static String[] nameWords(String name) {
+        if (name == null || name.isBlank()) return new String[0];
+        Set<String> words = new TreeSet<>();
+        String lower = name.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) start = i;
+            else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // ---------- Internals ----------
+
+    private void claimEmail(String key, String id, boolean strict) {
+        if (key.isEmpty()) return;
+        String owner = idByEmail.putIfAbsent(key, id);
+        if (owner != null && !owner.equals(id) && strict) {
+            throw new IllegalArgumentException("Email already in use by another patron: " + key);
+        }
+    }
+
+    private void indexName(String id, String[] words) {
+        if (words.length == 0) return;
+        nameWordsById.put(id, words);
+        for (String word : words) idsByNameWord.computeIfAbsent(word, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private void unindexName(String id) {
+        String[] words = nameWordsById.remove(id);
+        if (words == null) return;
+        for (String word : words) {
+            Set<String> ids = idsByNameWord.get(word);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) idsByNameWord.remove(word, ids);
+        }
+    }
+
+    private Map<String, Set<String>> withPrefix(String prefix) {
+        return idsByNameWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // Patrons under the prefix, counting no further than bound
+    private long candidates(String prefix, long bound) {
+        long n = 0;
+        for (Set<String> ids : withPrefix(prefix).values()) {
+            n += ids.size();
+            if (n >= bound) break;
+        }
+        return n;
+    }
+
+    private static boolean coversAll(String[] words, String[] prefixes) {
+        if (words == null) return false;
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,184 @@
+package com.lms.index;
+
+import com.lms.model.Book;
+
+import java.util.*;
+
+/**
+ * Incrementally maintained ranking of books by timesBorrowed.
+ *
+ * Books sit in count buckets kept in a doubly linked list ordered from most
+ * to least borrowed (the LFU-cache layout), ISBN order within a bucket. A
+ * borrow moves the book to the neighbouring bucket (O(log bucket size)), and
+ * a top-K query walks buckets from the head, touching only the K books it
+ * returns, instead of sorting the catalog. The order is timesBorrowed
+ * descending, then ISBN: the same tie-break the indexed searches use.
+ *
+ * Thread-safe: all operations synchronize on the tracker. Positions are
+ * always read from the book's timesBorrowed under that lock, never counted
+ * here, so a borrow racing an add that re-reads the book cannot leave the
+ * ranking out of step with the books.
+ */
+public class PopularityTracker implements BookIndex {
+
+    private static final class Bucket {
+        final int count;
+        final TreeSet<String> isbns = new TreeSet<>();
+        Bucket higher;
+        Bucket lower;
+
+        Bucket(int count) { this.count = count; }
+    }
+
+    private final Map<String, Bucket> bucketOf = new HashMap<>();
+    private final Map<Integer, Bucket> bucketByCount = new HashMap<>();
+    private Bucket head; // highest count
+
+    // ---------- BookIndex ----------
+
+    /** Tracks the book at its current timesBorrowed (re-positions it if already tracked). */
+    @Override
+    public synchronized void add(Book book) {
+        set(book.getIsbn(), book.getTimesBorrowed());
+    }
+
+    @Override
+    public synchronized void remove(String isbn) {
+        Bucket b = bucketOf.remove(isbn);
+        if (b != null) detach(b, isbn);
+    }
+
+    @Override
+    public synchronized void clear() {
+        bucketOf.clear();
+        bucketByCount.clear();
+        head = null;
+    }
+
+    // ---------- Updates ----------
+
+    @Override
+    public void borrowed(Book book) {
+        reposition(book);
+    }
+
+    /**
+     * Moves the book to its current timesBorrowed and says whether it passed
+     * or drew level with another book, i.e. whether the order (timesBorrowed
+     * descending, then ISBN) changed. A borrow usually moves the book one
+     * bucket up; other moves fall back to an ordered insert and count as a
+     * change.
+     */
+    public synchronized boolean reposition(Book book) {
+        String isbn = book.getIsbn();
+        int target = book.getTimesBorrowed();
+        Bucket from = bucketOf.get(isbn);
+        if (from != null && from.count == target) return false;
+        if (from == null || target != from.count + 1) {
+            set(isbn, target);
+            return true;
+        }
+        Bucket to = from.higher != null && from.higher.count == target ? from.higher : null;
+        // It now ranks ahead of books it tied with but followed by ISBN,
+        // and (by ISBN) ahead of books at its new count that come later
+        boolean reordered = from.isbns.first().compareTo(isbn) < 0
+                || (to != null && to.isbns.last().compareTo(isbn) > 0);
+        if (to == null) {
+            to = new Bucket(target);
+            bucketByCount.put(target, to);
+            linkAbove(from, to);
+        }
+        to.isbns.add(isbn);
+        bucketOf.put(isbn, to);
+        detach(from, isbn);
+        return reordered;
+    }
+
+    // ---------- Queries ----------
+
+    /** ISBNs of the K most borrowed books, most borrowed first. O(K). */
+    public synchronized List<String> top(int k) {
+        List<String> out = new ArrayList<>(Math.max(0, Math.min(k, bucketOf.size())));
+        for (Bucket b = head; b != null && out.size() < k; b = b.lower) {
+            for (String isbn : b.isbns) {
+                if (out.size() == k) break;
+                out.add(isbn);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The K most borrowed ISBNs that are not excluded, walking down from the top.
+     * Costs O(K + number of excluded books skipped).
+     */
+    public synchronized List<String> top(int k, Set<String> excluded) {
+        List<String> out = new ArrayList<>();
+        for (Bucket b = head; b != null && out.size() < k; b = b.lower) {
+            for (String isbn : b.isbns) {
+                if (out.size() == k) break;
+                if (!excluded.contains(isbn)) out.add(isbn);
+            }
+        }
+        return out;
+    }
+
+    public synchronized int count(String isbn) {
+        Bucket b = bucketOf.get(isbn);
+        return b == null ? 0 : b.count;
+    }
+
+    public synchronized int size() {
+        return bucketOf.size();
+    }
+
+    // ---------- Internals ----------
+    private void set(String isbn, int count) {
+        Bucket current = bucketOf.get(isbn);
+        if (current != null) {
+            if (current.count == count) return;
+            detach(current, isbn);
+        }
+        Bucket target = bucketByCount.get(count);
+        if (target == null) {
+            target = new Bucket(count);
+            bucketByCount.put(count, target);
+            insertOrdered(target);
+        }
+        target.isbns.add(isbn);
+        bucketOf.put(isbn, target);
+    }
+
+    /** Places a new bucket by walking from the head; only used for arbitrary counts. */
+    private void insertOrdered(Bucket b) {
+        if (head == null || head.count < b.count) {
+            b.lower = head;
+            if (head != null) head.higher = b;
+            head = b;
+            return;
+        }
+        Bucket above = head;
+        while (above.lower != null && above.lower.count > b.count) above = above.lower;
+        b.lower = above.lower;
+        b.higher = above;
+        if (above.lower != null) above.lower.higher = b;
+        above.lower = b;
+    }
+
+    private void linkAbove(Bucket below, Bucket b) {
+        b.lower = below;
+        b.higher = below.higher;
+        if (below.higher != null) below.higher.lower = b;
+        else head = b;
+        below.higher = b;
+    }
+
+    private void detach(Bucket b, String isbn) {
+        b.isbns.remove(isbn);
+        if (!b.isbns.isEmpty()) return;
+        bucketByCount.remove(b.count);
+        if (b.higher != null) b.higher.lower = b.lower;
+        else head = b.lower;
+        if (b.lower != null) b.lower.higher = b.higher;
+    }
+}
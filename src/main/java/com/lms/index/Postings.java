@@ -0,0 +1,91 @@
+package com.lms.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorted, growable list of document ids for a single index term.
+ * Kept as a primitive int array so postings stay compact and intersect quickly.
+ */
+final class Postings {
+    private int[] docs = new int[4];
+    private int size;
+
+    int size() { return size; }
+
+    int get(int i) { return docs[i]; }
+
+    boolean isEmpty() { return size == 0; }
+
+    /** Inserts the doc id keeping the array sorted; duplicates are ignored. */
+    void add(int doc) {
+        if (size > 0 && docs[size - 1] < doc) {
+            ensureCapacity();
+            docs[size++] = doc;
+            return;
+        }
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos >= 0) return;
+        int insertAt = -pos - 1;
+        ensureCapacity();
+        System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+        docs[insertAt] = doc;
+        size++;
+    }
+
+    void remove(int doc) {
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos < 0) return;
+        System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+        size--;
+    }
+
+    /** Index of the first element >= doc at or after from, using galloping search. */
+    int advance(int from, int doc) {
+        int step = 1;
+        int lo = from;
+        int hi = from;
+        while (hi < size && docs[hi] < doc) {
+            lo = hi;
+            hi += step;
+            step <<= 1;
+        }
+        if (hi > size) hi = size;
+        int pos = Arrays.binarySearch(docs, lo, hi, doc);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(docs, size);
+    }
+
+    private void ensureCapacity() {
+        if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+    }
+
+    /**
+     * Intersects several postings lists, starting from the shortest one.
+     */
+    static int[] intersect(Postings[] lists) {
+        if (lists.length == 0) return new int[0];
+        Postings[] sorted = lists.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.size, b.size));
+        Postings smallest = sorted[0];
+        int[] out = new int[smallest.size];
+        int count = 0;
+        int[] cursors = new int[sorted.length];
+
+        outer:
+        for (int i = 0; i < smallest.size; i++) {
+            int doc = smallest.docs[i];
+            for (int l = 1; l < sorted.length; l++) {
+                Postings other = sorted[l];
+                int c = other.advance(cursors[l], doc);
+                cursors[l] = c;
+                if (c >= other.size) break outer;
+                if (other.docs[c] != doc) continue outer;
+            }
+            out[count++] = doc;
+        }
+        return Arrays.copyOf(out, count);
+    }
+}
@@ -0,0 +1,399 @@
+package com.lms.index;
+
+import com.lms.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * As-you-type completion over the words of one Book field.
+ *
+ * Words live in a compressed (radix) trie: each edge carries a string, so a
+ * chain of single-child nodes takes one node. Every node keeps the
+ * {@value #SUGGESTIONS} most borrowed books among the words below it, kept
+ * current on add and borrow, so a one-word prefix is answered from a single
+ * node without visiting its subtree. A removal invalidates the lists that
+ * held the book; they are rebuilt on their next use.
+ *
+ * Every query word is treated as a prefix, and a book matches when each of
+ * them starts one of its words ("harry pot" finds "Harry Potter and ...").
+ * Several words are answered from the list of the rarest prefix, filtered by
+ * the others; nodes over {@value #DEEP_NODE} words keep {@value #DEEP_SUGGESTIONS}
+ * suggestions so that common words still fill a page. Only when the list runs
+ * out is the rarest prefix's subtree walked. Results are ordered by
+ * timesBorrowed, then ISBN.
+ */
+public class PrefixIndex extends WordIndex {
+    /** Suggestions kept ready per trie node; larger limits walk the subtree. */
+    public static final int SUGGESTIONS = 16;
+    /** Suggestions kept by nodes with at least DEEP_NODE words below them. */
+    public static final int DEEP_SUGGESTIONS = 256;
+    static final int DEEP_NODE = 4096;
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;   // sorted by first character
+        Postings docs;                   // docs with a word ending here
+        int count;                       // word postings in this subtree
+        int[] top = new int[SUGGESTIONS];
+        int topSize;
+        boolean topValid = true;         // top holds the subtree's best, or all of it
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    private Node root = new Node("");
+
+    public PrefixIndex(Function<Book, String> field) {
+        super(field);
+    }
+
+    // ---------- Queries ----------
+
+    /**
+     * The most borrowed books matching the typed text, at most {@code limit}.
+     *
+     * @param catalog resolves an ISBN to the live Book
+     */
+    public List<Book> complete(String query, int limit, Function<String, Optional<Book>> catalog) {
+        if (query == null || limit <= 0) return List.of();
+        String[] prefixes = wordsOf(query);
+
+        lock.readLock().lock();
+        try {
+            Node pivot = pivot(prefixes);
+            if (pivot == null) return List.of();
+            if (pivot.topValid) return answer(pivot, prefixes, limit, catalog);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // The pivot's list was invalidated by a removal or outgrown; rebuild it
+        // for everyone, then answer under the read lock again
+        lock.writeLock().lock();
+        Node pivot;
+        try {
+            pivot = pivot(prefixes);
+            if (pivot == null) return List.of();
+            if (!pivot.topValid) rebuildTop(pivot);
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            return answer(pivot, prefixes, limit, catalog);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The rarest prefix's node (the root for an empty query), or null if some prefix matches nothing
+    private Node pivot(String[] prefixes) {
+        Node pivot = prefixes.length == 0 ? root : null;
+        for (String prefix : prefixes) {
+            Node node = find(prefix);
+            if (node == null) return null;
+            if (pivot == null || node.count < pivot.count) pivot = node;
+        }
+        return pivot;
+    }
+
+    private List<Book> answer(Node pivot, String[] prefixes, int limit, Function<String, Optional<Book>> catalog) {
+        // The list is in result order, so its first `limit` matches are the answer,
+        // unless it runs out first while the subtree holds more
+        int[] found = new int[Math.min(limit, pivot.topSize)];
+        int n = 0;
+        for (int i = 0; i < pivot.topSize && n < found.length; i++) {
+            int doc = pivot.top[i];
+            if (prefixes.length <= 1 || matchesAll(words[doc], prefixes)) found[n++] = doc;
+        }
+        if (n == limit || pivot.topSize < pivot.top.length) return resolve(found, n, catalog);
+
+        Ranking best = new Ranking(limit);
+        BitSet seen = new BitSet();
+        forEachDoc(pivot, doc -> {
+            if (!seen.get(doc)) {
+                seen.set(doc);
+                if (matchesAll(words[doc], prefixes)) best.offer(doc);
+            }
+        });
+        return best.resolve(catalog);
+    }
+
+    /**
+     * Orders an already materialized list with the same semantics as
+     * {@link #complete}. Used when a caller hands a plain list of books to a
+     * prefix strategy.
+     */
+    public static List<Book> scan(List<Book> books, String query, int limit, Function<Book, String> field) {
+        if (query == null || limit <= 0) return List.of();
+        String[] prefixes = wordsOf(query);
+        return books.stream()
+                .filter(b -> matchesAll(wordsOf(field.apply(b)), prefixes))
+                .sorted(Comparator.comparingInt(Book::getTimesBorrowed).reversed().thenComparing(Book::getIsbn))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean matchesAll(String[] docWords, String[] prefixes) {
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String word : docWords) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /** The node whose subtree holds exactly the words starting with the prefix. */
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = child(node, prefix.charAt(i));
+            if (child == null) return null;
+            int n = Math.min(child.label.length(), prefix.length() - i);
+            if (!child.label.regionMatches(0, prefix, i, n)) return null;
+            node = child;
+            i += n;
+        }
+        return node;
+    }
+
+    // ---------- Maintenance ----------
+    @Override
+    void indexWord(int doc, String word) {
+        Node node = root;
+        node.count++;
+        deepen(node);
+        offer(node, doc);
+        int i = 0;
+        while (i < word.length()) {
+            Node child = child(node, word.charAt(i));
+            if (child == null) {
+                child = new Node(word.substring(i));
+                addChild(node, child);
+            } else {
+                int common = commonPrefix(child.label, word, i);
+                if (common < child.label.length()) child = split(node, child, common);
+            }
+            node = child;
+            node.count++;
+            deepen(node);
+            offer(node, doc);
+            i += node.label.length();
+        }
+        if (node.docs == null) node.docs = new Postings();
+        node.docs.add(doc);
+    }
+
+    @Override
+    void unindexWord(int doc, String word) {
+        List<Node> path = path(word);
+        if (path == null) return;
+        Node last = path.get(path.size() - 1);
+        if (last.docs == null) return;
+        last.docs.remove(doc);
+        if (last.docs.isEmpty()) last.docs = null;
+        for (Node node : path) {
+            node.count--;
+            drop(node, doc);
+        }
+        // Prune empty nodes and re-compress chains, bottom up
+        for (int k = path.size() - 1; k > 0; k--) {
+            Node node = path.get(k);
+            Node parent = path.get(k - 1);
+            if (node.count == 0) {
+                removeChild(parent, node);
+            } else if (node.docs == null && node.children.length == 1) {
+                Node only = node.children[0];
+                only.label = node.label + only.label;
+                replaceChild(parent, node, only);
+            }
+        }
+    }
+
+    @Override
+    void scoreIncreased(int doc) {
+        for (String word : words[doc]) {
+            List<Node> path = path(word);
+            if (path == null) continue;
+            for (Node node : path) offer(node, doc);
+        }
+    }
+
+    @Override
+    void clearWords() {
+        root = new Node("");
+    }
+
+    // ---------- Per-node suggestions ----------
+
+    // A node that grows past DEEP_NODE gets a longer list, filled on its next use
+    private static void deepen(Node node) {
+        if (node.count >= DEEP_NODE && node.top.length < DEEP_SUGGESTIONS) {
+            node.top = new int[DEEP_SUGGESTIONS];
+            node.topSize = 0;
+            node.topValid = false;
+        }
+    }
+
+    // Inserts or moves the doc up in the node's list if it belongs there
+    private void offer(Node node, int doc) {
+        if (!node.topValid) return;
+        int[] top = node.top;
+        int last = top[top.length - 1];
+        if (node.topSize == top.length && last != doc && !better(doc, last)) return;
+        int pos = indexOf(top, node.topSize, doc);
+        if (pos < 0) {
+            if (node.topSize < top.length) {
+                pos = node.topSize++;
+            } else if (better(doc, top[top.length - 1])) {
+                pos = top.length - 1;
+            } else {
+                return;
+            }
+            top[pos] = doc;
+        }
+        while (pos > 0 && better(top[pos], top[pos - 1])) {
+            int t = top[pos];
+            top[pos] = top[pos - 1];
+            top[pos - 1] = t;
+            pos--;
+        }
+    }
+
+    // A full list that loses a doc no longer knows the next best; a short
+    // one held the whole subtree and stays complete
+    private void drop(Node node, int doc) {
+        if (!node.topValid) return;
+        int pos = indexOf(node.top, node.topSize, doc);
+        if (pos < 0) return;
+        boolean full = node.topSize == node.top.length;
+        System.arraycopy(node.top, pos + 1, node.top, pos, node.topSize - pos - 1);
+        node.topSize--;
+        if (full) node.topValid = false;
+    }
+
+    private void rebuildTop(Node node) {
+        Ranking best = new Ranking(node.top.length);
+        forEachDoc(node, best::offer);
+        System.arraycopy(best.docs, 0, node.top, 0, best.size);
+        node.topSize = best.size;
+        node.topValid = true;
+    }
+
+    private static int indexOf(int[] docs, int size, int doc) {
+        for (int i = 0; i < size; i++) if (docs[i] == doc) return i;
+        return -1;
+    }
+
+    private interface DocVisitor {
+        void visit(int doc);
+    }
+
+    private static void forEachDoc(Node node, DocVisitor visitor) {
+        if (node.docs != null) {
+            for (int i = 0; i < node.docs.size(); i++) visitor.visit(node.docs.get(i));
+        }
+        for (Node child : node.children) forEachDoc(child, visitor);
+    }
+
+    // ---------- Trie structure ----------
+
+    // Nodes from the root to the word's own node, or null if it is not indexed
+    private List<Node> path(String word) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < word.length()) {
+            Node child = child(node, word.charAt(i));
+            if (child == null || !word.startsWith(child.label, i)) return null;
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        return path;
+    }
+
+    // Splits child's edge after `at` characters and returns the new middle node
+    private static Node split(Node parent, Node child, int at) {
+        Node mid = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        mid.children = new Node[]{child};
+        mid.count = child.count;
+        mid.top = child.top.clone();
+        mid.topSize = child.topSize;
+        mid.topValid = child.topValid;
+        replaceChild(parent, child, mid);
+        return mid;
+    }
+
+    private static int commonPrefix(String label, String word, int from) {
+        int n = Math.min(label.length(), word.length() - from);
+        int i = 0;
+        while (i < n && label.charAt(i) == word.charAt(from + i)) i++;
+        return i;
+    }
+
+    private static Node child(Node node, char first) {
+        Node[] children = node.children;
+        int lo = 0;
+        int hi = children.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char c = children[mid].label.charAt(0);
+            if (c < first) lo = mid + 1;
+            else if (c > first) hi = mid - 1;
+            else return children[mid];
+        }
+        return null;
+    }
+
+    private static void addChild(Node node, Node child) {
+        Node[] children = node.children;
+        char first = child.label.charAt(0);
+        int at = 0;
+        while (at < children.length && children[at].label.charAt(0) < first) at++;
+        Node[] grown = new Node[children.length + 1];
+        System.arraycopy(children, 0, grown, 0, at);
+        grown[at] = child;
+        System.arraycopy(children, at, grown, at + 1, children.length - at);
+        node.children = grown;
+    }
+
+    private static void removeChild(Node node, Node child) {
+        Node[] children = node.children;
+        int at = Arrays.asList(children).indexOf(child);
+        if (at < 0) return;
+        Node[] shrunk = new Node[children.length - 1];
+        System.arraycopy(children, 0, shrunk, 0, at);
+        System.arraycopy(children, at + 1, shrunk, at, children.length - at - 1);
+        node.children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+    }
+
+    // The replacement starts with the same character, so the order holds
+    private static void replaceChild(Node node, Node old, Node replacement) {
+        Node[] children = node.children;
+        for (int i = 0; i < children.length; i++) {
+            if (children[i] == old) {
+                children[i] = replacement;
+                return;
+            }
+        }
+    }
+}
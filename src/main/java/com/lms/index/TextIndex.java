@@ -0,0 +1,281 @@
+package com.lms.index;
+
+import com.lms.model.Book;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Trigram inverted index over one text field of a Book (title, author, ...).
+ *
+ * Every normalized field value is split into overlapping 3-character grams and
+ * each gram keeps a sorted postings list of internal document ids. A substring
+ * query intersects the postings of its own grams and then verifies the few
+ * surviving candidates, so lookups cost O(matches) instead of O(catalog).
+ * Matches are ranked by relevance, then popularity (timesBorrowed), then ISBN.
+ *
+ * Thread-safe: queries share a read lock, maintenance takes the write lock.
+ */
+public class TextIndex implements BookIndex {
+    static final int GRAM = 3;
+
+    private final Function<Book, String> field;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final Map<String, Postings> grams = new HashMap<>();
+    private String[] isbns = new String[64];
+    private String[] texts = new String[64];
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    private int nextDoc;
+
+    public TextIndex(Function<Book, String> field) {
+        this.field = Objects.requireNonNull(field);
+    }
+
+    // ---------- Maintenance ----------
+    @Override
+    public void add(Book book) {
+        Objects.requireNonNull(book);
+        String text = normalize(field.apply(book));
+        lock.writeLock().lock();
+        try {
+            addLocked(book.getIsbn(), text, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Normalizes and splits the whole batch before taking the write lock once. */
+    @Override
+    public void addAll(Collection<Book> books) {
+        int n = books.size();
+        String[] batchIsbns = new String[n];
+        String[] batchTexts = new String[n];
+        List<Set<String>> batchGrams = new ArrayList<>(n);
+        int i = 0;
+        for (Book book : books) {
+            batchIsbns[i] = book.getIsbn();
+            batchTexts[i] = normalize(field.apply(book));
+            batchGrams.add(gramsOf(batchTexts[i]));
+            i++;
+        }
+        lock.writeLock().lock();
+        try {
+            for (i = 0; i < n; i++) addLocked(batchIsbns[i], batchTexts[i], batchGrams.get(i));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(String isbn, String text, Set<String> textGrams) {
+        Integer doc = docIds.get(isbn);
+        if (doc != null) {
+            if (texts[doc].equals(text)) return;
+            unindex(doc);
+        } else {
+            doc = allocateDoc();
+            docIds.put(isbn, doc);
+            isbns[doc] = isbn;
+        }
+        texts[doc] = text;
+        for (String gram : textGrams != null ? textGrams : gramsOf(text)) {
+            grams.computeIfAbsent(gram, k -> new Postings()).add(doc);
+        }
+    }
+
+    @Override
+    public void remove(String isbn) {
+        if (isbn == null) return;
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.remove(isbn);
+            if (doc == null) return;
+            unindex(doc);
+            isbns[doc] = null;
+            texts[doc] = null;
+            if (freeCount == freeDocs.length) freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+            freeDocs[freeCount++] = doc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            docIds.clear();
+            grams.clear();
+            Arrays.fill(isbns, null);
+            Arrays.fill(texts, null);
+            freeCount = 0;
+            nextDoc = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Queries ----------
+
+    /**
+     * Ranked substring search.
+     *
+     * @param query   case-insensitive substring to look for
+     * @param limit   maximum number of results (top-K)
+     * @param catalog resolves an ISBN to the live Book
+     */
+    public List<Book> search(String query, int limit, Function<String, Optional<Book>> catalog) {
+        if (query == null || limit <= 0) return List.of();
+        String q = normalize(query);
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int doc : candidates(q)) {
+                String text = texts[doc];
+                if (!text.contains(q)) continue;
+                catalog.apply(isbns[doc]).ifPresent(b -> hits.add(new Hit(b, relevance(text, q))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topK(hits, limit);
+    }
+
+    /**
+     * Ranks an already materialized list with the same semantics as {@link #search}.
+     * Used when a caller hands a plain list of books to an indexed strategy.
+     */
+    public static List<Book> scan(List<Book> books, String query, int limit, Function<Book, String> field) {
+        if (query == null || limit <= 0) return List.of();
+        String q = normalize(query);
+        List<Hit> hits = new ArrayList<>();
+        for (Book b : books) {
+            int relevance = relevance(normalize(field.apply(b)), q);
+            if (relevance > 0) hits.add(new Hit(b, relevance));
+        }
+        return topK(hits, limit);
+    }
+
+    private int[] candidates(String q) {
+        if (q.isEmpty()) {
+            return docIds.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+        if (q.length() < GRAM) {
+            // Short queries: union the postings of every gram that contains the query.
+            // The gram dictionary is far smaller than the catalog.
+            BitSet union = new BitSet(nextDoc);
+            for (Map.Entry<String, Postings> e : grams.entrySet()) {
+                if (!e.getKey().contains(q)) continue;
+                Postings p = e.getValue();
+                for (int i = 0; i < p.size(); i++) union.set(p.get(i));
+            }
+            return union.stream().toArray();
+        }
+        Set<String> queryGrams = gramsOf(q);
+        Postings[] lists = new Postings[queryGrams.size()];
+        int i = 0;
+        for (String gram : queryGrams) {
+            Postings p = grams.get(gram);
+            if (p == null) return new int[0];
+            lists[i++] = p;
+        }
+        return Postings.intersect(lists);
+    }
+
+    // ---------- Ranking ----------
+    private static final class Hit {
+        final Book book;
+        final int relevance;
+        final int popularity;
+
+        Hit(Book book, int relevance) {
+            this.book = book;
+            this.relevance = relevance;
+            this.popularity = book.getTimesBorrowed();
+        }
+    }
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator
+            .comparingInt((Hit h) -> h.relevance).reversed()
+            .thenComparing(Comparator.comparingInt((Hit h) -> h.popularity).reversed())
+            .thenComparing(h -> h.book.getIsbn());
+
+    private static List<Book> topK(List<Hit> hits, int limit) {
+        List<Hit> top;
+        if (hits.size() <= limit) {
+            top = hits;
+        } else {
+            // Bounded heap keeps the K best, with the worst of them at the head.
+            PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+            for (Hit h : hits) {
+                heap.offer(h);
+                if (heap.size() > limit) heap.poll();
+            }
+            top = new ArrayList<>(heap);
+        }
+        top.sort(BEST_FIRST);
+        List<Book> out = new ArrayList<>(top.size());
+        for (Hit h : top) out.add(h.book);
+        return out;
+    }
+
+    /** 3 = exact match, 2 = match at the start of a word, 1 = anywhere else. */
+    static int relevance(String text, String q) {
+        if (text.equals(q)) return 3;
+        int at = text.indexOf(q);
+        if (at < 0) return 0;
+        if (at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1))) return 2;
+        return 1;
+    }
+
+    /** Lower-cases the way every text index does before matching. */
+    public static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    // ---------- Internals ----------
+    static Set<String> gramsOf(String text) {
+        Set<String> out = new HashSet<>();
+        if (text.isEmpty()) return out;
+        if (text.length() < GRAM) {
+            out.add(text);
+            return out;
+        }
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            out.add(text.substring(i, i + GRAM));
+        }
+        return out;
+    }
+
+    private void unindex(int doc) {
+        for (String gram : gramsOf(texts[doc])) {
+            Postings p = grams.get(gram);
+            if (p == null) continue;
+            p.remove(doc);
+            if (p.isEmpty()) grams.remove(gram);
+        }
+    }
+
+    private int allocateDoc() {
+        if (freeCount > 0) return freeDocs[--freeCount];
+        if (nextDoc == isbns.length) {
+            isbns = Arrays.copyOf(isbns, nextDoc * 2);
+            texts = Arrays.copyOf(texts, nextDoc * 2);
+        }
+        return nextDoc++;
+    }
+}
@@ -0,0 +1,119 @@
+package com.lms.index;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Time-decayed borrow counts over a sliding window.
+ *
+ * The window is a ring of fixed-width time slots, each holding the borrow
+ * counts recorded during that slot. Old slots are recycled as time moves on,
+ * so memory is bounded by the books borrowed within the window. A book's
+ * trending score weights each slot by 0.5^(age / halfLife), so recent borrows
+ * count the most.
+ *
+ * Thread-safe: all operations synchronize on the counter.
+ */
+public class TrendingCounter {
+    private final Clock clock;
+    private final long slotMillis;
+    private final double halfLifeSlots;
+    private final Map<String, Integer>[] slots;
+    private final long[] slotEpochs;
+
+    /**
+     * @param window   how far back borrows are counted
+     * @param slots    number of slots the window is divided into
+     * @param halfLife age at which a borrow counts half as much
+     */
+    @SuppressWarnings("unchecked")
+    public TrendingCounter(Duration window, int slots, Duration halfLife, Clock clock) {
+        if (slots <= 0) throw new IllegalArgumentException("slots must be positive");
+        this.clock = Objects.requireNonNull(clock);
+        this.slotMillis = Math.max(1, window.toMillis() / slots);
+        this.halfLifeSlots = Math.max(1e-9, (double) halfLife.toMillis() / slotMillis);
+        this.slots = (Map<String, Integer>[]) new Map<?, ?>[slots];
+        this.slotEpochs = new long[slots];
+        for (int i = 0; i < slots; i++) {
+            this.slots[i] = new HashMap<>();
+            this.slotEpochs[i] = -1;
+        }
+    }
+
+    /** A 7-day window in hourly slots with a 1-day half-life. */
+    public TrendingCounter() {
+        this(Duration.ofDays(7), 7 * 24, Duration.ofDays(1), Clock.systemUTC());
+    }
+
+    public synchronized void record(String isbn) {
+        long epoch = currentEpoch();
+        int i = (int) (epoch % slots.length);
+        if (slotEpochs[i] != epoch) {
+            slots[i].clear();
+            slotEpochs[i] = epoch;
+        }
+        slots[i].merge(isbn, 1, Integer::sum);
+    }
+
+    public synchronized void remove(String isbn) {
+        for (Map<String, Integer> slot : slots) slot.remove(isbn);
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i].clear();
+            slotEpochs[i] = -1;
+        }
+    }
+
+    public synchronized double score(String isbn) {
+        long now = currentEpoch();
+        double score = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (!live(i, now)) continue;
+            Integer c = slots[i].get(isbn);
+            if (c != null) score += c * decay(now - slotEpochs[i]);
+        }
+        return score;
+    }
+
+    /** ISBNs with the highest decayed scores in the window, best first. */
+    public synchronized List<String> top(int k) {
+        if (k <= 0) return List.of();
+        long now = currentEpoch();
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (!live(i, now)) continue;
+            double w = decay(now - slotEpochs[i]);
+            for (Map.Entry<String, Integer> e : slots[i].entrySet()) {
+                scores.merge(e.getKey(), e.getValue() * w, Double::sum);
+            }
+        }
+        Comparator<Map.Entry<String, Double>> best = Map.Entry.<String, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Double>> heap = new PriorityQueue<>(k + 1, best.reversed());
+        for (Map.Entry<String, Double> e : scores.entrySet()) {
+            heap.offer(e);
+            if (heap.size() > k) heap.poll();
+        }
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(heap);
+        sorted.sort(best);
+        List<String> out = new ArrayList<>(sorted.size());
+        for (Map.Entry<String, Double> e : sorted) out.add(e.getKey());
+        return out;
+    }
+
+    // ---------- Internals ----------
+    private long currentEpoch() {
+        return clock.millis() / slotMillis;
+    }
+
+    private boolean live(int i, long now) {
+        return slotEpochs[i] >= 0 && now - slotEpochs[i] < slots.length;
+    }
+
+    private double decay(long ageSlots) {
+        return Math.pow(0.5, ageSlots / halfLifeSlots);
+    }
+}
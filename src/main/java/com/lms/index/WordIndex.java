@@ -0,0 +1,277 @@
+package com.lms.index;
+
+import com.lms.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Shared bookkeeping for indexes over the words of one Book field: internal
+ * doc ids, each doc's distinct words, and its popularity score (timesBorrowed,
+ * kept current through {@link BookIndex#borrowed}). Subclasses decide how
+ * words are indexed.
+ *
+ * Thread-safe: queries share a read lock, maintenance takes the write lock.
+ */
+abstract class WordIndex implements BookIndex {
+    private static final String[] NO_WORDS = new String[0];
+
+    private final Function<Book, String> field;
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> docIds = new HashMap<>();
+    String[] isbns = new String[64];
+    String[][] words = new String[64][];
+    int[] scores = new int[64];
+    private int[] freeDocs = new int[16];
+    private int freeCount;
+    private int nextDoc;
+
+    WordIndex(Function<Book, String> field) {
+        this.field = Objects.requireNonNull(field);
+    }
+
+    // ---------- Subclass hooks, called under the write lock ----------
+
+    abstract void indexWord(int doc, String word);
+
+    /** Called for every word of the doc before it is dropped or re-indexed. */
+    abstract void unindexWord(int doc, String word);
+
+    /** The doc's score went up (a borrow); its words are unchanged. */
+    abstract void scoreIncreased(int doc);
+
+    abstract void clearWords();
+
+    // ---------- Maintenance ----------
+    @Override
+    public void add(Book book) {
+        Objects.requireNonNull(book);
+        String[] bookWords = wordsOf(field.apply(book));
+        lock.writeLock().lock();
+        try {
+            addLocked(book.getIsbn(), bookWords, book.getTimesBorrowed());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Tokenizes the whole batch before taking the write lock once. */
+    @Override
+    public void addAll(Collection<Book> books) {
+        List<String[]> batchWords = new ArrayList<>(books.size());
+        for (Book book : books) batchWords.add(wordsOf(field.apply(book)));
+        lock.writeLock().lock();
+        try {
+            int i = 0;
+            for (Book book : books) addLocked(book.getIsbn(), batchWords.get(i++), book.getTimesBorrowed());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(String isbn, String[] bookWords, int score) {
+        Integer doc = docIds.get(isbn);
+        if (doc != null) {
+            if (Arrays.equals(words[doc], bookWords) && scores[doc] == score) return;
+            for (String word : words[doc]) unindexWord(doc, word);
+        } else {
+            doc = allocateDoc();
+            docIds.put(isbn, doc);
+            isbns[doc] = isbn;
+        }
+        words[doc] = bookWords;
+        scores[doc] = score;
+        for (String word : bookWords) indexWord(doc, word);
+    }
+
+    @Override
+    public void borrowed(Book book) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.get(book.getIsbn());
+            // Scores follow timesBorrowed rather than counting calls, so a
+            // borrow that raced with add() is not counted twice
+            int score = book.getTimesBorrowed();
+            if (doc == null || score <= scores[doc]) return;
+            scores[doc] = score;
+            scoreIncreased(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String isbn) {
+        if (isbn == null) return;
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.remove(isbn);
+            if (doc == null) return;
+            for (String word : words[doc]) unindexWord(doc, word);
+            isbns[doc] = null;
+            words[doc] = null;
+            scores[doc] = 0;
+            if (freeCount == freeDocs.length) freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+            freeDocs[freeCount++] = doc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            docIds.clear();
+            clearWords();
+            Arrays.fill(isbns, null);
+            Arrays.fill(words, null);
+            Arrays.fill(scores, 0);
+            freeCount = 0;
+            nextDoc = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Helpers for queries ----------
+
+    /** Higher score first, then lower ISBN, the order suggestions are shown in. */
+    final boolean better(int a, int b) {
+        if (scores[a] != scores[b]) return scores[a] > scores[b];
+        return isbns[a].compareTo(isbns[b]) < 0;
+    }
+
+    /**
+     * The best docs offered so far, best first by (cost, score, ISBN); a doc
+     * offered again is ignored, so offer each doc at its lowest cost first.
+     * Small limits keep a sorted window; large ones collect and sort once.
+     */
+    final class Ranking {
+        private static final int WINDOW = 1024;
+
+        private final int limit;
+        private final boolean windowed;
+        private final BitSet offered;
+        int[] docs;
+        int[] costs;
+        int size;
+
+        Ranking(int limit) {
+            this.limit = limit;
+            this.windowed = limit <= WINDOW;
+            this.offered = windowed ? null : new BitSet();
+            this.docs = new int[windowed ? limit : 64];
+            this.costs = new int[docs.length];
+        }
+
+        void offer(int doc) {
+            offer(doc, 0);
+        }
+
+        void offer(int doc, int cost) {
+            if (!windowed) {
+                if (offered.get(doc)) return;
+                offered.set(doc);
+                if (size == docs.length) {
+                    docs = Arrays.copyOf(docs, size * 2);
+                    costs = Arrays.copyOf(costs, size * 2);
+                }
+                docs[size] = doc;
+                costs[size++] = cost;
+                return;
+            }
+            if (limit == 0) return;
+            // Most docs lose to the current last; check that before the linear search
+            if (size == limit && !before(doc, cost, docs[size - 1], costs[size - 1])) return;
+            for (int i = 0; i < size; i++) if (docs[i] == doc) return;
+            int pos = size < limit ? size++ : size - 1;
+            docs[pos] = doc;
+            costs[pos] = cost;
+            while (pos > 0 && before(docs[pos], costs[pos], docs[pos - 1], costs[pos - 1])) {
+                int d = docs[pos];
+                int c = costs[pos];
+                docs[pos] = docs[pos - 1];
+                costs[pos] = costs[pos - 1];
+                docs[pos - 1] = d;
+                costs[pos - 1] = c;
+                pos--;
+            }
+        }
+
+        List<Book> resolve(Function<String, Optional<Book>> catalog) {
+            if (!windowed) {
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) order[i] = i;
+                Arrays.sort(order, (i, j) -> before(docs[i], costs[i], docs[j], costs[j]) ? -1
+                        : before(docs[j], costs[j], docs[i], costs[i]) ? 1 : 0);
+                int n = Math.min(size, limit);
+                int[] sorted = new int[n];
+                for (int i = 0; i < n; i++) sorted[i] = docs[order[i]];
+                return WordIndex.this.resolve(sorted, n, catalog);
+            }
+            return WordIndex.this.resolve(docs, size, catalog);
+        }
+
+        private boolean before(int a, int costA, int b, int costB) {
+            if (costA != costB) return costA < costB;
+            return better(a, b);
+        }
+    }
+
+    final List<Book> resolve(int[] docs, int n, Function<String, Optional<Book>> catalog) {
+        List<Book> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) catalog.apply(isbns[docs[i]]).ifPresent(out::add);
+        return out;
+    }
+
+    /** Lower-cased distinct words (runs of letters and digits), in order of first use. */
+    static String[] wordsOf(String text) {
+        String t = TextIndex.normalize(text);
+        Set<String> out = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= t.length(); i++) {
+            boolean wordChar = i < t.length() && Character.isLetterOrDigit(t.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                out.add(t.substring(start, i));
+                start = -1;
+            }
+        }
+        return out.isEmpty() ? NO_WORDS : out.toArray(NO_WORDS);
+    }
+
+    // ---------- Internals ----------
+    private int allocateDoc() {
+        if (freeCount > 0) return freeDocs[--freeCount];
+        if (nextDoc == isbns.length) {
+            isbns = Arrays.copyOf(isbns, nextDoc * 2);
+            words = Arrays.copyOf(words, nextDoc * 2);
+            scores = Arrays.copyOf(scores, nextDoc * 2);
+        }
+        return nextDoc++;
+    }
+}
@@ -0,0 +1,228 @@
+package com.lms.ingest;
+
+import com.lms.ingest.ImportResult.Rejection;
+import com.lms.model.Book;
+import com.lms.service.Library;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Bulk-loads a delimited catalog file (CSV, TSV, ...) into a Library.
+ *
+ * The file is cut into chunks of about chunkBytes at line boundaries. Each
+ * chunk is read with one positional FileChannel read and parsed on the
+ * ForkJoinPool, and its books go to Library.addBooks in batches, so parsing,
+ * validation and insertion all run in parallel. The import runs as a Library
+ * bulk load: search indexes are rebuilt once at the end instead of per book.
+ *
+ * Bad records are counted and skipped, never fatal. When an ISBN appears more
+ * than once, one of its records wins, but which one is unspecified.
+ */
+public class CatalogImporter {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+    /** How many rejected records an ImportResult describes individually. */
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private static final int SCAN_BLOCK = 8 * 1024;
+
+    private final Logger logger = Logger.getLogger(CatalogImporter.class.getName());
+    private final Library library;
+    private final char delimiter;
+    private final int batchSize;
+    private final int chunkBytes;
+    private final ForkJoinPool pool;
+
+    public CatalogImporter(Library library) {
+        this(library, ',', DEFAULT_BATCH_SIZE, DEFAULT_CHUNK_BYTES, ForkJoinPool.commonPool());
+    }
+
+    public CatalogImporter(Library library, char delimiter, int batchSize, int chunkBytes, ForkJoinPool pool) {
+        if (batchSize <= 0 || chunkBytes <= 0) {
+            throw new IllegalArgumentException("batchSize and chunkBytes must be positive");
+        }
+        DelimitedRecordParser.withDefaultColumns(delimiter); // validates the delimiter
+        this.library = Objects.requireNonNull(library);
+        this.delimiter = delimiter;
+        this.batchSize = batchSize;
+        this.chunkBytes = chunkBytes;
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    public ImportResult importFile(Path file) throws IOException {
+        return importFile(file, progress -> { });
+    }
+
+    /**
+     * Imports every record of the file.
+     *
+     * @param onProgress called from worker threads each time a chunk is done
+     */
+    public ImportResult importFile(Path file, Consumer<ImportProgress> onProgress) throws IOException {
+        Objects.requireNonNull(onProgress);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ImportProgress progress = new ImportProgress(size);
+
+            // An optional header names the columns; otherwise the first line is data
+            long start = startsWithBom(channel) ? 3 : 0;
+            long headerEnd = lineEnd(channel, start, size);
+            DelimitedRecordParser parser = DelimitedRecordParser.fromHeader(readLine(channel, start, headerEnd), delimiter);
+            if (parser == null) {
+                parser = DelimitedRecordParser.withDefaultColumns(delimiter);
+            } else {
+                start = headerEnd;
+            }
+            progress.chunkDone(start, 0, 0);
+
+            boolean ownsBulkLoad = !library.isBulkLoading();
+            if (ownsBulkLoad) library.beginBulkLoad();
+            List<Rejection> rejections = new ArrayList<>();
+            try {
+                List<ForkJoinTask<List<Rejection>>> tasks = new ArrayList<>();
+                DelimitedRecordParser p = parser;
+                while (start < size) {
+                    long end = start + chunkBytes >= size ? size : lineEnd(channel, start + chunkBytes - 1, size);
+                    long from = start;
+                    tasks.add(pool.submit(() -> importChunk(channel, p, from, end, progress, onProgress)));
+                    start = end;
+                }
+                for (ForkJoinTask<List<Rejection>> task : tasks) {
+                    List<Rejection> chunkRejections = await(task, tasks);
+                    for (Rejection r : chunkRejections) {
+                        if (rejections.size() < MAX_REPORTED_REJECTIONS) rejections.add(r);
+                    }
+                }
+            } finally {
+                if (ownsBulkLoad) library.endBulkLoad();
+            }
+
+            ImportResult result = new ImportResult(progress.getImportedRecords(), progress.getRejectedRecords(),
+                    size, progress.getElapsed(), rejections);
+            logger.info(() -> "Imported " + file + ": " + result);
+            return result;
+        }
+    }
+
+    // ---------- Workers ----------
+    private List<Rejection> importChunk(FileChannel channel, DelimitedRecordParser parser, long start, long end,
+                                        ImportProgress progress, Consumer<ImportProgress> onProgress) {
+        byte[] bytes = new byte[(int) (end - start)];
+        try {
+            readFully(channel, ByteBuffer.wrap(bytes), start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<Rejection> rejections = new ArrayList<>();
+        List<Book> batch = new ArrayList<>(batchSize);
+        int imported = 0;
+        int rejected = 0;
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') lineEnd++;
+            int to = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (!isBlank(bytes, lineStart, to)) {
+                try {
+                    batch.add(parser.parse(bytes, lineStart, to));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                        rejections.add(new Rejection(start + lineStart, e.getMessage()));
+                    }
+                }
+                if (batch.size() == batchSize) {
+                    library.addBooks(batch);
+                    imported += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (!batch.isEmpty()) {
+            library.addBooks(batch);
+            imported += batch.size();
+        }
+        progress.chunkDone(bytes.length, imported, rejected);
+        onProgress.accept(progress);
+        return rejections;
+    }
+
+    // ---------- Internals ----------
+    private static <T> T await(ForkJoinTask<T> task, List<? extends ForkJoinTask<?>> all) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (ForkJoinTask<?> t : all) t.cancel(false);
+            throw new InterruptedIOException("import interrupted");
+        } catch (ExecutionException e) {
+            for (ForkJoinTask<?> t : all) t.cancel(false);
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /** Position just past the first newline at or after pos, or size if there is none. */
+    private static long lineEnd(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BLOCK);
+        while (pos < size) {
+            block.clear();
+            int n = channel.read(block, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (block.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private static String readLine(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.min(end - start, Integer.MAX_VALUE - 8));
+        readFully(channel, buf, start);
+        String line = new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8);
+        return line.strip();
+    }
+
+    private static boolean startsWithBom(FileChannel channel) throws IOException {
+        ByteBuffer bom = ByteBuffer.allocate(3);
+        readFully(channel, bom, 0);
+        return bom.position() == 3 && (bom.get(0) & 0xff) == 0xEF && (bom.get(1) & 0xff) == 0xBB
+                && (bom.get(2) & 0xff) == 0xBF;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, pos);
+            if (n < 0) break;
+            pos += n;
+        }
+    }
+
+    private static boolean isBlank(byte[] b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] != ' ' && b[i] != '\t') return false;
+        }
+        return true;
+    }
+}
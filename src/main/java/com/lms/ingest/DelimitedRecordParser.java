@@ -0,0 +1,151 @@
+package com.lms.ingest;
+
+import com.lms.model.Book;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns one line of a delimited catalog feed into a Book.
+ *
+ * Fields may be quoted ("a, b" with "" as an escaped quote); records must fit
+ * on one line. Columns are located by header name. Besides the plain names,
+ * the MARC tags that carry the same data are accepted (020 ISBN, 245 title,
+ * 100 author, 260/264 year), so tag-headed exports need no remapping.
+ * Without a recognized header the order is isbn, title, author, year, copies.
+ *
+ * Immutable and thread-safe.
+ */
+final class DelimitedRecordParser {
+    static final int ISBN = 0;
+    static final int TITLE = 1;
+    static final int AUTHOR = 2;
+    static final int YEAR = 3;
+    static final int COPIES = 4;
+    private static final int COLUMNS = 5;
+
+    private final byte delimiter;
+    private final int[] columnOf;   // field -> column, -1 if absent
+    private final int required;     // fields needed to reach ISBN and title
+
+    private DelimitedRecordParser(byte delimiter, int[] columnOf) {
+        this.delimiter = delimiter;
+        this.columnOf = columnOf;
+        this.required = Math.max(columnOf[ISBN], columnOf[TITLE]) + 1;
+    }
+
+    static DelimitedRecordParser withDefaultColumns(char delimiter) {
+        return new DelimitedRecordParser(checkDelimiter(delimiter), new int[] {0, 1, 2, 3, 4});
+    }
+
+    /**
+     * A parser for the columns named in the header line, or null if the line
+     * is not a header (it does not name an ISBN and a title column).
+     */
+    static DelimitedRecordParser fromHeader(String headerLine, char delimiter) {
+        byte d = checkDelimiter(delimiter);
+        byte[] bytes = headerLine.getBytes(StandardCharsets.UTF_8);
+        List<String> names = split(bytes, 0, bytes.length, d);
+        int[] columnOf = new int[COLUMNS];
+        Arrays.fill(columnOf, -1);
+        for (int c = 0; c < names.size(); c++) {
+            int field = fieldNamed(names.get(c).trim().toLowerCase(Locale.ROOT));
+            if (field >= 0 && columnOf[field] < 0) columnOf[field] = c;
+        }
+        if (columnOf[ISBN] < 0 || columnOf[TITLE] < 0) return null;
+        return new DelimitedRecordParser(d, columnOf);
+    }
+
+    /**
+     * Parses bytes [from, to) of the buffer, without the line terminator.
+     * Missing trailing optional fields default (no author, year 0, one copy).
+     *
+     * @throws IllegalArgumentException if the record is malformed or invalid
+     */
+    Book parse(byte[] line, int from, int to) {
+        List<String> fields = split(line, from, to, delimiter);
+        if (fields.size() < required) {
+            throw new IllegalArgumentException("expected at least " + required + " fields, found " + fields.size());
+        }
+        String isbn = field(fields, ISBN);
+        if (isbn.isEmpty()) throw new IllegalArgumentException("missing ISBN");
+        String title = field(fields, TITLE);
+        if (title.isEmpty()) throw new IllegalArgumentException("missing title for " + isbn);
+        int year = number(field(fields, YEAR), "year", 0);
+        int copies = number(field(fields, COPIES), "copies", 1);
+        if (copies < 0) throw new IllegalArgumentException("negative copies for " + isbn);
+        return new Book(isbn, title, field(fields, AUTHOR), year, copies);
+    }
+
+    // ---------- Internals ----------
+    private String field(List<String> fields, int field) {
+        int c = columnOf[field];
+        return c < 0 || c >= fields.size() ? "" : fields.get(c).trim();
+    }
+
+    private static int number(String value, String name, int absent) {
+        if (value.isEmpty()) return absent;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad " + name + ": " + value);
+        }
+    }
+
+    private static int fieldNamed(String name) {
+        switch (name) {
+            case "isbn": case "020": return ISBN;
+            case "title": case "245": return TITLE;
+            case "author": case "100": return AUTHOR;
+            case "year": case "publicationyear": case "260": case "264": return YEAR;
+            case "copies": return COPIES;
+            default: return -1;
+        }
+    }
+
+    private static byte checkDelimiter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r' || delimiter > 0x7f) {
+            throw new IllegalArgumentException("delimiter must be an ASCII character other than quote or newline");
+        }
+        return (byte) delimiter;
+    }
+
+    // Delimiters and quotes are ASCII, so they never occur inside a multi-byte
+    // UTF-8 sequence and the line can be split before decoding.
+    private static List<String> split(byte[] b, int from, int to, byte delimiter) {
+        List<String> out = new ArrayList<>(COLUMNS);
+        int i = from;
+        while (true) {
+            if (i < to && b[i] == '"') {
+                StringBuilder sb = new StringBuilder();
+                int start = ++i;
+                while (true) {
+                    if (i >= to) throw new IllegalArgumentException("unterminated quoted field");
+                    if (b[i] == '"') {
+                        sb.append(new String(b, start, i - start, StandardCharsets.UTF_8));
+                        if (i + 1 < to && b[i + 1] == '"') {
+                            sb.append('"');
+                            i += 2;
+                            start = i;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+                if (i < to && b[i] != delimiter) throw new IllegalArgumentException("text after closing quote");
+                out.add(sb.toString());
+            } else {
+                int start = i;
+                while (i < to && b[i] != delimiter) i++;
+                out.add(new String(b, start, i - start, StandardCharsets.UTF_8));
+            }
+            if (i >= to) return out;
+            i++; // skip delimiter
+        }
+    }
+}
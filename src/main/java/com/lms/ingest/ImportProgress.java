@@ -0,0 +1,48 @@
+package com.lms.ingest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of a running import. Workers update it as they finish
+ * chunks; readers may poll it from any thread.
+ */
+public class ImportProgress {
+    private final long totalBytes;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    ImportProgress(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    void chunkDone(long bytes, int importedRecords, int rejectedRecords) {
+        imported.addAndGet(importedRecords);
+        rejected.addAndGet(rejectedRecords);
+        bytesDone.addAndGet(bytes);
+    }
+
+    public long getTotalBytes() { return totalBytes; }
+    public long getBytesDone() { return bytesDone.get(); }
+    public long getImportedRecords() { return imported.get(); }
+    public long getRejectedRecords() { return rejected.get(); }
+    public Duration getElapsed() { return Duration.ofNanos(System.nanoTime() - startNanos); }
+
+    /** Share of the file processed so far, 0.0 to 1.0. */
+    public double getFractionDone() {
+        return totalBytes == 0 ? 1.0 : (double) bytesDone.get() / totalBytes;
+    }
+
+    public double getRecordsPerSecond() {
+        long nanos = System.nanoTime() - startNanos;
+        return nanos == 0 ? 0 : imported.get() * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportProgress{%.1f%%, imported=%d, rejected=%d, %.0f records/s}",
+                getFractionDone() * 100, getImportedRecords(), getRejectedRecords(), getRecordsPerSecond());
+    }
+}
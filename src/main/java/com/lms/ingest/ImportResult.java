@@ -0,0 +1,64 @@
+package com.lms.ingest;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a finished import. Only the first few rejected records are
+ * kept with their reasons; the counts cover all of them.
+ */
+public class ImportResult {
+
+    /** A record that failed to parse or validate, located by its byte offset in the file. */
+    public static final class Rejection {
+        private final long offset;
+        private final String reason;
+
+        Rejection(long offset, String reason) {
+            this.offset = offset;
+            this.reason = reason;
+        }
+
+        public long getOffset() { return offset; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "offset " + offset + ": " + reason;
+        }
+    }
+
+    private final long importedRecords;
+    private final long rejectedRecords;
+    private final long bytes;
+    private final Duration elapsed;
+    private final List<Rejection> rejections;
+
+    ImportResult(long importedRecords, long rejectedRecords, long bytes, Duration elapsed,
+                 List<Rejection> rejections) {
+        this.importedRecords = importedRecords;
+        this.rejectedRecords = rejectedRecords;
+        this.bytes = bytes;
+        this.elapsed = elapsed;
+        this.rejections = Collections.unmodifiableList(rejections);
+    }
+
+    public long getImportedRecords() { return importedRecords; }
+    public long getRejectedRecords() { return rejectedRecords; }
+    public long getBytes() { return bytes; }
+    public Duration getElapsed() { return elapsed; }
+    /** The first rejected records, in file order. */
+    public List<Rejection> getRejections() { return rejections; }
+
+    public double getRecordsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : importedRecords * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportResult{imported=%d, rejected=%d, bytes=%d, elapsed=%dms, %.0f records/s}",
+                importedRecords, rejectedRecords, bytes, elapsed.toMillis(), getRecordsPerSecond());
+    }
+}
@@ -0,0 +1,41 @@
+package com.lms.metrics;
+
+/** Immutable copy of a LatencyHistogram, in nanoseconds. */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] counts, long totalNanos, long maxNanos) {
+        this.counts = counts;
+        long n = 0;
+        for (long c : counts) n += c;
+        this.count = n;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() { return count; }
+    public long getMaxNanos() { return maxNanos; }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Smallest latency that at least the given percentage of recorded values
+     * do not exceed, to within the histogram's precision; 0 if empty.
+     */
+    public long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("percentile must be in [0, 100]");
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(LatencyHistogram.highestValueIn(i), maxNanos);
+        }
+        return maxNanos;
+    }
+}
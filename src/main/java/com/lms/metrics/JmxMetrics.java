@@ -0,0 +1,46 @@
+package com.lms.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Objects;
+
+/** Exposes a MetricsRegistry on the platform MBean server. */
+public class JmxMetrics implements MetricsMXBean {
+    public static final String DEFAULT_NAME = "com.lms:type=Metrics";
+
+    private final MetricsRegistry registry;
+
+    public JmxMetrics(MetricsRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        return registry.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        registry.reset();
+    }
+
+    /** Registers the registry under DEFAULT_NAME, replacing any earlier registration. */
+    public static ObjectName register(MetricsRegistry registry) throws JMException {
+        return register(registry, new ObjectName(DEFAULT_NAME));
+    }
+
+    public static ObjectName register(MetricsRegistry registry, ObjectName name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+        server.registerMBean(new JmxMetrics(registry), name);
+        return name;
+    }
+
+    public static void unregister(ObjectName name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+    }
+}
@@ -0,0 +1,70 @@
+package com.lms.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram.
+ *
+ * Values below 128 ns get a bucket each; above that every power of two is
+ * split into 64 equal sub-buckets, so any recorded value is off by at most
+ * 1/64 (about 1.6%) of itself. Values beyond about 18 minutes land in the
+ * last bucket. Recording is one atomic increment on a preallocated array,
+ * with no allocation and no lock, and is safe from any number of threads.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BITS = 7;                      // 0..127 exact
+    private static final int SUB_BUCKET_BITS = LINEAR_BITS - 1;    // 64 per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 39;                    // 2^40 ns is about 18 minutes
+    static final int BUCKETS = (1 << LINEAR_BITS) + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) max = maxNanos.get();
+    }
+
+    /**
+     * A copy of the current counts. Recording continues meanwhile, so the copy
+     * may include part of a concurrent record (its bucket but not its total).
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        return new HistogramSnapshot(copy, totalNanos.sum(), maxNanos.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    // ---------- Bucket layout ----------
+    static int bucketOf(long nanos) {
+        if (nanos < (1 << LINEAR_BITS)) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (nanos >>> shift) - SUB_BUCKETS;             // 0..63
+        return (1 << LINEAR_BITS) + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /** Largest value that falls into the bucket. */
+    static long highestValueIn(int bucket) {
+        if (bucket < (1 << LINEAR_BITS)) return bucket;
+        int above = bucket - (1 << LINEAR_BITS);
+        int exponent = LINEAR_BITS + above / SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long low = (long) (SUB_BUCKETS + above % SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,18 @@
+package com.lms.metrics;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Writes one INFO line per operation that has been called. */
+public class LoggingMetricsExporter implements MetricsExporter {
+    private final Logger logger = Logger.getLogger(LoggingMetricsExporter.class.getName());
+
+    @Override
+    public void export(List<OperationStats> stats) {
+        if (!logger.isLoggable(Level.INFO)) return;
+        for (OperationStats s : stats) {
+            if (s.getCalls() > 0) logger.info(s.toString());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.lms.metrics;
+
+import java.util.List;
+
+/** Ships metric snapshots somewhere (a log, a file, a monitoring system). */
+@FunctionalInterface
+public interface MetricsExporter {
+
+    /** Receives cumulative stats for every operation, ordered by name. */
+    void export(List<OperationStats> stats);
+}
@@ -0,0 +1,11 @@
+package com.lms.metrics;
+
+import java.util.List;
+
+/** JMX view of a MetricsRegistry (see JmxMetrics). */
+public interface MetricsMXBean {
+
+    List<OperationStats> getOperations();
+
+    void reset();
+}
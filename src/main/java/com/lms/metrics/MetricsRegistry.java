@@ -0,0 +1,43 @@
+package com.lms.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named OperationMetrics. Services record into {@link #global()} unless
+ * given another registry, so metrics are on by default.
+ *
+ * Thread-safe.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /** The metrics for this operation name, created on first use. */
+    public OperationMetrics operation(String name) {
+        Objects.requireNonNull(name);
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /** Every operation's current stats, ordered by name. */
+    public List<OperationStats> snapshot() {
+        List<OperationStats> out = new ArrayList<>(operations.size());
+        for (OperationMetrics m : operations.values()) out.add(m.snapshot());
+        out.sort(Comparator.comparing(OperationStats::getName));
+        return out;
+    }
+
+    /** Zeroes every operation; handles held by services stay valid. */
+    public void reset() {
+        for (OperationMetrics m : operations.values()) m.reset();
+    }
+}
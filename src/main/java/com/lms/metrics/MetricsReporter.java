@@ -0,0 +1,54 @@
+package com.lms.metrics;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Periodically hands a registry's snapshot to an exporter. */
+public class MetricsReporter implements Closeable {
+    private final Logger logger = Logger.getLogger(MetricsReporter.class.getName());
+    private final MetricsRegistry registry;
+    private final MetricsExporter exporter;
+    private ScheduledExecutorService scheduler;
+
+    public MetricsReporter(MetricsRegistry registry, MetricsExporter exporter) {
+        this.registry = Objects.requireNonNull(registry);
+        this.exporter = Objects.requireNonNull(exporter);
+    }
+
+    /** Exports the current snapshot now, on the calling thread. */
+    public void report() {
+        exporter.export(registry.snapshot());
+    }
+
+    /** Exports every interval on a daemon thread until closed. */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) return;
+        long millis = Math.max(1, interval.toMillis());
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                report();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Metrics export failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
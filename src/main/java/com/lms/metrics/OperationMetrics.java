@@ -0,0 +1,51 @@
+package com.lms.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call and failure counters plus a latency histogram for one operation.
+ * Services look their handles up once and then record without allocating:
+ *
+ * <pre>
+ *   long start = System.nanoTime();
+ *   ...
+ *   checkoutMetrics.record(start, ok);
+ * </pre>
+ */
+public class OperationMetrics {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    /** Records one call that started at startNanos (from System.nanoTime) and ends now. */
+    public void record(long startNanos, boolean succeeded) {
+        latency.record(System.nanoTime() - startNanos);
+        calls.increment();
+        if (!succeeded) failures.increment();
+    }
+
+    public void record(long startNanos) {
+        record(startNanos, true);
+    }
+
+    public OperationStats snapshot() {
+        return new OperationStats(name, calls.sum(), failures.sum(), latency.snapshot());
+    }
+
+    public HistogramSnapshot latencySnapshot() {
+        return latency.snapshot();
+    }
+
+    public void reset() {
+        calls.reset();
+        failures.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,46 @@
+package com.lms.metrics;
+
+/**
+ * Point-in-time summary of one operation. Latencies are in microseconds.
+ * Plain getters only, so JMX can expose it as open data.
+ */
+public class OperationStats {
+    private final String name;
+    private final long calls;
+    private final long failures;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    OperationStats(String name, long calls, long failures, HistogramSnapshot latency) {
+        this.name = name;
+        this.calls = calls;
+        this.failures = failures;
+        this.meanMicros = latency.getMeanNanos() / 1e3;
+        this.p50Micros = latency.valueAtPercentile(50) / 1e3;
+        this.p90Micros = latency.valueAtPercentile(90) / 1e3;
+        this.p99Micros = latency.valueAtPercentile(99) / 1e3;
+        this.p999Micros = latency.valueAtPercentile(99.9) / 1e3;
+        this.maxMicros = latency.getMaxNanos() / 1e3;
+    }
+
+    public String getName() { return name; }
+    public long getCalls() { return calls; }
+    /** Calls that returned a negative result (false, empty) or threw. */
+    public long getFailures() { return failures; }
+    public double getMeanMicros() { return meanMicros; }
+    public double getP50Micros() { return p50Micros; }
+    public double getP90Micros() { return p90Micros; }
+    public double getP99Micros() { return p99Micros; }
+    public double getP999Micros() { return p999Micros; }
+    public double getMaxMicros() { return maxMicros; }
+
+    @Override
+    public String toString() {
+        return String.format("%s calls=%d failures=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                name, calls, failures, meanMicros, p50Micros, p90Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
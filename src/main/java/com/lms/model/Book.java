@@ -1,25 +1,36 @@
 package com.lms.model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Immutable ISBN value (final) with mutable metadata.
- * Tracks number of times borrowed.
+ * Tracks number of times borrowed and how many copies the library holds.
+ *
+ * Thread-safe: total and available copy counts are packed into one long and
+ * updated by CAS, so a checkout is a lock-free decrement-if-positive that can
+ * never lend more copies than exist, and metadata fields are volatile.
  */
 public class Book {
     private final String isbn;
-    private String title;
-    private String author;
-    private int publicationYear;
-    private boolean available;
-    private int timesBorrowed; // new field to track borrow count
+    private volatile String title;
+    private volatile String author;
+    private volatile int publicationYear;
+    private final AtomicLong copies;  // total << 32 | available
+    private final AtomicInteger timesBorrowed = new AtomicInteger();
 
     public Book(String isbn, String title, String author, int publicationYear) {
+        this(isbn, title, author, publicationYear, 1);
+    }
+
+    public Book(String isbn, String title, String author, int publicationYear, int copies) {
         if (isbn == null || isbn.isBlank()) throw new IllegalArgumentException("ISBN required");
+        if (copies < 0) throw new IllegalArgumentException("copies must not be negative");
         this.isbn = isbn.trim();
         this.title = title == null ? "" : title.trim();
         this.author = author == null ? "" : author.trim();
         this.publicationYear = publicationYear;
-        this.available = true;
-        this.timesBorrowed = 0;
+        this.copies = new AtomicLong(packCopies(copies, copies));
     }
 
     // Getters
@@ -27,24 +38,113 @@ public class Book {
     public String getTitle() { return title; }
     public String getAuthor() { return author; }
     public int getPublicationYear() { return publicationYear; }
-    public boolean isAvailable() { return available; }
-    public int getTimesBorrowed() { return timesBorrowed; }
+    public boolean isAvailable() { return availableOf(copyState()) > 0; }
+    public int getTotalCopies() { return totalOf(copyState()); }
+    /** Copies on the shelf; never negative, even just after copies were withdrawn. */
+    public int getAvailableCopies() { return Math.max(0, availableOf(copyState())); }
+    /**
+     * Copies on the shelf, negative while more copies are lent than remain
+     * after a withdrawal. Persist and copy this rather than getAvailableCopies().
+     */
+    public int getRawAvailableCopies() { return availableOf(copyState()); }
+    public int getTimesBorrowed() { return timesBorrowed.get(); }
 
     // Setters
     public void setTitle(String title) { this.title = title == null ? "" : title.trim(); }
     public void setAuthor(String author) { this.author = author == null ? "" : author.trim(); }
     public void setPublicationYear(int publicationYear) { this.publicationYear = publicationYear; }
-    public void setAvailable(boolean available) { this.available = available; }
+    /** Puts every copy on the shelf (true) or marks every copy as lent (false). */
+    public void setAvailable(boolean available) {
+        while (true) {
+            long s = copyState();
+            int total = totalOf(s);
+            if (casCopyState(s, packCopies(total, available ? total : 0))) return;
+        }
+    }
+    public void setTimesBorrowed(int timesBorrowed) { this.timesBorrowed.set(timesBorrowed); }
+
+    /**
+     * Adds or withdraws copies. Copies currently lent stay lent, so withdrawing
+     * more than are on the shelf leaves none available until enough come back.
+     */
+    public void setTotalCopies(int total) {
+        if (total < 0) throw new IllegalArgumentException("copies must not be negative");
+        while (true) {
+            long s = copyState();
+            int available = availableOf(s) + (total - totalOf(s));
+            if (casCopyState(s, packCopies(total, available))) return;
+        }
+    }
+
+    /** Sets the shelf count directly, e.g. when restoring from a snapshot. */
+    public void setAvailableCopies(int available) {
+        while (true) {
+            long s = copyState();
+            if (casCopyState(s, packCopies(totalOf(s), available))) return;
+        }
+    }
+
+    // Atomic availability transitions
+    /** Takes one copy off the shelf if any is left (decrement-if-positive). */
+    public boolean tryCheckout() {
+        while (true) {
+            long s = copyState();
+            int available = availableOf(s);
+            if (available <= 0) return false;
+            if (casCopyState(s, packCopies(totalOf(s), available - 1))) return true;
+        }
+    }
+
+    /** Puts one copy back on the shelf; false if none was lent. */
+    public boolean checkIn() {
+        while (true) {
+            long s = copyState();
+            int available = availableOf(s);
+            int total = totalOf(s);
+            if (available >= total) return false;
+            if (casCopyState(s, packCopies(total, available + 1))) return true;
+        }
+    }
+
+    /**
+     * Recovery only: replays a journaled checkout or return (delta -1 or +1)
+     * without bounds checks. Concurrent checkouts and returns may be journaled
+     * in a different order than their counter updates, so a bound can be
+     * crossed mid-replay; the final count is still exact.
+     */
+    public void replayCopyChange(int delta) {
+        while (true) {
+            long s = copyState();
+            if (casCopyState(s, packCopies(totalOf(s), availableOf(s) + delta))) return;
+        }
+    }
 
     // Increment times borrowed
     public void incrementTimesBorrowed() {
-        timesBorrowed++;
+        timesBorrowed.incrementAndGet();
+    }
+
+    // Copy state storage; overridden by views that keep it elsewhere
+    protected long copyState() {
+        return copies.get();
     }
 
+    protected boolean casCopyState(long expect, long update) {
+        return copies.compareAndSet(expect, update);
+    }
+
+    protected static long packCopies(int total, int available) {
+        return ((long) total << 32) | (available & 0xFFFFFFFFL);
+    }
+
+    protected static int totalOf(long state) { return (int) (state >>> 32); }
+    protected static int availableOf(long state) { return (int) state; }
+
     @Override
     public String toString() {
-        return String.format("Book{isbn='%s', title='%s', author='%s', year=%d, available=%s, timesBorrowed=%d}",
-                isbn, title, author, publicationYear, available, timesBorrowed);
+        String copies = getTotalCopies() == 1 ? "" : ", copies=" + getAvailableCopies() + "/" + getTotalCopies();
+        return String.format("Book{isbn='%s', title='%s', author='%s', year=%d, available=%s%s, timesBorrowed=%d}",
+                isbn, getTitle(), getAuthor(), getPublicationYear(), isAvailable(), copies, getTimesBorrowed());
     }
 
     @Override
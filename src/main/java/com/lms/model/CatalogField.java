@@ -0,0 +1,17 @@
+package com.lms.model;
+
+/**
+ * Aspects of the catalog that change independently, so derived results
+ * (e.g. cached searches) can be invalidated only by the changes they depend on.
+ */
+public enum CatalogField {
+    /** Books added, removed or edited (title, author, year, ISBN). */
+    CONTENT,
+    /** A book running out of copies on the shelf, or getting one back. */
+    AVAILABILITY,
+    /**
+     * The order of books by timesBorrowed (then ISBN), which ranks some
+     * search results. Bumped only by borrows that change that order.
+     */
+    POPULARITY
+}
@@ -0,0 +1,33 @@
+package com.lms.model;
+
+import java.time.Instant;
+
+/**
+ * A copy set aside for the patron at the head of a reservation queue.
+ * The copy stays out of circulation until the patron checks it out or the
+ * hold expires.
+ */
+public class Hold {
+    private final String isbn;
+    private final String patronId;
+    private final Instant expiresAt;
+
+    public Hold(String isbn, String patronId, Instant expiresAt) {
+        this.isbn = isbn;
+        this.patronId = patronId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getIsbn() { return isbn; }
+    public String getPatronId() { return patronId; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hold{isbn='%s', patronId='%s', expiresAt=%s}", isbn, patronId, expiresAt);
+    }
+}
@@ -0,0 +1,68 @@
+package com.lms.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns ISBNs as dense int ids, so per-patron state can hold primitive
+ * ints instead of String references.
+ *
+ * Ids are assigned on first use and never reused or released; the
+ * dictionary grows with the number of distinct ISBNs ever seen, which the
+ * catalog bounds in practice. Lookups in both directions are lock-free;
+ * only assigning a new id takes the monitor.
+ */
+public final class IsbnDictionary {
+    private static final IsbnDictionary GLOBAL = new IsbnDictionary();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // Written under the monitor before the id is published through ids
+    private volatile String[] isbns = new String[1024];
+    private int nextId;
+
+    /** The process-wide dictionary Patron ids refer to. */
+    public static IsbnDictionary global() {
+        return GLOBAL;
+    }
+
+    /** The id of the ISBN, assigning one if it has none yet. */
+    public int idOf(String isbn) {
+        Integer id = ids.get(isbn);
+        return id != null ? id : assign(isbn);
+    }
+
+    /** The id of the ISBN, or -1 if it was never interned. */
+    public int lookup(String isbn) {
+        if (isbn == null) return -1;
+        Integer id = ids.get(isbn);
+        return id == null ? -1 : id;
+    }
+
+    /** The ISBN behind an id returned by {@link #idOf}. */
+    public String isbn(int id) {
+        String[] table = isbns;
+        if (id < 0 || id >= table.length || table[id] == null) {
+            throw new IllegalArgumentException("Unknown ISBN id: " + id);
+        }
+        return table[id];
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int assign(String isbn) {
+        if (isbn == null) throw new IllegalArgumentException("ISBN required");
+        Integer id = ids.get(isbn);
+        if (id != null) return id;
+        String[] table = isbns;
+        if (nextId == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[nextId] = isbn;
+        isbns = table;
+        ids.put(isbn, nextId);
+        return nextId++;
+    }
+}
@@ -2,6 +2,7 @@ package com.lms.model;
 
 import java.time.LocalDate;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class LendingRecord {
     private final String recordId;
@@ -10,24 +11,55 @@ public class LendingRecord {
     private final String bookTitle;
     private final LocalDate borrowedDate;
     private final LocalDate dueDate;
-    private LocalDate returnedDate;
-    private String status; // "BORROWED" or "RETURNED"
+    private volatile LocalDate returnedDate;
+    private volatile LendingStatus status;
 
     // Constructor
     public LendingRecord(String bookIsbn, String patronId, String bookTitle) {
-        this.recordId = UUID.randomUUID().toString();
+        this(bookIsbn, patronId, bookTitle, LocalDate.now());
+    }
+
+    /** A new loan starting on the given date, e.g. one date shared by a whole batch. */
+    public LendingRecord(String bookIsbn, String patronId, String bookTitle, LocalDate borrowedDate) {
+        this.recordId = newRecordId();
         this.bookIsbn = bookIsbn;
         this.patronId = patronId;
         this.bookTitle = bookTitle;
-        this.borrowedDate = LocalDate.now();
+        this.borrowedDate = borrowedDate;
         this.dueDate = borrowedDate.plusWeeks(2); // loan period 2 weeks
-        this.status = "BORROWED";
+        this.status = LendingStatus.BORROWED;
+    }
+
+    // Restore a record exactly as it was persisted
+    public LendingRecord(String recordId, String bookIsbn, String patronId, String bookTitle,
+                         LocalDate borrowedDate, LocalDate dueDate, LocalDate returnedDate) {
+        this.recordId = recordId;
+        this.bookIsbn = bookIsbn;
+        this.patronId = patronId;
+        this.bookTitle = bookTitle;
+        this.borrowedDate = borrowedDate;
+        this.dueDate = dueDate;
+        this.returnedDate = returnedDate;
+        this.status = returnedDate == null ? LendingStatus.BORROWED : LendingStatus.RETURNED;
+    }
+
+    // Random (version 4) UUID. Record ids only need to be unique, not
+    // unguessable, so this skips UUID.randomUUID()'s SecureRandom.
+    private static String newRecordId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(msb, lsb).toString();
     }
 
     // Mark book returned
     public void markReturned() {
-        this.returnedDate = LocalDate.now();
-        this.status = "RETURNED";
+        markReturned(LocalDate.now());
+    }
+
+    public void markReturned(LocalDate returnedDate) {
+        this.returnedDate = returnedDate;
+        this.status = LendingStatus.RETURNED;
     }
 
     // --------- Getters ---------
@@ -38,5 +70,6 @@ public class LendingRecord {
     public LocalDate getBorrowedDate() { return borrowedDate; }
     public LocalDate getDueDate() { return dueDate; }
     public LocalDate getReturnedDate() { return returnedDate; }
-    public String getStatus() { return status; }
+    public LendingStatus getStatus() { return status; }
+    public boolean isOpen() { return status == LendingStatus.BORROWED; }
 }
@@ -0,0 +1,9 @@
+package com.lms.model;
+
+/**
+ * Lifecycle state of a LendingRecord.
+ */
+public enum LendingStatus {
+    BORROWED,
+    RETURNED
+}
@@ -1,21 +1,46 @@
 package com.lms.model;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import com.lms.util.IntDeltaLog;
+import com.lms.util.IntHashSet;
+
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Represents a library patron (member).
  * Tracks borrowed books, reservations, and borrowing history.
+ *
+ * ISBNs are held as ids from the global {@link IsbnDictionary}: borrowed and
+ * reserved books as primitive int sets, history as a delta-encoded log that
+ * can be bounded with {@link #setHistoryLimit}. State is guarded by the
+ * patron's monitor; getters return snapshots of the ids that resolve to
+ * ISBNs only as elements are read.
+ *
+ * A Library that indexes its patrons by name and email registers a
+ * {@link ChangeListener}, so setName/setEmail on a registered patron keep
+ * those indexes current (and can be refused, e.g. for an email in use).
  */
 public class Patron {
+    private static final IsbnDictionary ISBNS = IsbnDictionary.global();
+
     private final String id;
-    private String name;
-    private String email;
+    private volatile String name;
+    private volatile String email;
 
-    private final List<String> borrowedIsbns = new ArrayList<>();
-    private final List<String> reservationIsbns = new ArrayList<>();
-    private final List<String> historyIsbns = new ArrayList<>();
+    private final IntHashSet borrowedIsbns = new IntHashSet();
+    private final IntHashSet reservationIsbns = new IntHashSet();
+    private final IntDeltaLog historyIsbns = new IntDeltaLog();
+    private volatile ChangeListener changeListener;
+
+    /** Told about a name or email change before it is made. */
+    public interface ChangeListener {
+        /**
+         * The patron still has its old name and email; name and email are
+         * the values it is about to have. Throw to refuse the change.
+         */
+        void changing(Patron patron, String name, String email);
+    }
 
     public Patron(String id, String name, String email) {
         if (id == null || id.isBlank()) throw new IllegalArgumentException("Patron id required");
@@ -28,47 +53,112 @@ public class Patron {
     public String getName() { return name; }
     public String getEmail() { return email; }
 
-    public void setName(String name) { this.name = name == null ? "" : name.trim(); }
-    public void setEmail(String email) { this.email = email == null ? "" : email.trim(); }
+    public synchronized void setName(String name) {
+        String value = name == null ? "" : name.trim();
+        ChangeListener listener = changeListener;
+        if (listener != null) listener.changing(this, value, email);
+        this.name = value;
+    }
 
+    /** @throws IllegalArgumentException if the patron's library has the address on another patron */
+    public synchronized void setEmail(String email) {
+        String value = email == null ? "" : email.trim();
+        ChangeListener listener = changeListener;
+        if (listener != null) listener.changing(this, name, value);
+        this.email = value;
+    }
 
-    public void addToHistory(String isbn) {
-    historyIsbns.add(isbn);
-}
+    /** Replaces the listener; null removes it. Libraries set this as they add the patron. */
+    public void setChangeListener(ChangeListener listener) {
+        this.changeListener = listener;
+    }
+
+    public ChangeListener getChangeListener() {
+        return changeListener;
+    }
+
+    /** Appends one borrow to the history; the Library does this for every borrow. */
+    public synchronized void addToHistory(String isbn) {
+        historyIsbns.append(ISBNS.idOf(isbn));
+    }
+
+    /**
+     * Keeps only the newest {@code limit} history entries; 0 (the default)
+     * keeps the whole history.
+     */
+    public synchronized void setHistoryLimit(int limit) {
+        historyIsbns.setLimit(limit);
+    }
 
     // Borrowing operations
-    public void borrow(String isbn) {
-        if (!borrowedIsbns.contains(isbn)) {
-            borrowedIsbns.add(isbn);
-        }
-        historyIsbns.add(isbn);
+    /** Marks the ISBN as out with this patron; history is recorded separately. */
+    public synchronized void borrow(String isbn) {
+        borrowedIsbns.add(ISBNS.idOf(isbn));
+    }
+
+    /** Removes the ISBN from the borrowed list; false if it was not borrowed. */
+    public synchronized boolean returned(String isbn) {
+        int isbnId = ISBNS.lookup(isbn);
+        return isbnId >= 0 && borrowedIsbns.remove(isbnId);
     }
 
-    public void returned(String isbn) {
-        borrowedIsbns.remove(isbn);
+    public synchronized boolean hasBorrowed(String isbn) {
+        int isbnId = ISBNS.lookup(isbn);
+        return isbnId >= 0 && borrowedIsbns.contains(isbnId);
     }
 
     // Reservation operations
-    public void reserve(String isbn) {
-        if (!reservationIsbns.contains(isbn)) reservationIsbns.add(isbn);
+    public synchronized void reserve(String isbn) {
+        reservationIsbns.add(ISBNS.idOf(isbn));
     }
 
-    public void cancelReservation(String isbn) {
-        reservationIsbns.remove(isbn);
+    public synchronized void cancelReservation(String isbn) {
+        int isbnId = ISBNS.lookup(isbn);
+        if (isbnId >= 0) reservationIsbns.remove(isbnId);
     }
 
-    // Read-only views
-    public List<String> getBorrowedIsbns() { return Collections.unmodifiableList(borrowedIsbns); }
-    public List<String> getReservationIsbns() { return Collections.unmodifiableList(reservationIsbns); }
-    public List<String> getHistoryIsbns() { return Collections.unmodifiableList(historyIsbns); }
+    /** Replaces all list state at once, e.g. when restoring from a snapshot. */
+    public synchronized void restoreState(List<String> borrowed, List<String> reservations, List<String> history) {
+        borrowedIsbns.clear();
+        for (String isbn : borrowed) borrowedIsbns.add(ISBNS.idOf(isbn));
+        reservationIsbns.clear();
+        for (String isbn : reservations) reservationIsbns.add(ISBNS.idOf(isbn));
+        historyIsbns.clear();
+        for (String isbn : history) historyIsbns.append(ISBNS.idOf(isbn));
+    }
+
+    // Read-only snapshots; borrowed and reserved ISBNs come in no particular order
+    public synchronized List<String> getBorrowedIsbns() { return new IsbnList(borrowedIsbns.toArray()); }
+    public synchronized List<String> getReservationIsbns() { return new IsbnList(reservationIsbns.toArray()); }
+    /** Borrow history, oldest first, within the history limit. */
+    public synchronized List<String> getHistoryIsbns() { return new IsbnList(historyIsbns.toArray()); }
 
     // New helper for RecommendationService
     public List<String> getBorrowingHistory() {
-        return Collections.unmodifiableList(historyIsbns);
+        return getHistoryIsbns();
     }
 
     @Override
     public String toString() {
         return String.format("Patron{id='%s', name='%s', email='%s'}", id, name, email);
     }
+
+    // Unmodifiable list over copied ids, resolving each ISBN on access
+    private static final class IsbnList extends AbstractList<String> implements RandomAccess {
+        private final int[] ids;
+
+        IsbnList(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public String get(int index) {
+            return ISBNS.isbn(ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
 }
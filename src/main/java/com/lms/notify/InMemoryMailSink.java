@@ -0,0 +1,51 @@
+package com.lms.notify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Keeps sent mail in memory, for tests and local runs. Thread-safe. */
+public class InMemoryMailSink implements MailSink {
+    private final List<MailMessage> messages = new ArrayList<>();
+    private int batches;
+
+    @Override
+    public synchronized void send(List<MailMessage> batch) {
+        messages.addAll(batch);
+        batches++;
+        notifyAll();
+    }
+
+    public synchronized List<MailMessage> getMessages() {
+        return new ArrayList<>(messages);
+    }
+
+    /** Messages sent to one address, in sending order. */
+    public synchronized List<MailMessage> getMessagesTo(String address) {
+        List<MailMessage> out = new ArrayList<>();
+        for (MailMessage m : messages) {
+            if (m.getTo().equals(address)) out.add(m);
+        }
+        return out;
+    }
+
+    public synchronized int getBatchCount() {
+        return batches;
+    }
+
+    /** Waits until at least count messages have been sent; false on timeout. */
+    public synchronized boolean awaitMessages(int count, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (messages.size() < count) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+        batches = 0;
+    }
+}
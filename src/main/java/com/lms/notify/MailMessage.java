@@ -0,0 +1,25 @@
+package com.lms.notify;
+
+import java.util.Objects;
+
+/** One e-mail to a patron. */
+public final class MailMessage {
+    private final String to;
+    private final String subject;
+    private final String body;
+
+    public MailMessage(String to, String subject, String body) {
+        this.to = Objects.requireNonNull(to);
+        this.subject = Objects.requireNonNull(subject);
+        this.body = Objects.requireNonNull(body);
+    }
+
+    public String getTo() { return to; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+
+    @Override
+    public String toString() {
+        return "MailMessage(to=" + to + ", subject=" + subject + ")";
+    }
+}
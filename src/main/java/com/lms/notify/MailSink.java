@@ -0,0 +1,12 @@
+package com.lms.notify;
+
+import java.util.List;
+
+/**
+ * Delivers batches of mail, e.g. over SMTP. Called by one dispatcher thread
+ * at a time and allowed to block; a thrown exception fails the whole batch.
+ */
+@FunctionalInterface
+public interface MailSink {
+    void send(List<MailMessage> batch);
+}
@@ -0,0 +1,198 @@
+package com.lms.notify;
+
+import com.lms.event.LibraryEvent;
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.Library;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Subscribes to library events and mails patrons when a reserved copy is
+ * ready for them or their reservation is queued, in batches.
+ *
+ * Messages are sent when batchSize have accumulated or maxDelay after the
+ * last send, whichever comes first. Demand is bounded: at most batchSize
+ * events are requested ahead, and events that became mail are requested
+ * again only once their batch has been handed to the sink, so a slow mail
+ * server holds events back in the publisher's buffer instead of piling them
+ * up here. Patrons without an e-mail address are skipped; a batch the sink
+ * rejects is logged and counted, not retried.
+ */
+public class NotificationDispatcher implements Flow.Subscriber<LibraryEvent>, AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(250);
+
+    private final Logger logger = Logger.getLogger(NotificationDispatcher.class.getName());
+    private final Library library;
+    private final MailSink sink;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Object sendLock = new Object();   // one batch at a time, in order
+
+    private List<MailMessage> pending = new ArrayList<>();   // guarded by this
+    private volatile Flow.Subscription subscription;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public NotificationDispatcher(Library library, MailSink sink) {
+        this(library, sink, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY);
+    }
+
+    public NotificationDispatcher(Library library, MailSink sink, int batchSize, Duration maxDelay) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        if (maxDelay.isNegative() || maxDelay.isZero()) throw new IllegalArgumentException("maxDelay must be positive");
+        this.library = Objects.requireNonNull(library);
+        this.sink = Objects.requireNonNull(sink);
+        this.batchSize = batchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = maxDelay.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    // ---------- Flow.Subscriber ----------
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(LibraryEvent event) {
+        MailMessage message = compose(event);
+        if (message == null) {
+            subscription.request(1);
+            return;
+        }
+        boolean full;
+        synchronized (this) {
+            pending.add(message);
+            full = pending.size() >= batchSize;
+        }
+        if (full) flush();
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        logger.log(Level.WARNING, "Event stream failed", error);
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public void onComplete() {
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    // ---------- Sending ----------
+
+    /** Sends whatever is pending now. */
+    public void flush() {
+        synchronized (sendLock) {
+            List<MailMessage> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+                batch = pending;
+                pending = new ArrayList<>(batchSize);
+            }
+            try {
+                sink.send(batch);
+                sent.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                failed.addAndGet(batch.size());
+                logger.log(Level.WARNING, "Mail batch of " + batch.size() + " failed", e);
+            } finally {
+                batches.incrementAndGet();
+                Flow.Subscription s = subscription;
+                if (s != null) s.request(batch.size());
+            }
+        }
+    }
+
+    /** Stops listening and sends what is pending. */
+    @Override
+    public void close() {
+        Flow.Subscription s = subscription;
+        if (s != null) s.cancel();
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    public long getSentCount() { return sent.get(); }
+    public long getFailedCount() { return failed.get(); }
+    public long getBatchCount() { return batches.get(); }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    // ---------- Internals ----------
+
+    private MailMessage compose(LibraryEvent event) {
+        if (event instanceof LibraryEvent.HoldReady) {
+            LibraryEvent.HoldReady ready = (LibraryEvent.HoldReady) event;
+            Patron patron = recipient(ready.getPatronId());
+            if (patron == null) return null;
+            String title = titleOf(ready.getIsbn());
+            String body = ready.getExpiresAt() == null
+                    ? "\"" + title + "\" (ISBN " + ready.getIsbn() + ") is back on the shelf."
+                    : "\"" + title + "\" (ISBN " + ready.getIsbn() + ") is being held for you until "
+                            + ready.getExpiresAt() + ".";
+            return new MailMessage(patron.getEmail(), "Ready for pickup: " + title, greeting(patron) + body);
+        }
+        if (event instanceof LibraryEvent.Reserved) {
+            LibraryEvent.Reserved reserved = (LibraryEvent.Reserved) event;
+            Patron patron = recipient(reserved.getPatronId());
+            if (patron == null) return null;
+            String title = titleOf(reserved.getIsbn());
+            return new MailMessage(patron.getEmail(), "Reservation confirmed: " + title,
+                    greeting(patron) + "You are in the queue for \"" + title + "\" (ISBN " + reserved.getIsbn()
+                            + "). We will write again when a copy is ready for you.");
+        }
+        return null;
+    }
+
+    private Patron recipient(String patronId) {
+        Optional<Patron> patron = library.getPatron(patronId);
+        if (patron.isEmpty() || patron.get().getEmail() == null || patron.get().getEmail().isBlank()) return null;
+        return patron.get();
+    }
+
+    private String titleOf(String isbn) {
+        return library.getBook(isbn).map(Book::getTitle).orElse(isbn);
+    }
+
+    private static String greeting(Patron patron) {
+        return "Hello " + patron.getName() + ",\n\n";
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Notification flush failed", e);
+        }
+    }
+}
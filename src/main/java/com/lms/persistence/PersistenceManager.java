@@ -0,0 +1,246 @@
+package com.lms.persistence;
+
+import com.lms.model.Book;
+import com.lms.model.CatalogField;
+import com.lms.model.LendingRecord;
+import com.lms.model.Patron;
+import com.lms.service.Library;
+import com.lms.service.LendingService;
+import com.lms.service.LibraryJournal;
+import com.lms.service.ReservationService;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Makes Library, LendingService and ReservationService state survive restarts.
+ *
+ * On open it loads the newest snapshot, replays the write-ahead log tail on
+ * top of it, then attaches a WalJournal so every further mutation is logged.
+ * checkpoint() (run periodically if a snapshot interval is set) writes a new
+ * snapshot and deletes log segments and snapshots it makes obsolete.
+ */
+public class PersistenceManager implements Closeable {
+    private static final Logger logger = Logger.getLogger(PersistenceManager.class.getName());
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+    public static final int DEFAULT_MAX_BATCH_BYTES = 256 * 1024;
+    static final String HISTORY_ARCHIVE_DIR = "history";
+
+    private final Path dir;
+    private final Library library;
+    private final LendingService lending;
+    private final ReservationService reservations;
+    private final WriteAheadLog wal;
+    private final WalJournal journal;
+    private final ScheduledExecutorService scheduler;
+    private final Object checkpointLock = new Object();
+
+    private PersistenceManager(Path dir, Library library, LendingService lending, ReservationService reservations,
+                               WriteAheadLog wal, boolean syncCommit, Duration snapshotInterval) {
+        this.dir = dir;
+        this.library = library;
+        this.lending = lending;
+        this.reservations = reservations;
+        this.wal = wal;
+        this.journal = new WalJournal(wal, syncCommit);
+
+        library.setJournal(journal);
+        lending.setJournal(journal);
+        reservations.setJournal(journal);
+
+        if (snapshotInterval != null && !snapshotInterval.isZero()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "lms-checkpoint");
+                t.setDaemon(true);
+                return t;
+            });
+            long millis = snapshotInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::checkpointQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /** Opens with asynchronous group commit and no periodic snapshots. */
+    public static PersistenceManager open(Path dir, Library library, LendingService lending,
+                                          ReservationService reservations) throws IOException {
+        return open(dir, library, lending, reservations, false, Duration.ZERO);
+    }
+
+    /**
+     * Recovers state into the given (empty) services and starts journaling.
+     *
+     * @param syncCommit       if true, each mutation waits for its fsync
+     * @param snapshotInterval how often to checkpoint; zero disables it
+     */
+    public static PersistenceManager open(Path dir, Library library, LendingService lending,
+                                          ReservationService reservations, boolean syncCommit,
+                                          Duration snapshotInterval) throws IOException {
+        // Archived history months are not in snapshots; register them first
+        lending.getLendingHistory().openArchive(dir.resolve(HISTORY_ARCHIVE_DIR));
+        long snapshotLsn = SnapshotStore.loadLatest(dir, library, lending, reservations);
+        long lastLsn;
+        try {
+            lastLsn = WriteAheadLog.replay(dir, snapshotLsn,
+                    entry -> apply(entry, library, lending, reservations));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        logger.info(() -> "Recovered library state: snapshot LSN " + snapshotLsn + ", log replayed to LSN " + lastLsn);
+
+        WriteAheadLog wal = WriteAheadLog.open(dir, lastLsn + 1,
+                DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_BATCH_BYTES);
+        return new PersistenceManager(dir, library, lending, reservations, wal, syncCommit, snapshotInterval);
+    }
+
+    // ---------- Checkpoints ----------
+
+    /**
+     * Writes a snapshot of the current state and truncates the log behind it.
+     * Mutations are paused only while the state is captured in memory.
+     * Returns the snapshot's LSN.
+     */
+    public long checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            long lsn;
+            byte[] snapshot;
+            journal.pauseMutations();
+            try {
+                lsn = wal.lastLsn();
+                snapshot = SnapshotStore.capture(lsn, library, lending, reservations);
+                wal.roll();
+            } finally {
+                journal.resumeMutations();
+            }
+            SnapshotStore.write(dir, lsn, snapshot);
+            wal.deleteSegmentsThrough(lsn);
+            SnapshotStore.deleteOlderThan(dir, lsn);
+            return lsn;
+        }
+    }
+
+    /**
+     * Moves closed loans returned before the given month out of memory into
+     * the history archive under this manager's directory. Later snapshots
+     * leave them out; queries still see them.
+     *
+     * @return the number of records archived
+     */
+    public int archiveHistoryBefore(YearMonth month) throws IOException {
+        return lending.getLendingHistory().archiveBefore(month);
+    }
+
+    /** Blocks until everything logged so far is on disk. */
+    public void sync() throws IOException {
+        wal.awaitDurable(wal.lastLsn());
+    }
+
+    public WriteAheadLog getWriteAheadLog() {
+        return wal;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) scheduler.shutdownNow();
+        library.setJournal(LibraryJournal.NONE);
+        lending.setJournal(LibraryJournal.NONE);
+        reservations.setJournal(LibraryJournal.NONE);
+        wal.close();
+    }
+
+    // ---------- Replay ----------
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Checkpoint failed", e);
+        }
+    }
+
+    private static void apply(WriteAheadLog.Entry entry, Library library, LendingService lending,
+                              ReservationService reservations) {
+        try (DataInputStream in = entry.payload()) {
+            switch (entry.getOp()) {
+                case BOOK_ADDED:
+                    library.addBook(RecordCodec.readBook(in));
+                    break;
+                case BOOK_UPDATED: {
+                    Book book = RecordCodec.readBook(in);
+                    if (library.getBook(book.getIsbn()).isPresent()) library.updateBook(book);
+                    break;
+                }
+                case BOOK_REMOVED:
+                    library.removeBook(RecordCodec.readString(in));
+                    break;
+                case COPIES_CHANGED: {
+                    String isbn = RecordCodec.readString(in);
+                    int total = in.readInt();
+                    library.getBook(isbn).ifPresent(b -> {
+                        b.setTotalCopies(total);
+                        library.getCatalogVersions().bump(CatalogField.AVAILABILITY);
+                    });
+                    break;
+                }
+                case PATRON_ADDED:
+                    library.restorePatron(RecordCodec.readPatron(in));
+                    break;
+                case PATRON_UPDATED: {
+                    Patron patron = RecordCodec.readPatron(in);
+                    if (library.getPatron(patron.getId()).isPresent()) library.restorePatron(patron);
+                    break;
+                }
+                case BOOK_BORROWED:
+                    library.borrowBook(RecordCodec.readString(in), RecordCodec.readString(in));
+                    break;
+                case BOOK_RETURNED:
+                    library.returnBook(RecordCodec.readString(in), RecordCodec.readString(in));
+                    break;
+                case CHECKED_OUT: {
+                    LendingRecord record = RecordCodec.readLendingRecord(in);
+                    lending.restoreCheckout(record);
+                    break;
+                }
+                case RETURNED:
+                    lending.restoreReturn(RecordCodec.readString(in), RecordCodec.readString(in),
+                            RecordCodec.readDate(in));
+                    break;
+                case RESERVED: {
+                    String isbn = RecordCodec.readString(in);
+                    library.getPatron(RecordCodec.readString(in))
+                            .ifPresent(p -> reservations.reserveBook(isbn, p));
+                    break;
+                }
+                case RESERVATION_FULFILLED:
+                    reservations.restoreFulfilled(RecordCodec.readString(in), RecordCodec.readString(in));
+                    break;
+                case RESERVATION_CANCELLED:
+                    reservations.restoreCancelled(RecordCodec.readString(in), RecordCodec.readString(in));
+                    break;
+                case HOLD_PLACED:
+                    reservations.restoreHold(RecordCodec.readHold(in), true);
+                    break;
+                case HOLD_RELEASED:
+                    reservations.restoreHoldReleased(RecordCodec.readString(in), RecordCodec.readString(in));
+                    break;
+                case HOLD_COLLECTED:
+                    reservations.restoreHoldCollected(RecordCodec.readString(in), RecordCodec.readString(in));
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled WAL op: " + entry.getOp());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt WAL record at LSN " + entry.getLsn(), e);
+        }
+    }
+}
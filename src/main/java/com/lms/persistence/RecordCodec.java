@@ -0,0 +1,141 @@
+package com.lms.persistence;
+
+import com.lms.model.Book;
+import com.lms.model.Hold;
+import com.lms.model.LendingRecord;
+import com.lms.model.Patron;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of model objects shared by the WAL, snapshots
+ * and the shard transport.
+ */
+public final class RecordCodec {
+    private static final long NO_DATE = Long.MIN_VALUE;
+    // In place of the old available flag (0/1): total and available copy counts follow
+    private static final byte COPIES_FOLLOW = 2;
+
+    private RecordCodec() { }
+
+    // ---------- Primitives ----------
+    public static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    static LocalDate readDate(DataInput in) throws IOException {
+        long day = in.readLong();
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    public static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String v : values) writeString(out, v);
+    }
+
+    public static List<String> readStrings(DataInput in) throws IOException {
+        int n = in.readInt();
+        List<String> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(readString(in));
+        return out;
+    }
+
+    // ---------- Model ----------
+    public static void writeBook(DataOutput out, Book book) throws IOException {
+        writeString(out, book.getIsbn());
+        writeString(out, book.getTitle());
+        writeString(out, book.getAuthor());
+        out.writeInt(book.getPublicationYear());
+        out.writeByte(COPIES_FOLLOW);
+        out.writeInt(book.getTotalCopies());
+        out.writeInt(book.getRawAvailableCopies());
+        out.writeInt(book.getTimesBorrowed());
+    }
+
+    public static Book readBook(DataInput in) throws IOException {
+        String isbn = readString(in);
+        String title = readString(in);
+        String author = readString(in);
+        int year = in.readInt();
+        byte availability = in.readByte();
+        Book book;
+        if (availability == COPIES_FOLLOW) {
+            book = new Book(isbn, title, author, year, in.readInt());
+            book.setAvailableCopies(in.readInt());
+        } else {
+            // Older records: a single copy and an available flag
+            book = new Book(isbn, title, author, year);
+            book.setAvailable(availability != 0);
+        }
+        book.setTimesBorrowed(in.readInt());
+        return book;
+    }
+
+    public static void writePatron(DataOutput out, Patron patron) throws IOException {
+        writeString(out, patron.getId());
+        writeString(out, patron.getName());
+        writeString(out, patron.getEmail());
+        writeStrings(out, patron.getBorrowedIsbns());
+        writeStrings(out, patron.getReservationIsbns());
+        writeStrings(out, patron.getHistoryIsbns());
+    }
+
+    public static Patron readPatron(DataInput in) throws IOException {
+        Patron patron = new Patron(readString(in), readString(in), readString(in));
+        List<String> borrowed = readStrings(in);
+        List<String> reservations = readStrings(in);
+        List<String> history = readStrings(in);
+        patron.restoreState(borrowed, reservations, history);
+        return patron;
+    }
+
+    static void writeLendingRecord(DataOutput out, LendingRecord r) throws IOException {
+        writeString(out, r.getRecordId());
+        writeString(out, r.getBookIsbn());
+        writeString(out, r.getPatronId());
+        writeString(out, r.getBookTitle());
+        writeDate(out, r.getBorrowedDate());
+        writeDate(out, r.getDueDate());
+        writeDate(out, r.getReturnedDate());
+    }
+
+    static LendingRecord readLendingRecord(DataInput in) throws IOException {
+        return new LendingRecord(readString(in), readString(in), readString(in), readString(in),
+                readDate(in), readDate(in), readDate(in));
+    }
+
+    static void writeHold(DataOutput out, Hold hold) throws IOException {
+        writeString(out, hold.getIsbn());
+        writeString(out, hold.getPatronId());
+        out.writeLong(hold.getExpiresAt().toEpochMilli());
+    }
+
+    static Hold readHold(DataInput in) throws IOException {
+        return new Hold(readString(in), readString(in), Instant.ofEpochMilli(in.readLong()));
+    }
+}
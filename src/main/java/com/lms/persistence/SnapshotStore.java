@@ -0,0 +1,180 @@
+package com.lms.persistence;
+
+import com.lms.model.Book;
+import com.lms.model.Hold;
+import com.lms.model.LendingRecord;
+import com.lms.model.Patron;
+import com.lms.service.Library;
+import com.lms.service.LendingService;
+import com.lms.service.ReservationService;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshots of the full library state.
+ *
+ * A snapshot is tagged with the LSN of the last log record it reflects, so
+ * recovery loads the newest valid snapshot and replays only the log tail.
+ * Files are written to a temp name and atomically renamed into place, and
+ * carry a CRC32 trailer so a half-written snapshot is never loaded.
+ */
+public final class SnapshotStore {
+    private static final int MAGIC = 0x4C4D5353; // "LMSS"
+    private static final int VERSION = 2; // 2 added holds
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private SnapshotStore() { }
+
+    /**
+     * Serializes the current state. Call with mutations paused so the bytes
+     * match the log exactly up to lsn.
+     */
+    static byte[] capture(long lsn, Library library, LendingService lending, ReservationService reservations)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(lsn);
+
+        List<Book> books = library.getAllBooks();
+        out.writeInt(books.size());
+        for (Book b : books) RecordCodec.writeBook(out, b);
+
+        List<Patron> patrons = library.getAllPatrons();
+        out.writeInt(patrons.size());
+        for (Patron p : patrons) RecordCodec.writePatron(out, p);
+
+        List<LendingRecord> open = new ArrayList<>(lending.getOpenLoans());
+        out.writeInt(open.size());
+        for (LendingRecord r : open) RecordCodec.writeLendingRecord(out, r);
+
+        List<LendingRecord> closed = lending.getLendingHistory().residentSnapshot();
+        out.writeInt(closed.size());
+        for (LendingRecord r : closed) RecordCodec.writeLendingRecord(out, r);
+
+        List<String> isbns = new ArrayList<>(reservations.getReservedIsbns());
+        out.writeInt(isbns.size());
+        for (String isbn : isbns) {
+            RecordCodec.writeString(out, isbn);
+            List<String> queue = reservations.getReservationQueue(isbn).stream()
+                    .map(Patron::getId)
+                    .collect(Collectors.toList());
+            RecordCodec.writeStrings(out, queue);
+        }
+
+        List<Hold> holds = new ArrayList<>();
+        for (String isbn : isbns) holds.addAll(reservations.getHolds(isbn));
+        out.writeInt(holds.size());
+        for (Hold h : holds) RecordCodec.writeHold(out, h);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /** Durably writes a captured snapshot under its LSN. */
+    static void write(Path dir, long lsn, byte[] snapshot) throws IOException {
+        Path target = path(dir, lsn);
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(snapshot);
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads the newest valid snapshot into the (empty) services.
+     * Returns its LSN, or 0 if there is none.
+     */
+    static long loadLatest(Path dir, Library library, LendingService lending, ReservationService reservations)
+            throws IOException {
+        List<Long> lsns = snapshotLsns(dir);
+        Collections.reverse(lsns);
+        for (long lsn : lsns) {
+            byte[] data = Files.readAllBytes(path(dir, lsn));
+            if (!valid(data)) continue;
+            restore(new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4)),
+                    library, lending, reservations);
+            return lsn;
+        }
+        return 0;
+    }
+
+    /** Deletes snapshots older than the given LSN. */
+    static void deleteOlderThan(Path dir, long lsn) throws IOException {
+        for (long old : snapshotLsns(dir)) {
+            if (old < lsn) Files.deleteIfExists(path(dir, old));
+        }
+    }
+
+    // ---------- Internals ----------
+    private static void restore(DataInputStream in, Library library, LendingService lending,
+                                ReservationService reservations) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a snapshot file");
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version: " + version);
+        in.readLong(); // lsn, already known from the file name
+
+        int books = in.readInt();
+        for (int i = 0; i < books; i++) library.addBook(RecordCodec.readBook(in));
+
+        int patrons = in.readInt();
+        for (int i = 0; i < patrons; i++) library.restorePatron(RecordCodec.readPatron(in));
+
+        int open = in.readInt();
+        for (int i = 0; i < open; i++) lending.restoreOpenLoan(RecordCodec.readLendingRecord(in));
+
+        int closed = in.readInt();
+        for (int i = 0; i < closed; i++) lending.restoreClosedLoan(RecordCodec.readLendingRecord(in));
+
+        int queues = in.readInt();
+        for (int i = 0; i < queues; i++) {
+            String isbn = RecordCodec.readString(in);
+            for (String patronId : RecordCodec.readStrings(in)) {
+                library.getPatron(patronId).ifPresent(p -> reservations.reserveBook(isbn, p));
+            }
+        }
+
+        if (version >= 2) {
+            int holds = in.readInt();
+            // The held copies are already marked as lent in the book records
+            for (int i = 0; i < holds; i++) reservations.restoreHold(RecordCodec.readHold(in), false);
+        }
+    }
+
+    private static boolean valid(byte[] data) {
+        if (data.length < 20) return false;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        return (int) crc.getValue() == ByteBuffer.wrap(data, data.length - 4, 4).getInt();
+    }
+
+    private static Path path(Path dir, long lsn) {
+        return dir.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+    }
+
+    private static List<Long> snapshotLsns(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+}
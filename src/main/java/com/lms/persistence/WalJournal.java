@@ -0,0 +1,191 @@
+package com.lms.persistence;
+
+import com.lms.model.Book;
+import com.lms.model.Hold;
+import com.lms.model.LendingRecord;
+import com.lms.model.Patron;
+import com.lms.service.LibraryJournal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * LibraryJournal that encodes every mutation into the write-ahead log.
+ *
+ * Mutations hold the shared side of a checkpoint lock while they run, so a
+ * checkpoint can briefly take the exclusive side and capture a snapshot that
+ * matches the log exactly up to a known LSN.
+ *
+ * With syncCommit enabled, endMutation() blocks until the mutation's record is
+ * fsynced; concurrent committers share the same fsync (group commit).
+ */
+public class WalJournal implements LibraryJournal {
+    private final WriteAheadLog wal;
+    private final boolean syncCommit;
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final ThreadLocal<long[]> lastLsn = ThreadLocal.withInitial(() -> new long[] { -1 });
+
+    public WalJournal(WriteAheadLog wal, boolean syncCommit) {
+        this.wal = wal;
+        this.syncCommit = syncCommit;
+    }
+
+    // ---------- Mutation bracket ----------
+    @Override
+    public void beginMutation() {
+        checkpointLock.readLock().lock();
+    }
+
+    @Override
+    public void endMutation() {
+        checkpointLock.readLock().unlock();
+        if (!syncCommit || checkpointLock.getReadHoldCount() > 0) return;
+        long[] slot = lastLsn.get();
+        if (slot[0] < 0) return;
+        long lsn = slot[0];
+        slot[0] = -1;
+        try {
+            wal.awaitDurable(lsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Blocks new mutations and waits for in-flight ones to finish. */
+    void pauseMutations() {
+        checkpointLock.writeLock().lock();
+    }
+
+    void resumeMutations() {
+        checkpointLock.writeLock().unlock();
+    }
+
+    // ---------- Catalog ----------
+    @Override
+    public void bookAdded(Book book) {
+        append(WalOp.BOOK_ADDED, out -> RecordCodec.writeBook(out, book));
+    }
+
+    @Override
+    public void bookUpdated(Book book) {
+        append(WalOp.BOOK_UPDATED, out -> RecordCodec.writeBook(out, book));
+    }
+
+    @Override
+    public void bookRemoved(String isbn) {
+        append(WalOp.BOOK_REMOVED, out -> RecordCodec.writeString(out, isbn));
+    }
+
+    @Override
+    public void copiesChanged(String isbn, int totalCopies) {
+        append(WalOp.COPIES_CHANGED, out -> {
+            RecordCodec.writeString(out, isbn);
+            out.writeInt(totalCopies);
+        });
+    }
+
+    @Override
+    public void patronAdded(Patron patron) {
+        append(WalOp.PATRON_ADDED, out -> RecordCodec.writePatron(out, patron));
+    }
+
+    @Override
+    public void patronUpdated(Patron patron) {
+        append(WalOp.PATRON_UPDATED, out -> RecordCodec.writePatron(out, patron));
+    }
+
+    // ---------- Circulation ----------
+    @Override
+    public void bookBorrowed(String patronId, String isbn) {
+        append(WalOp.BOOK_BORROWED, out -> {
+            RecordCodec.writeString(out, patronId);
+            RecordCodec.writeString(out, isbn);
+        });
+    }
+
+    @Override
+    public void bookReturned(String patronId, String isbn) {
+        append(WalOp.BOOK_RETURNED, out -> {
+            RecordCodec.writeString(out, patronId);
+            RecordCodec.writeString(out, isbn);
+        });
+    }
+
+    @Override
+    public void checkedOut(LendingRecord record) {
+        append(WalOp.CHECKED_OUT, out -> RecordCodec.writeLendingRecord(out, record));
+    }
+
+    @Override
+    public void returned(String patronId, String isbn, LocalDate returnedDate) {
+        append(WalOp.RETURNED, out -> {
+            RecordCodec.writeString(out, patronId);
+            RecordCodec.writeString(out, isbn);
+            RecordCodec.writeDate(out, returnedDate);
+        });
+    }
+
+    @Override
+    public void reserved(String isbn, String patronId) {
+        append(WalOp.RESERVED, out -> {
+            RecordCodec.writeString(out, isbn);
+            RecordCodec.writeString(out, patronId);
+        });
+    }
+
+    @Override
+    public void reservationFulfilled(String isbn, String patronId) {
+        append(WalOp.RESERVATION_FULFILLED, out -> {
+            RecordCodec.writeString(out, isbn);
+            RecordCodec.writeString(out, patronId);
+        });
+    }
+
+    @Override
+    public void reservationCancelled(String isbn, String patronId) {
+        append(WalOp.RESERVATION_CANCELLED, out -> {
+            RecordCodec.writeString(out, isbn);
+            RecordCodec.writeString(out, patronId);
+        });
+    }
+
+    @Override
+    public void holdPlaced(Hold hold) {
+        append(WalOp.HOLD_PLACED, out -> RecordCodec.writeHold(out, hold));
+    }
+
+    @Override
+    public void holdReleased(String isbn, String patronId) {
+        append(WalOp.HOLD_RELEASED, out -> {
+            RecordCodec.writeString(out, isbn);
+            RecordCodec.writeString(out, patronId);
+        });
+    }
+
+    @Override
+    public void holdCollected(String isbn, String patronId) {
+        append(WalOp.HOLD_COLLECTED, out -> {
+            RecordCodec.writeString(out, isbn);
+            RecordCodec.writeString(out, patronId);
+        });
+    }
+
+    // ---------- Internals ----------
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(WalOp op, PayloadWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastLsn.get()[0] = wal.append(op, bytes.toByteArray());
+    }
+}
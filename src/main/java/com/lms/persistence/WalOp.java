@@ -0,0 +1,44 @@
+package com.lms.persistence;
+
+/**
+ * Operation codes stored in the write-ahead log. Codes are part of the
+ * on-disk format and must never be renumbered.
+ */
+public enum WalOp {
+    BOOK_ADDED(1),
+    BOOK_UPDATED(2),
+    BOOK_REMOVED(3),
+    PATRON_ADDED(4),
+    PATRON_UPDATED(5),
+    BOOK_BORROWED(6),
+    BOOK_RETURNED(7),
+    CHECKED_OUT(8),
+    RETURNED(9),
+    RESERVED(10),
+    RESERVATION_FULFILLED(11),
+    RESERVATION_CANCELLED(12),
+    HOLD_PLACED(13),
+    HOLD_RELEASED(14),
+    HOLD_COLLECTED(15),
+    COPIES_CHANGED(16);
+
+    private static final WalOp[] BY_CODE = new WalOp[32];
+
+    static {
+        for (WalOp op : values()) BY_CODE[op.code] = op;
+    }
+
+    private final byte code;
+
+    WalOp(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() { return code; }
+
+    public static WalOp fromCode(byte code) {
+        WalOp op = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (op == null) throw new IllegalArgumentException("Unknown WAL op code: " + code);
+        return op;
+    }
+}
@@ -0,0 +1,368 @@
+package com.lms.persistence;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log written through a FileChannel with group commit.
+ *
+ * Appends only copy the record into an in-memory batch and return its log
+ * sequence number (LSN). A background flusher writes the batch and issues a
+ * single fsync for every record in it, either when the flush interval elapses,
+ * the batch grows past maxBatchBytes, or a caller waits in awaitDurable().
+ *
+ * The log is split into segments named after the first LSN they contain, so
+ * segments fully covered by a snapshot can simply be deleted.
+ *
+ * Record layout: [int payloadLength][int crc32][long lsn][byte op][payload]
+ */
+public class WriteAheadLog implements Closeable {
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 1;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** A decoded log record, handed to replay consumers. */
+    public static final class Entry {
+        private final long lsn;
+        private final WalOp op;
+        private final byte[] payload;
+
+        Entry(long lsn, WalOp op, byte[] payload) {
+            this.lsn = lsn;
+            this.op = op;
+            this.payload = payload;
+        }
+
+        public long getLsn() { return lsn; }
+        public WalOp getOp() { return op; }
+        public DataInputStream payload() { return new DataInputStream(new ByteArrayInputStream(payload)); }
+    }
+
+    /** Opens the channel a segment is appended through; tests substitute failing ones. */
+    interface SegmentOpener {
+        FileChannel open(Path segment) throws IOException;
+
+        SegmentOpener FILES = segment -> FileChannel.open(segment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private final Path dir;
+    private final SegmentOpener opener;
+    private final long flushIntervalMillis;
+    private final int maxBatchBytes;
+
+    // Guards the batch buffers and LSN counters
+    private final Object lock = new Object();
+    // Held by whoever writes to the channel (flusher, roll, close)
+    private final ReentrantLock ioLock = new ReentrantLock();
+
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private long nextLsn;
+    private long durableLsn;
+    private boolean urgent;
+    private boolean closed;
+    private IOException failure;
+
+    private FileChannel channel;
+    private final Thread flusher;
+
+    private WriteAheadLog(Path dir, SegmentOpener opener, long firstLsn, long flushIntervalMillis, int maxBatchBytes)
+            throws IOException {
+        if (flushIntervalMillis <= 0) throw new IllegalArgumentException("flushIntervalMillis must be positive");
+        if (maxBatchBytes <= 0) throw new IllegalArgumentException("maxBatchBytes must be positive");
+        this.dir = dir;
+        this.opener = opener;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxBatchBytes = maxBatchBytes;
+        this.pending = ByteBuffer.allocate(Math.max(maxBatchBytes, 4096));
+        this.spare = ByteBuffer.allocate(Math.max(maxBatchBytes, 4096));
+        this.nextLsn = firstLsn;
+        this.durableLsn = firstLsn - 1;
+        this.channel = openSegment(firstLsn);
+        this.flusher = new Thread(this::flushLoop, "wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Opens a new segment for appends starting at firstLsn.
+     * Run replay() first so firstLsn follows everything already on disk.
+     */
+    public static WriteAheadLog open(Path dir, long firstLsn, long flushIntervalMillis, int maxBatchBytes)
+            throws IOException {
+        return open(dir, SegmentOpener.FILES, firstLsn, flushIntervalMillis, maxBatchBytes);
+    }
+
+    static WriteAheadLog open(Path dir, SegmentOpener opener, long firstLsn, long flushIntervalMillis,
+                              int maxBatchBytes) throws IOException {
+        Files.createDirectories(dir);
+        return new WriteAheadLog(dir, opener, firstLsn, flushIntervalMillis, maxBatchBytes);
+    }
+
+    // ---------- Appending ----------
+
+    /** Buffers a record and returns its LSN. Durability is asynchronous. */
+    public long append(WalOp op, byte[] payload) {
+        CRC32 crc = new CRC32();
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("WAL is closed");
+            if (failure != null) throw new UncheckedIOException("WAL flush failed", failure);
+
+            long lsn = nextLsn++;
+            crc.update(longBytes(lsn));
+            crc.update(op.code());
+            crc.update(payload);
+
+            ensureRoom(HEADER_BYTES + payload.length);
+            pending.putInt(payload.length)
+                    .putInt((int) crc.getValue())
+                    .putLong(lsn)
+                    .put(op.code())
+                    .put(payload);
+            if (pending.position() >= maxBatchBytes) lock.notifyAll();
+            return lsn;
+        }
+    }
+
+    /**
+     * Blocks until the record with this LSN (and all before it) is fsynced.
+     * Throws the flush's IOException if the log failed before it got there.
+     */
+    public void awaitDurable(long lsn) throws IOException {
+        synchronized (lock) {
+            while (durableLsn < lsn) {
+                if (failure != null) throw failure;
+                urgent = true;
+                lock.notifyAll();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for WAL durability");
+                }
+            }
+        }
+    }
+
+    /** LSN of the most recently appended record. */
+    public long lastLsn() {
+        synchronized (lock) {
+            return nextLsn - 1;
+        }
+    }
+
+    public long durableLsn() {
+        synchronized (lock) {
+            return durableLsn;
+        }
+    }
+
+    // ---------- Segments ----------
+
+    /**
+     * Flushes everything appended so far into the current segment and starts
+     * a new one. Returns the last LSN contained in the closed segment.
+     */
+    public long roll() throws IOException {
+        return flushBatch(true);
+    }
+
+    /** Deletes every segment whose records all have LSN <= lsn. */
+    public void deleteSegmentsThrough(long lsn) throws IOException {
+        ioLock.lock();
+        try {
+            List<Long> starts = segmentStarts(dir);
+            for (int i = 0; i + 1 < starts.size(); i++) {
+                long lastInSegment = starts.get(i + 1) - 1;
+                if (lastInSegment <= lsn) Files.deleteIfExists(segmentPath(dir, starts.get(i)));
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    // ---------- Replay ----------
+
+    /**
+     * Feeds every intact record with LSN > afterLsn to the consumer, in order.
+     * A torn or corrupt tail (e.g. from a crash mid-write) ends the replay and
+     * is truncated away. Returns the highest LSN found on disk, or afterLsn.
+     */
+    public static long replay(Path dir, long afterLsn, Consumer<Entry> consumer) throws IOException {
+        if (!Files.isDirectory(dir)) return afterLsn;
+        long last = afterLsn;
+        List<Long> starts = segmentStarts(dir);
+        for (int i = 0; i < starts.size(); i++) {
+            Path segment = segmentPath(dir, starts.get(i));
+            if (i + 1 < starts.size() && starts.get(i + 1) - 1 <= afterLsn) continue;
+
+            long goodBytes = 0;
+            boolean torn = false;
+            try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch), 1 << 16))) {
+                long size = ch.size();
+                while (goodBytes < size) {
+                    if (size - goodBytes < HEADER_BYTES) { torn = true; break; }
+                    int len = in.readInt();
+                    int crc = in.readInt();
+                    long lsn = in.readLong();
+                    byte code = in.readByte();
+                    if (len < 0 || size - goodBytes - HEADER_BYTES < len) { torn = true; break; }
+                    byte[] payload = new byte[len];
+                    in.readFully(payload);
+
+                    CRC32 check = new CRC32();
+                    check.update(longBytes(lsn));
+                    check.update(code);
+                    check.update(payload);
+                    if ((int) check.getValue() != crc) { torn = true; break; }
+
+                    goodBytes += HEADER_BYTES + len;
+                    last = Math.max(last, lsn);
+                    if (lsn > afterLsn) consumer.accept(new Entry(lsn, WalOp.fromCode(code), payload));
+                }
+            }
+            if (torn) {
+                try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    ch.truncate(goodBytes);
+                }
+                break;
+            }
+        }
+        return last;
+    }
+
+    // ---------- Lifecycle ----------
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ioLock.lock();
+        try {
+            flushBatch(false);
+        } finally {
+            channel.close();
+            ioLock.unlock();
+        }
+    }
+
+    // ---------- Internals ----------
+    private void flushLoop() {
+        while (true) {
+            synchronized (lock) {
+                if (!closed && !urgent && pending.position() < maxBatchBytes) {
+                    try {
+                        lock.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                urgent = false;
+                if (closed) return;
+            }
+            try {
+                flushBatch(false);
+            } catch (IOException e) {
+                return;  // flushBatch recorded the failure
+            }
+        }
+    }
+
+    /**
+     * Writes and fsyncs the current batch as one group commit. Records become
+     * durable only once the fsync returns; a failure is kept so waiters and
+     * later appends throw, and the log accepts nothing more.
+     */
+    private long flushBatch(boolean rollAfter) throws IOException {
+        ioLock.lock();
+        try {
+            ByteBuffer batch;
+            long batchLsn;
+            synchronized (lock) {
+                if (failure != null) throw failure;
+                batch = pending;
+                pending = spare;
+                spare = null;
+                batchLsn = nextLsn - 1;
+            }
+            boolean forced = false;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) channel.write(batch);
+                if (batch.limit() > 0 || rollAfter) channel.force(false);
+                forced = true;
+                if (rollAfter) {
+                    channel.close();
+                    channel = openSegment(batchLsn + 1);
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    if (failure == null) failure = e;
+                }
+                throw e;
+            } finally {
+                batch.clear();
+                synchronized (lock) {
+                    spare = batch;
+                    if (forced && durableLsn < batchLsn) durableLsn = batchLsn;
+                    lock.notifyAll();
+                }
+            }
+            return batchLsn;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void ensureRoom(int bytes) {
+        if (pending.remaining() >= bytes) return;
+        int capacity = pending.capacity();
+        while (capacity - pending.position() < bytes) capacity *= 2;
+        ByteBuffer bigger = ByteBuffer.allocate(capacity);
+        pending.flip();
+        bigger.put(pending);
+        pending = bigger;
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        return opener.open(segmentPath(dir, firstLsn));
+    }
+
+    private static Path segmentPath(Path dir, long firstLsn) {
+        return dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    private static List<Long> segmentStarts(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static byte[] longBytes(long v) {
+        return ByteBuffer.allocate(8).putLong(v).array();
+    }
+}
@@ -0,0 +1,275 @@
+package com.lms.query;
+
+import com.lms.index.BookIndex;
+import com.lms.model.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-attribute bitmaps over the catalog, combined by {@link QueryEngine}.
+ *
+ * Every book gets a dense doc id. Title and author keep one bitmap per
+ * trigram, publication year one per year, and popularity one per
+ * power-of-two bucket of timesBorrowed, so each predicate of a query maps to
+ * one bitmap or a union of a few, and a query is their intersection. Doc ids
+ * are never reused, so a candidate taken before a remove can only resolve
+ * to nothing, never to another book.
+ *
+ * Thread-safe: queries share a read lock, maintenance takes the write lock.
+ */
+final class BitmapIndex implements BookIndex {
+    static final int GRAM = 3;
+    static final int BUCKETS = 33;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Read without the lock by borrowed(), which usually has nothing to do
+    private final Map<String, Integer> docIds = new ConcurrentHashMap<>();
+    private String[] isbns = new String[64];
+    private String[] titles = new String[64];
+    private String[] authors = new String[64];
+    private int[] years = new int[64];
+    private volatile byte[] buckets = new byte[64];
+    private int nextDoc;
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> titleGrams = new HashMap<>();
+    private final Map<Long, RoaringBitmap> authorGrams = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> byYear = new TreeMap<>();
+    private final RoaringBitmap[] byPopularity = new RoaringBitmap[BUCKETS];
+
+    BitmapIndex() {
+        for (int b = 0; b < BUCKETS; b++) byPopularity[b] = new RoaringBitmap();
+    }
+
+    /** 0 for never borrowed, then floor(log2(timesBorrowed)) + 1. */
+    static int bucketOf(int timesBorrowed) {
+        return timesBorrowed <= 0 ? 0 : 32 - Integer.numberOfLeadingZeros(timesBorrowed);
+    }
+
+    // ---------- Maintenance ----------
+    @Override
+    public void add(Book book) {
+        Objects.requireNonNull(book);
+        lock.writeLock().lock();
+        try {
+            addLocked(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addAll(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            for (Book book : books) addLocked(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(Book book) {
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        int year = book.getPublicationYear();
+        int bucket = bucketOf(book.getTimesBorrowed());
+        Integer doc = docIds.get(book.getIsbn());
+        if (doc != null) {
+            if (title.equals(titles[doc]) && author.equals(authors[doc])
+                    && years[doc] == year && buckets[doc] == bucket) return;
+            unindex(doc);
+        } else {
+            doc = allocateDoc();
+            docIds.put(book.getIsbn(), doc);
+            isbns[doc] = book.getIsbn();
+        }
+        titles[doc] = title;
+        authors[doc] = author;
+        years[doc] = year;
+        buckets[doc] = (byte) bucket;
+        all.add(doc);
+        for (long gram : gramsOf(normalize(title))) titleGrams.computeIfAbsent(gram, k -> new RoaringBitmap()).add(doc);
+        for (long gram : gramsOf(normalize(author))) authorGrams.computeIfAbsent(gram, k -> new RoaringBitmap()).add(doc);
+        byYear.computeIfAbsent(year, k -> new RoaringBitmap()).add(doc);
+        byPopularity[bucket].add(doc);
+    }
+
+    /**
+     * Moves the book to its new popularity bucket. A bucket only changes when
+     * timesBorrowed reaches a power of two, so most borrows return after an
+     * unlocked check; a stale read there only costs a trip through the lock.
+     */
+    @Override
+    public void borrowed(Book book) {
+        Integer doc = docIds.get(book.getIsbn());
+        if (doc == null) return;
+        int bucket = bucketOf(book.getTimesBorrowed());
+        byte[] current = buckets;
+        if (doc < current.length && current[doc] == bucket) return;
+        lock.writeLock().lock();
+        try {
+            // clear() restarts doc ids, so make sure the doc is still this book
+            if (!book.getIsbn().equals(isbnOf(doc)) || buckets[doc] == bucket) return;
+            byPopularity[buckets[doc]].remove(doc);
+            byPopularity[bucket].add(doc);
+            buckets[doc] = (byte) bucket;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String isbn) {
+        if (isbn == null) return;
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.remove(isbn);
+            if (doc == null) return;
+            unindex(doc);
+            isbns[doc] = null;
+            titles[doc] = null;
+            authors[doc] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            docIds.clear();
+            Arrays.fill(isbns, null);
+            Arrays.fill(titles, null);
+            Arrays.fill(authors, null);
+            nextDoc = 0;
+            titleGrams.clear();
+            authorGrams.clear();
+            byYear.clear();
+            for (int b = 0; b < BUCKETS; b++) byPopularity[b] = new RoaringBitmap();
+            all.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return docIds.size();
+    }
+
+    private void unindex(int doc) {
+        all.remove(doc);
+        for (long gram : gramsOf(normalize(titles[doc]))) removeFrom(titleGrams, gram, doc);
+        for (long gram : gramsOf(normalize(authors[doc]))) removeFrom(authorGrams, gram, doc);
+        removeFrom(byYear, years[doc], doc);
+        byPopularity[buckets[doc]].remove(doc);
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int doc) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) return;
+        bitmap.remove(doc);
+        if (bitmap.isEmpty()) bitmaps.remove(key);
+    }
+
+    // ---------- Query access, under readLock() ----------
+
+    Lock readLock() {
+        return lock.readLock();
+    }
+
+    RoaringBitmap all() {
+        return all;
+    }
+
+    /** Bitmaps of the query's title grams, or null if the text is too short to use them. */
+    List<RoaringBitmap> titleGrams(String text) {
+        return gramBitmaps(titleGrams, text);
+    }
+
+    List<RoaringBitmap> authorGrams(String text) {
+        return gramBitmaps(authorGrams, text);
+    }
+
+    /** Bitmaps of every year in [from, to]. */
+    Collection<RoaringBitmap> years(int from, int to) {
+        return byYear.subMap(from, true, to, true).values();
+    }
+
+    /** Bitmaps of every bucket that may hold books borrowed at least {@code minTimes} times. */
+    List<RoaringBitmap> popularAtLeast(int minTimes) {
+        List<RoaringBitmap> out = new ArrayList<>();
+        for (int b = bucketOf(minTimes); b < BUCKETS; b++) {
+            if (!byPopularity[b].isEmpty()) out.add(byPopularity[b]);
+        }
+        return out;
+    }
+
+    /** ISBN of the doc, or null once the book was removed. */
+    String isbnOf(int doc) {
+        return doc < nextDoc ? isbns[doc] : null;
+    }
+
+    private static List<RoaringBitmap> gramBitmaps(Map<Long, RoaringBitmap> index, String text) {
+        String q = normalize(text);
+        if (q.length() < GRAM) return null;
+        List<RoaringBitmap> out = new ArrayList<>();
+        for (long gram : gramsOf(q)) {
+            RoaringBitmap bitmap = index.get(gram);
+            if (bitmap == null) return List.of(new RoaringBitmap());   // no book has this gram
+            out.add(bitmap);
+        }
+        return out;
+    }
+
+    // ---------- Internals ----------
+    static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    // Grams packed as three 16-bit chars; texts shorter than a gram are one
+    // gram of their own, tagged with their length so they cannot collide
+    private static long[] gramsOf(String text) {
+        if (text.isEmpty()) return new long[0];
+        if (text.length() < GRAM) {
+            long gram = (long) text.length() << 48;
+            for (int i = 0; i < text.length(); i++) gram |= (long) text.charAt(i) << (16 * i);
+            return new long[] { gram };
+        }
+        long[] out = new long[text.length() - GRAM + 1];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2);
+        }
+        // Each distinct gram once, so a bitmap is touched once per book
+        Arrays.sort(out);
+        int n = 0;
+        for (int i = 0; i < out.length; i++) if (i == 0 || out[i] != out[i - 1]) out[n++] = out[i];
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private int allocateDoc() {
+        if (nextDoc == isbns.length) {
+            int capacity = nextDoc * 2;
+            isbns = Arrays.copyOf(isbns, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            authors = Arrays.copyOf(authors, capacity);
+            years = Arrays.copyOf(years, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+        }
+        return nextDoc++;
+    }
+}
@@ -0,0 +1,86 @@
+package com.lms.query;
+
+import com.lms.model.Book;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conjunction of predicates over the catalog, built fluently:
+ *
+ * <pre>
+ * new BookQuery().titleContains("war").publishedBetween(1990, 1999).availableOnly()
+ * </pre>
+ *
+ * Text predicates are case-insensitive substring matches, like the plain
+ * search strategies. A query with no predicates matches every book.
+ */
+public class BookQuery {
+    private String titleContains = "";
+    private String authorContains = "";
+    private int fromYear = Integer.MIN_VALUE;
+    private int toYear = Integer.MAX_VALUE;
+    private boolean availableOnly;
+    private int minTimesBorrowed;
+
+    public BookQuery titleContains(String text) {
+        this.titleContains = BitmapIndex.normalize(text);
+        return this;
+    }
+
+    public BookQuery authorContains(String text) {
+        this.authorContains = BitmapIndex.normalize(text);
+        return this;
+    }
+
+    /** Publication year in [fromYear, toYear], both inclusive. */
+    public BookQuery publishedBetween(int fromYear, int toYear) {
+        if (fromYear > toYear) throw new IllegalArgumentException("fromYear must not be after toYear");
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        return this;
+    }
+
+    /** Only books with at least one copy on the shelf when the result is read. */
+    public BookQuery availableOnly() {
+        this.availableOnly = true;
+        return this;
+    }
+
+    public BookQuery minTimesBorrowed(int times) {
+        if (times < 0) throw new IllegalArgumentException("times must not be negative");
+        this.minTimesBorrowed = times;
+        return this;
+    }
+
+    /** Checks every predicate against the live book. */
+    public boolean matches(Book book) {
+        if (!titleContains.isEmpty() && !BitmapIndex.normalize(book.getTitle()).contains(titleContains)) return false;
+        if (!authorContains.isEmpty() && !BitmapIndex.normalize(book.getAuthor()).contains(authorContains)) return false;
+        int year = book.getPublicationYear();
+        if (year < fromYear || year > toYear) return false;
+        if (minTimesBorrowed > 0 && book.getTimesBorrowed() < minTimesBorrowed) return false;
+        return !availableOnly || book.isAvailable();
+    }
+
+    // ---------- Accessors for the planner ----------
+
+    String getTitleContains() { return titleContains; }
+    String getAuthorContains() { return authorContains; }
+    boolean hasYearRange() { return fromYear != Integer.MIN_VALUE || toYear != Integer.MAX_VALUE; }
+    int getFromYear() { return fromYear; }
+    int getToYear() { return toYear; }
+    boolean isAvailableOnly() { return availableOnly; }
+    int getMinTimesBorrowed() { return minTimesBorrowed; }
+
+    @Override
+    public String toString() {
+        List<String> parts = new ArrayList<>();
+        if (!titleContains.isEmpty()) parts.add("title~'" + titleContains + "'");
+        if (!authorContains.isEmpty()) parts.add("author~'" + authorContains + "'");
+        if (hasYearRange()) parts.add("year " + fromYear + ".." + toYear);
+        if (minTimesBorrowed > 0) parts.add("borrowed>=" + minTimesBorrowed);
+        if (availableOnly) parts.add("available");
+        return parts.isEmpty() ? "all books" : String.join(" AND ", parts);
+    }
+}
@@ -0,0 +1,128 @@
+package com.lms.query;
+
+import com.lms.index.BookIndex;
+import com.lms.model.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Answers {@link BookQuery}s from per-attribute bitmaps.
+ *
+ * The planner turns each indexed predicate into steps: one per trigram of a
+ * text predicate, one union of year bitmaps for a year range and one union
+ * of popularity buckets for a borrow threshold. Steps run most selective
+ * first (smallest estimated cardinality), each intersected into the
+ * candidates, and planning stops once the candidates are empty or few
+ * enough that checking the books directly is cheaper. Availability changes
+ * with every loan, so it is never indexed; it and anything the bitmaps only
+ * approximate are checked per book as the result is read.
+ *
+ * Register {@link #index()} with the Library to keep the bitmaps current.
+ */
+public class QueryEngine {
+    // Below this many candidates, checking the books beats more bitmap work
+    private static final int VERIFY_BELOW = 64;
+    // A union is only built when it is at most this many times the candidates it narrows
+    private static final int UNION_FACTOR = 8;
+
+    private final BitmapIndex index = new BitmapIndex();
+    private final Function<String, Optional<Book>> catalog;
+
+    /** @param catalog resolves an ISBN to the live Book */
+    public QueryEngine(Function<String, Optional<Book>> catalog) {
+        this.catalog = Objects.requireNonNull(catalog);
+    }
+
+    public BookIndex index() {
+        return index;
+    }
+
+    /**
+     * Plans and runs the query. Only candidate doc ids are computed here;
+     * books are resolved and checked lazily as the result is paged.
+     */
+    public QueryResult execute(BookQuery query) {
+        Objects.requireNonNull(query);
+        List<String> plan = new ArrayList<>();
+        RoaringBitmap candidates = null;
+        index.readLock().lock();
+        try {
+            List<Step> steps = plan(query);
+            steps.sort(Comparator.comparingLong(s -> s.estimate));
+            for (Step step : steps) {
+                if (candidates != null) {
+                    int remaining = candidates.cardinality();
+                    if (remaining == 0) break;
+                    if (remaining < VERIFY_BELOW
+                            || (step.bitmaps.size() > 1 && step.estimate > (long) remaining * UNION_FACTOR)) {
+                        plan.add("skip " + step.label + " (~" + step.estimate + ")");
+                        continue;
+                    }
+                }
+                candidates = step.narrow(candidates);
+                plan.add(step.label + " (~" + step.estimate + ") -> " + candidates.cardinality());
+            }
+            if (candidates == null) {
+                candidates = index.all().copy();
+                plan.add("all books -> " + candidates.cardinality());
+            }
+        } finally {
+            index.readLock().unlock();
+        }
+        plan.add("verify " + query);
+        return new QueryResult(query, candidates, index, catalog, String.join("; ", plan));
+    }
+
+    private List<Step> plan(BookQuery query) {
+        List<Step> steps = new ArrayList<>();
+        addGramSteps(steps, "title", query.getTitleContains(), index.titleGrams(query.getTitleContains()));
+        addGramSteps(steps, "author", query.getAuthorContains(), index.authorGrams(query.getAuthorContains()));
+        if (query.hasYearRange()) {
+            steps.add(new Step("year " + query.getFromYear() + ".." + query.getToYear(),
+                    index.years(query.getFromYear(), query.getToYear())));
+        }
+        if (query.getMinTimesBorrowed() > 0) {
+            steps.add(new Step("borrowed>=" + query.getMinTimesBorrowed(),
+                    index.popularAtLeast(query.getMinTimesBorrowed())));
+        }
+        return steps;
+    }
+
+    // Texts shorter than a trigram have no usable bitmaps and are only verified
+    private static void addGramSteps(List<Step> steps, String field, String text, List<RoaringBitmap> grams) {
+        if (grams == null) return;
+        for (int i = 0; i < grams.size(); i++) {
+            steps.add(new Step(field + "~'" + text + "' gram " + (i + 1) + "/" + grams.size(), List.of(grams.get(i))));
+        }
+    }
+
+    // One intersection: a single bitmap or the union of several
+    private static final class Step {
+        final String label;
+        final List<RoaringBitmap> bitmaps;
+        final long estimate;
+
+        Step(String label, Collection<RoaringBitmap> bitmaps) {
+            this.label = label;
+            this.bitmaps = new ArrayList<>(bitmaps);
+            long sum = 0;
+            for (RoaringBitmap bitmap : bitmaps) sum += bitmap.cardinality();
+            this.estimate = sum;
+        }
+
+        // Always a new bitmap, never one of the index's: candidates outlive the read lock
+        RoaringBitmap narrow(RoaringBitmap candidates) {
+            if (candidates == null) {
+                return bitmaps.size() == 1 ? bitmaps.get(0).copy() : RoaringBitmap.orAll(bitmaps);
+            }
+            if (bitmaps.size() == 1) return RoaringBitmap.and(candidates, bitmaps.get(0));
+            return RoaringBitmap.and(candidates, RoaringBitmap.orAll(bitmaps));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.lms.query;
+
+import com.lms.model.Book;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Books matching a {@link BookQuery}, in catalog insertion order.
+ *
+ * Holds only the candidate doc ids the planner computed. Books are resolved
+ * and checked against the whole query the first time a page or the iterator
+ * reaches them, and kept, so earlier pages stay stable while later ones are
+ * read; a book removed or changed before it is reached is simply left out.
+ *
+ * Thread-safe.
+ */
+public class QueryResult implements Iterable<Book> {
+    // Candidates resolved per read-lock acquisition
+    private static final int BATCH = 256;
+
+    private final BookQuery query;
+    private final RoaringBitmap candidates;
+    private final BitmapIndex index;
+    private final Function<String, Optional<Book>> catalog;
+    private final String plan;
+
+    private final List<Book> matched = new ArrayList<>();
+    private int nextCandidate;   // smallest doc id not yet checked; -1 once exhausted
+
+    QueryResult(BookQuery query, RoaringBitmap candidates, BitmapIndex index,
+                Function<String, Optional<Book>> catalog, String plan) {
+        this.query = query;
+        this.candidates = candidates;
+        this.index = index;
+        this.catalog = catalog;
+        this.plan = plan;
+    }
+
+    /**
+     * One page of matches.
+     *
+     * @param page     0-based page number
+     * @param pageSize books per page
+     */
+    public List<Book> page(int page, int pageSize) {
+        if (page < 0) throw new IllegalArgumentException("page must not be negative");
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive");
+        long from = (long) page * pageSize;
+        if (from >= Integer.MAX_VALUE) return List.of();
+        int to = (int) Math.min(Integer.MAX_VALUE, from + pageSize);
+        synchronized (this) {
+            fill(to);
+            if (from >= matched.size()) return List.of();
+            return new ArrayList<>(matched.subList((int) from, Math.min(to, matched.size())));
+        }
+    }
+
+    /** Number of matches; checks every remaining candidate. */
+    public synchronized int count() {
+        fill(Integer.MAX_VALUE);
+        return matched.size();
+    }
+
+    /** Upper bound on the number of matches, without checking any book. */
+    public int candidateCount() {
+        return candidates.cardinality();
+    }
+
+    /** The steps the planner took, with estimated and actual candidate counts. */
+    public String explain() {
+        return plan;
+    }
+
+    @Override
+    public Iterator<Book> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                synchronized (QueryResult.this) {
+                    fill(next + 1);
+                    return next < matched.size();
+                }
+            }
+
+            @Override
+            public Book next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                synchronized (QueryResult.this) {
+                    return matched.get(next++);
+                }
+            }
+        };
+    }
+
+    /** Lazy stream; short-circuiting operations check only as many books as they need. */
+    public Stream<Book> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
+    }
+
+    // ---------- Internals ----------
+
+    // Checks candidates until `wanted` matches are known or none are left
+    private void fill(int wanted) {
+        String[] isbns = new String[BATCH];
+        while (matched.size() < wanted && nextCandidate >= 0) {
+            int n = 0;
+            index.readLock().lock();
+            try {
+                while (n < BATCH && (nextCandidate = candidates.nextValue(nextCandidate)) >= 0) {
+                    isbns[n++] = index.isbnOf(nextCandidate++);
+                }
+            } finally {
+                index.readLock().unlock();
+            }
+            for (int i = 0; i < n; i++) {
+                if (isbns[i] == null) continue;
+                catalog.apply(isbns[i]).filter(query::matches).ifPresent(matched::add);
+            }
+        }
+    }
+}
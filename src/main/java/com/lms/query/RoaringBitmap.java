@@ -0,0 +1,314 @@
+package com.lms.query;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Compressed set of non-negative ints in the style of Roaring bitmaps.
+ *
+ * Values are split by their high 16 bits into chunks of 65536. A chunk with
+ * at most {@value #ARRAY_MAX} values is a sorted char array (2 bytes per
+ * value); a denser one is a 1024-word bitset (8 KB, 1 bit per possible
+ * value). Intersections and unions work chunk by chunk and pick the cheap
+ * algorithm for each pair of container kinds, so sparse and dense sets both
+ * stay small and fast to combine.
+ *
+ * Not thread-safe.
+ */
+final class RoaringBitmap {
+    static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4];   // char[] (array) or long[] (bitset)
+    private int[] cards = new int[4];
+    private int size;
+
+    // ---------- Single values ----------
+
+    void add(int value) {
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertChunk(i, key, new char[4], 0);
+        }
+        Object c = containers[i];
+        if (c instanceof long[]) {
+            long[] bits = (long[]) c;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) {
+                bits[low >>> 6] |= mask;
+                cards[i]++;
+            }
+            return;
+        }
+        char[] values = (char[]) c;
+        int card = cards[i];
+        int pos = Arrays.binarySearch(values, 0, card, low);
+        if (pos >= 0) return;
+        pos = -pos - 1;
+        if (card == ARRAY_MAX) {
+            long[] bits = toBits(values, card);
+            bits[low >>> 6] |= 1L << low;
+            containers[i] = bits;
+            cards[i] = card + 1;
+            return;
+        }
+        if (card == values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX, card * 2));
+        System.arraycopy(values, pos, values, pos + 1, card - pos);
+        values[pos] = low;
+        containers[i] = values;
+        cards[i] = card + 1;
+    }
+
+    void remove(int value) {
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) return;
+        char low = (char) value;
+        Object c = containers[i];
+        if (c instanceof long[]) {
+            long[] bits = (long[]) c;
+            long mask = 1L << low;
+            if ((bits[low >>> 6] & mask) == 0) return;
+            bits[low >>> 6] &= ~mask;
+            if (--cards[i] <= ARRAY_MAX) containers[i] = toArray(bits, cards[i]);
+        } else {
+            char[] values = (char[]) c;
+            int pos = Arrays.binarySearch(values, 0, cards[i], low);
+            if (pos < 0) return;
+            System.arraycopy(values, pos + 1, values, pos, cards[i] - pos - 1);
+            cards[i]--;
+        }
+        if (cards[i] == 0) removeChunk(i);
+    }
+
+    boolean contains(int value) {
+        int i = indexOf((char) (value >>> 16));
+        if (i < 0) return false;
+        char low = (char) value;
+        Object c = containers[i];
+        if (c instanceof long[]) return (((long[]) c)[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) c, 0, cards[i], low) >= 0;
+    }
+
+    int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) n += cards[i];
+        return n;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Smallest value >= from, or -1 if there is none. */
+    int nextValue(int from) {
+        if (from < 0) from = 0;
+        char key = (char) (from >>> 16);
+        int i = indexOf(key);
+        int low;
+        if (i < 0) {
+            i = -i - 1;
+            low = 0;
+        } else {
+            low = from & 0xFFFF;
+        }
+        for (; i < size; i++) {
+            int found = nextIn(i, low);
+            if (found >= 0) return (keys[i] << 16) | found;
+            low = 0;
+        }
+        return -1;
+    }
+
+    void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    RoaringBitmap copy() {
+        RoaringBitmap out = new RoaringBitmap();
+        out.keys = Arrays.copyOf(keys, Math.max(4, size));
+        out.containers = new Object[out.keys.length];
+        out.cards = Arrays.copyOf(cards, out.keys.length);
+        for (int i = 0; i < size; i++) {
+            Object c = containers[i];
+            out.containers[i] = c instanceof long[] ? ((long[]) c).clone() : Arrays.copyOf((char[]) c, cards[i]);
+        }
+        out.size = size;
+        return out;
+    }
+
+    // ---------- Set operations ----------
+
+    static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap out = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                out.appendChunk(a.keys[i], andContainers(a.containers[i], a.cards[i], b.containers[j], b.cards[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /** Union of any number of bitmaps, one pass per chunk. */
+    static RoaringBitmap orAll(Collection<RoaringBitmap> bitmaps) {
+        TreeSet<Character> allKeys = new TreeSet<>();
+        for (RoaringBitmap b : bitmaps) for (int i = 0; i < b.size; i++) allKeys.add(b.keys[i]);
+        RoaringBitmap out = new RoaringBitmap();
+        for (char key : allKeys) {
+            long[] bits = new long[WORDS];
+            for (RoaringBitmap b : bitmaps) {
+                int i = b.indexOf(key);
+                if (i < 0) continue;
+                Object c = b.containers[i];
+                if (c instanceof long[]) {
+                    long[] y = (long[]) c;
+                    for (int w = 0; w < WORDS; w++) bits[w] |= y[w];
+                } else {
+                    char[] y = (char[]) c;
+                    for (int k = 0; k < b.cards[i]; k++) bits[y[k] >>> 6] |= 1L << y[k];
+                }
+            }
+            int card = 0;
+            for (long word : bits) card += Long.bitCount(word);
+            out.appendChunk(key, new Chunk(card <= ARRAY_MAX ? toArray(bits, card) : bits, card));
+        }
+        return out;
+    }
+
+    // A container with its cardinality, as returned by the pairwise operations
+    private static final class Chunk {
+        final Object container;
+        final int card;
+
+        Chunk(Object container, int card) {
+            this.container = container;
+            this.card = card;
+        }
+    }
+
+    private static Chunk andContainers(Object a, int cardA, Object b, int cardB) {
+        if (a instanceof long[] && b instanceof long[]) {
+            long[] x = (long[]) a;
+            long[] y = (long[]) b;
+            long[] bits = new long[WORDS];
+            int card = 0;
+            for (int w = 0; w < WORDS; w++) {
+                bits[w] = x[w] & y[w];
+                card += Long.bitCount(bits[w]);
+            }
+            return new Chunk(card <= ARRAY_MAX ? toArray(bits, card) : bits, card);
+        }
+        if (a instanceof long[] || b instanceof long[]) {
+            // Probe each array value in the bitset
+            char[] values = (char[]) (a instanceof long[] ? b : a);
+            int n = a instanceof long[] ? cardB : cardA;
+            long[] bits = (long[]) (a instanceof long[] ? a : b);
+            char[] out = new char[n];
+            int card = 0;
+            for (int k = 0; k < n; k++) {
+                char v = values[k];
+                if ((bits[v >>> 6] & (1L << v)) != 0) out[card++] = v;
+            }
+            return new Chunk(out, card);
+        }
+        // Merge two sorted arrays
+        char[] x = (char[]) a;
+        char[] y = (char[]) b;
+        char[] out = new char[Math.min(cardA, cardB)];
+        int card = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cardA && j < cardB) {
+            if (x[i] < y[j]) i++;
+            else if (x[i] > y[j]) j++;
+            else {
+                out[card++] = x[i];
+                i++;
+                j++;
+            }
+        }
+        return new Chunk(out, card);
+    }
+
+    // ---------- Internals ----------
+    private int nextIn(int i, int low) {
+        Object c = containers[i];
+        if (c instanceof long[]) {
+            long[] bits = (long[]) c;
+            int w = low >>> 6;
+            long word = bits[w] & (-1L << low);
+            while (true) {
+                if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+                if (++w == WORDS) return -1;
+                word = bits[w];
+            }
+        }
+        char[] values = (char[]) c;
+        int pos = Arrays.binarySearch(values, 0, cards[i], (char) low);
+        if (pos < 0) pos = -pos - 1;
+        return pos < cards[i] ? values[pos] : -1;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void appendChunk(char key, Chunk chunk) {
+        if (chunk.card == 0) return;
+        insertChunk(size, key, chunk.container, chunk.card);
+    }
+
+    private void insertChunk(int i, char key, Object container, int card) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+            cards = Arrays.copyOf(cards, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        System.arraycopy(cards, i, cards, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        cards[i] = card;
+        size++;
+    }
+
+    private void removeChunk(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        System.arraycopy(cards, i + 1, cards, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    private static long[] toBits(char[] values, int card) {
+        long[] bits = new long[WORDS];
+        for (int k = 0; k < card; k++) bits[values[k] >>> 6] |= 1L << values[k];
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int card) {
+        char[] values = new char[Math.max(card, 1)];
+        int n = 0;
+        for (int w = 0; w < WORDS; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,179 @@
+package com.lms.recommend;
+
+import com.lms.util.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sparse, symmetric item x item co-borrow counts, maintained incrementally.
+ *
+ * ISBNs are mapped to dense int ids, and each item's row is a primitive
+ * IntIntHashMap of (other item id -> number of patrons who borrowed both).
+ * Counts are over distinct patrons: borrowing the same book again changes
+ * nothing, so recording a borrow twice (e.g. seeding from history while live
+ * borrows arrive) is harmless.
+ *
+ * A new borrow pairs the item with at most MAX_PAIRED_HISTORY of the patron's
+ * most recent distinct items, which bounds the cost for very heavy readers.
+ */
+final class CoBorrowMatrix {
+    static final int MAX_PAIRED_HISTORY = 500;
+
+    /** A patron's distinct items in first-borrow order, plus a membership set. */
+    private static final class PatronItems {
+        int[] items = new int[8];
+        int size;
+        final IntIntHashMap seen = new IntIntHashMap();
+
+        boolean add(int id) {
+            if (seen.containsKey(id)) return false;
+            seen.put(id, size);
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = id;
+            return true;
+        }
+    }
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> isbns = new ArrayList<>();
+    private final List<IntIntHashMap> rows = new ArrayList<>();
+    private int[] readers = new int[16]; // distinct patrons per item
+    private final Map<String, PatronItems> patrons = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long version;
+
+    /** Records that the patron borrowed the ISBN; false if they already had. */
+    boolean record(String patronId, String isbn) {
+        lock.writeLock().lock();
+        try {
+            int id = intern(isbn);
+            PatronItems items = patrons.computeIfAbsent(patronId, k -> new PatronItems());
+            if (!items.add(id)) return false;
+            readers[id]++;
+            IntIntHashMap row = rows.get(id);
+            int last = items.size - 1;
+            for (int i = Math.max(0, last - MAX_PAIRED_HISTORY); i < last; i++) {
+                int other = items.items[i];
+                row.addTo(other, 1);
+                rows.get(other).addTo(id, 1);
+            }
+            version++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------- Reads ----------
+
+    long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int itemCount() {
+        lock.readLock().lock();
+        try {
+            return isbns.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The id of the ISBN, or -1 if it was never borrowed. */
+    int id(String isbn) {
+        lock.readLock().lock();
+        try {
+            Integer id = ids.get(isbn);
+            return id == null ? -1 : id;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Copy of the id -> ISBN dictionary. Ids are never reused, so older copies stay valid. */
+    String[] isbnsSnapshot() {
+        lock.readLock().lock();
+        try {
+            return isbns.toArray(new String[0]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Copy of the distinct-reader count of every item. */
+    int[] readersSnapshot() {
+        lock.readLock().lock();
+        try {
+            return Arrays.copyOf(readers, isbns.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The item's row as parallel {ids, counts} arrays. */
+    int[][] row(int id) {
+        lock.readLock().lock();
+        try {
+            return rows.get(id).toArrays();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Up to limit of the patron's most recent distinct items, newest first. */
+    int[] recentItems(String patronId, int limit) {
+        lock.readLock().lock();
+        try {
+            PatronItems items = patrons.get(patronId);
+            if (items == null) return new int[0];
+            int n = Math.min(limit, items.size);
+            int[] out = new int[n];
+            for (int i = 0; i < n; i++) out[i] = items.items[items.size - 1 - i];
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts candidates[0..n) in place to the ones the patron has not
+     * borrowed, preserving order, and returns how many remain.
+     */
+    int retainUnseen(String patronId, int[] candidates, int n) {
+        lock.readLock().lock();
+        try {
+            PatronItems items = patrons.get(patronId);
+            if (items == null) return n;
+            int kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (!items.seen.containsKey(candidates[i])) candidates[kept++] = candidates[i];
+            }
+            return kept;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Internals ----------
+    private int intern(String isbn) {
+        Integer id = ids.get(isbn);
+        if (id != null) return id;
+        int next = isbns.size();
+        ids.put(isbn, next);
+        isbns.add(isbn);
+        rows.add(new IntIntHashMap());
+        if (next == readers.length) readers = Arrays.copyOf(readers, next * 2);
+        return next;
+    }
+}
@@ -0,0 +1,163 @@
+package com.lms.recommend;
+
+import com.lms.model.Patron;
+import com.lms.service.BorrowListener;
+import com.lms.service.Library;
+import com.lms.util.IntIntHashMap;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Item-to-item collaborative filtering ("patrons who borrowed this also borrowed").
+ *
+ * Borrows update a sparse CoBorrowMatrix as they happen. A background job
+ * periodically turns the matrix into a SimilarityTable of top-N neighbours
+ * per book, in parallel on a ForkJoinPool, and publishes it with a volatile
+ * write. Serving a recommendation only reads that table: it sums the
+ * neighbour scores of the patron's recent books, drops books they have
+ * already borrowed, and keeps the best K.
+ *
+ * Thread-safe. Books borrowed since the last rebuild have no neighbours yet.
+ */
+public class ItemRecommender implements BorrowListener, Closeable {
+    public static final int DEFAULT_NEIGHBORS = 20;
+    /** How many of the patron's most recent books seed a recommendation. */
+    public static final int DEFAULT_SEED_ITEMS = 50;
+
+    private final Logger logger = Logger.getLogger(ItemRecommender.class.getName());
+    private final CoBorrowMatrix matrix = new CoBorrowMatrix();
+    private final int neighbors;
+    private final int seedItems;
+    private final ForkJoinPool pool;
+    private volatile SimilarityTable table = SimilarityTable.EMPTY;
+    private ScheduledExecutorService scheduler;
+
+    public ItemRecommender() {
+        this(DEFAULT_NEIGHBORS, DEFAULT_SEED_ITEMS, ForkJoinPool.commonPool());
+    }
+
+    public ItemRecommender(int neighbors, int seedItems, ForkJoinPool pool) {
+        if (neighbors <= 0 || seedItems <= 0) {
+            throw new IllegalArgumentException("neighbors and seedItems must be positive");
+        }
+        this.neighbors = neighbors;
+        this.seedItems = seedItems;
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    // ---------- Feeding ----------
+
+    /**
+     * Subscribes to the library's borrows and seeds the matrix from every
+     * patron's history. Borrows that land in both are only counted once.
+     */
+    public void attach(Library library) {
+        library.addBorrowListener(this);
+        for (Patron patron : library.getAllPatrons()) {
+            for (String isbn : patron.getHistoryIsbns()) matrix.record(patron.getId(), isbn);
+        }
+    }
+
+    @Override
+    public void borrowed(String patronId, String isbn) {
+        matrix.record(patronId, isbn);
+    }
+
+    // ---------- Similarity job ----------
+
+    /** Recomputes the similarity table now, unless nothing changed since the last build. */
+    public synchronized void rebuild() {
+        if (matrix.version() == table.version) return;
+        table = SimilarityTable.build(matrix, neighbors, pool);
+    }
+
+    /** Runs rebuild() on a daemon thread every interval until close(). */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) throw new IllegalStateException("Already started");
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "item-recommender");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // ---------- Serving ----------
+
+    /** ISBNs most similar to the given one, best first. */
+    public List<String> similar(String isbn, int k) {
+        SimilarityTable t = table;
+        int id = matrix.id(isbn);
+        if (id < 0 || id >= t.size() || k <= 0) return List.of();
+        int[] ids = t.neighbors[id];
+        List<String> out = new ArrayList<>(Math.min(k, ids.length));
+        for (int i = 0; i < ids.length && out.size() < k; i++) out.add(t.isbns[ids[i]]);
+        return out;
+    }
+
+    /**
+     * Up to k ISBNs the patron has not borrowed, ranked by summed similarity
+     * to their most recent books, best first. Empty for unknown patrons.
+     */
+    public List<String> recommend(String patronId, int k) {
+        if (k <= 0) return List.of();
+        SimilarityTable t = table;
+        int[] seeds = matrix.recentItems(patronId, seedItems);
+
+        // Accumulate scores per candidate: id -> slot in the parallel arrays
+        IntIntHashMap slotOf = new IntIntHashMap(seeds.length * neighbors);
+        int[] candidates = new int[seeds.length * neighbors];
+        float[] totals = new float[candidates.length];
+        int n = 0;
+        for (int seed : seeds) {
+            if (seed >= t.size()) continue;
+            int[] ids = t.neighbors[seed];
+            float[] scores = t.scores[seed];
+            for (int i = 0; i < ids.length; i++) {
+                int slot = slotOf.get(ids[i], -1);
+                if (slot < 0) {
+                    slot = n++;
+                    slotOf.put(ids[i], slot);
+                    candidates[slot] = ids[i];
+                }
+                totals[slot] += scores[i];
+            }
+        }
+
+        int kept = matrix.retainUnseen(patronId, candidates, n);
+        TopN top = new TopN(Math.min(k, kept));
+        for (int i = 0; i < kept; i++) top.offer(candidates[i], totals[slotOf.get(candidates[i], -1)]);
+        int[] best = top.ids();
+        List<String> out = new ArrayList<>(best.length);
+        for (int id : best) out.add(t.isbns[id]);
+        return out;
+    }
+
+    // ---------- Internals ----------
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Similarity rebuild failed", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.lms.recommend;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Immutable top-N neighbour lists per item, computed from a CoBorrowMatrix.
+ *
+ * Similarity is cosine over patron sets:
+ * co(i, j) / sqrt(readers(i) * readers(j)). Each item keeps only its N most
+ * similar items, best first, in primitive arrays, so serving a lookup is an
+ * array index with no allocation.
+ */
+final class SimilarityTable {
+    static final SimilarityTable EMPTY = new SimilarityTable(new String[0], new int[0][], new float[0][], -1);
+
+    private static final int ITEMS_PER_TASK = 256;
+
+    final String[] isbns;
+    final int[][] neighbors;
+    final float[][] scores;
+    final long version;
+
+    private SimilarityTable(String[] isbns, int[][] neighbors, float[][] scores, long version) {
+        this.isbns = isbns;
+        this.neighbors = neighbors;
+        this.scores = scores;
+        this.version = version;
+    }
+
+    /** Items the table covers; ids at or past this were first borrowed after the build. */
+    int size() {
+        return neighbors.length;
+    }
+
+    /**
+     * Computes the table in parallel on the pool, one fork/join leaf per
+     * ITEMS_PER_TASK items. Rows are copied out of the matrix one at a time,
+     * so borrows keep flowing while the build runs.
+     */
+    static SimilarityTable build(CoBorrowMatrix matrix, int topN, ForkJoinPool pool) {
+        long version = matrix.version();
+        int[] readers = matrix.readersSnapshot();
+        String[] isbns = matrix.isbnsSnapshot();
+        int n = readers.length;
+        int[][] neighbors = new int[n][];
+        float[][] scores = new float[n][];
+        pool.invoke(new BuildTask(matrix, readers, topN, neighbors, scores, 0, n));
+        return new SimilarityTable(isbns, neighbors, scores, version);
+    }
+
+    private static final class BuildTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CoBorrowMatrix matrix;
+        private final int[] readers;
+        private final int topN;
+        private final int[][] neighbors;
+        private final float[][] scores;
+        private final int from;
+        private final int to;
+
+        BuildTask(CoBorrowMatrix matrix, int[] readers, int topN,
+                  int[][] neighbors, float[][] scores, int from, int to) {
+            this.matrix = matrix;
+            this.readers = readers;
+            this.topN = topN;
+            this.neighbors = neighbors;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ITEMS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BuildTask(matrix, readers, topN, neighbors, scores, from, mid),
+                          new BuildTask(matrix, readers, topN, neighbors, scores, mid, to));
+                return;
+            }
+            TopN top = new TopN(topN);
+            for (int item = from; item < to; item++) {
+                int[][] row = matrix.row(item);
+                int[] others = row[0];
+                int[] counts = row[1];
+                top.reset();
+                for (int i = 0; i < others.length; i++) {
+                    int other = others[i];
+                    if (other >= readers.length) continue; // first borrowed after the snapshot
+                    double denom = Math.sqrt((double) readers[item] * readers[other]);
+                    top.offer(other, (float) (counts[i] / denom));
+                }
+                neighbors[item] = top.ids();
+                scores[item] = top.scores();
+            }
+        }
+    }
+}
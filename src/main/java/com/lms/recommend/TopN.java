@@ -0,0 +1,91 @@
+package com.lms.recommend;
+
+import java.util.Arrays;
+
+/**
+ * Bounded min-heap keeping the N best (id, score) pairs in parallel primitive
+ * arrays, so selecting the top N of a long row allocates nothing per entry.
+ * Ties prefer the lower id. Reusable via reset(); not thread-safe.
+ */
+final class TopN {
+    private final int capacity;
+    private final int[] ids;
+    private final float[] scores;
+    private int size;
+
+    TopN(int capacity) {
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    void offer(int id, float score) {
+        if (capacity == 0) return;
+        if (size < capacity) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (worse(ids[0], scores[0], id, score)) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /** Heap contents best first; consumes the heap. */
+    int[] ids() {
+        sortDescending();
+        return Arrays.copyOf(ids, size);
+    }
+
+    float[] scores() {
+        return Arrays.copyOf(scores, size);
+    }
+
+    private void sortDescending() {
+        // Heap-sort in place: repeatedly move the worst to the end
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(ids[i], scores[i], ids[parent], scores[parent])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        siftDown(i, size);
+    }
+
+    private void siftDown(int i, int limit) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= limit) return;
+            int r = l + 1;
+            int worst = r < limit && worse(ids[r], scores[r], ids[l], scores[l]) ? r : l;
+            if (!worse(ids[worst], scores[worst], ids[i], scores[i])) return;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    /** True if (aId, aScore) ranks below (bId, bScore). */
+    private static boolean worse(int aId, float aScore, int bId, float bScore) {
+        return aScore < bScore || (aScore == bScore && aId > bId);
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+        float s = scores[a]; scores[a] = scores[b]; scores[b] = s;
+    }
+}
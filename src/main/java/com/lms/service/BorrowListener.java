@@ -0,0 +1,11 @@
+package com.lms.service;
+
+/**
+ * Notified each time a patron borrows a book, on every borrow path
+ * (Library.borrowBook, LendingService.checkoutBook and journal replay).
+ * Called on the borrowing thread, inside the borrow, so keep it short.
+ */
+@FunctionalInterface
+public interface BorrowListener {
+    void borrowed(String patronId, String isbn);
+}
@@ -0,0 +1,358 @@
+package com.lms.service;
+
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
+import com.lms.model.Book;
+import com.lms.model.Patron;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs checkouts and returns for kiosks and sorting machines on one writer
+ * thread, in batches, with the same results as LendingService's own methods.
+ *
+ * Submitters claim slots of a preallocated ring buffer with a CAS on the
+ * claim sequence, fill them, and publish each slot by storing its sequence
+ * number, so the submit path takes no locks. The writer drains up to maxBatch
+ * published slots at a time and runs them inside one journal mutation, with
+ * one date, per-batch patron and book lookups and a single summary log line,
+ * then completes each op's future. A full ring makes submitters wait.
+ *
+ * Futures complete on the writer thread: keep dependent actions short or
+ * make them async. An op whose future has completed normally is already
+ * journaled. If the journal cannot begin or commit a batch (e.g. a failed
+ * syncCommit fsync), every op in it fails with that exception and the
+ * writer goes on to the next batch. Each op is also recorded, from submit
+ * to completion, in LendingService's "lending.checkout" or "lending.return"
+ * metrics.
+ */
+public class CirculationExecutor implements Closeable {
+    public static final int DEFAULT_RING_SIZE = 1 << 16;
+    public static final int DEFAULT_MAX_BATCH = 1024;
+
+    private static final long CLOSED = Long.MIN_VALUE;   // flag bit in claimSequence
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long WRITER_PARK_NANOS = 1_000_000;
+    private static final long SUBMITTER_PARK_NANOS = 10_000;
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final class Slot {
+        boolean checkout;
+        String patronId;
+        String isbn;
+        CompletableFuture<Boolean> future;
+        long submitted;
+        boolean ok;
+        RuntimeException error;
+    }
+
+    private final Logger logger = Logger.getLogger(CirculationExecutor.class.getName());
+    private final LendingService lending;
+    private final int mask;
+    private final int maxBatch;
+    private final Slot[] slots;
+    private final long[] published;                          // sequence last published per slot
+    private final AtomicLong claimSequence = new AtomicLong(); // next sequence to claim
+    private volatile long consumed;                          // every sequence below is done
+    private volatile boolean writerParked;
+    private volatile OperationMetrics batchMetrics = MetricsRegistry.global().operation("circulation.batch");
+    private final Thread writer;
+
+    // Writer-thread state, reused across batches
+    private final Map<String, Patron> patronCache = new HashMap<>();
+    private final Map<String, Book> bookCache = new HashMap<>();
+    private final List<String> shelved = new ArrayList<>();
+    private final CompletableFuture<?>[] batchFutures;
+    private final Object[] batchResults;   // Boolean or RuntimeException
+
+    public CirculationExecutor(LendingService lending) {
+        this(lending, DEFAULT_RING_SIZE, DEFAULT_MAX_BATCH);
+    }
+
+    /** @param ringSize slots in the ring, rounded up to a power of two */
+    public CirculationExecutor(LendingService lending, int ringSize, int maxBatch) {
+        if (ringSize <= 0 || maxBatch <= 0) throw new IllegalArgumentException("ringSize and maxBatch must be positive");
+        this.lending = Objects.requireNonNull(lending);
+        int size = 1;
+        while (size < ringSize) size <<= 1;
+        this.mask = size - 1;
+        this.maxBatch = maxBatch;
+        this.slots = new Slot[size];
+        this.published = new long[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            published[i] = -1;
+        }
+        this.batchFutures = new CompletableFuture<?>[maxBatch];
+        this.batchResults = new Object[maxBatch];
+        this.writer = new Thread(this::runWriter, "circulation-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ---------- Submitting ----------
+
+    /** Completes with what LendingService.checkoutBook would return. */
+    public CompletableFuture<Boolean> checkout(String patronId, String isbn) {
+        return submit(CirculationOp.checkout(patronId, isbn));
+    }
+
+    /** Completes with what LendingService.returnBook would return. */
+    public CompletableFuture<Boolean> returnBook(String patronId, String isbn) {
+        return submit(CirculationOp.returnBook(patronId, isbn));
+    }
+
+    public CompletableFuture<Boolean> submit(CirculationOp op) {
+        return submitAll(List.of(op)).get(0);
+    }
+
+    /**
+     * Submits the ops in order with a single claim; they run in that order,
+     * usually in the same batch. Futures are returned in the same order.
+     */
+    public List<CompletableFuture<Boolean>> submitAll(List<CirculationOp> ops) {
+        int n = ops.size();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) futures.add(new CompletableFuture<>());
+        if (n == 0) return futures;
+
+        long first = claim(n);
+        if (first < 0) {
+            RejectedExecutionException closed = new RejectedExecutionException("CirculationExecutor is closed");
+            for (CompletableFuture<Boolean> f : futures) f.completeExceptionally(closed);
+            return futures;
+        }
+        for (int i = 0; i < n; i++) {
+            long seq = first + i;
+            awaitCapacity(seq);
+            CirculationOp op = ops.get(i);
+            Slot slot = slots[(int) (seq & mask)];
+            slot.checkout = op.isCheckout();
+            slot.patronId = op.getPatronId();
+            slot.isbn = op.getIsbn();
+            slot.future = futures.get(i);
+            slot.submitted = System.nanoTime();
+            PUBLISHED.setVolatile(published, (int) (seq & mask), seq);
+            if (writerParked) LockSupport.unpark(writer);
+        }
+        return futures;
+    }
+
+    /** Records one "circulation.batch" call, with its run time, per batch the writer runs. */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.batchMetrics = metrics.operation("circulation.batch");
+    }
+
+    /** Ops submitted but not yet completed. */
+    public long pending() {
+        return (claimSequence.get() & ~CLOSED) - consumed;
+    }
+
+    /**
+     * Stops accepting ops, waits for every accepted op to complete, and stops
+     * the writer. Ops submitted afterwards fail with RejectedExecutionException.
+     */
+    @Override
+    public void close() {
+        while (true) {
+            long c = claimSequence.get();
+            if ((c & CLOSED) != 0 || claimSequence.compareAndSet(c, c | CLOSED)) break;
+        }
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // ---------- Ring ----------
+    private long claim(int n) {
+        while (true) {
+            long c = claimSequence.get();
+            if ((c & CLOSED) != 0) return -1;
+            if (claimSequence.compareAndSet(c, c + n)) return c;
+        }
+    }
+
+    private void awaitCapacity(long seq) {
+        int idle = 0;
+        while (seq - consumed > mask) {
+            if (idle < SPINS) {
+                Thread.onSpinWait();
+            } else if (idle < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(SUBMITTER_PARK_NANOS);
+            }
+            idle++;
+        }
+    }
+
+    private boolean isPublished(long seq) {
+        return (long) PUBLISHED.getVolatile(published, (int) (seq & mask)) == seq;
+    }
+
+    private void runWriter() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            long end = next;
+            while (end - next < maxBatch && isPublished(end)) end++;
+            if (end > next) {
+                runBatch(next, end);
+                next = end;
+                idle = 0;
+                continue;
+            }
+            long claimed = claimSequence.get();
+            if ((claimed & CLOSED) != 0 && (claimed & ~CLOSED) == next) return;
+            if (idle < SPINS) {
+                Thread.onSpinWait();
+            } else if (idle < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                // Publish the flag before the final check, so a submitter
+                // either sees it and unparks us or we see its slot
+                writerParked = true;
+                if (!isPublished(next)) LockSupport.parkNanos(WRITER_PARK_NANOS);
+                writerParked = false;
+            }
+            idle++;
+        }
+    }
+
+    // ---------- Batches ----------
+    private void runBatch(long from, long to) {
+        long start = System.nanoTime();
+        Library library = lending.library();
+        LibraryJournal journal = lending.journal();
+        ReservationService reservations = lending.reservationService();
+        LocalDate today = LocalDate.now();
+        int lent = 0;
+        int returned = 0;
+
+        // A journal that cannot begin or commit the batch fails all of it;
+        // the writer carries on so queued and later ops still complete
+        RuntimeException batchError = null;
+        try {
+            journal.beginMutation();
+            try {
+                for (long seq = from; seq < to; seq++) {
+                    Slot slot = slots[(int) (seq & mask)];
+                    try {
+                        Patron patron = patron(library, slot.patronId);
+                        Book book = book(library, slot.isbn);
+                        if (patron == null || book == null) {
+                            slot.ok = false;
+                        } else if (slot.checkout) {
+                            slot.ok = lending.checkout(patron, book, today, journal) == LendingService.Outcome.LENT;
+                            if (slot.ok) lent++;
+                        } else {
+                            LendingService.Outcome outcome = lending.checkIn(patron, book, today, journal, reservations);
+                            slot.ok = outcome != LendingService.Outcome.NOT_BORROWED;
+                            if (outcome == LendingService.Outcome.SHELVED) shelved.add(book.getIsbn());
+                            if (slot.ok) returned++;
+                        }
+                    } catch (RuntimeException e) {
+                        slot.error = e;
+                    }
+                }
+            } finally {
+                journal.endMutation();
+            }
+        } catch (RuntimeException e) {
+            batchError = e;
+            logger.log(Level.SEVERE, e, () -> "Circulation batch of " + (to - from) + " failed to commit");
+        } finally {
+            patronCache.clear();
+            bookCache.clear();
+        }
+
+        if (reservations != null) {
+            for (String isbn : shelved) {
+                try {
+                    reservations.handleBookReturn(isbn);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, e, () -> "Reservation notification failed for " + isbn);
+                }
+            }
+        }
+        shelved.clear();
+
+        // Free the slots before completing, so a callback that submits again
+        // finds room in the ring
+        OperationMetrics checkoutMetrics = lending.checkoutMetrics();
+        OperationMetrics returnMetrics = lending.returnMetrics();
+        int n = (int) (to - from);
+        for (int i = 0; i < n; i++) {
+            Slot slot = slots[(int) ((from + i) & mask)];
+            Object result = batchError != null ? batchError
+                    : slot.error != null ? slot.error : Boolean.valueOf(slot.ok);
+            (slot.checkout ? checkoutMetrics : returnMetrics).record(slot.submitted, Boolean.TRUE.equals(result));
+            batchFutures[i] = slot.future;
+            batchResults[i] = result;
+            slot.patronId = null;
+            slot.isbn = null;
+            slot.future = null;
+            slot.error = null;
+        }
+        consumed = to;
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked")
+            CompletableFuture<Boolean> future = (CompletableFuture<Boolean>) batchFutures[i];
+            Object result = batchResults[i];
+            batchFutures[i] = null;
+            batchResults[i] = null;
+            if (result instanceof RuntimeException) {
+                future.completeExceptionally((RuntimeException) result);
+            } else {
+                future.complete((Boolean) result);
+            }
+        }
+
+        batchMetrics.record(start, batchError == null);
+        int checkedOut = lent;
+        int checkedIn = returned;
+        logger.fine(() -> "Circulation batch of " + n + ": " + checkedOut + " checked out, "
+                + checkedIn + " returned, " + (n - checkedOut - checkedIn) + " refused");
+    }
+
+    // Bursts from one kiosk repeat patrons and titles, so lookups are cached per batch
+    private Patron patron(Library library, String patronId) {
+        Patron patron = patronCache.get(patronId);
+        if (patron == null) {
+            patron = library.getPatron(patronId).orElse(null);
+            if (patron != null) patronCache.put(patronId, patron);
+        }
+        return patron;
+    }
+
+    private Book book(Library library, String isbn) {
+        Book book = bookCache.get(isbn);
+        if (book == null) {
+            book = library.getBook(isbn).orElse(null);
+            if (book != null) bookCache.put(isbn, book);
+        }
+        return book;
+    }
+}
@@ -0,0 +1,33 @@
+package com.lms.service;
+
+import java.util.Objects;
+
+/** One checkout or return submitted to a CirculationExecutor. */
+public final class CirculationOp {
+    private final boolean checkout;
+    private final String patronId;
+    private final String isbn;
+
+    private CirculationOp(boolean checkout, String patronId, String isbn) {
+        this.checkout = checkout;
+        this.patronId = Objects.requireNonNull(patronId);
+        this.isbn = Objects.requireNonNull(isbn);
+    }
+
+    public static CirculationOp checkout(String patronId, String isbn) {
+        return new CirculationOp(true, patronId, isbn);
+    }
+
+    public static CirculationOp returnBook(String patronId, String isbn) {
+        return new CirculationOp(false, patronId, isbn);
+    }
+
+    public boolean isCheckout() { return checkout; }
+    public String getPatronId() { return patronId; }
+    public String getIsbn() { return isbn; }
+
+    @Override
+    public String toString() {
+        return (checkout ? "checkout(" : "return(") + patronId + ", " + isbn + ")";
+    }
+}
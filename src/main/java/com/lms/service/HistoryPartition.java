@@ -0,0 +1,296 @@
+package com.lms.service;
+
+import com.lms.model.LendingRecord;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * The closed loans returned in one month, stored column-wise in primitive
+ * arrays: dictionary ids for patron, ISBN and title, epoch days for the
+ * dates, and record ids as two longs when they are UUIDs. That is about 40
+ * bytes per loan instead of a LendingRecord with its strings.
+ *
+ * Patron and ISBN postings (row numbers grouped by dictionary id) are built
+ * on first use and dropped by the next append.
+ *
+ * Not thread-safe; LendingHistory guards it.
+ */
+final class HistoryPartition {
+    private static final int MAGIC = 0x4C4D4850; // "LMHP"
+    private static final int VERSION = 1;
+
+    final YearMonth month;
+    private int size;
+    private long[] idHigh = new long[16];
+    private long[] idLow = new long[16];
+    private int[] patron = new int[16];
+    private int[] isbn = new int[16];
+    private int[] title = new int[16];
+    private int[] borrowed = new int[16];
+    private int[] due = new int[16];
+    private int[] returned = new int[16];
+    private final Map<Integer, String> otherIds = new HashMap<>(); // row -> id that is not a UUID
+    private final Dictionary patrons = new Dictionary();
+    private final Dictionary isbns = new Dictionary();
+    private final Dictionary titles = new Dictionary();
+    private int minBorrowed = Integer.MAX_VALUE;
+    private int maxBorrowed = Integer.MIN_VALUE;
+
+    private Postings byPatron;
+    private Postings byIsbn;
+
+    HistoryPartition(YearMonth month) {
+        this.month = month;
+    }
+
+    int size() { return size; }
+    int minBorrowedDay() { return minBorrowed; }
+    int maxBorrowedDay() { return maxBorrowed; }
+
+    void append(LendingRecord r) {
+        if (size == patron.length) grow();
+        int row = size++;
+        String id = r.getRecordId();
+        UUID uuid = parseUuid(id);
+        if (uuid != null) {
+            idHigh[row] = uuid.getMostSignificantBits();
+            idLow[row] = uuid.getLeastSignificantBits();
+        } else {
+            otherIds.put(row, id);
+        }
+        patron[row] = patrons.id(r.getPatronId());
+        isbn[row] = isbns.id(r.getBookIsbn());
+        title[row] = titles.id(r.getBookTitle());
+        borrowed[row] = (int) r.getBorrowedDate().toEpochDay();
+        due[row] = (int) r.getDueDate().toEpochDay();
+        returned[row] = (int) r.getReturnedDate().toEpochDay();
+        minBorrowed = Math.min(minBorrowed, borrowed[row]);
+        maxBorrowed = Math.max(maxBorrowed, borrowed[row]);
+        byPatron = null;
+        byIsbn = null;
+    }
+
+    LendingRecord record(int row) {
+        String id = idHigh[row] == 0 && idLow[row] == 0 ? otherIds.get(row) : new UUID(idHigh[row], idLow[row]).toString();
+        return new LendingRecord(id, isbns.value(isbn[row]), patrons.value(patron[row]), titles.value(title[row]),
+                LocalDate.ofEpochDay(borrowed[row]), LocalDate.ofEpochDay(due[row]),
+                LocalDate.ofEpochDay(returned[row]));
+    }
+
+    // ---------- Queries ----------
+
+    void forEach(Consumer<LendingRecord> out) {
+        for (int row = 0; row < size; row++) out.accept(record(row));
+    }
+
+    /** Loans borrowed within [fromDay, toDay] (epoch days), in return order. */
+    void borrowedBetween(int fromDay, int toDay, Consumer<LendingRecord> out) {
+        if (maxBorrowed < fromDay || minBorrowed > toDay) return;
+        for (int row = 0; row < size; row++) {
+            if (borrowed[row] >= fromDay && borrowed[row] <= toDay) out.accept(record(row));
+        }
+    }
+
+    void returnedBetween(int fromDay, int toDay, Consumer<LendingRecord> out) {
+        for (int row = 0; row < size; row++) {
+            if (returned[row] >= fromDay && returned[row] <= toDay) out.accept(record(row));
+        }
+    }
+
+    /**
+     * The patron's loans borrowed within [fromDay, toDay]. With indexed=false
+     * the partition is scanned instead of building postings, e.g. for the
+     * month still being appended to.
+     */
+    void forPatron(String patronId, int fromDay, int toDay, boolean indexed, Consumer<LendingRecord> out) {
+        int key = patrons.lookup(patronId);
+        if (key < 0 || maxBorrowed < fromDay || minBorrowed > toDay) return;
+        if (!indexed) {
+            scan(patron, key, fromDay, toDay, out);
+            return;
+        }
+        if (byPatron == null) byPatron = Postings.build(patron, size, patrons.size());
+        emit(byPatron, key, fromDay, toDay, out);
+    }
+
+    void forIsbn(String isbnValue, int fromDay, int toDay, boolean indexed, Consumer<LendingRecord> out) {
+        int key = isbns.lookup(isbnValue);
+        if (key < 0 || maxBorrowed < fromDay || minBorrowed > toDay) return;
+        if (!indexed) {
+            scan(isbn, key, fromDay, toDay, out);
+            return;
+        }
+        if (byIsbn == null) byIsbn = Postings.build(isbn, size, isbns.size());
+        emit(byIsbn, key, fromDay, toDay, out);
+    }
+
+    private void scan(int[] column, int key, int fromDay, int toDay, Consumer<LendingRecord> out) {
+        for (int row = 0; row < size; row++) {
+            if (column[row] == key && borrowed[row] >= fromDay && borrowed[row] <= toDay) out.accept(record(row));
+        }
+    }
+
+    private void emit(Postings postings, int key, int fromDay, int toDay, Consumer<LendingRecord> out) {
+        for (int i = postings.start[key]; i < postings.start[key + 1]; i++) {
+            int row = postings.rows[i];
+            if (borrowed[row] >= fromDay && borrowed[row] <= toDay) out.accept(record(row));
+        }
+    }
+
+    /** Rows grouped by dictionary id (counting sort), rows ascending within a group. */
+    private static final class Postings {
+        final int[] start;
+        final int[] rows;
+
+        private Postings(int[] start, int[] rows) {
+            this.start = start;
+            this.rows = rows;
+        }
+
+        static Postings build(int[] column, int size, int keys) {
+            int[] start = new int[keys + 1];
+            for (int row = 0; row < size; row++) start[column[row] + 1]++;
+            for (int k = 0; k < keys; k++) start[k + 1] += start[k];
+            int[] next = Arrays.copyOf(start, keys);
+            int[] rows = new int[size];
+            for (int row = 0; row < size; row++) rows[next[column[row]]++] = row;
+            return new Postings(start, rows);
+        }
+    }
+
+    // ---------- Archive format ----------
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(month.getYear());
+        out.writeInt(month.getMonthValue());
+        out.writeInt(size);
+        patrons.writeTo(out);
+        isbns.writeTo(out);
+        titles.writeTo(out);
+        out.writeInt(otherIds.size());
+        for (Map.Entry<Integer, String> e : otherIds.entrySet()) {
+            out.writeInt(e.getKey());
+            out.writeUTF(e.getValue());
+        }
+        for (int row = 0; row < size; row++) {
+            out.writeLong(idHigh[row]);
+            out.writeLong(idLow[row]);
+            out.writeInt(patron[row]);
+            out.writeInt(isbn[row]);
+            out.writeInt(title[row]);
+            out.writeInt(borrowed[row]);
+            out.writeInt(due[row]);
+            out.writeInt(returned[row]);
+        }
+    }
+
+    static HistoryPartition readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a history partition");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported history partition version " + version);
+        HistoryPartition p = new HistoryPartition(YearMonth.of(in.readInt(), in.readInt()));
+        int rows = in.readInt();
+        p.patrons.readFrom(in);
+        p.isbns.readFrom(in);
+        p.titles.readFrom(in);
+        int others = in.readInt();
+        for (int i = 0; i < others; i++) p.otherIds.put(in.readInt(), in.readUTF());
+        p.idHigh = new long[rows];
+        p.idLow = new long[rows];
+        p.patron = new int[rows];
+        p.isbn = new int[rows];
+        p.title = new int[rows];
+        p.borrowed = new int[rows];
+        p.due = new int[rows];
+        p.returned = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            p.idHigh[row] = in.readLong();
+            p.idLow[row] = in.readLong();
+            p.patron[row] = in.readInt();
+            p.isbn[row] = in.readInt();
+            p.title[row] = in.readInt();
+            p.borrowed[row] = in.readInt();
+            p.due[row] = in.readInt();
+            p.returned[row] = in.readInt();
+            p.minBorrowed = Math.min(p.minBorrowed, p.borrowed[row]);
+            p.maxBorrowed = Math.max(p.maxBorrowed, p.borrowed[row]);
+        }
+        p.size = rows;
+        return p;
+    }
+
+    // ---------- Internals ----------
+    private void grow() {
+        int n = size * 2;
+        idHigh = Arrays.copyOf(idHigh, n);
+        idLow = Arrays.copyOf(idLow, n);
+        patron = Arrays.copyOf(patron, n);
+        isbn = Arrays.copyOf(isbn, n);
+        title = Arrays.copyOf(title, n);
+        borrowed = Arrays.copyOf(borrowed, n);
+        due = Arrays.copyOf(due, n);
+        returned = Arrays.copyOf(returned, n);
+    }
+
+    // A UUID that prints back to exactly the same string, and is not all zeros
+    // (which marks an id kept in otherIds)
+    private static UUID parseUuid(String id) {
+        if (id == null || id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            if (!uuid.toString().equals(id)) return null;
+            if (uuid.getMostSignificantBits() == 0 && uuid.getLeastSignificantBits() == 0) return null;
+            return uuid;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            String v = value == null ? "" : value;
+            Integer id = ids.get(v);
+            if (id == null) {
+                id = values.size();
+                ids.put(v, id);
+                values.add(v);
+            }
+            return id;
+        }
+
+        int lookup(String value) {
+            Integer id = ids.get(value);
+            return id == null ? -1 : id;
+        }
+
+        String value(int id) { return values.get(id); }
+
+        int size() { return values.size(); }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(values.size());
+            for (String v : values) out.writeUTF(v);
+        }
+
+        void readFrom(DataInputStream in) throws IOException {
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) id(in.readUTF());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.lms.service;
+
+import com.lms.model.LendingRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store of closed (returned) lending records.
+ * Records are kept in the order they were closed and never modified.
+ *
+ * Records are partitioned by the month they were returned in and stored as
+ * primitive columns (see HistoryPartition), so years of history stay compact
+ * and patron, ISBN and date-range queries only touch the months that can
+ * match. Months before the current one can be archived to disk with
+ * archiveBefore(); archived months are read back on demand and cached
+ * softly, so the GC can drop them again under memory pressure.
+ */
+public class LendingHistory {
+    private static final String ARCHIVE_PREFIX = "history-";
+    private static final String ARCHIVE_SUFFIX = ".part";
+
+    private final Logger logger = Logger.getLogger(LendingHistory.class.getName());
+
+    // Resident months, plus archived ones whose file is in archiveDir
+    private final TreeMap<YearMonth, HistoryPartition> resident = new TreeMap<>();
+    private final TreeMap<YearMonth, Archived> archived = new TreeMap<>();
+    private Path archiveDir;
+    private int size;
+
+    public synchronized void append(LendingRecord record) {
+        if (record.getReturnedDate() == null) throw new IllegalArgumentException("Record is not closed: " + record.getRecordId());
+        YearMonth month = YearMonth.from(record.getReturnedDate());
+        // Only finished months are archived, and an archive holds every record
+        // of its month; an append for one is a replay of a record it already has
+        if (archived.containsKey(month)) return;
+        resident.computeIfAbsent(month, HistoryPartition::new).append(record);
+        size++;
+    }
+
+    /** Closed records, including archived ones. */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Point-in-time copy of every closed record, oldest first, reading archived months back in. */
+    public synchronized List<LendingRecord> snapshot() {
+        List<LendingRecord> out = new ArrayList<>(size);
+        for (HistoryPartition p : partitions(YearMonth.of(0, 1), YearMonth.of(9999, 12))) p.forEach(out::add);
+        return Collections.unmodifiableList(out);
+    }
+
+    /** Copy of the closed records still held in memory, oldest first; what a state snapshot needs to save. */
+    public synchronized List<LendingRecord> residentSnapshot() {
+        List<LendingRecord> out = new ArrayList<>();
+        for (HistoryPartition p : resident.values()) p.forEach(out::add);
+        return Collections.unmodifiableList(out);
+    }
+
+    // ---------- Range queries ----------
+    // Date bounds are inclusive. A loan is returned no earlier than it was
+    // borrowed, so months before the start of a borrowed-date range are skipped.
+
+    /** The patron's closed loans borrowed between from and to, oldest return first. */
+    public List<LendingRecord> forPatron(String patronId, LocalDate from, LocalDate to) {
+        return query(from, to, true, (p, indexed, out) ->
+                p.forPatron(patronId, day(from), day(to), indexed, out));
+    }
+
+    /** Closed loans of the ISBN borrowed between from and to, oldest return first. */
+    public List<LendingRecord> forIsbn(String isbn, LocalDate from, LocalDate to) {
+        return query(from, to, true, (p, indexed, out) ->
+                p.forIsbn(isbn, day(from), day(to), indexed, out));
+    }
+
+    /** Closed loans borrowed between from and to, oldest return first. */
+    public List<LendingRecord> borrowedBetween(LocalDate from, LocalDate to) {
+        return query(from, to, true, (p, indexed, out) -> p.borrowedBetween(day(from), day(to), out));
+    }
+
+    /** Closed loans returned between from and to, oldest return first. */
+    public List<LendingRecord> returnedBetween(LocalDate from, LocalDate to) {
+        return query(from, to, false, (p, indexed, out) -> p.returnedBetween(day(from), day(to), out));
+    }
+
+    private interface PartitionQuery {
+        void run(HistoryPartition partition, boolean indexed, Consumer<LendingRecord> out);
+    }
+
+    private synchronized List<LendingRecord> query(LocalDate from, LocalDate to, boolean byBorrowed,
+                                                   PartitionQuery query) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from is after to");
+        // Borrowed-date ranges can match loans returned any time later
+        YearMonth last = byBorrowed ? YearMonth.of(9999, 12) : YearMonth.from(to);
+        YearMonth newest = resident.isEmpty() ? null : resident.lastKey();
+        List<LendingRecord> out = new ArrayList<>();
+        for (HistoryPartition p : partitions(YearMonth.from(from), last)) {
+            // The newest month is still being appended to; scan it rather than
+            // build postings the next return would throw away
+            query.run(p, !p.month.equals(newest), out::add);
+        }
+        return out;
+    }
+
+    private static int day(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    // ---------- Archiving ----------
+
+    /**
+     * Keeps archived months in the directory, creating it if needed, and
+     * registers the months already archived there. Call before recovery, so
+     * that replayed returns for archived months are recognised.
+     */
+    public synchronized void openArchive(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        this.archiveDir = dir;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, ARCHIVE_PREFIX + "*" + ARCHIVE_SUFFIX)) {
+            for (Path file : files) {
+                HistoryPartition p = read(file);
+                if (archived.containsKey(p.month)) continue;
+                HistoryPartition replaced = resident.remove(p.month);
+                if (replaced != null) size -= replaced.size();
+                archived.put(p.month, new Archived(file));
+                size += p.size();
+            }
+        }
+    }
+
+    /**
+     * Writes every resident month before the given one to the archive
+     * directory and drops it from memory. Only months before the current one
+     * can be archived, since later returns would still land in them.
+     *
+     * @return the number of records archived
+     */
+    public synchronized int archiveBefore(YearMonth month) throws IOException {
+        if (archiveDir == null) throw new IllegalStateException("No archive directory; call openArchive first");
+        if (month.isAfter(YearMonth.now())) throw new IllegalArgumentException("Cannot archive the current month or later");
+        int records = 0;
+        while (!resident.isEmpty() && resident.firstKey().isBefore(month)) {
+            HistoryPartition p = resident.firstEntry().getValue();
+            Path file = write(p);
+            resident.remove(p.month);
+            archived.put(p.month, new Archived(file));
+            records += p.size();
+        }
+        int count = records;
+        logger.info(() -> "Archived " + count + " closed loans returned before " + month);
+        return records;
+    }
+
+    /** Months held in the archive directory, oldest first. */
+    public synchronized List<YearMonth> archivedMonths() {
+        return new ArrayList<>(archived.keySet());
+    }
+
+    // Partitions for months in [first, last], loading archived ones
+    private List<HistoryPartition> partitions(YearMonth first, YearMonth last) {
+        TreeMap<YearMonth, HistoryPartition> selected = new TreeMap<>(resident.subMap(first, true, last, true));
+        for (Map.Entry<YearMonth, Archived> e : archived.subMap(first, true, last, true).entrySet()) {
+            selected.put(e.getKey(), e.getValue().load());
+        }
+        return new ArrayList<>(selected.values());
+    }
+
+    private static final class Archived {
+        final Path file;
+        SoftReference<HistoryPartition> cached = new SoftReference<>(null);
+
+        Archived(Path file) {
+            this.file = file;
+        }
+
+        HistoryPartition load() {
+            HistoryPartition p = cached.get();
+            if (p == null) {
+                try {
+                    p = read(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read archived history " + file, e);
+                }
+                cached = new SoftReference<>(p);
+            }
+            return p;
+        }
+    }
+
+    // ---------- Files ----------
+    // Same discipline as state snapshots: a CRC32 trailer over the body,
+    // written to a temp file, forced, then renamed into place.
+
+    private Path write(HistoryPartition p) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, p.size() * 40));
+        DataOutputStream out = new DataOutputStream(bytes);
+        p.writeTo(out);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path file = archiveDir.resolve(ARCHIVE_PREFIX + p.month + ARCHIVE_SUFFIX);
+        Path tmp = archiveDir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    private static HistoryPartition read(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (data.length < 4) throw new IOException("Truncated history archive " + file);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(data, data.length - 4, 4).getInt()) {
+            throw new IOException("Checksum mismatch in history archive " + file);
+        }
+        return HistoryPartition.readFrom(new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4)));
+    }
+}
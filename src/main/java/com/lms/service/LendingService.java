@@ -1,125 +1,466 @@
 package com.lms.service;
 
+import com.lms.event.EventSink;
+import com.lms.event.LibraryEvent;
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
 import com.lms.model.Book;
 import com.lms.model.Patron;
 import com.lms.model.LendingRecord;  // NEW
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Handles book checkout and return operations.
  * Demonstrates OOP, SRP, and Logger integration.
+ *
+ * Thread-safe: a copy is claimed with Book.tryCheckout(), a lock-free
+ * decrement of the title's available copies, so a title is never lent more
+ * times than it has copies, and checkouts of different books never contend.
+ *
+ * Open loans are indexed by (patron, ISBN) so a return is a constant-time
+ * lookup, by ISBN for a title's loan list, and by due date so overdue lists
+ * only touch overdue loans; closed
+ * records move to an append-only, month-partitioned LendingHistory.
  */
 public class LendingService {
+    private static final Comparator<LendingRecord> BY_DUE_DATE =
+            Comparator.comparing(LendingRecord::getDueDate).thenComparing(LendingRecord::getRecordId);
+
     private final Library library;
     private final Logger logger = Logger.getLogger(LendingService.class.getName());
-    private ReservationService reservationService;  // optional integration
+    private volatile ReservationService reservationService;  // optional integration
+    private volatile LibraryJournal journal = LibraryJournal.NONE;
+    private volatile EventSink events = EventSink.NONE;
+    private volatile OperationMetrics checkoutMetrics;
+    private volatile OperationMetrics returnMetrics;
 
-    // NEW: stores all lending transactions
-    private final List<LendingRecord> lendingRecords = new ArrayList<>();
+    // Open loans keyed by (patronId, isbn); closed ones live in history
+    private final Map<LoanKey, LendingRecord> openLoans = new ConcurrentHashMap<>();
+    // Keys of checkouts still claiming a copy; their loans are not open yet
+    private final Set<LoanKey> pendingLoans = ConcurrentHashMap.newKeySet();
+    private final LendingHistory history = new LendingHistory();
+    private final ConcurrentSkipListSet<LendingRecord> openByDueDate = new ConcurrentSkipListSet<>(BY_DUE_DATE);
+    private final Map<String, Set<LendingRecord>> openByIsbn = new ConcurrentHashMap<>();
+    private final List<LoanListener> loanListeners = new CopyOnWriteArrayList<>();
 
     public LendingService(Library library) {
         this.library = library;
+        setMetrics(MetricsRegistry.global());
     }
 
     public void setReservationService(ReservationService reservationService) {
         this.reservationService = reservationService;
     }
 
+    public void setJournal(LibraryJournal journal) {
+        this.journal = journal == null ? LibraryJournal.NONE : journal;
+    }
+
+    /** Publishes CheckedOut and Returned, from single calls and CirculationExecutor batches alike. */
+    public void setEventSink(EventSink events) {
+        this.events = events == null ? EventSink.NONE : events;
+    }
+
+    public void addLoanListener(LoanListener listener) {
+        loanListeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeLoanListener(LoanListener listener) {
+        loanListeners.remove(listener);
+    }
+
+    /** Records checkout and return counts and latencies ("lending.checkout", "lending.return"). */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.checkoutMetrics = metrics.operation("lending.checkout");
+        this.returnMetrics = metrics.operation("lending.return");
+    }
+
     /**
      * Checkout a book for a patron.
      */
     public boolean checkoutBook(String patronId, String isbn) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ok = checkoutBookUntimed(patronId, isbn);
+            return ok;
+        } finally {
+            checkoutMetrics.record(start, ok);
+        }
+    }
+
+    private boolean checkoutBookUntimed(String patronId, String isbn) {
         Optional<Patron> patronOpt = library.getPatron(patronId);
         Optional<Book> bookOpt = library.getBook(isbn);
 
         if (patronOpt.isEmpty()) {
-            logger.warning("Patron not found: " + patronId);
+            logger.warning(() -> "Patron not found: " + patronId);
             return false;
         }
         if (bookOpt.isEmpty()) {
-            logger.warning("Book not found: " + isbn);
+            logger.warning(() -> "Book not found: " + isbn);
             return false;
         }
 
-        Book book = bookOpt.get();
-        Patron patron = patronOpt.get();
-
-        if (!book.isAvailable()) {
-            logger.info("Book not available for checkout: " + isbn);
-            return false;
+        LibraryJournal journal = this.journal;
+        Outcome outcome;
+        journal.beginMutation();
+        try {
+            outcome = checkout(patronOpt.get(), bookOpt.get(), LocalDate.now(), journal);
+        } finally {
+            journal.endMutation();
         }
 
-        // Mark book unavailable and update patron borrow list
-        book.setAvailable(false);
-        patron.borrow(isbn);
-
-        // NEW: create LendingRecord
-        LendingRecord record = new LendingRecord(isbn, patronId, book.getTitle());
-        lendingRecords.add(record);
-        logger.info("LendingRecord created: " + record.getRecordId());
-
-        logger.info("Book checked out: " + isbn + " by Patron: " + patronId);
-        return true;
+        switch (outcome) {
+            case ALREADY_BORROWED:
+                logger.info(() -> "Patron " + patronId + " already has a copy of: " + isbn);
+                return false;
+            case UNAVAILABLE:
+                logger.info(() -> "Book not available for checkout: " + isbn);
+                return false;
+            default:
+                if (logger.isLoggable(Level.INFO)) {
+                    findOpenLoan(patronId, isbn).ifPresent(r -> logger.info("LendingRecord created: " + r.getRecordId()));
+                }
+                logger.info(() -> "Book checked out: " + isbn + " by Patron: " + patronId);
+                return true;
+        }
     }
 
     /**
      * Return a book from a patron.
      */
     public boolean returnBook(String patronId, String isbn) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ok = returnBookUntimed(patronId, isbn);
+            return ok;
+        } finally {
+            returnMetrics.record(start, ok);
+        }
+    }
+
+    private boolean returnBookUntimed(String patronId, String isbn) {
         Optional<Patron> patronOpt = library.getPatron(patronId);
         Optional<Book> bookOpt = library.getBook(isbn);
 
         if (patronOpt.isEmpty()) {
-            logger.warning("Patron not found: " + patronId);
+            logger.warning(() -> "Patron not found: " + patronId);
             return false;
         }
         if (bookOpt.isEmpty()) {
-            logger.warning("Book not found: " + isbn);
+            logger.warning(() -> "Book not found: " + isbn);
             return false;
         }
 
-        Book book = bookOpt.get();
-        Patron patron = patronOpt.get();
+        LibraryJournal journal = this.journal;
+        ReservationService reservations = this.reservationService;
+        Outcome outcome;
+        journal.beginMutation();
+        try {
+            outcome = checkIn(patronOpt.get(), bookOpt.get(), LocalDate.now(), journal, reservations);
+        } finally {
+            journal.endMutation();
+        }
 
-        if (!patron.getBorrowedIsbns().contains(isbn)) {
-            logger.warning("Patron " + patronId + " did not borrow book: " + isbn);
+        if (outcome == Outcome.NOT_BORROWED) {
+            logger.warning(() -> "Patron " + patronId + " did not borrow book: " + isbn);
             return false;
         }
+        if (outcome == Outcome.SHELVED && reservations != null) {
+            reservations.handleBookReturn(isbn);
+        }
+
+        logger.info(() -> "Book returned: " + isbn + " by Patron: " + patronId);
+        return true;
+    }
+
+    // ---------- Core transitions ----------
+    // Shared by the single-call methods above and CirculationExecutor's batches.
+    // Callers look up the patron and book, hold the journal's mutation bracket,
+    // and do any logging; these methods never log.
+
+    enum Outcome { LENT, ALREADY_BORROWED, UNAVAILABLE, SHELVED, HELD, NOT_BORROWED }
+
+    /** LENT, ALREADY_BORROWED or UNAVAILABLE. */
+    Outcome checkout(Patron patron, Book book, LocalDate today, LibraryJournal journal) {
+        String patronId = patron.getId();
+        String isbn = book.getIsbn();
+        ReservationService reservations = this.reservationService;
+        LoanKey key = new LoanKey(patronId, isbn);
+        LendingRecord record = new LendingRecord(isbn, patronId, book.getTitle(), today);
 
-        // Mark book available and update patron borrow list
-        book.setAvailable(true);
-        patron.returned(isbn);
+        // One loan per patron and title: reserving the key first means two
+        // concurrent checkouts by the same patron cannot both claim a copy.
+        // The reservation is kept apart from openLoans, so readers never see
+        // a loan that has no copy yet.
+        if (!pendingLoans.add(key)) return Outcome.ALREADY_BORROWED;
+        try {
+            if (openLoans.containsKey(key)) return Outcome.ALREADY_BORROWED;
 
-        // NEW: find LendingRecord and mark returned
-        lendingRecords.stream()
-                .filter(r -> r.getBookIsbn().equals(isbn)
-                        && r.getPatronId().equals(patronId)
-                        && r.getStatus().equals("BORROWED"))
-                .findFirst()
-                .ifPresent(LendingRecord::markReturned);
+            // A copy held for this patron is already claimed; otherwise take one
+            // with a lock-free decrement-if-positive, so copies are never oversubscribed
+            boolean held = reservations != null && reservations.collectHold(isbn, patronId);
+            if (!held && !book.tryCheckout()) return Outcome.UNAVAILABLE;
+            if (!held) library.copiesChanged(book);
 
-        if (reservationService != null) {
-            reservationService.handleBookReturn(isbn);
+            // Journal before the loan is visible and before the patron's list,
+            // so any return that sees the ISBN in the list finds the journaled record
+            journal.checkedOut(record);
+            openLoans.put(key, record);
+        } finally {
+            pendingLoans.remove(key);
         }
+        indexOpenLoan(record);
+        for (LoanListener listener : loanListeners) listener.loanOpened(record);
+        library.recordBorrow(patronId, book);
+        patron.borrow(isbn);
+        events.publish(new LibraryEvent.CheckedOut(patronId, isbn));
+        return Outcome.LENT;
+    }
 
-        logger.info("Book returned: " + isbn + " by Patron: " + patronId);
-        return true;
+    /**
+     * SHELVED (the copy went back on the shelf; the caller then notifies the
+     * reservation service), HELD (it went straight to a waiting patron's hold)
+     * or NOT_BORROWED.
+     */
+    Outcome checkIn(Patron patron, Book book, LocalDate today, LibraryJournal journal,
+                    ReservationService reservations) {
+        String patronId = patron.getId();
+        String isbn = book.getIsbn();
+        // Removing from the patron's list is the return's commit point,
+        // so a duplicate concurrent return cannot free the copy twice
+        if (!patron.returned(isbn)) return Outcome.NOT_BORROWED;
+
+        // Close the open loan and move it to history
+        journal.returned(patronId, isbn, today);
+        closeLoan(patronId, isbn, today);
+        // Hand the copy straight to a waiting patron so nobody can take it
+        // off the shelf first; otherwise put it back
+        if (reservations != null && reservations.holdReturnedCopy(isbn)) {
+            events.publish(new LibraryEvent.Returned(patronId, isbn, true));
+            return Outcome.HELD;
+        }
+        book.checkIn();
+        library.copiesChanged(book);
+        events.publish(new LibraryEvent.Returned(patronId, isbn, false));
+        return Outcome.SHELVED;
+    }
+
+    Library library() {
+        return library;
+    }
+
+    LibraryJournal journal() {
+        return journal;
+    }
+
+    ReservationService reservationService() {
+        return reservationService;
+    }
+
+    OperationMetrics checkoutMetrics() {
+        return checkoutMetrics;
+    }
+
+    OperationMetrics returnMetrics() {
+        return returnMetrics;
     }
 
     /**
-     * Optional helper to get all lending records
+     * Optional helper to get all lending records:
+     * closed records (in return order) followed by open loans.
      */
     public List<LendingRecord> getLendingRecords() {
-        return lendingRecords;
+        List<LendingRecord> all = new ArrayList<>(history.snapshot());
+        all.addAll(openLoans.values());
+        return Collections.unmodifiableList(all);
     }
 
     public List<LendingRecord> getAllLendingRecords() {
-    return lendingRecords;
-}
+        return getLendingRecords();
+    }
+
+    /** The open loan for this patron and ISBN, if any. O(1). */
+    public Optional<LendingRecord> findOpenLoan(String patronId, String isbn) {
+        if (patronId == null || isbn == null) return Optional.empty();
+        return Optional.ofNullable(openLoans.get(new LoanKey(patronId, isbn)));
+    }
+
+    /** Live read-only view of currently open loans. */
+    public Collection<LendingRecord> getOpenLoans() {
+        return Collections.unmodifiableCollection(openLoans.values());
+    }
+
+    public LendingHistory getLendingHistory() {
+        return history;
+    }
+
+    /** Open loans due before the given date, earliest due first. O(log n + overdue loans). */
+    public List<LendingRecord> getOverdueLoans(LocalDate asOf) {
+        return new ArrayList<>(openByDueDate.headSet(dueProbe(asOf), false));
+    }
+
+    /** How many open loans are due before the given date, without copying them. */
+    public int countOverdueLoans(LocalDate asOf) {
+        return openByDueDate.headSet(dueProbe(asOf), false).size();
+    }
+
+    /** Open loans due between from and to inclusive, earliest due first, e.g. for reminders. */
+    public List<LendingRecord> getLoansDueBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("from is after to");
+        return new ArrayList<>(openByDueDate.subSet(dueProbe(from), true, dueProbe(to.plusDays(1)), false));
+    }
+
+    /**
+     * The patron's loans borrowed between from and to inclusive, closed ones
+     * (in return order) followed by open ones.
+     */
+    public List<LendingRecord> getPatronLoans(String patronId, LocalDate from, LocalDate to) {
+        List<LendingRecord> loans = history.forPatron(patronId, from, to);
+        library.getPatron(patronId).ifPresent(p -> {
+            for (String isbn : p.getBorrowedIsbns()) {
+                findOpenLoan(patronId, isbn).filter(r -> borrowedWithin(r, from, to)).ifPresent(loans::add);
+            }
+        });
+        return loans;
+    }
+
+    /**
+     * Loans of the ISBN borrowed between from and to inclusive, closed ones
+     * (in return order) followed by open ones.
+     */
+    public List<LendingRecord> getIsbnLoans(String isbn, LocalDate from, LocalDate to) {
+        List<LendingRecord> loans = history.forIsbn(isbn, from, to);
+        Set<LendingRecord> open = isbn == null ? null : openByIsbn.get(isbn);
+        if (open != null) {
+            for (LendingRecord r : open) {
+                if (borrowedWithin(r, from, to)) loans.add(r);
+            }
+        }
+        return loans;
+    }
+
+    // ---------- Recovery ----------
+    // Used when rebuilding state from a snapshot or write-ahead log.
+    // They apply state directly and are never journaled.
+
+    /** Re-applies a journaled checkout. */
+    public void restoreCheckout(LendingRecord record) {
+        library.getBook(record.getBookIsbn()).ifPresent(b -> {
+            b.replayCopyChange(-1);
+            library.copiesChanged(b);
+            library.recordBorrow(record.getPatronId(), b);
+        });
+        openLoans.put(new LoanKey(record.getPatronId(), record.getBookIsbn()), record);
+        indexOpenLoan(record);
+        for (LoanListener listener : loanListeners) listener.loanOpened(record);
+        library.getPatron(record.getPatronId()).ifPresent(p -> p.borrow(record.getBookIsbn()));
+    }
 
+    /** Re-applies a journaled return. */
+    public void restoreReturn(String patronId, String isbn, LocalDate returnedDate) {
+        library.getPatron(patronId).ifPresent(p -> p.returned(isbn));
+        closeLoan(patronId, isbn, returnedDate);
+        library.getBook(isbn).ifPresent(b -> {
+            b.replayCopyChange(+1);
+            library.copiesChanged(b);
+        });
+    }
+
+    /** Installs an open loan from a snapshot (book and patron state are restored separately). */
+    public void restoreOpenLoan(LendingRecord record) {
+        openLoans.put(new LoanKey(record.getPatronId(), record.getBookIsbn()), record);
+        indexOpenLoan(record);
+        for (LoanListener listener : loanListeners) listener.loanOpened(record);
+    }
+
+    /** Installs a closed record from a snapshot. */
+    public void restoreClosedLoan(LendingRecord record) {
+        history.append(record);
+        for (LoanListener listener : loanListeners) {
+            listener.loanOpened(record);
+            listener.loanClosed(record);
+        }
+    }
+
+    // ---------- Internals ----------
+    private void closeLoan(String patronId, String isbn, LocalDate returnedDate) {
+        LendingRecord record = openLoans.remove(new LoanKey(patronId, isbn));
+        if (record != null) {
+            unindexOpenLoan(record);
+            record.markReturned(returnedDate);
+            history.append(record);
+            for (LoanListener listener : loanListeners) listener.loanClosed(record);
+        }
+    }
+
+    private void indexOpenLoan(LendingRecord record) {
+        openByDueDate.add(record);
+        // Updated inside compute so a set is never dropped while a loan is being added to it
+        openByIsbn.compute(record.getBookIsbn(), (isbn, loans) -> {
+            if (loans == null) loans = ConcurrentHashMap.newKeySet();
+            loans.add(record);
+            return loans;
+        });
+    }
+
+    private void unindexOpenLoan(LendingRecord record) {
+        openByDueDate.remove(record);
+        openByIsbn.computeIfPresent(record.getBookIsbn(), (isbn, loans) -> {
+            loans.remove(record);
+            return loans.isEmpty() ? null : loans;
+        });
+    }
+
+    // Sorts before every loan due on the date
+    private static LendingRecord dueProbe(LocalDate due) {
+        return new LendingRecord("", "", "", "", due, due, null);
+    }
+
+    private static boolean borrowedWithin(LendingRecord r, LocalDate from, LocalDate to) {
+        return !r.getBorrowedDate().isBefore(from) && !r.getBorrowedDate().isAfter(to);
+    }
+
+    private static final class LoanKey {
+        private final String patronId;
+        private final String isbn;
+        private final int hash;
+
+        LoanKey(String patronId, String isbn) {
+            this.patronId = patronId;
+            this.isbn = isbn;
+            this.hash = 31 * patronId.hashCode() + isbn.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LoanKey)) return false;
+            LoanKey other = (LoanKey) o;
+            return patronId.equals(other.patronId) && isbn.equals(other.isbn);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
 }
 
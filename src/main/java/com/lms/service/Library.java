@@ -1,45 +1,364 @@
 package com.lms.service;
 
+import com.lms.cache.CatalogVersions;
+import com.lms.cache.SearchCache;
+import com.lms.event.EventSink;
+import com.lms.event.LibraryEvent;
+import com.lms.index.BookIndex;
+import com.lms.index.PatronIndex;
+import com.lms.index.PopularityTracker;
+import com.lms.index.TrendingCounter;
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
 import com.lms.model.Book;
+import com.lms.model.CatalogField;
 import com.lms.model.Patron;
+import com.lms.query.BookQuery;
+import com.lms.query.QueryEngine;
+import com.lms.query.QueryResult;
+import com.lms.strategy.IndexedSearchStrategy;
+import com.lms.store.BookStore;
+import com.lms.store.CatalogSnapshot;
+import com.lms.store.InMemoryBookStore;
 import com.lms.strategy.SearchStrategy;
+import com.lms.util.StripedLock;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
- * Core in-memory repository for Books and Patrons.
- * Uses Map keyed by ISBN or Patron ID for O(1) lookup.
+ * Core repository for Books and Patrons.
+ * Uses Map keyed by ISBN or Patron ID for O(1) lookup. Books live in a
+ * pluggable BookStore (on-heap by default, or off-heap columnar).
+ * Borrow counts feed an incremental PopularityTracker and TrendingCounter,
+ * so most-borrowed and trending queries never sort the catalog.
+ * Registered BookIndexes are kept in sync on every add/update/remove, except
+ * during a bulk load, when they are rebuilt once at the end.
+ * Patrons are indexed by email (unique) and by name words in a PatronIndex
+ * that also follows setName/setEmail on the registered Patron objects.
+ *
+ * Thread-safe: maps are concurrent, catalog writes for one ISBN are serialized
+ * by a striped lock (so the map and its indexes agree), and availability
+ * changes go through Book's CAS transitions.
  *
  * Single Responsibility: data storage & CRUD operations.
  */
 public class Library {
-    private final Map<String, Book> books = new HashMap<>();
-    private final Map<String, Patron> patrons = new HashMap<>();
+    private static final int BACKFILL_BATCH = 1024;
+
+    private final BookStore books;
+    private final Map<String, Patron> patrons = new ConcurrentHashMap<>();
+    private final PatronIndex patronIndex = new PatronIndex();
+    private final List<BookIndex> indexes = new CopyOnWriteArrayList<>();
+    private final StripedLock isbnLocks = new StripedLock();
+    private final PopularityTracker popularity = new PopularityTracker();
+    private final TrendingCounter trending;
+    private final List<BorrowListener> borrowListeners = new CopyOnWriteArrayList<>();
+    private final CatalogVersions versions = new CatalogVersions();
+
+    private volatile boolean bulkLoading;
+    private volatile ActiveSearch search = new ActiveSearch(null, null);
+    private volatile MetricsRegistry metrics = MetricsRegistry.global();
+    private volatile LibraryJournal journal = LibraryJournal.NONE;
+    private volatile EventSink events = EventSink.NONE;
+    private volatile QueryEngine queryEngine;
+    private volatile SearchCache searchCache;
+    private volatile int patronHistoryLimit;
+
+    public Library() {
+        this(new InMemoryBookStore());
+    }
+
+    public Library(BookStore bookStore) {
+        this(bookStore, new TrendingCounter());
+    }
 
-    private SearchStrategy searchStrategy;
+    public Library(BookStore bookStore, TrendingCounter trending) {
+        this.books = Objects.requireNonNull(bookStore);
+        this.trending = Objects.requireNonNull(trending);
+        registerIndex(popularity);
+    }
+
+    /** The strategy and its metrics handle, swapped together. */
+    private static final class ActiveSearch {
+        final SearchStrategy strategy;
+        final OperationMetrics metrics;
+
+        ActiveSearch(SearchStrategy strategy, OperationMetrics metrics) {
+            this.strategy = strategy;
+            this.metrics = metrics;
+        }
+    }
+
+    /** Routes every catalog mutation to the journal (e.g. a write-ahead log). */
+    public void setJournal(LibraryJournal journal) {
+        this.journal = journal == null ? LibraryJournal.NONE : journal;
+    }
 
-    public Library() { }
+    /** Publishes BookAdded, and CheckedOut/Returned from borrowBook/returnBook, to the sink. */
+    public void setEventSink(EventSink events) {
+        this.events = events == null ? EventSink.NONE : events;
+    }
 
     // ---------- Search ----------
-    public void setSearchStrategy(SearchStrategy strategy) {
-        this.searchStrategy = strategy;
+
+    /**
+     * Sets the active strategy. Indexed strategies get their index
+     * registered (and populated) so searches no longer scan the catalog.
+     */
+    public synchronized void setSearchStrategy(SearchStrategy strategy) {
+        if (strategy instanceof IndexedSearchStrategy) {
+            registerIndex(((IndexedSearchStrategy) strategy).index());
+        }
+        this.search = activeSearch(strategy, metrics);
+        SearchCache cache = searchCache;
+        if (cache != null) cache.clear();
+    }
+
+    /**
+     * Answers repeated searches from the cache while the catalog fields the
+     * active strategy depends on are unchanged; null turns caching off.
+     * Cached results are unmodifiable lists.
+     */
+    public synchronized void setSearchCache(SearchCache cache) {
+        this.searchCache = cache;
+    }
+
+    /** Change counters per catalog field, bumped by every catalog write. */
+    public CatalogVersions getCatalogVersions() {
+        return versions;
+    }
+
+    /**
+     * Records search counts and latencies per strategy, as
+     * "search.&lt;StrategyClass&gt;"; searches with no results count as failures.
+     */
+    public synchronized void setMetrics(MetricsRegistry metrics) {
+        this.metrics = Objects.requireNonNull(metrics);
+        this.search = activeSearch(search.strategy, metrics);
+    }
+
+    private static ActiveSearch activeSearch(SearchStrategy strategy, MetricsRegistry metrics) {
+        if (strategy == null) return new ActiveSearch(null, null);
+        return new ActiveSearch(strategy, metrics.operation("search." + strategy.getClass().getSimpleName()));
     }
 
     public List<Book> searchBooks(String query) {
-        if (searchStrategy == null) return List.of();
-        return searchStrategy.search(new ArrayList<>(books.values()), query);
+        return searchBooks(query, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Search returning at most {@code limit} books. Indexed strategies
+     * answer from their index and return ranked results.
+     */
+    public List<Book> searchBooks(String query, int limit) {
+        ActiveSearch search = this.search;
+        SearchStrategy strategy = search.strategy;
+        if (strategy == null) return List.of();
+        SearchCache cache = searchCache;
+        if (cache != null) return cache.get(strategy, query, limit, versions, () -> runSearch(search, query, limit));
+        return runSearch(search, query, limit);
+    }
+
+    private List<Book> runSearch(ActiveSearch search, String query, int limit) {
+        SearchStrategy strategy = search.strategy;
+        long start = System.nanoTime();
+        List<Book> result = List.of();
+        try {
+            if (strategy instanceof IndexedSearchStrategy) {
+                result = ((IndexedSearchStrategy) strategy).search(query, limit, this::getBook);
+            } else {
+                result = strategy.search(getAllBooks(), query).stream()
+                        .limit(limit)
+                        .collect(Collectors.toList());
+            }
+            return result;
+        } finally {
+            search.metrics.record(start, !result.isEmpty());
+        }
+    }
+
+    /**
+     * Multi-field query (title, author, year range, availability, popularity).
+     * The first call builds the query bitmaps from the catalog; after that
+     * they are maintained like any other registered index.
+     */
+    public QueryResult query(BookQuery query) {
+        QueryEngine engine = queryEngine;
+        if (engine == null) engine = enableQueries();
+        return engine.execute(query);
+    }
+
+    private synchronized QueryEngine enableQueries() {
+        if (queryEngine == null) {
+            QueryEngine engine = new QueryEngine(this::getBook);
+            registerIndex(engine.index());
+            queryEngine = engine;
+        }
+        return queryEngine;
+    }
+
+    // ---------- Indexes ----------
+
+    /** Registers an index and builds it from the current catalog. */
+    public synchronized void registerIndex(BookIndex index) {
+        Objects.requireNonNull(index);
+        if (indexes.contains(index)) return;
+        index.clear();
+        // Publish first so concurrent writers maintain it, then backfill
+        indexes.add(index);
+        if (!bulkLoading || index == popularity) backfill(List.of(index));
+        versions.bump(CatalogField.CONTENT);
+    }
+
+    public void unregisterIndex(BookIndex index) {
+        indexes.remove(index);
+    }
+
+    /**
+     * Stops maintaining registered indexes (other than popularity) until
+     * {@link #endBulkLoad()}, so a large import does not update them per book.
+     * Until then, searches see the indexes as they were before the load.
+     */
+    public synchronized void beginBulkLoad() {
+        bulkLoading = true;
+    }
+
+    /** Rebuilds every deferred index once from the catalog and resumes maintaining them. */
+    public synchronized void endBulkLoad() {
+        if (!bulkLoading) return;
+        List<BookIndex> deferred = new ArrayList<>();
+        for (BookIndex index : indexes) {
+            if (index == popularity) continue;
+            index.clear();
+            deferred.add(index);
+        }
+        bulkLoading = false;
+        backfill(deferred);
+        versions.bump(CatalogField.CONTENT);
+    }
+
+    public boolean isBulkLoading() {
+        return bulkLoading;
+    }
+
+    // Adds the current catalog to freshly published indexes. ISBNs are grouped
+    // by lock stripe and added in batches under their stripe, so a racing
+    // remove cannot be undone; stripes are filled in parallel.
+    private void backfill(List<BookIndex> targets) {
+        if (targets.isEmpty()) return;
+        List<List<String>> byStripe = new ArrayList<>(isbnLocks.stripes());
+        for (int i = 0; i < isbnLocks.stripes(); i++) byStripe.add(new ArrayList<>());
+        books.stream().map(Book::getIsbn).forEach(isbn -> byStripe.get(isbnLocks.stripeOf(isbn)).add(isbn));
+        IntStream.range(0, byStripe.size()).parallel()
+                .forEach(stripe -> backfillStripe(stripe, byStripe.get(stripe), targets));
+    }
+
+    private void backfillStripe(int stripe, List<String> isbns, List<BookIndex> targets) {
+        Lock lock = isbnLocks.lockAt(stripe);
+        List<Book> batch = new ArrayList<>(BACKFILL_BATCH);
+        for (int from = 0; from < isbns.size(); from += BACKFILL_BATCH) {
+            int to = Math.min(isbns.size(), from + BACKFILL_BATCH);
+            lock.lock();
+            try {
+                batch.clear();
+                for (String isbn : isbns.subList(from, to)) {
+                    Book current = books.get(isbn);
+                    if (current != null) batch.add(current);
+                }
+                for (BookIndex index : targets) index.addAll(batch);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void indexAdd(Book book) {
+        boolean deferred = bulkLoading;
+        for (BookIndex index : indexes) {
+            if (!deferred || index == popularity) index.add(book);
+        }
+    }
+
+    private void indexRemove(String isbn) {
+        boolean deferred = bulkLoading;
+        for (BookIndex index : indexes) {
+            if (!deferred || index == popularity) index.remove(isbn);
+        }
     }
 
     // ---------- Book management ----------
     public void addBook(Book book) {
         Objects.requireNonNull(book);
-        books.put(book.getIsbn(), book);
+        LibraryJournal journal = this.journal;
+        Lock lock = isbnLocks.lockFor(book.getIsbn());
+        journal.beginMutation();
+        lock.lock();
+        try {
+            journal.bookAdded(book);
+            books.put(book);
+            indexAdd(book);
+            versions.bump(CatalogField.CONTENT);
+        } finally {
+            lock.unlock();
+            journal.endMutation();
+        }
+        events.publish(new LibraryEvent.BookAdded(book));
+    }
+
+    /**
+     * Adds a batch of books, e.g. from an import, inside one journal mutation.
+     * Each book is stored under its own ISBN stripe as in {@link #addBook}.
+     */
+    public void addBooks(Collection<Book> batch) {
+        Objects.requireNonNull(batch);
+        LibraryJournal journal = this.journal;
+        EventSink events = this.events;
+        journal.beginMutation();
+        try {
+            for (Book book : batch) {
+                Objects.requireNonNull(book);
+                Lock lock = isbnLocks.lockFor(book.getIsbn());
+                lock.lock();
+                try {
+                    journal.bookAdded(book);
+                    books.put(book);
+                    indexAdd(book);
+                } finally {
+                    lock.unlock();
+                }
+                events.publish(new LibraryEvent.BookAdded(book));
+            }
+        } finally {
+            versions.bump(CatalogField.CONTENT);
+            journal.endMutation();
+        }
     }
 
     public Optional<Book> removeBook(String isbn) {
         if (isbn == null) return Optional.empty();
-        return Optional.ofNullable(books.remove(isbn));
+        LibraryJournal journal = this.journal;
+        Lock lock = isbnLocks.lockFor(isbn);
+        journal.beginMutation();
+        lock.lock();
+        try {
+            Book removed = books.remove(isbn);
+            if (removed != null) {
+                journal.bookRemoved(isbn);
+                indexRemove(isbn);
+                trending.remove(isbn);
+                versions.bump(CatalogField.CONTENT);
+            }
+            return Optional.ofNullable(removed);
+        } finally {
+            lock.unlock();
+            journal.endMutation();
+        }
     }
 
     public Optional<Book> getBook(String isbn) {
@@ -49,20 +368,99 @@ public class Library {
 
     public void updateBook(Book book) {
         Objects.requireNonNull(book);
-        if (!books.containsKey(book.getIsbn())) {
-            throw new NoSuchElementException("Book not found: " + book.getIsbn());
+        LibraryJournal journal = this.journal;
+        Lock lock = isbnLocks.lockFor(book.getIsbn());
+        journal.beginMutation();
+        lock.lock();
+        try {
+            if (!books.contains(book.getIsbn())) {
+                throw new NoSuchElementException("Book not found: " + book.getIsbn());
+            }
+            journal.bookUpdated(book);
+            books.put(book);
+            indexAdd(book);
+            versions.bump(CatalogField.CONTENT);
+        } finally {
+            lock.unlock();
+            journal.endMutation();
         }
-        books.put(book.getIsbn(), book);
     }
 
+    /**
+     * Adds or withdraws copies of a title. Lent copies stay lent; the change
+     * is applied as a delta, so it commutes with concurrent checkouts and returns.
+     */
+    public void setTotalCopies(String isbn, int totalCopies) {
+        if (totalCopies < 0) throw new IllegalArgumentException("copies must not be negative");
+        LibraryJournal journal = this.journal;
+        Lock lock = isbnLocks.lockFor(isbn);
+        journal.beginMutation();
+        lock.lock();
+        try {
+            Book book = books.get(isbn);
+            if (book == null) throw new NoSuchElementException("Book not found: " + isbn);
+            journal.copiesChanged(isbn, totalCopies);
+            book.setTotalCopies(totalCopies);
+            versions.bump(CatalogField.AVAILABILITY);
+        } finally {
+            lock.unlock();
+            journal.endMutation();
+        }
+    }
+
+    /**
+     * Every book, as an unmodifiable list from a consistent catalog snapshot.
+     * With the default store this is shared between callers until the next
+     * catalog write, so reading the catalog does not copy it.
+     */
     public List<Book> getAllBooks() {
-        return new ArrayList<>(books.values());
+        return books.snapshot().books();
+    }
+
+    /** The catalog at one version; later adds and removes do not show up in it. */
+    public CatalogSnapshot getCatalogSnapshot() {
+        return books.snapshot();
+    }
+
+    /** Lazily streams the catalog without copying it into a list first. */
+    public Stream<Book> streamAllBooks() {
+        return books.stream();
+    }
+
+    public int getBookCount() {
+        return books.size();
     }
 
     // ---------- Patron management ----------
+
+    /**
+     * Adds the patron, or replaces the one with its id.
+     *
+     * @throws IllegalArgumentException if another patron has the same email
+     */
     public void addPatron(Patron patron) {
         Objects.requireNonNull(patron);
-        patrons.put(patron.getId(), patron);
+        LibraryJournal journal = this.journal;
+        journal.beginMutation();
+        try {
+            putPatron(patron, true);
+            journal.patronAdded(patron);
+            applyHistoryLimit(patron);
+        } finally {
+            journal.endMutation();
+        }
+    }
+
+    /**
+     * Adds or replaces a patron read back from a snapshot or the log; never
+     * journaled. Unlike addPatron it accepts an email another patron already
+     * has (records from before emails were unique): the first patron keeps
+     * it in the email index.
+     */
+    public void restorePatron(Patron patron) {
+        Objects.requireNonNull(patron);
+        putPatron(patron, false);
+        applyHistoryLimit(patron);
     }
 
     public Optional<Patron> getPatron(String id) {
@@ -72,51 +470,192 @@ public class Library {
 
     public void updatePatron(Patron patron) {
         Objects.requireNonNull(patron);
-        if (!patrons.containsKey(patron.getId())) {
-            throw new NoSuchElementException("Patron not found: " + patron.getId());
+        LibraryJournal journal = this.journal;
+        journal.beginMutation();
+        try {
+            if (!patrons.containsKey(patron.getId())) {
+                throw new NoSuchElementException("Patron not found: " + patron.getId());
+            }
+            putPatron(patron, true);
+            journal.patronUpdated(patron);
+            applyHistoryLimit(patron);
+        } finally {
+            journal.endMutation();
         }
-        patrons.put(patron.getId(), patron);
     }
 
     public List<Patron> getAllPatrons() {
         return new ArrayList<>(patrons.values());
     }
 
+    /** The patron with this email, compared trimmed and case-insensitively. */
+    public Optional<Patron> findPatronByEmail(String email) {
+        return patronIndex.idForEmail(email).map(patrons::get);
+    }
+
+    /**
+     * Patrons with a name word starting with each word of the query, e.g.
+     * "ann smi" for Annabel Smithers; at most limit of them. Bounded work:
+     * see {@link PatronIndex} for queries made only of very common prefixes.
+     */
+    public List<Patron> findPatronsByName(String query, int limit) {
+        List<Patron> result = new ArrayList<>();
+        for (String id : patronIndex.idsForName(query, limit)) {
+            Patron patron = patrons.get(id);
+            if (patron != null) result.add(patron);
+        }
+        return result;
+    }
+
+    // Indexes the patron, then publishes it in the map. Setters on a patron
+    // take its monitor before the index's, so nothing here may lock a patron.
+    private void putPatron(Patron patron, boolean strict) {
+        Patron old;
+        synchronized (patronIndex) {
+            old = patrons.get(patron.getId());
+            if (old == null) patronIndex.add(patron, strict);
+            else if (old != patron) patronIndex.replace(old, patron, strict);
+            patron.setChangeListener(patronIndex);
+            patrons.put(patron.getId(), patron);
+        }
+        if (old != null && old != patron && old.getChangeListener() == patronIndex) old.setChangeListener(null);
+    }
+
+    /**
+     * Bounds every patron's borrow history to the newest {@code limit}
+     * entries, now and for patrons added later; 0 keeps whole histories.
+     */
+    public void setPatronHistoryLimit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        this.patronHistoryLimit = limit;
+        for (Patron patron : patrons.values()) patron.setHistoryLimit(limit);
+    }
+
+    private void applyHistoryLimit(Patron patron) {
+        int limit = patronHistoryLimit;
+        if (limit > 0) patron.setHistoryLimit(limit);
+    }
+
     // ---------- Borrow / Return ----------
+    // Runs under the ISBN stripe so the journal sees borrow/return of one
+    // book in the same order other threads do.
     public boolean borrowBook(String patronId, String isbn) {
+        if (patronId == null || isbn == null) return false;
         Book book = books.get(isbn);
         Patron patron = patrons.get(patronId);
-        if (book != null && patron != null && book.isAvailable()) {
-            book.setAvailable(false);
-            book.incrementTimesBorrowed();
-            patron.addToHistory(isbn);  // you should have this method in Patron
-            return true;
+        if (book == null || patron == null) return false;
+
+        LibraryJournal journal = this.journal;
+        Lock lock = isbnLocks.lockFor(isbn);
+        journal.beginMutation();
+        lock.lock();
+        try {
+            if (!book.tryCheckout()) return false;
+            copiesChanged(book);
+            journal.bookBorrowed(patronId, isbn);
+            recordBorrow(patronId, book);
+        } finally {
+            lock.unlock();
+            journal.endMutation();
         }
-        return false;
+        events.publish(new LibraryEvent.CheckedOut(patronId, isbn));
+        return true;
     }
 
     public boolean returnBook(String patronId, String isbn) {
+        if (patronId == null || isbn == null) return false;
         Book book = books.get(isbn);
         Patron patron = patrons.get(patronId);
-        if (book != null && patron != null && !book.isAvailable()) {
-            book.setAvailable(true);
-            return true;
+        if (book == null || patron == null) return false;
+
+        LibraryJournal journal = this.journal;
+        Lock lock = isbnLocks.lockFor(isbn);
+        journal.beginMutation();
+        lock.lock();
+        try {
+            if (!book.checkIn()) return false;
+            copiesChanged(book);
+            journal.bookReturned(patronId, isbn);
+        } finally {
+            lock.unlock();
+            journal.endMutation();
         }
-        return false;
+        events.publish(new LibraryEvent.Returned(patronId, isbn, false));
+        return true;
     }
 
       // ---------- Inventory ----------
     public List<Book> availableBooks() {
-        return books.values().stream()
-                .filter(Book::isAvailable)
-                .collect(Collectors.toList());
+        return books.streamAvailable().collect(Collectors.toList());
+    }
+
+    /** Lazily streams available books; columnar stores filter before materializing. */
+    public Stream<Book> streamAvailableBooks() {
+        return books.streamAvailable();
+    }
+
+    // ---------- Popularity ----------
+
+    public void addBorrowListener(BorrowListener listener) {
+        borrowListeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeBorrowListener(BorrowListener listener) {
+        borrowListeners.remove(listener);
     }
 
+    /**
+     * Counts one borrow of the book by the patron. Every borrow path goes through
+     * here so the popularity tracker, trending window, borrow listeners and the
+     * patron's history stay in step with timesBorrowed.
+     */
+    public void recordBorrow(String patronId, Book book) {
+        book.incrementTimesBorrowed();
+        Patron patron = patronId == null ? null : patrons.get(patronId);
+        if (patron != null) patron.addToHistory(book.getIsbn());
+        // Cached rankings only go stale when the borrow changed the popularity order
+        if (popularity.reposition(book)) versions.bump(CatalogField.POPULARITY);
+        if (!bulkLoading) {
+            // Deferred indexes read timesBorrowed when they are rebuilt
+            for (BookIndex index : indexes) {
+                if (index != popularity) index.borrowed(book);
+            }
+        }
+        trending.record(book.getIsbn());
+        for (BorrowListener listener : borrowListeners) listener.borrowed(patronId, book.getIsbn());
+    }
+
+    /**
+     * Call after a copy of the book left or came back to the shelf outside
+     * borrowBook/returnBook. Availability only flips at the empty shelf, so
+     * it counts as changed when at most one copy is left.
+     */
+    public void copiesChanged(Book book) {
+        if (book.getAvailableCopies() <= 1) versions.bump(CatalogField.AVAILABILITY);
+    }
+
+    /** Top-K by timesBorrowed in O(K), from the incremental tracker. */
     public List<Book> getMostBorrowedBooks(int limit) {
-    return books.values().stream()
-                .sorted(Comparator.comparingInt(Book::getTimesBorrowed).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
-}
+        return resolve(popularity.top(limit));
+    }
+
+    /** Top-K by timesBorrowed, skipping the given ISBNs (e.g. a patron's history). */
+    public List<Book> getMostBorrowedBooks(int limit, Set<String> excludedIsbns) {
+        return resolve(popularity.top(limit, excludedIsbns));
+    }
+
+    /** Books with the most recent, time-decayed borrow activity. */
+    public List<Book> getTrendingBooks(int limit) {
+        return resolve(trending.top(limit));
+    }
+
+    private List<Book> resolve(List<String> isbns) {
+        List<Book> out = new ArrayList<>(isbns.size());
+        for (String isbn : isbns) {
+            Book book = books.get(isbn);
+            if (book != null) out.add(book);
+        }
+        return out;
+    }
 
 }
@@ -0,0 +1,66 @@
+package com.lms.service;
+
+import com.lms.model.Book;
+import com.lms.model.Hold;
+import com.lms.model.LendingRecord;
+import com.lms.model.Patron;
+
+import java.time.LocalDate;
+
+/**
+ * Receives every state mutation made by Library, LendingService and
+ * ReservationService, e.g. to append it to a write-ahead log.
+ *
+ * Services call the mutation methods at the point where the change becomes
+ * visible to other threads, inside beginMutation()/endMutation(), so the
+ * journal order matches the order in which changes can be observed.
+ * All methods default to no-ops.
+ */
+public interface LibraryJournal {
+
+    LibraryJournal NONE = new LibraryJournal() { };
+
+    /** Brackets a mutation; a journal can use this to pause writers for a checkpoint. */
+    default void beginMutation() { }
+
+    default void endMutation() { }
+
+    // ---------- Catalog ----------
+    default void bookAdded(Book book) { }
+
+    default void bookUpdated(Book book) { }
+
+    default void bookRemoved(String isbn) { }
+
+    default void copiesChanged(String isbn, int totalCopies) { }
+
+    default void patronAdded(Patron patron) { }
+
+    default void patronUpdated(Patron patron) { }
+
+    // ---------- Library borrow / return ----------
+    default void bookBorrowed(String patronId, String isbn) { }
+
+    default void bookReturned(String patronId, String isbn) { }
+
+    // ---------- Lending ----------
+    default void checkedOut(LendingRecord record) { }
+
+    default void returned(String patronId, String isbn, LocalDate returnedDate) { }
+
+    // ---------- Reservations ----------
+    default void reserved(String isbn, String patronId) { }
+
+    default void reservationFulfilled(String isbn, String patronId) { }
+
+    default void reservationCancelled(String isbn, String patronId) { }
+
+    /** A copy was taken off the shelf (or passed on from an earlier hold) for the patron. */
+    default void holdPlaced(Hold hold) { }
+
+    /** A hold expired or was cancelled; its copy went to the next hold or back on the shelf. */
+    default void holdReleased(String isbn, String patronId) { }
+
+    /** The patron checked out their held copy. */
+    default void holdCollected(String isbn, String patronId) { }
+}
@@ -0,0 +1,15 @@
+package com.lms.service;
+
+import com.lms.model.LendingRecord;
+
+/**
+ * Notified as LendingService opens and closes loans, including loans
+ * restored from a snapshot or replayed from the journal. Called on the
+ * lending thread, inside the checkout or return, so keep it short.
+ */
+public interface LoanListener {
+    void loanOpened(LendingRecord record);
+
+    /** The record already carries its returned date. */
+    void loanClosed(LendingRecord record);
+}
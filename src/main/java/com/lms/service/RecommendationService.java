@@ -1,19 +1,54 @@
 package com.lms.service;
 
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
 import com.lms.model.Book;
 import com.lms.model.Patron;
+import com.lms.recommend.ItemRecommender;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Recommends books to patrons.
+ * With an ItemRecommender, suggestions come from books co-borrowed with the
+ * patron's own reading; any remaining slots fall back to overall popularity.
+ */
 public class RecommendationService {
+    private static final int RECOMMENDATIONS = 5;
+
     private final Library library;
+    private final ItemRecommender recommender; // null = popularity only
+    private volatile OperationMetrics recommendMetrics;
 
     public RecommendationService(Library library) {
+        this(library, null);
+    }
+
+    /** Attaches the recommender to the library so it learns from every borrow. */
+    public RecommendationService(Library library, ItemRecommender recommender) {
         this.library = library;
+        this.recommender = recommender;
+        if (recommender != null) recommender.attach(library);
+        setMetrics(MetricsRegistry.global());
+    }
+
+    /** Records "recommendation.recommend" counts and latencies; empty results count as failures. */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.recommendMetrics = metrics.operation("recommendation.recommend");
     }
 
     public List<Book> recommendBooks(String patronId) {
+        long start = System.nanoTime();
+        List<Book> result = List.of();
+        try {
+            result = recommend(patronId);
+            return result;
+        } finally {
+            recommendMetrics.record(start, !result.isEmpty());
+        }
+    }
+
+    private List<Book> recommend(String patronId) {
         Optional<Patron> patronOpt = library.getPatron(patronId);
         if (patronOpt.isEmpty()) return List.of();
 
@@ -22,11 +57,17 @@ public class RecommendationService {
         if (borrowed == null) borrowed = new ArrayList<>();
         Set<String> borrowedSet = new HashSet<>(borrowed);
 
-        // Recommend books not yet borrowed, sorted by popularity
-        return library.getAllBooks().stream()
-                .filter(b -> !borrowedSet.contains(b.getIsbn()))
-                .sorted(Comparator.comparingInt(Book::getTimesBorrowed).reversed())
-                .limit(5) // optional: only top 5
-                .collect(Collectors.toList());
+        List<Book> result = new ArrayList<>(RECOMMENDATIONS);
+        if (recommender != null) {
+            for (String isbn : recommender.recommend(patronId, RECOMMENDATIONS)) {
+                library.getBook(isbn).ifPresent(result::add);
+            }
+            if (result.size() == RECOMMENDATIONS) return result;
+            for (Book b : result) borrowedSet.add(b.getIsbn());
+        }
+
+        // Fill up with books not yet borrowed, walking the popularity ranking
+        result.addAll(library.getMostBorrowedBooks(RECOMMENDATIONS - result.size(), borrowedSet));
+        return result;
     }
 }
@@ -1,57 +1,462 @@
 package com.lms.service;
 
+import com.lms.event.EventSink;
+import com.lms.event.LibraryEvent;
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
+import com.lms.model.Book;
+import com.lms.model.Hold;
 import com.lms.model.Patron;
+import com.lms.util.TimerWheel;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Handles book reservations using a queue per book.
- * Notifies the first patron in line when a book becomes available.
+ *
+ * Each ISBN's queue is a LinkedHashMap keyed by patron id, so enqueue,
+ * duplicate checks and cancelling from the middle of the queue are all O(1),
+ * and the queue is guarded by its own monitor.
+ *
+ * When constructed with a Library, a returned copy is not put back on the
+ * shelf if someone is waiting: it is held for the first eligible patron
+ * (still registered, not already holding a copy of the book) until they check
+ * it out or the hold expires, and an expired hold passes the copy straight to
+ * the next patron in line. Expiry deadlines live in a TimerWheel, driven by
+ * expireHolds() or the timer started with start().
+ *
+ * Without a Library it only notifies the head of the queue, as before.
+ *
+ * Reservations and ready holds are published to the EventSink, if one is
+ * set, so notifications run off the return path.
  */
 public class ReservationService {
     private static final Logger logger = Logger.getLogger(ReservationService.class.getName());
+    public static final Duration DEFAULT_HOLD_PERIOD = Duration.ofDays(3);
+    private static final long WHEEL_TICK_MILLIS = 1000;
+    private static final int WHEEL_SLOTS = 4096;
+
+    /** Waiting patrons in arrival order, plus holds placed from this queue. */
+    private static final class ReservationQueue {
+        final LinkedHashMap<String, Patron> waiting = new LinkedHashMap<>();
+        final Map<String, HoldEntry> holds = new HashMap<>(2);
+    }
+
+    private static final class HoldEntry {
+        final Hold hold;
+        TimerWheel.Timeout<HoldEntry> timeout;
+
+        HoldEntry(Hold hold) { this.hold = hold; }
+    }
 
     // Map of ISBN -> queue of patrons waiting for this book
-    private final Map<String, Queue<Patron>> reservationMap = new HashMap<>();
+    private final Map<String, ReservationQueue> reservationMap = new ConcurrentHashMap<>();
+    private final Library library; // null = notify only, no holds
+    private final Duration holdPeriod;
+    private final Clock clock;
+    private final TimerWheel<HoldEntry> expiries;
+    private volatile LibraryJournal journal = LibraryJournal.NONE;
+    private volatile EventSink events = EventSink.NONE;
+    private volatile OperationMetrics reserveMetrics;
+    private volatile OperationMetrics returnMetrics;
+    private ScheduledExecutorService scheduler;
+
+    public ReservationService() {
+        this(null, DEFAULT_HOLD_PERIOD, Clock.systemUTC());
+    }
+
+    public ReservationService(Library library) {
+        this(library, DEFAULT_HOLD_PERIOD, Clock.systemUTC());
+    }
+
+    public ReservationService(Library library, Duration holdPeriod, Clock clock) {
+        if (holdPeriod.isNegative() || holdPeriod.isZero()) throw new IllegalArgumentException("holdPeriod must be positive");
+        this.library = library;
+        this.holdPeriod = holdPeriod;
+        this.clock = Objects.requireNonNull(clock);
+        this.expiries = new TimerWheel<>(WHEEL_TICK_MILLIS, WHEEL_SLOTS, clock.millis());
+        setMetrics(MetricsRegistry.global());
+    }
+
+    public void setJournal(LibraryJournal journal) {
+        this.journal = journal == null ? LibraryJournal.NONE : journal;
+    }
+
+    /** Publishes Reserved, and HoldReady whenever a copy is held (or, without a Library, frees up) for a patron. */
+    public void setEventSink(EventSink events) {
+        this.events = events == null ? EventSink.NONE : events;
+    }
+
+    /** Records "reservation.reserve" and "reservation.handleBookReturn" counts and latencies. */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.reserveMetrics = metrics.operation("reservation.reserve");
+        this.returnMetrics = metrics.operation("reservation.handleBookReturn");
+    }
+
+    // ---------- Reservations ----------
 
     /**
      * Patron reserves a book.
-     * Adds them to the queue for the ISBN.
+     * Adds them to the queue for the ISBN, unless already queued or holding it.
      */
     public void reserveBook(String isbn, Patron patron) {
-        reservationMap.computeIfAbsent(isbn, k -> new LinkedList<>());
+        long start = System.nanoTime();
+        boolean queued = false;
+        try {
+            queued = reserve(isbn, patron);
+        } finally {
+            reserveMetrics.record(start, queued);
+        }
+    }
+
+    private boolean reserve(String isbn, Patron patron) {
+        if (isbn == null || patron == null) return false;
+        ReservationQueue queue = reservationMap.computeIfAbsent(isbn, k -> new ReservationQueue());
 
-        Queue<Patron> queue = reservationMap.get(isbn);
-        if (!queue.contains(patron)) {
-            queue.add(patron);
-            patron.reserve(isbn);
-            logger.info("Book reserved: " + isbn + " by Patron: " + patron.getId());
-        } else {
-            logger.info("Patron already in reservation queue: " + patron.getId());
+        LibraryJournal journal = this.journal;
+        journal.beginMutation();
+        try {
+            synchronized (queue) {
+                String id = patron.getId();
+                if (!queue.waiting.containsKey(id) && !queue.holds.containsKey(id)) {
+                    journal.reserved(isbn, id);
+                    queue.waiting.put(id, patron);
+                    patron.reserve(isbn);
+                    events.publish(new LibraryEvent.Reserved(id, isbn));
+                    logger.info(() -> "Book reserved: " + isbn + " by Patron: " + id);
+                    return true;
+                }
+                logger.info(() -> "Patron already in reservation queue: " + id);
+                return false;
+            }
+        } finally {
+            journal.endMutation();
         }
     }
 
     /**
-     * Called when a book is returned.
-     * Notifies the first patron in queue if any.
+     * Withdraws the patron's reservation or, if a copy is already held for
+     * them, releases the hold so the copy moves on. False if they had neither.
+     */
+    public boolean cancelReservation(String isbn, String patronId) {
+        if (isbn == null || patronId == null) return false;
+        ReservationQueue queue = reservationMap.get(isbn);
+        if (queue == null) return false;
+
+        LibraryJournal journal = this.journal;
+        journal.beginMutation();
+        try {
+            synchronized (queue) {
+                Patron waiting = queue.waiting.remove(patronId);
+                if (waiting != null) {
+                    journal.reservationCancelled(isbn, patronId);
+                    waiting.cancelReservation(isbn);
+                    return true;
+                }
+                HoldEntry entry = queue.holds.remove(patronId);
+                if (entry == null) return false;
+                expiries.cancel(entry.timeout);
+                journal.holdReleased(isbn, patronId);
+                releaseHeldCopy(queue, isbn);
+                return true;
+            }
+        } finally {
+            journal.endMutation();
+        }
+    }
+
+    /**
+     * Called when a copy of the book is back on the shelf.
+     * With a Library, claims it for the first eligible patron in the queue;
+     * otherwise notifies the first patron in queue, if any.
      */
     public void handleBookReturn(String isbn) {
-        Queue<Patron> queue = reservationMap.get(isbn);
-        if (queue == null || queue.isEmpty()) return;
+        long start = System.nanoTime();
+        try {
+            notifyNext(isbn);
+        } finally {
+            returnMetrics.record(start);
+        }
+    }
+
+    private void notifyNext(String isbn) {
+        if (isbn == null) return;
+        ReservationQueue queue = reservationMap.get(isbn);
+        if (queue == null) return;
+
+        LibraryJournal journal = this.journal;
+        journal.beginMutation();
+        try {
+            synchronized (queue) {
+                if (library != null) {
+                    assignCopy(queue, isbn, false);
+                    return;
+                }
+                Iterator<Patron> head = queue.waiting.values().iterator();
+                if (!head.hasNext()) return;
+                Patron nextPatron = head.next();
+                head.remove();
+                journal.reservationFulfilled(isbn, nextPatron.getId());
+                nextPatron.cancelReservation(isbn); // remove from patron's reserved list
+                events.publish(new LibraryEvent.HoldReady(nextPatron.getId(), isbn, null));
+                logger.info(() -> "Book available for patron: " + nextPatron.getId() + " (ISBN: " + isbn + ")");
+            }
+        } finally {
+            journal.endMutation();
+        }
+    }
+
+    // ---------- Holds (used by LendingService) ----------
+
+    /**
+     * Hands a copy the caller has just taken back, still marked as lent, to
+     * the first eligible waiting patron. Returns false, leaving the copy with
+     * the caller, if nobody is waiting or there is no Library.
+     */
+    boolean holdReturnedCopy(String isbn) {
+        if (library == null) return false;
+        ReservationQueue queue = reservationMap.get(isbn);
+        if (queue == null) return false;
+        synchronized (queue) {
+            return assignCopy(queue, isbn, true);
+        }
+    }
+
+    /**
+     * Consumes the patron's unexpired hold on the book. The held copy is then
+     * the caller's to lend; false if there is no such hold.
+     */
+    boolean collectHold(String isbn, String patronId) {
+        ReservationQueue queue = reservationMap.get(isbn);
+        if (queue == null) return false;
+        synchronized (queue) {
+            HoldEntry entry = queue.holds.get(patronId);
+            if (entry == null || entry.hold.isExpired(clock.instant())) return false;
+            queue.holds.remove(patronId);
+            expiries.cancel(entry.timeout);
+            journal.holdCollected(isbn, patronId);
+            return true;
+        }
+    }
+
+    /** Expires every hold whose deadline has passed and passes each copy on. */
+    public void expireHolds() {
+        expiries.advance(clock.millis(), this::expire);
+    }
+
+    /** Runs expireHolds() on a daemon thread every interval until close(). */
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) throw new IllegalStateException("Already started");
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hold-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::expireHoldsQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
 
-        Patron nextPatron = queue.poll();
-        if (nextPatron != null) {
-            nextPatron.cancelReservation(isbn); // remove from patron's reserved list
-            logger.info("Book available for patron: " + nextPatron.getId() + " (ISBN: " + isbn + ")");
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
         }
     }
 
+    // ---------- Queries ----------
+
     /**
      * Get the queue of patrons for a given ISBN (read-only)
      */
     public List<Patron> getReservationQueue(String isbn) {
-        Queue<Patron> queue = reservationMap.get(isbn);
+        if (isbn == null) return List.of();
+        ReservationQueue queue = reservationMap.get(isbn);
         if (queue == null) return List.of();
-        return List.copyOf(queue);
+        synchronized (queue) {
+            return List.copyOf(queue.waiting.values());
+        }
+    }
+
+    /** Active holds on the book. */
+    public List<Hold> getHolds(String isbn) {
+        if (isbn == null) return List.of();
+        ReservationQueue queue = reservationMap.get(isbn);
+        if (queue == null) return List.of();
+        synchronized (queue) {
+            List<Hold> holds = new ArrayList<>(queue.holds.size());
+            for (HoldEntry entry : queue.holds.values()) holds.add(entry.hold);
+            return holds;
+        }
+    }
+
+    /** ISBNs that currently have a (possibly empty) reservation queue. */
+    public Set<String> getReservedIsbns() {
+        return Collections.unmodifiableSet(reservationMap.keySet());
+    }
+
+    // ---------- Recovery (never journaled) ----------
+
+    /** Re-applies a journaled fulfilment during recovery. */
+    public void restoreFulfilled(String isbn, String patronId) {
+        restoreCancelled(isbn, patronId);
+    }
+
+    /** Re-applies a journaled cancellation (or fulfilment) of a waiting reservation. */
+    public void restoreCancelled(String isbn, String patronId) {
+        ReservationQueue queue = reservationMap.get(isbn);
+        if (queue == null) return;
+        synchronized (queue) {
+            Patron p = queue.waiting.remove(patronId);
+            if (p != null) p.cancelReservation(isbn);
+        }
+    }
+
+    /**
+     * Re-installs a hold. From the log, claimCopy takes the copy off the shelf
+     * as the original hold did; from a snapshot the book's state already
+     * reflects it.
+     */
+    public void restoreHold(Hold hold, boolean claimCopy) {
+        ReservationQueue queue = reservationMap.computeIfAbsent(hold.getIsbn(), k -> new ReservationQueue());
+        synchronized (queue) {
+            Patron p = queue.waiting.remove(hold.getPatronId());
+            if (p != null) p.cancelReservation(hold.getIsbn());
+            if (claimCopy && library != null) {
+                library.getBook(hold.getIsbn()).ifPresent(b -> {
+                    b.replayCopyChange(-1);
+                    library.copiesChanged(b);
+                });
+            }
+            schedule(queue, hold);
+        }
+    }
+
+    /** Re-applies a hold that expired or was cancelled; its copy went back on the shelf. */
+    public void restoreHoldReleased(String isbn, String patronId) {
+        if (removeHold(isbn, patronId)) returnHeldCopy(isbn);
+    }
+
+    /**
+     * Re-applies a hold that was checked out. The copy goes back to the
+     * book's count, because the checkout journaled right after it is
+     * restored like any other and takes a copy itself.
+     */
+    public boolean restoreHoldCollected(String isbn, String patronId) {
+        if (!removeHold(isbn, patronId)) return false;
+        returnHeldCopy(isbn);
+        return true;
+    }
+
+    // ---------- Internals ----------
+
+    private boolean removeHold(String isbn, String patronId) {
+        ReservationQueue queue = reservationMap.get(isbn);
+        if (queue == null) return false;
+        synchronized (queue) {
+            HoldEntry entry = queue.holds.remove(patronId);
+            if (entry == null) return false;
+            expiries.cancel(entry.timeout);
+            return true;
+        }
+    }
+
+    private void returnHeldCopy(String isbn) {
+        if (library == null) return;
+        library.getBook(isbn).ifPresent(b -> {
+            b.replayCopyChange(+1);
+            library.copiesChanged(b);
+        });
+    }
+
+    /**
+     * Gives one copy to the first eligible waiting patron, skipping (and
+     * dropping) patrons who left or already have the book. With copyClaimed
+     * false the copy is on the shelf and must be claimed first; if another
+     * borrower got there first, the queue is left untouched.
+     * Caller holds the queue's monitor and a mutation bracket.
+     */
+    private boolean assignCopy(ReservationQueue queue, String isbn, boolean copyClaimed) {
+        Iterator<Patron> it = queue.waiting.values().iterator();
+        while (it.hasNext()) {
+            Patron patron = it.next();
+            if (!eligible(patron, isbn)) {
+                it.remove();
+                journal.reservationCancelled(isbn, patron.getId());
+                patron.cancelReservation(isbn);
+                continue;
+            }
+            if (!copyClaimed) {
+                Optional<Book> book = library.getBook(isbn);
+                if (book.isEmpty() || !book.get().tryCheckout()) return false;
+                library.copiesChanged(book.get());
+            }
+            it.remove();
+            Hold hold = new Hold(isbn, patron.getId(), clock.instant().plus(holdPeriod));
+            journal.holdPlaced(hold);
+            patron.cancelReservation(isbn); // remove from patron's reserved list
+            schedule(queue, hold);
+            events.publish(new LibraryEvent.HoldReady(patron.getId(), isbn, hold.getExpiresAt()));
+            logger.info(() -> "Book held for patron: " + patron.getId() + " (ISBN: " + isbn + ") until " + hold.getExpiresAt());
+            return true;
+        }
+        return false;
+    }
+
+    /** A released hold's copy goes to the next patron in line, or back on the shelf. */
+    private void releaseHeldCopy(ReservationQueue queue, String isbn) {
+        if (assignCopy(queue, isbn, true)) return;
+        library.getBook(isbn).ifPresent(book -> {
+            book.checkIn();
+            library.copiesChanged(book);
+        });
+    }
+
+    private boolean eligible(Patron patron, String isbn) {
+        Optional<Patron> current = library.getPatron(patron.getId());
+        return current.isPresent() && !current.get().hasBorrowed(isbn);
+    }
+
+    private void schedule(ReservationQueue queue, Hold hold) {
+        HoldEntry entry = new HoldEntry(hold);
+        queue.holds.put(hold.getPatronId(), entry);
+        entry.timeout = expiries.schedule(entry, hold.getExpiresAt().toEpochMilli());
+    }
+
+    private void expire(HoldEntry entry) {
+        Hold hold = entry.hold;
+        ReservationQueue queue = reservationMap.get(hold.getIsbn());
+        if (queue == null) return;
+
+        LibraryJournal journal = this.journal;
+        journal.beginMutation();
+        try {
+            synchronized (queue) {
+                // Skip if the hold was collected or cancelled after the timer fired
+                if (queue.holds.get(hold.getPatronId()) != entry) return;
+                queue.holds.remove(hold.getPatronId());
+                journal.holdReleased(hold.getIsbn(), hold.getPatronId());
+                logger.info(() -> "Hold expired: " + hold);
+                if (library != null) releaseHeldCopy(queue, hold.getIsbn());
+            }
+        } finally {
+            journal.endMutation();
+        }
+    }
+
+    private void expireHoldsQuietly() {
+        try {
+            expireHolds();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Hold expiry failed", e);
+        }
     }
 }
@@ -0,0 +1,66 @@
+package com.lms.shard;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One partition of a {@link ShardedLibrary}: the books whose ISBNs and the
+ * patrons whose IDs hash to it. Implemented in process by {@link LocalShard}
+ * and over a socket by {@link RemoteShard}.
+ *
+ * Loans live on the book's shard. When the patron's home is another shard,
+ * the book's shard lends against a stand-in patron with the same ID, and the
+ * coordinator mirrors the loan onto the home patron with
+ * {@link #patronBorrowed} / {@link #patronReturned}.
+ *
+ * Remote shards fail with {@link java.io.UncheckedIOException} when the
+ * transport does.
+ */
+public interface LibraryShard extends AutoCloseable {
+
+    // ---------- Catalog ----------
+
+    void addBook(Book book);
+
+    void addBooks(Collection<Book> books);
+
+    Optional<Book> removeBook(String isbn);
+
+    Optional<Book> getBook(String isbn);
+
+    int getBookCount();
+
+    /** This shard's best matches, at most {@code limit}, in the shard's search order. */
+    List<Book> searchBooks(String query, int limit);
+
+    List<Book> getMostBorrowedBooks(int limit);
+
+    // ---------- Patrons ----------
+
+    void addPatron(Patron patron);
+
+    Optional<Patron> getPatron(String id);
+
+    boolean hasPatron(String id);
+
+    // ---------- Lending ----------
+
+    /** Lends a copy of a book on this shard; false if it is missing, unavailable or already lent to the patron. */
+    boolean lend(String patronId, String isbn);
+
+    /** Takes a copy back; false if the patron had not borrowed it from this shard. */
+    boolean giveBack(String patronId, String isbn);
+
+    /** Records on the home patron a loan made by another shard. */
+    void patronBorrowed(String patronId, String isbn);
+
+    /** Records on the home patron a return taken by another shard. */
+    void patronReturned(String patronId, String isbn);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,132 @@
+package com.lms.shard;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A shard backed by its own in-process {@link Library} and
+ * {@link LendingService}, with the library's own indexes and search
+ * strategy.
+ */
+public class LocalShard implements LibraryShard {
+    private final Library library;
+    private final LendingService lending;
+    private final Object standInLock = new Object();
+
+    public LocalShard(Library library) {
+        this.library = Objects.requireNonNull(library);
+        this.lending = new LendingService(library);
+    }
+
+    /** The shard's library, e.g. to choose its search strategy. */
+    public Library library() {
+        return library;
+    }
+
+    public LendingService lending() {
+        return lending;
+    }
+
+    // ---------- Catalog ----------
+    @Override
+    public void addBook(Book book) {
+        library.addBook(book);
+    }
+
+    @Override
+    public void addBooks(Collection<Book> books) {
+        library.addBooks(books);
+    }
+
+    @Override
+    public Optional<Book> removeBook(String isbn) {
+        return library.removeBook(isbn);
+    }
+
+    @Override
+    public Optional<Book> getBook(String isbn) {
+        return library.getBook(isbn);
+    }
+
+    @Override
+    public int getBookCount() {
+        return library.getBookCount();
+    }
+
+    @Override
+    public List<Book> searchBooks(String query, int limit) {
+        return library.searchBooks(query, limit);
+    }
+
+    @Override
+    public List<Book> getMostBorrowedBooks(int limit) {
+        return library.getMostBorrowedBooks(limit);
+    }
+
+    // ---------- Patrons ----------
+    @Override
+    public void addPatron(Patron patron) {
+        library.addPatron(patron);
+    }
+
+    @Override
+    public Optional<Patron> getPatron(String id) {
+        return library.getPatron(id);
+    }
+
+    @Override
+    public boolean hasPatron(String id) {
+        return library.getPatron(id).isPresent();
+    }
+
+    // ---------- Lending ----------
+    @Override
+    public boolean lend(String patronId, String isbn) {
+        if (library.getPatron(patronId).isEmpty()) {
+            // A patron homed on another shard: lend against a stand-in
+            synchronized (standInLock) {
+                if (library.getPatron(patronId).isEmpty()) {
+                    Patron standIn = new Patron(patronId, "", "");
+                    standIn.setHistoryLimit(1);   // the home shard keeps the real history
+                    library.addPatron(standIn);
+                }
+            }
+        }
+        return lending.checkoutBook(patronId, isbn);
+    }
+
+    @Override
+    public boolean giveBack(String patronId, String isbn) {
+        return lending.returnBook(patronId, isbn);
+    }
+
+    @Override
+    public void patronBorrowed(String patronId, String isbn) {
+        Patron patron = homePatron(patronId);
+        patron.borrow(isbn);
+        patron.addToHistory(isbn);
+    }
+
+    @Override
+    public void patronReturned(String patronId, String isbn) {
+        homePatron(patronId).returned(isbn);
+    }
+
+    private Patron homePatron(String patronId) {
+        return library.getPatron(patronId)
+                .orElseThrow(() -> new NoSuchElementException("Patron not found: " + patronId));
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release; the library is garbage once the shard is dropped
+    }
+}
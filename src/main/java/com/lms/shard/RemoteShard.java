@@ -0,0 +1,212 @@
+package com.lms.shard;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.persistence.RecordCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Client for a shard served by {@link ShardServer}, usually in another
+ * process.
+ *
+ * Calls borrow an idle connection (opening one if none is free) and return
+ * it afterwards, so concurrent callers do not queue behind each other. Books
+ * and patrons come back as detached copies: change them through the
+ * shard, not by mutating the returned objects. A failure on the server is
+ * rethrown here as the same kind of exception where that is one of the
+ * library's usual ones.
+ */
+public class RemoteShard implements LibraryShard {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+
+    private final InetSocketAddress address;
+    private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    public RemoteShard(String host, int port) {
+        this.address = new InetSocketAddress(Objects.requireNonNull(host), port);
+    }
+
+    // ---------- Catalog ----------
+    @Override
+    public void addBook(Book book) {
+        call(ShardProtocol.ADD_BOOK, out -> RecordCodec.writeBook(out, book), in -> null);
+    }
+
+    @Override
+    public void addBooks(Collection<Book> books) {
+        call(ShardProtocol.ADD_BOOKS, out -> ShardProtocol.writeBooks(out, new ArrayList<>(books)), in -> null);
+    }
+
+    @Override
+    public Optional<Book> removeBook(String isbn) {
+        return Optional.ofNullable(call(ShardProtocol.REMOVE_BOOK, out -> RecordCodec.writeString(out, isbn),
+                ShardProtocol::readOptionalBook));
+    }
+
+    @Override
+    public Optional<Book> getBook(String isbn) {
+        return Optional.ofNullable(call(ShardProtocol.GET_BOOK, out -> RecordCodec.writeString(out, isbn),
+                ShardProtocol::readOptionalBook));
+    }
+
+    @Override
+    public int getBookCount() {
+        return call(ShardProtocol.BOOK_COUNT, out -> { }, DataInputStream::readInt);
+    }
+
+    @Override
+    public List<Book> searchBooks(String query, int limit) {
+        return call(ShardProtocol.SEARCH, out -> {
+            RecordCodec.writeString(out, query);
+            out.writeInt(limit);
+        }, ShardProtocol::readBooks);
+    }
+
+    @Override
+    public List<Book> getMostBorrowedBooks(int limit) {
+        return call(ShardProtocol.MOST_BORROWED, out -> out.writeInt(limit), ShardProtocol::readBooks);
+    }
+
+    // ---------- Patrons ----------
+    @Override
+    public void addPatron(Patron patron) {
+        call(ShardProtocol.ADD_PATRON, out -> RecordCodec.writePatron(out, patron), in -> null);
+    }
+
+    @Override
+    public Optional<Patron> getPatron(String id) {
+        return Optional.ofNullable(call(ShardProtocol.GET_PATRON, out -> RecordCodec.writeString(out, id),
+                in -> in.readBoolean() ? RecordCodec.readPatron(in) : null));
+    }
+
+    @Override
+    public boolean hasPatron(String id) {
+        return call(ShardProtocol.HAS_PATRON, out -> RecordCodec.writeString(out, id), DataInputStream::readBoolean);
+    }
+
+    // ---------- Lending ----------
+    @Override
+    public boolean lend(String patronId, String isbn) {
+        return call(ShardProtocol.LEND, loan(patronId, isbn), DataInputStream::readBoolean);
+    }
+
+    @Override
+    public boolean giveBack(String patronId, String isbn) {
+        return call(ShardProtocol.GIVE_BACK, loan(patronId, isbn), DataInputStream::readBoolean);
+    }
+
+    @Override
+    public void patronBorrowed(String patronId, String isbn) {
+        call(ShardProtocol.PATRON_BORROWED, loan(patronId, isbn), in -> null);
+    }
+
+    @Override
+    public void patronReturned(String patronId, String isbn) {
+        call(ShardProtocol.PATRON_RETURNED, loan(patronId, isbn), in -> null);
+    }
+
+    private static Writer loan(String patronId, String isbn) {
+        return out -> {
+            RecordCodec.writeString(out, patronId);
+            RecordCodec.writeString(out, isbn);
+        };
+    }
+
+    /** Closes idle connections; calls after this fail. */
+    @Override
+    public void close() {
+        closed = true;
+        Connection c;
+        while ((c = idle.poll()) != null) c.close();
+    }
+
+    // ---------- Transport ----------
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private <T> T call(byte op, Writer request, Reader<T> response) {
+        if (closed) throw new IllegalStateException("Shard client is closed");
+        Connection c = idle.poll();
+        try {
+            if (c == null) c = new Connection(address);
+            c.out.writeByte(op);
+            request.write(c.out);
+            c.out.flush();
+            T result;
+            if (c.in.readByte() == ShardProtocol.OK) {
+                result = response.read(c.in);
+            } else {
+                String type = RecordCodec.readString(c.in);
+                String message = RecordCodec.readString(c.in);
+                release(c);
+                throw rethrown(type, message);
+            }
+            release(c);
+            return result;
+        } catch (IOException e) {
+            if (c != null) c.close();
+            throw new UncheckedIOException("Shard at " + address + " failed", e);
+        }
+    }
+
+    private void release(Connection c) {
+        if (closed) c.close();
+        else idle.offer(c);
+    }
+
+    private static RuntimeException rethrown(String type, String message) {
+        if (IllegalArgumentException.class.getName().equals(type)) return new IllegalArgumentException(message);
+        if (NoSuchElementException.class.getName().equals(type)) return new NoSuchElementException(message);
+        return new IllegalStateException("Shard failed with " + type + ": " + message);
+    }
+
+    private static final class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket();
+            try {
+                socket.setTcpNoDelay(true);
+                socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Nothing left to do with a broken connection
+            }
+        }
+    }
+}
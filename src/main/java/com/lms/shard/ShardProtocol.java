@@ -0,0 +1,59 @@
+package com.lms.shard;
+
+import com.lms.model.Book;
+import com.lms.persistence.RecordCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format between {@link RemoteShard} and {@link ShardServer}: a
+ * request is an op code and its arguments, a response a status byte and
+ * either the result or the failure's type and message. Books and patrons
+ * use {@link RecordCodec}.
+ */
+final class ShardProtocol {
+    static final byte ADD_BOOK = 1;
+    static final byte ADD_BOOKS = 2;
+    static final byte REMOVE_BOOK = 3;
+    static final byte GET_BOOK = 4;
+    static final byte BOOK_COUNT = 5;
+    static final byte SEARCH = 6;
+    static final byte MOST_BORROWED = 7;
+    static final byte ADD_PATRON = 8;
+    static final byte GET_PATRON = 9;
+    static final byte HAS_PATRON = 10;
+    static final byte LEND = 11;
+    static final byte GIVE_BACK = 12;
+    static final byte PATRON_BORROWED = 13;
+    static final byte PATRON_RETURNED = 14;
+
+    static final byte OK = 0;
+    static final byte FAILED = 1;
+
+    private ShardProtocol() { }
+
+    static void writeBooks(DataOutput out, List<Book> books) throws IOException {
+        out.writeInt(books.size());
+        for (Book book : books) RecordCodec.writeBook(out, book);
+    }
+
+    static List<Book> readBooks(DataInput in) throws IOException {
+        int n = in.readInt();
+        List<Book> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(RecordCodec.readBook(in));
+        return out;
+    }
+
+    static void writeOptionalBook(DataOutput out, Book book) throws IOException {
+        out.writeBoolean(book != null);
+        if (book != null) RecordCodec.writeBook(out, book);
+    }
+
+    static Book readOptionalBook(DataInput in) throws IOException {
+        return in.readBoolean() ? RecordCodec.readBook(in) : null;
+    }
+}
@@ -0,0 +1,245 @@
+package com.lms.shard;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.persistence.RecordCodec;
+import com.lms.service.Library;
+import com.lms.strategy.IndexedSearchByTitle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves a {@link LibraryShard} on a loopback socket, so a shard can run in
+ * its own process and be reached through {@link RemoteShard}. Each
+ * connection gets a thread that answers its requests in order.
+ *
+ * <pre>
+ * java -cp library.jar com.lms.shard.ShardServer 7001
+ * </pre>
+ */
+public class ShardServer implements AutoCloseable {
+    private final Logger logger = Logger.getLogger(ShardServer.class.getName());
+
+    private final LibraryShard shard;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /** Listens on the loopback port (0 picks a free one) and starts accepting. */
+    public ShardServer(LibraryShard shard, int port) throws IOException {
+        this.shard = Objects.requireNonNull(shard);
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.acceptor = new Thread(this::acceptLoop, "shard-server-" + serverSocket.getLocalPort());
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /** Runs a shard with an indexed title search on the given port until the process is killed. */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) throw new IllegalArgumentException("usage: ShardServer <port>");
+        Library library = new Library();
+        library.setSearchStrategy(new IndexedSearchByTitle());
+        ShardServer server = new ShardServer(new LocalShard(library), Integer.parseInt(args[0]));
+        server.logger.info(() -> "Shard listening on port " + server.port());
+        server.acceptor.join();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread handler = new Thread(() -> serve(socket), "shard-connection-" + socket.getPort());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!closed) logger.log(Level.WARNING, "Accept failed", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    return;   // client hung up
+                }
+                handle(op, in, out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!closed) logger.log(Level.FINE, "Connection closed", e);
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    // Reads the whole request before running it, so a failure can still be answered in step
+    private void handle(byte op, DataInputStream in, DataOutputStream out) throws IOException {
+        Request request = read(op, in);
+        Response response;
+        try {
+            response = request.run();
+        } catch (RuntimeException e) {
+            out.writeByte(ShardProtocol.FAILED);
+            RecordCodec.writeString(out, e.getClass().getName());
+            RecordCodec.writeString(out, e.getMessage());
+            return;
+        }
+        out.writeByte(ShardProtocol.OK);
+        response.write(out);
+    }
+
+    private interface Request {
+        Response run();
+    }
+
+    private interface Response {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final Response NONE = out -> { };
+
+    private Request read(byte op, DataInputStream in) throws IOException {
+        switch (op) {
+            case ShardProtocol.ADD_BOOK: {
+                Book book = RecordCodec.readBook(in);
+                return () -> { shard.addBook(book); return NONE; };
+            }
+            case ShardProtocol.ADD_BOOKS: {
+                List<Book> books = ShardProtocol.readBooks(in);
+                return () -> { shard.addBooks(books); return NONE; };
+            }
+            case ShardProtocol.REMOVE_BOOK: {
+                String isbn = RecordCodec.readString(in);
+                return () -> {
+                    Optional<Book> removed = shard.removeBook(isbn);
+                    return out -> ShardProtocol.writeOptionalBook(out, removed.orElse(null));
+                };
+            }
+            case ShardProtocol.GET_BOOK: {
+                String isbn = RecordCodec.readString(in);
+                return () -> {
+                    Optional<Book> book = shard.getBook(isbn);
+                    return out -> ShardProtocol.writeOptionalBook(out, book.orElse(null));
+                };
+            }
+            case ShardProtocol.BOOK_COUNT:
+                return () -> {
+                    int count = shard.getBookCount();
+                    return out -> out.writeInt(count);
+                };
+            case ShardProtocol.SEARCH: {
+                String query = RecordCodec.readString(in);
+                int limit = in.readInt();
+                return () -> {
+                    List<Book> books = shard.searchBooks(query, limit);
+                    return out -> ShardProtocol.writeBooks(out, books);
+                };
+            }
+            case ShardProtocol.MOST_BORROWED: {
+                int limit = in.readInt();
+                return () -> {
+                    List<Book> books = shard.getMostBorrowedBooks(limit);
+                    return out -> ShardProtocol.writeBooks(out, books);
+                };
+            }
+            case ShardProtocol.ADD_PATRON: {
+                Patron patron = RecordCodec.readPatron(in);
+                return () -> { shard.addPatron(patron); return NONE; };
+            }
+            case ShardProtocol.GET_PATRON: {
+                String id = RecordCodec.readString(in);
+                return () -> {
+                    Optional<Patron> patron = shard.getPatron(id);
+                    return out -> {
+                        out.writeBoolean(patron.isPresent());
+                        if (patron.isPresent()) RecordCodec.writePatron(out, patron.get());
+                    };
+                };
+            }
+            case ShardProtocol.HAS_PATRON: {
+                String id = RecordCodec.readString(in);
+                return () -> {
+                    boolean present = shard.hasPatron(id);
+                    return out -> out.writeBoolean(present);
+                };
+            }
+            case ShardProtocol.LEND:
+            case ShardProtocol.GIVE_BACK:
+            case ShardProtocol.PATRON_BORROWED:
+            case ShardProtocol.PATRON_RETURNED: {
+                String patronId = RecordCodec.readString(in);
+                String isbn = RecordCodec.readString(in);
+                return () -> loanStep(op, patronId, isbn);
+            }
+            default:
+                throw new IOException("Unknown shard op: " + op);
+        }
+    }
+
+    private Response loanStep(byte op, String patronId, String isbn) {
+        switch (op) {
+            case ShardProtocol.LEND: {
+                boolean lent = shard.lend(patronId, isbn);
+                return out -> out.writeBoolean(lent);
+            }
+            case ShardProtocol.GIVE_BACK: {
+                boolean returned = shard.giveBack(patronId, isbn);
+                return out -> out.writeBoolean(returned);
+            }
+            case ShardProtocol.PATRON_BORROWED:
+                shard.patronBorrowed(patronId, isbn);
+                return NONE;
+            default:
+                shard.patronReturned(patronId, isbn);
+                return NONE;
+        }
+    }
+
+    /** Stops accepting, drops open connections and closes the shard. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Closing server socket", e);
+        }
+        for (Socket socket : new ArrayList<>(connections)) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Closing connection", e);
+            }
+        }
+        shard.close();
+    }
+}
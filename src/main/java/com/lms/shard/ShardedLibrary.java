@@ -0,0 +1,224 @@
+package com.lms.shard;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.Library;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * A library partitioned across shards: books by ISBN hash, patrons by ID
+ * hash. Each shard keeps its own catalog, indexes and loans, and gets its
+ * own executor here for scatter-gather calls.
+ *
+ * Searches and most-borrowed queries ask every shard in parallel for its
+ * top {@code limit} and merge them by timesBorrowed (then ISBN), which is
+ * exact for most-borrowed; a search returns each shard's best matches in
+ * that popularity order rather than by cross-shard relevance.
+ *
+ * A checkout lends on the book's shard, which enforces availability and one
+ * loan per patron and title, then records the loan on the patron's home
+ * shard; if that fails the copy is given back. Returns go the same way. The
+ * home patron's borrowed list can briefly lag the book shard.
+ */
+public class ShardedLibrary implements AutoCloseable {
+    private static final Comparator<Ranked> MOST_BORROWED_FIRST = Comparator
+            .comparingInt((Ranked r) -> r.timesBorrowed).reversed()
+            .thenComparing(r -> r.book.getIsbn());
+
+    private final Logger logger = Logger.getLogger(ShardedLibrary.class.getName());
+
+    private final List<LibraryShard> shards;
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    public ShardedLibrary(List<? extends LibraryShard> shards) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("at least one shard required");
+        this.shards = List.copyOf(shards);
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / this.shards.size());
+        for (int i = 0; i < this.shards.size(); i++) {
+            int shard = i;
+            executors.add(Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "shard-" + shard);
+                t.setDaemon(true);
+                return t;
+            }));
+        }
+    }
+
+    /** {@code count} in-process shards, each over a fresh library from the factory. */
+    public static ShardedLibrary inProcess(int count, Supplier<Library> libraries) {
+        if (count <= 0) throw new IllegalArgumentException("count must be positive");
+        List<LocalShard> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) shards.add(new LocalShard(libraries.get()));
+        return new ShardedLibrary(shards);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public LibraryShard shardForBook(String isbn) {
+        return shards.get(Math.floorMod(isbn.hashCode(), shards.size()));
+    }
+
+    public LibraryShard shardForPatron(String patronId) {
+        return shards.get(Math.floorMod(patronId.hashCode(), shards.size()));
+    }
+
+    // ---------- Catalog ----------
+    public void addBook(Book book) {
+        Objects.requireNonNull(book);
+        shardForBook(book.getIsbn()).addBook(book);
+    }
+
+    /** Splits the batch by shard and adds the parts in parallel. */
+    public void addBooks(Collection<Book> batch) {
+        Map<LibraryShard, List<Book>> parts = new IdentityHashMap<>();
+        for (Book book : batch) {
+            Objects.requireNonNull(book);
+            parts.computeIfAbsent(shardForBook(book.getIsbn()), s -> new ArrayList<>()).add(book);
+        }
+        scatter(shard -> {
+            List<Book> part = parts.get(shard);
+            if (part != null) shard.addBooks(part);
+            return null;
+        });
+    }
+
+    public Optional<Book> removeBook(String isbn) {
+        if (isbn == null) return Optional.empty();
+        return shardForBook(isbn).removeBook(isbn);
+    }
+
+    public Optional<Book> getBook(String isbn) {
+        if (isbn == null) return Optional.empty();
+        return shardForBook(isbn).getBook(isbn);
+    }
+
+    public int getBookCount() {
+        int total = 0;
+        for (int count : scatter(LibraryShard::getBookCount)) total += count;
+        return total;
+    }
+
+    public List<Book> searchBooks(String query) {
+        return searchBooks(query, Integer.MAX_VALUE);
+    }
+
+    public List<Book> searchBooks(String query, int limit) {
+        if (limit <= 0) return List.of();
+        return mergeTop(scatter(shard -> shard.searchBooks(query, limit)), limit);
+    }
+
+    public List<Book> getMostBorrowedBooks(int limit) {
+        if (limit <= 0) return List.of();
+        return mergeTop(scatter(shard -> shard.getMostBorrowedBooks(limit)), limit);
+    }
+
+    // ---------- Patrons ----------
+    public void addPatron(Patron patron) {
+        Objects.requireNonNull(patron);
+        shardForPatron(patron.getId()).addPatron(patron);
+    }
+
+    public Optional<Patron> getPatron(String id) {
+        if (id == null) return Optional.empty();
+        return shardForPatron(id).getPatron(id);
+    }
+
+    // ---------- Lending ----------
+    public boolean checkoutBook(String patronId, String isbn) {
+        if (patronId == null || isbn == null) return false;
+        LibraryShard home = shardForPatron(patronId);
+        if (!home.hasPatron(patronId)) {
+            logger.warning(() -> "Patron not found: " + patronId);
+            return false;
+        }
+        LibraryShard owner = shardForBook(isbn);
+        if (!owner.lend(patronId, isbn)) return false;
+        if (owner == home) return true;   // the lending shard updated the patron itself
+        try {
+            home.patronBorrowed(patronId, isbn);
+        } catch (RuntimeException e) {
+            owner.giveBack(patronId, isbn);
+            throw e;
+        }
+        return true;
+    }
+
+    public boolean returnBook(String patronId, String isbn) {
+        if (patronId == null || isbn == null) return false;
+        LibraryShard owner = shardForBook(isbn);
+        if (!owner.giveBack(patronId, isbn)) return false;
+        LibraryShard home = shardForPatron(patronId);
+        if (owner != home) home.patronReturned(patronId, isbn);
+        return true;
+    }
+
+    /** Stops the shard executors and closes every shard. */
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors) executor.shutdown();
+        try {
+            for (ExecutorService executor : executors) executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (LibraryShard shard : shards) shard.close();
+    }
+
+    // ---------- Scatter-gather ----------
+
+    // Runs the call on every shard through its executor; results in shard order
+    private <T> List<T> scatter(Function<LibraryShard, T> call) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            LibraryShard shard = shards.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> call.apply(shard), executors.get(i)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) results.add(future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        return results;
+    }
+
+    // Counts are read once, so books borrowed during the merge cannot break the sort
+    private static final class Ranked {
+        final Book book;
+        final int timesBorrowed;
+
+        Ranked(Book book) {
+            this.book = book;
+            this.timesBorrowed = book.getTimesBorrowed();
+        }
+    }
+
+    private static List<Book> mergeTop(List<List<Book>> perShard, int limit) {
+        List<Ranked> all = new ArrayList<>();
+        for (List<Book> books : perShard) for (Book book : books) all.add(new Ranked(book));
+        all.sort(MOST_BORROWED_FIRST);
+        int n = Math.min(limit, all.size());
+        List<Book> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(all.get(i).book);
+        return out;
+    }
+}
@@ -0,0 +1,41 @@
+package com.lms.store;
+
+import com.lms.model.Book;
+
+import java.util.stream.Stream;
+
+/**
+ * Backing storage for the Library's books, keyed by ISBN.
+ * Implementations must be safe for concurrent use.
+ */
+public interface BookStore {
+
+    /** The live book for this ISBN, or null. */
+    Book get(String isbn);
+
+    /** Inserts or replaces the book stored under its ISBN. */
+    void put(Book book);
+
+    /** Removes and returns the book, or null if absent. */
+    Book remove(String isbn);
+
+    boolean contains(String isbn);
+
+    int size();
+
+    /** Lazily streams every stored book. */
+    Stream<Book> stream();
+
+    /**
+     * A consistent view of every stored book. Stores that publish immutable
+     * versions return the current one without copying; the default copies.
+     */
+    default CatalogSnapshot snapshot() {
+        return CatalogSnapshot.copyOf(stream());
+    }
+
+    /** Lazily streams the books that are currently available. */
+    default Stream<Book> streamAvailable() {
+        return stream().filter(Book::isAvailable);
+    }
+}
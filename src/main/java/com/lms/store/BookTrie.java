@@ -0,0 +1,198 @@
+package com.lms.store;
+
+import com.lms.model.Book;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Persistent hash array mapped trie from ISBN to Book.
+ *
+ * Each level consumes 5 bits of the ISBN's hash; a node stores a 32-bit
+ * bitmap of occupied slots and a packed array holding a Book or a child
+ * node per slot. Updates copy only the nodes on the path to the changed
+ * slot (at most 7, usually 4 for a million books) and share the rest, so
+ * every version stays valid and immutable once published. ISBNs whose
+ * hashes collide in all 32 bits share a collision node.
+ *
+ * Nodes are never mutated after construction; the empty trie is {@link #EMPTY}.
+ */
+final class BookTrie {
+    static final BookTrie EMPTY = new BookTrie(0, new Object[0]);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final int bitmap;
+    private final Object[] slots;   // Book, BookTrie or Collision, by ascending slot
+
+    private BookTrie(int bitmap, Object[] slots) {
+        this.bitmap = bitmap;
+        this.slots = slots;
+    }
+
+    // Books whose ISBN hashes are equal in every bit
+    private static final class Collision {
+        final int hash;
+        final Book[] books;
+
+        Collision(int hash, Book[] books) {
+            this.hash = hash;
+            this.books = books;
+        }
+    }
+
+    // ---------- Lookup ----------
+
+    Book get(String isbn) {
+        int hash = isbn.hashCode();
+        BookTrie node = this;
+        for (int shift = 0; ; shift += BITS) {
+            int bit = bitFor(hash, shift);
+            if ((node.bitmap & bit) == 0) return null;
+            Object slot = node.slots[node.indexOf(bit)];
+            if (slot instanceof BookTrie) {
+                node = (BookTrie) slot;
+            } else if (slot instanceof Book) {
+                Book book = (Book) slot;
+                return book.getIsbn().equals(isbn) ? book : null;
+            } else {
+                for (Book book : ((Collision) slot).books) if (book.getIsbn().equals(isbn)) return book;
+                return null;
+            }
+        }
+    }
+
+    void forEach(Consumer<Book> action) {
+        for (Object slot : slots) {
+            if (slot instanceof Book) action.accept((Book) slot);
+            else if (slot instanceof BookTrie) ((BookTrie) slot).forEach(action);
+            else for (Book book : ((Collision) slot).books) action.accept(book);
+        }
+    }
+
+    // ---------- Updates, returning a new version ----------
+
+    /**
+     * A trie with the book stored under its ISBN; {@code added[0]} is set
+     * when the ISBN was not present before.
+     */
+    BookTrie put(Book book, boolean[] added) {
+        return put(book, book.getIsbn().hashCode(), 0, added);
+    }
+
+    private BookTrie put(Book book, int hash, int shift, boolean[] added) {
+        int bit = bitFor(hash, shift);
+        int i = indexOf(bit);
+        if ((bitmap & bit) == 0) {
+            added[0] = true;
+            return new BookTrie(bitmap | bit, inserted(slots, i, book));
+        }
+        Object slot = slots[i];
+        Object replacement;
+        if (slot instanceof BookTrie) {
+            replacement = ((BookTrie) slot).put(book, hash, shift + BITS, added);
+        } else if (slot instanceof Book) {
+            Book existing = (Book) slot;
+            if (existing.getIsbn().equals(book.getIsbn())) {
+                replacement = book;
+            } else {
+                added[0] = true;
+                replacement = split(existing, existing.getIsbn().hashCode(), book, hash, shift + BITS);
+            }
+        } else if (((Collision) slot).hash != hash) {
+            added[0] = true;
+            replacement = split(slot, ((Collision) slot).hash, book, hash, shift + BITS);
+        } else {
+            Collision collision = (Collision) slot;
+            Book[] books = collision.books;
+            int at = 0;
+            while (at < books.length && !books[at].getIsbn().equals(book.getIsbn())) at++;
+            books = Arrays.copyOf(books, Math.max(books.length, at + 1));
+            if (at == collision.books.length) added[0] = true;
+            books[at] = book;
+            replacement = new Collision(hash, books);
+        }
+        Object[] copy = slots.clone();
+        copy[i] = replacement;
+        return new BookTrie(bitmap, copy);
+    }
+
+    /** A trie without the ISBN (this same instance if it was absent). */
+    BookTrie remove(String isbn) {
+        BookTrie out = remove(isbn, isbn.hashCode(), 0);
+        return out == null ? EMPTY : out;
+    }
+
+    // Returns this if nothing changed, null if the node became empty
+    private BookTrie remove(String isbn, int hash, int shift) {
+        int bit = bitFor(hash, shift);
+        if ((bitmap & bit) == 0) return this;
+        int i = indexOf(bit);
+        Object slot = slots[i];
+        Object replacement;
+        if (slot instanceof BookTrie) {
+            BookTrie child = (BookTrie) slot;
+            BookTrie updated = child.remove(isbn, hash, shift + BITS);
+            if (updated == child) return this;
+            // A child left with a single book (or collision) collapses into this node
+            replacement = updated != null && updated.slots.length == 1 && !(updated.slots[0] instanceof BookTrie)
+                    ? updated.slots[0] : updated;
+        } else if (slot instanceof Book) {
+            if (!((Book) slot).getIsbn().equals(isbn)) return this;
+            replacement = null;
+        } else {
+            Book[] books = ((Collision) slot).books;
+            int at = 0;
+            while (at < books.length && !books[at].getIsbn().equals(isbn)) at++;
+            if (at == books.length) return this;
+            if (books.length == 2) {
+                replacement = books[1 - at];
+            } else {
+                Book[] rest = new Book[books.length - 1];
+                System.arraycopy(books, 0, rest, 0, at);
+                System.arraycopy(books, at + 1, rest, at, rest.length - at);
+                replacement = new Collision(hash, rest);
+            }
+        }
+        if (replacement != null) {
+            Object[] copy = slots.clone();
+            copy[i] = replacement;
+            return new BookTrie(bitmap, copy);
+        }
+        if (slots.length == 1) return null;
+        Object[] copy = new Object[slots.length - 1];
+        System.arraycopy(slots, 0, copy, 0, i);
+        System.arraycopy(slots, i + 1, copy, i, copy.length - i);
+        return new BookTrie(bitmap & ~bit, copy);
+    }
+
+    // ---------- Internals ----------
+
+    // A book and an existing entry (book or collision) that met in one slot:
+    // push both down until their hashes differ
+    private static Object split(Object existing, int hashA, Book book, int hashB, int shift) {
+        if (hashA == hashB) return new Collision(hashA, new Book[] { (Book) existing, book });
+        int bitA = bitFor(hashA, shift);
+        int bitB = bitFor(hashB, shift);
+        if (bitA == bitB) return new BookTrie(bitA, new Object[] { split(existing, hashA, book, hashB, shift + BITS) });
+        Object[] pair = Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[] { existing, book } : new Object[] { book, existing };
+        return new BookTrie(bitA | bitB, pair);
+    }
+
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private int indexOf(int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static Object[] inserted(Object[] slots, int i, Object value) {
+        Object[] copy = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, copy, 0, i);
+        copy[i] = value;
+        System.arraycopy(slots, i, copy, i + 1, slots.length - i);
+        return copy;
+    }
+}
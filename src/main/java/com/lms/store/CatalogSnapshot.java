@@ -0,0 +1,94 @@
+package com.lms.store;
+
+import com.lms.model.Book;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The set of books in the catalog at one version, immutable once published.
+ *
+ * Membership never changes: a book added or removed later belongs to a
+ * newer snapshot. The Book objects are the live ones, so availability and
+ * borrow counts read through a snapshot are current. {@link #books()} is
+ * built once per snapshot on first use and then shared by every reader.
+ */
+public final class CatalogSnapshot {
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(BookTrie.EMPTY, 0, 0);
+
+    private final BookTrie trie;   // null for a copied snapshot
+    private final int size;
+    private final long version;
+    private volatile List<Book> books;
+    private volatile Map<String, Book> copiedByIsbn;
+
+    CatalogSnapshot(BookTrie trie, int size, long version) {
+        this.trie = trie;
+        this.size = size;
+        this.version = version;
+    }
+
+    /**
+     * A snapshot copied from a store that does not keep versions (version 0).
+     * Lookups in it build an ISBN map on first use.
+     */
+    public static CatalogSnapshot copyOf(Stream<Book> books) {
+        List<Book> list = books.collect(Collectors.toList());
+        CatalogSnapshot snapshot = new CatalogSnapshot(null, list.size(), 0);
+        snapshot.books = Collections.unmodifiableList(list);
+        return snapshot;
+    }
+
+    /** Incremented by every write to the store that published this snapshot. */
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The book stored under the ISBN in this snapshot, or null. */
+    public Book get(String isbn) {
+        if (isbn == null) return null;
+        if (trie != null) return trie.get(isbn);
+        Map<String, Book> byIsbn = copiedByIsbn;
+        if (byIsbn == null) {
+            byIsbn = new HashMap<>();
+            for (Book book : books) byIsbn.put(book.getIsbn(), book);
+            copiedByIsbn = byIsbn;
+        }
+        return byIsbn.get(isbn);
+    }
+
+    public boolean contains(String isbn) {
+        return get(isbn) != null;
+    }
+
+    /** Every book of the snapshot, as an unmodifiable list shared by all callers. */
+    public List<Book> books() {
+        List<Book> out = books;
+        if (out == null) {
+            // Racing readers may both build it; the results are equal
+            Book[] array = new Book[size];
+            int[] n = new int[1];
+            trie.forEach(book -> array[n[0]++] = book);
+            out = Collections.unmodifiableList(Arrays.asList(array));
+            books = out;
+        }
+        return out;
+    }
+
+    public Stream<Book> stream() {
+        return books().stream();
+    }
+
+    BookTrie trie() {
+        return trie;
+    }
+}
@@ -0,0 +1,45 @@
+package com.lms.store;
+
+import com.lms.model.Book;
+
+/**
+ * Book view over one row of a MappedColumnarBookStore.
+ * Every getter and mutator reads or writes the mapped columns directly.
+ */
+final class ColumnarBook extends Book {
+    private final MappedColumnarBookStore store;
+    private final int row;
+
+    ColumnarBook(MappedColumnarBookStore store, int row, String isbn) {
+        super(isbn, null, null, 0);
+        this.store = store;
+        this.row = row;
+    }
+
+    @Override public String getTitle() { return store.title(row); }
+    @Override public String getAuthor() { return store.author(row); }
+    @Override public int getPublicationYear() { return store.year(row); }
+    @Override public int getTimesBorrowed() { return store.timesBorrowed(row); }
+
+    @Override public void setTitle(String title) { store.setTitle(row, title == null ? "" : title.trim()); }
+    @Override public void setAuthor(String author) { store.setAuthor(row, author == null ? "" : author.trim()); }
+    @Override public void setPublicationYear(int publicationYear) { store.setYear(row, publicationYear); }
+    @Override public void setTimesBorrowed(int timesBorrowed) { store.setTimesBorrowed(row, timesBorrowed); }
+
+    @Override public void incrementTimesBorrowed() { store.incrementTimesBorrowed(row); }
+
+    // Copy counts live in the store's packed copies column; Book's CAS logic runs on it
+    @Override protected long copyState() { return store.copies(row); }
+    @Override protected boolean casCopyState(long expect, long update) { return store.casCopies(row, expect, update); }
+
+    static long pack(int total, int available) { return packCopies(total, available); }
+    static int available(long state) { return availableOf(state); }
+
+    /** Plain on-heap copy of the row's current values. */
+    Book detach() {
+        Book copy = new Book(getIsbn(), getTitle(), getAuthor(), getPublicationYear(), getTotalCopies());
+        copy.setAvailableCopies(getRawAvailableCopies());
+        copy.setTimesBorrowed(getTimesBorrowed());
+        return copy;
+    }
+}
@@ -0,0 +1,58 @@
+package com.lms.store;
+
+import com.lms.model.Book;
+
+import java.util.stream.Stream;
+
+/**
+ * Default on-heap store: one Book object per title, shared with callers, so
+ * mutations on them are live.
+ *
+ * The catalog is a persistent hash trie published as immutable
+ * {@link CatalogSnapshot} versions. Readers (lookups, streams, snapshots)
+ * only read the current version and never lock or copy; a write copies the
+ * few trie nodes on its path and publishes a new version. Writes are
+ * serialized, which suits catalogs read far more often than changed.
+ */
+public class InMemoryBookStore implements BookStore {
+    private final Object writeLock = new Object();
+    private volatile CatalogSnapshot current = CatalogSnapshot.EMPTY;
+
+    @Override
+    public Book get(String isbn) { return current.get(isbn); }
+
+    @Override
+    public void put(Book book) {
+        synchronized (writeLock) {
+            CatalogSnapshot s = current;
+            // Re-storing the same instance (an update of the live book) changes nothing
+            if (s.get(book.getIsbn()) == book) return;
+            boolean[] added = new boolean[1];
+            BookTrie trie = s.trie().put(book, added);
+            current = new CatalogSnapshot(trie, added[0] ? s.size() + 1 : s.size(), s.version() + 1);
+        }
+    }
+
+    @Override
+    public Book remove(String isbn) {
+        synchronized (writeLock) {
+            CatalogSnapshot s = current;
+            Book removed = s.get(isbn);
+            if (removed == null) return null;
+            current = new CatalogSnapshot(s.trie().remove(isbn), s.size() - 1, s.version() + 1);
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean contains(String isbn) { return current.contains(isbn); }
+
+    @Override
+    public int size() { return current.size(); }
+
+    @Override
+    public Stream<Book> stream() { return current.stream(); }
+
+    @Override
+    public CatalogSnapshot snapshot() { return current; }
+}
@@ -0,0 +1,125 @@
+package com.lms.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A file-backed, memory-mapped array that grows in fixed-size segments.
+ *
+ * Values live off-heap in the page cache, so they add nothing to GC work.
+ * Int and long slots support volatile reads/writes and CAS through
+ * byte-buffer VarHandles; raw byte access is used for string heaps.
+ */
+final class MappedColumn implements Closeable {
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final int segmentBytes;
+    private final int shift;
+    private final int mask;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+    MappedColumn(Path file, int segmentBytes) throws IOException {
+        if (Integer.bitCount(segmentBytes) != 1 || segmentBytes < 8) {
+            throw new IllegalArgumentException("segmentBytes must be a power of two >= 8");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.segmentBytes = segmentBytes;
+        this.shift = Integer.numberOfTrailingZeros(segmentBytes);
+        this.mask = segmentBytes - 1;
+    }
+
+    int segmentBytes() { return segmentBytes; }
+
+    // ---------- Int slots ----------
+    int getInt(long index) {
+        long off = index << 2;
+        return (int) INT.getVolatile(segment(off), (int) (off & mask));
+    }
+
+    void setInt(long index, int value) {
+        long off = index << 2;
+        INT.setVolatile(segment(off), (int) (off & mask), value);
+    }
+
+    boolean casInt(long index, int expect, int update) {
+        long off = index << 2;
+        return INT.compareAndSet(segment(off), (int) (off & mask), expect, update);
+    }
+
+    int getAndAddInt(long index, int delta) {
+        long off = index << 2;
+        return (int) INT.getAndAdd(segment(off), (int) (off & mask), delta);
+    }
+
+    // ---------- Long slots ----------
+    long getLong(long index) {
+        long off = index << 3;
+        return (long) LONG.getVolatile(segment(off), (int) (off & mask));
+    }
+
+    void setLong(long index, long value) {
+        long off = index << 3;
+        LONG.setVolatile(segment(off), (int) (off & mask), value);
+    }
+
+    boolean casLong(long index, long expect, long update) {
+        long off = index << 3;
+        return LONG.compareAndSet(segment(off), (int) (off & mask), expect, update);
+    }
+
+    // ---------- Raw bytes ----------
+    /** The segment holding this byte offset; index into it with offset & (segmentBytes - 1). */
+    MappedByteBuffer segmentAt(long byteOffset) {
+        return segment(byteOffset);
+    }
+
+    int offsetInSegment(long byteOffset) {
+        return (int) (byteOffset & mask);
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : segments) segment.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // ---------- Internals ----------
+    private MappedByteBuffer segment(long byteOffset) {
+        int idx = (int) (byteOffset >>> shift);
+        MappedByteBuffer[] segs = segments;
+        if (idx < segs.length) return segs[idx];
+        return grow(idx);
+    }
+
+    private synchronized MappedByteBuffer grow(int idx) {
+        MappedByteBuffer[] segs = segments;
+        if (idx < segs.length) return segs[idx];
+        MappedByteBuffer[] bigger = Arrays.copyOf(segs, idx + 1);
+        try {
+            for (int i = segs.length; i <= idx; i++) {
+                // Mapping past the end of the file extends it with zeros
+                bigger[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * segmentBytes, segmentBytes);
+                bigger[i].order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException("Failed to map column segment " + idx, e);
+        }
+        segments = bigger;
+        return bigger[idx];
+    }
+}
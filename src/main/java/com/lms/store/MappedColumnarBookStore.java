@@ -0,0 +1,192 @@
+package com.lms.store;
+
+import com.lms.model.Book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Off-heap, column-oriented BookStore for very large catalogs.
+ *
+ * Each book is a row id (the id of its ISBN in a dictionary). Titles and
+ * authors are dictionary-encoded; year, title id, author id, timesBorrowed and
+ * a status word (live bit) are int columns, and total/available copy counts
+ * are packed into one long column, all in mapped files. Nothing per-book
+ * lives on the heap: get() builds a lightweight Book view on demand, and the
+ * view reads and writes straight through to the columns, so copy-count CAS
+ * and borrow counters stay atomic.
+ *
+ * Books passed to put() are copied into the columns; later changes to that
+ * caller-owned object are not seen, so always work with the views get() returns.
+ *
+ * Files are reopened on restart, but writes are not crash-atomic; use the
+ * write-ahead log as the durable source of truth.
+ */
+public class MappedColumnarBookStore implements BookStore, Closeable {
+    static final int LIVE = 1;
+    private static final int LEGACY_AVAILABLE = 1 << 1; // status bit used before the copies column
+    private static final int COLUMN_SEGMENT = 1 << 22; // 1M rows per int segment
+
+    private final MappedStringDictionary isbns;
+    private final MappedStringDictionary titles;
+    private final MappedStringDictionary authors;
+    private final MappedColumn status;
+    private final MappedColumn year;
+    private final MappedColumn titleIds;
+    private final MappedColumn authorIds;
+    private final MappedColumn borrowed;
+    private final MappedColumn copies;
+    private final AtomicInteger liveCount = new AtomicInteger();
+
+    private MappedColumnarBookStore(Path dir) throws IOException {
+        isbns = new MappedStringDictionary(dir, "isbn");
+        titles = new MappedStringDictionary(dir, "title");
+        authors = new MappedStringDictionary(dir, "author");
+        status = new MappedColumn(dir.resolve("status.col"), COLUMN_SEGMENT);
+        year = new MappedColumn(dir.resolve("year.col"), COLUMN_SEGMENT);
+        titleIds = new MappedColumn(dir.resolve("title.col"), COLUMN_SEGMENT);
+        authorIds = new MappedColumn(dir.resolve("author.col"), COLUMN_SEGMENT);
+        borrowed = new MappedColumn(dir.resolve("borrowed.col"), COLUMN_SEGMENT);
+        Path copiesFile = dir.resolve("copies.col");
+        boolean migrate = !Files.exists(copiesFile);
+        copies = new MappedColumn(copiesFile, COLUMN_SEGMENT);
+
+        int rows = isbns.size();
+        int live = 0;
+        for (int row = 0; row < rows; row++) {
+            int s = status.getInt(row);
+            if ((s & LIVE) != 0) live++;
+            // Stores written before copy counts had one copy per book
+            if (migrate) copies.setLong(row, ColumnarBook.pack(1, (s & LEGACY_AVAILABLE) != 0 ? 1 : 0));
+        }
+        liveCount.set(live);
+    }
+
+    /** Opens (or creates) a store in the given directory. */
+    public static MappedColumnarBookStore open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        return new MappedColumnarBookStore(dir);
+    }
+
+    // ---------- BookStore ----------
+    @Override
+    public Book get(String isbn) {
+        if (isbn == null) return null;
+        int row = isbns.lookup(isbn);
+        if (row < 0 || (status.getInt(row) & LIVE) == 0) return null;
+        return new ColumnarBook(this, row, isbn);
+    }
+
+    @Override
+    public void put(Book book) {
+        int row = isbns.intern(book.getIsbn());
+        titleIds.setInt(row, titles.intern(book.getTitle()));
+        authorIds.setInt(row, authors.intern(book.getAuthor()));
+        year.setInt(row, book.getPublicationYear());
+        borrowed.setInt(row, book.getTimesBorrowed());
+        copies.setLong(row, ColumnarBook.pack(book.getTotalCopies(), book.getRawAvailableCopies()));
+        // Status is written last: it publishes the row as live
+        int newStatus = LIVE;
+        while (true) {
+            int s = status.getInt(row);
+            if (status.casInt(row, s, newStatus)) {
+                if ((s & LIVE) == 0) liveCount.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Book remove(String isbn) {
+        if (isbn == null) return null;
+        int row = isbns.lookup(isbn);
+        if (row < 0) return null;
+        while (true) {
+            int s = status.getInt(row);
+            if ((s & LIVE) == 0) return null;
+            // Detached copy, since the row's columns may be reused by a later put
+            Book copy = new ColumnarBook(this, row, isbn).detach();
+            if (status.casInt(row, s, s & ~LIVE)) {
+                liveCount.decrementAndGet();
+                return copy;
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(String isbn) {
+        if (isbn == null) return false;
+        int row = isbns.lookup(isbn);
+        return row >= 0 && (status.getInt(row) & LIVE) != 0;
+    }
+
+    @Override
+    public int size() {
+        return liveCount.get();
+    }
+
+    @Override
+    public Stream<Book> stream() {
+        return liveRows().mapToObj(this::view);
+    }
+
+    /** Filters on the copies column, so unavailable rows never get a view. */
+    @Override
+    public Stream<Book> streamAvailable() {
+        return liveRows().filter(row -> ColumnarBook.available(copies.getLong(row)) > 0).mapToObj(this::view);
+    }
+
+    public void force() {
+        isbns.force();
+        titles.force();
+        authors.force();
+        status.force();
+        year.force();
+        titleIds.force();
+        authorIds.force();
+        borrowed.force();
+        copies.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        isbns.close();
+        titles.close();
+        authors.close();
+        status.close();
+        year.close();
+        titleIds.close();
+        authorIds.close();
+        borrowed.close();
+        copies.close();
+    }
+
+    // ---------- Column access for views ----------
+    String title(int row) { return titles.decode(titleIds.getInt(row)); }
+    String author(int row) { return authors.decode(authorIds.getInt(row)); }
+    int year(int row) { return year.getInt(row); }
+    int timesBorrowed(int row) { return borrowed.getInt(row); }
+    long copies(int row) { return copies.getLong(row); }
+
+    void setTitle(int row, String title) { titleIds.setInt(row, titles.intern(title)); }
+    void setAuthor(int row, String author) { authorIds.setInt(row, authors.intern(author)); }
+    void setYear(int row, int value) { year.setInt(row, value); }
+    void setTimesBorrowed(int row, int value) { borrowed.setInt(row, value); }
+    void incrementTimesBorrowed(int row) { borrowed.getAndAddInt(row, 1); }
+    boolean casCopies(int row, long expect, long update) { return copies.casLong(row, expect, update); }
+
+    // ---------- Internals ----------
+    private IntStream liveRows() {
+        return IntStream.range(0, isbns.size())
+                .filter(row -> (status.getInt(row) & LIVE) != 0);
+    }
+
+    private Book view(int row) {
+        return new ColumnarBook(this, row, isbns.decode(row));
+    }
+}
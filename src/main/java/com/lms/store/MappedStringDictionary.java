@@ -0,0 +1,177 @@
+package com.lms.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only string dictionary with its bytes stored off-heap.
+ *
+ * Each distinct string gets a dense int id. The UTF-8 bytes live in a mapped
+ * heap file and the id -> offset and id -> hash tables are mapped columns, so
+ * the only on-heap structure is a primitive open-addressing int table used to
+ * find an existing id. Strings are never removed.
+ */
+final class MappedStringDictionary implements Closeable {
+    private static final int HEAP_SEGMENT = 1 << 24;
+    private static final int TABLE_SEGMENT = 1 << 22;
+
+    private final MappedColumn heap;
+    private final MappedColumn offsets;
+    private final MappedColumn hashes;
+    private final MappedColumn meta; // [0] = count, [1] = heap end
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] slots;  // id + 1, 0 = empty
+    private volatile int count;
+    private long heapEnd;
+
+    MappedStringDictionary(Path dir, String name) throws IOException {
+        heap = new MappedColumn(dir.resolve(name + ".heap"), HEAP_SEGMENT);
+        offsets = new MappedColumn(dir.resolve(name + ".offsets"), TABLE_SEGMENT);
+        hashes = new MappedColumn(dir.resolve(name + ".hashes"), TABLE_SEGMENT);
+        meta = new MappedColumn(dir.resolve(name + ".meta"), 4096);
+
+        count = (int) meta.getLong(0);
+        heapEnd = meta.getLong(1);
+        slots = new int[tableSizeFor(count)];
+        for (int id = 0; id < count; id++) insertSlot(hashes.getInt(id), id);
+    }
+
+    int size() { return count; }
+
+    /** The id of s, or -1 if it was never interned. */
+    int lookup(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            return find(s.hashCode(), bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The id of s, appending it if new. */
+    int intern(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int hash = s.hashCode();
+        lock.readLock().lock();
+        try {
+            int id = find(hash, bytes);
+            if (id >= 0) return id;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            int id = find(hash, bytes);
+            if (id >= 0) return id;
+            return append(hash, bytes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    String decode(int id) {
+        long offset = offsets.getLong(id);
+        MappedByteBuffer segment = heap.segmentAt(offset);
+        int pos = heap.offsetInSegment(offset);
+        int len = segment.getInt(pos);
+        byte[] bytes = new byte[len];
+        segment.get(pos + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void force() {
+        heap.force();
+        offsets.force();
+        hashes.force();
+        meta.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        heap.close();
+        offsets.close();
+        hashes.close();
+        meta.close();
+    }
+
+    // ---------- Internals ----------
+    private int find(int hash, byte[] bytes) {
+        int m = slots.length - 1;
+        for (int i = mix(hash) & m; ; i = (i + 1) & m) {
+            int slot = slots[i];
+            if (slot == 0) return -1;
+            int id = slot - 1;
+            if (hashes.getInt(id) == hash && bytesEqual(id, bytes)) return id;
+        }
+    }
+
+    private boolean bytesEqual(int id, byte[] bytes) {
+        long offset = offsets.getLong(id);
+        MappedByteBuffer segment = heap.segmentAt(offset);
+        int pos = heap.offsetInSegment(offset);
+        if (segment.getInt(pos) != bytes.length) return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if (segment.get(pos + 4 + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    private int append(int hash, byte[] bytes) {
+        int needed = 4 + bytes.length;
+        if (needed > heap.segmentBytes()) {
+            throw new IllegalArgumentException("String too long for dictionary: " + bytes.length + " bytes");
+        }
+        // Strings never straddle a segment boundary
+        if (heap.offsetInSegment(heapEnd) + needed > heap.segmentBytes()) {
+            heapEnd = (heapEnd / heap.segmentBytes() + 1) * heap.segmentBytes();
+        }
+        long offset = heapEnd;
+        MappedByteBuffer segment = heap.segmentAt(offset);
+        int pos = heap.offsetInSegment(offset);
+        segment.putInt(pos, bytes.length);
+        segment.put(pos + 4, bytes);
+        heapEnd += needed;
+
+        int id = count;
+        offsets.setLong(id, offset);
+        hashes.setInt(id, hash);
+        if ((id + 1) * 2 > slots.length) rehash(slots.length * 2);
+        insertSlot(hash, id);
+
+        meta.setLong(1, heapEnd);
+        meta.setLong(0, id + 1);
+        count = id + 1;
+        return id;
+    }
+
+    private void insertSlot(int hash, int id) {
+        int m = slots.length - 1;
+        int i = mix(hash) & m;
+        while (slots[i] != 0) i = (i + 1) & m;
+        slots[i] = id + 1;
+    }
+
+    private void rehash(int size) {
+        slots = new int[size];
+        for (int id = 0; id < count; id++) insertSlot(hashes.getInt(id), id);
+    }
+
+    private static int tableSizeFor(int entries) {
+        int n = 16;
+        while (n < entries * 2 + 2) n <<= 1;
+        return n;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,30 @@
+package com.lms.strategy;
+
+import com.lms.index.FuzzyIndex;
+import com.lms.model.Book;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Misspelling-tolerant title search from a BK-tree: each query word may be a
+ * few edits off ("tolkein" finds "Tolkien"); closest matches come first,
+ * then the most borrowed.
+ */
+public class FuzzySearchByTitle implements IndexedSearchStrategy {
+    private final FuzzyIndex index = new FuzzyIndex(Book::getTitle);
+
+    @Override
+    public FuzzyIndex index() { return index; }
+
+    @Override
+    public List<Book> search(String query, int limit, Function<String, Optional<Book>> catalog) {
+        return index.search(query, limit, catalog);
+    }
+
+    @Override
+    public List<Book> search(List<Book> books, String query) {
+        return FuzzyIndex.scan(books, query, Integer.MAX_VALUE, Book::getTitle);
+    }
+}
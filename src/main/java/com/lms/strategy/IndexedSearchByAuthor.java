@@ -0,0 +1,29 @@
+package com.lms.strategy;
+
+import com.lms.index.TextIndex;
+import com.lms.model.Book;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Case-insensitive author search backed by a trigram inverted index.
+ * Same matching rules as SearchByAuthor, but results are ranked.
+ */
+public class IndexedSearchByAuthor implements IndexedSearchStrategy {
+    private final TextIndex index = new TextIndex(Book::getAuthor);
+
+    @Override
+    public TextIndex index() { return index; }
+
+    @Override
+    public List<Book> search(String query, int limit, Function<String, Optional<Book>> catalog) {
+        return index.search(query, limit, catalog);
+    }
+
+    @Override
+    public List<Book> search(List<Book> books, String query) {
+        return TextIndex.scan(books, query, Integer.MAX_VALUE, Book::getAuthor);
+    }
+}
@@ -0,0 +1,47 @@
+package com.lms.strategy;
+
+import com.lms.index.BookIndex;
+import com.lms.index.TextIndex;
+import com.lms.model.Book;
+import com.lms.model.CatalogField;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A SearchStrategy answered from an index that the Library maintains,
+ * instead of scanning a copy of the whole catalog.
+ */
+public interface IndexedSearchStrategy extends SearchStrategy {
+    Set<CatalogField> CONTENT_AND_POPULARITY =
+            Collections.unmodifiableSet(EnumSet.of(CatalogField.CONTENT, CatalogField.POPULARITY));
+
+    /** The index the Library must keep up to date for this strategy. */
+    BookIndex index();
+
+    /**
+     * Ranked lookup returning at most {@code limit} books.
+     *
+     * @param catalog resolves an ISBN to the live Book
+     */
+    List<Book> search(String query, int limit, Function<String, Optional<Book>> catalog);
+
+    /**
+     * The index's text and its popularity tie-break (timesBorrowed, then
+     * ISBN); availability never changes a ranking.
+     */
+    @Override
+    default Set<CatalogField> dependsOn() {
+        return CONTENT_AND_POPULARITY;
+    }
+
+    /** The indexes match case-insensitively. */
+    @Override
+    default String normalize(String query) {
+        return TextIndex.normalize(query);
+    }
+}
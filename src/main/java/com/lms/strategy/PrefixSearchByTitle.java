@@ -0,0 +1,29 @@
+package com.lms.strategy;
+
+import com.lms.index.PrefixIndex;
+import com.lms.model.Book;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * As-you-type title suggestions from a compressed trie: every query word is
+ * treated as a prefix of a word in the title, and the most borrowed books come first.
+ */
+public class PrefixSearchByTitle implements IndexedSearchStrategy {
+    private final PrefixIndex index = new PrefixIndex(Book::getTitle);
+
+    @Override
+    public PrefixIndex index() { return index; }
+
+    @Override
+    public List<Book> search(String query, int limit, Function<String, Optional<Book>> catalog) {
+        return index.complete(query, limit, catalog);
+    }
+
+    @Override
+    public List<Book> search(List<Book> books, String query) {
+        return PrefixIndex.scan(books, query, Integer.MAX_VALUE, Book::getTitle);
+    }
+}
@@ -1,7 +1,10 @@
 package com.lms.strategy;
 
 import com.lms.model.Book;
+import com.lms.model.CatalogField;
+
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class SearchByAuthor implements SearchStrategy {
@@ -11,4 +14,14 @@ public class SearchByAuthor implements SearchStrategy {
                     .filter(b -> b.getAuthor().toLowerCase().contains(query.toLowerCase()))
                     .collect(Collectors.toList());
     }
+
+    @Override
+    public Set<CatalogField> dependsOn() {
+        return Set.of(CatalogField.CONTENT);
+    }
+
+    @Override
+    public String normalize(String query) {
+        return query.toLowerCase();
+    }
 }
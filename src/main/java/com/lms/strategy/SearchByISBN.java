@@ -1,7 +1,10 @@
 package com.lms.strategy;
 
 import com.lms.model.Book;
+import com.lms.model.CatalogField;
+
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class SearchByISBN implements SearchStrategy {
@@ -11,4 +14,9 @@ public class SearchByISBN implements SearchStrategy {
                     .filter(b -> b.getIsbn().equals(query))
                     .collect(Collectors.toList());
     }
+
+    @Override
+    public Set<CatalogField> dependsOn() {
+        return Set.of(CatalogField.CONTENT);
+    }
 }
@@ -1,8 +1,26 @@
 package com.lms.strategy;
 
 import com.lms.model.Book;
+import com.lms.model.CatalogField;
+
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public interface SearchStrategy {
     List<Book> search(List<Book> books, String query);
+
+    /**
+     * Catalog fields whose changes can alter this strategy's results, so a
+     * cached result survives changes to the others. CONTENT is always
+     * assumed; the default is every field.
+     */
+    default Set<CatalogField> dependsOn() {
+        return EnumSet.allOf(CatalogField.class);
+    }
+
+    /** The query in a canonical form: queries with the same form get the same results. */
+    default String normalize(String query) {
+        return query;
+    }
 }
@@ -0,0 +1,61 @@
+package com.lms.trace;
+
+import com.lms.metrics.OperationStats;
+
+import java.util.List;
+
+/** What a TraceReplayer run measured. */
+public class ReplayReport {
+    private final long events;
+    private final long errors;
+    private final long divergences;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final double speedup;
+    private final int threads;
+    private final List<OperationStats> operations;
+
+    ReplayReport(long events, long errors, long divergences, long elapsedNanos, long allocatedBytes,
+                 double speedup, int threads, List<OperationStats> operations) {
+        this.events = events;
+        this.errors = errors;
+        this.divergences = divergences;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.speedup = speedup;
+        this.threads = threads;
+        this.operations = List.copyOf(operations);
+    }
+
+    public long getEvents() { return events; }
+    /** Calls that threw. */
+    public long getErrors() { return errors; }
+    /** Calls whose result differs from the recorded one, e.g. a checkout that now fails. */
+    public long getDivergences() { return divergences; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    /** Bytes allocated by the replay threads; -1 if the JVM cannot tell. */
+    public long getAllocatedBytes() { return allocatedBytes; }
+    /** Per-operation ("replay.&lt;op&gt;") call counts and latency percentiles. */
+    public List<OperationStats> getOperations() { return operations; }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : events * 1e9 / elapsedNanos;
+    }
+
+    /** Bytes allocated per second of replay; -1 if unknown. */
+    public double getAllocationRate() {
+        if (allocatedBytes < 0) return -1;
+        return elapsedNanos == 0 ? 0 : allocatedBytes * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("replay speedup=%s threads=%d events=%d elapsed=%.2fs throughput=%.0f ops/s errors=%d divergences=%d%n",
+                speedup > 0 ? speedup + "x" : "max", threads, events, elapsedNanos / 1e9, getThroughput(), errors, divergences));
+        sb.append(allocatedBytes < 0 ? "allocation=unknown" : String.format("allocation=%.1f MB/s (%d bytes)",
+                getAllocationRate() / (1024 * 1024), allocatedBytes));
+        for (OperationStats s : operations) sb.append(System.lineSeparator()).append(s);
+        return sb.toString();
+    }
+}
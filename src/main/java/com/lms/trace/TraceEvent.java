@@ -0,0 +1,51 @@
+package com.lms.trace;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * One recorded call: when it started (nanoseconds since the trace began),
+ * how long it took, which recording thread made it, its arguments and its
+ * result (1/0 for calls that succeed or refuse, the number of books for
+ * searches and recommendations).
+ */
+public final class TraceEvent {
+    private final TraceOp op;
+    private final long startNanos;
+    private final long durationNanos;
+    private final int thread;
+    private final long result;
+    private final Object[] args;
+
+    public TraceEvent(TraceOp op, long startNanos, long durationNanos, int thread, long result, Object... args) {
+        this.op = Objects.requireNonNull(op);
+        if (args.length != op.signature().length()) {
+            throw new IllegalArgumentException(op + " takes " + op.signature().length() + " arguments");
+        }
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.thread = thread;
+        this.result = result;
+        this.args = args.clone();
+    }
+
+    public TraceOp getOp() { return op; }
+    public long getStartNanos() { return startNanos; }
+    public long getDurationNanos() { return durationNanos; }
+    /** Small id of the recording thread; calls from one thread are replayed in order. */
+    public int getThread() { return thread; }
+    public long getResult() { return result; }
+
+    public String getString(int i) {
+        return (String) args[i];
+    }
+
+    public int getInt(int i) {
+        return (Integer) args[i];
+    }
+
+    @Override
+    public String toString() {
+        return op + Arrays.toString(args) + " @" + startNanos + "ns took " + durationNanos + "ns -> " + result;
+    }
+}
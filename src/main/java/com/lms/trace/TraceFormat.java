@@ -0,0 +1,67 @@
+package com.lms.trace;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * The trace file layout, shared by TraceWriter and TraceReader.
+ *
+ * <pre>
+ * header: int MAGIC, short VERSION, long wall-clock start (epoch millis)
+ * event:  byte op code
+ *         varlong start, zigzag delta from the previous event's start (ns)
+ *         varlong duration (ns), varint thread, varlong zigzag result
+ *         arguments per the op's signature: ints as zigzag varints,
+ *         strings as a varint reference into the string table
+ * </pre>
+ *
+ * A string reference of 0 is followed by the string itself (writeUTF),
+ * which then takes the next table id if the table is not full; any other
+ * reference r names table entry r - 1. ISBNs, patron ids and queries repeat
+ * constantly, so most events are a dozen bytes or so.
+ */
+final class TraceFormat {
+    static final int MAGIC = 0x4C4D5354;   // "LMST"
+    static final short VERSION = 1;
+    static final int MAX_STRINGS = 1 << 20;
+
+    private TraceFormat() { }
+
+    static void writeVarLong(DataOutput out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IOException("Malformed varint in trace");
+    }
+
+    static void writeZigZag(DataOutput out, long v) throws IOException {
+        writeVarLong(out, (v << 1) ^ (v >> 63));
+    }
+
+    static long readZigZag(DataInput in) throws IOException {
+        long v = readVarLong(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /** The op code of the next event, or -1 at a clean end of the trace. */
+    static int readOpCode(DataInput in) throws IOException {
+        try {
+            return in.readByte();
+        } catch (EOFException end) {
+            return -1;
+        }
+    }
+}
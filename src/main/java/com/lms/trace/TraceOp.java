@@ -0,0 +1,43 @@
+package com.lms.trace;
+
+/**
+ * Operations a trace can hold, with their argument types (S = string,
+ * I = int) in order. Codes and signatures are part of the trace format and
+ * must never be changed; add new operations at the end.
+ */
+public enum TraceOp {
+    ADD_BOOK(1, "SSSII"),          // isbn, title, author, year, copies
+    ADD_PATRON(2, "SSS"),          // id, name, email
+    SEARCH(3, "SI"),               // query, limit
+    MOST_BORROWED(4, "I"),         // limit
+    CHECKOUT(5, "SS"),             // patron, isbn
+    RETURN(6, "SS"),               // patron, isbn
+    RESERVE(7, "SS"),              // patron, isbn
+    CANCEL_RESERVATION(8, "SS"),   // patron, isbn
+    RECOMMEND(9, "S");             // patron
+
+    private static final TraceOp[] BY_CODE = new TraceOp[32];
+
+    static {
+        for (TraceOp op : values()) BY_CODE[op.code] = op;
+    }
+
+    private final byte code;
+    private final String signature;
+
+    TraceOp(int code, String signature) {
+        this.code = (byte) code;
+        this.signature = signature;
+    }
+
+    public byte code() { return code; }
+
+    /** One character per argument: 'S' for a string, 'I' for an int. */
+    public String signature() { return signature; }
+
+    public static TraceOp fromCode(byte code) {
+        TraceOp op = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (op == null) throw new IllegalArgumentException("Unknown trace op code: " + code);
+        return op;
+    }
+}
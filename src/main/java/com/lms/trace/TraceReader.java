@@ -0,0 +1,75 @@
+package com.lms.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Reads a trace written by TraceWriter, one event at a time. Not thread-safe. */
+public class TraceReader implements Closeable {
+    private final DataInputStream in;
+    private final Instant startedAt;
+    private final List<String> strings = new ArrayList<>();
+    private long lastStart;
+
+    public TraceReader(Path file) throws IOException {
+        this(Files.newInputStream(file));
+    }
+
+    public TraceReader(InputStream stream) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+        if (in.readInt() != TraceFormat.MAGIC) throw new IOException("Not a library trace");
+        short version = in.readShort();
+        if (version != TraceFormat.VERSION) throw new IOException("Unsupported trace version: " + version);
+        this.startedAt = Instant.ofEpochMilli(in.readLong());
+    }
+
+    /** Wall-clock time the recording started. */
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /** The next event, or null at the end of the trace. */
+    public TraceEvent next() throws IOException {
+        int code = TraceFormat.readOpCode(in);
+        if (code < 0) return null;
+        TraceOp op = TraceOp.fromCode((byte) code);
+        long start = lastStart + TraceFormat.readZigZag(in);
+        long duration = TraceFormat.readVarLong(in);
+        int thread = (int) TraceFormat.readVarLong(in);
+        long result = TraceFormat.readZigZag(in);
+        String signature = op.signature();
+        Object[] args = new Object[signature.length()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = signature.charAt(i) == 'I' ? (Object) (int) TraceFormat.readZigZag(in) : readString();
+        }
+        lastStart = start;
+        return new TraceEvent(op, start, duration, thread, result, args);
+    }
+
+    /** Every remaining event, in recorded order. */
+    public List<TraceEvent> readAll() throws IOException {
+        List<TraceEvent> events = new ArrayList<>();
+        for (TraceEvent e = next(); e != null; e = next()) events.add(e);
+        return events;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readString() throws IOException {
+        long ref = TraceFormat.readVarLong(in);
+        if (ref != 0) return strings.get((int) (ref - 1));
+        String s = in.readUTF();
+        if (strings.size() < TraceFormat.MAX_STRINGS) strings.add(s);
+        return s;
+    }
+}
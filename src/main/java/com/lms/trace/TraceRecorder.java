@@ -0,0 +1,124 @@
+package com.lms.trace;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.RecommendationService;
+import com.lms.service.ReservationService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Front for the library services that forwards each call and records it,
+ * with its arguments, start time, duration and result, to a TraceWriter.
+ * Route request handlers through it to capture a workload that
+ * TraceReplayer can run again against a fresh library.
+ *
+ * Only calls that return are recorded. Recording costs two clock reads and
+ * a short write under the writer's lock per call.
+ */
+public class TraceRecorder implements Closeable {
+    private final Library library;
+    private final LendingService lending;
+    private final ReservationService reservations;
+    private final RecommendationService recommendations;
+    private final TraceWriter writer;
+
+    public TraceRecorder(Library library, LendingService lending, ReservationService reservations,
+                         RecommendationService recommendations, TraceWriter writer) {
+        this.library = Objects.requireNonNull(library);
+        this.lending = Objects.requireNonNull(lending);
+        this.reservations = Objects.requireNonNull(reservations);
+        this.recommendations = Objects.requireNonNull(recommendations);
+        this.writer = Objects.requireNonNull(writer);
+    }
+
+    // ---------- Catalog ----------
+
+    public void addBook(Book book) {
+        long start = System.nanoTime();
+        library.addBook(book);
+        writer.record(TraceOp.ADD_BOOK, start, 1, book.getIsbn(), book.getTitle(), book.getAuthor(),
+                book.getPublicationYear(), book.getTotalCopies());
+    }
+
+    public void addPatron(Patron patron) {
+        long start = System.nanoTime();
+        library.addPatron(patron);
+        writer.record(TraceOp.ADD_PATRON, start, 1, patron.getId(), patron.getName(), patron.getEmail());
+    }
+
+    public List<Book> searchBooks(String query, int limit) {
+        long start = System.nanoTime();
+        List<Book> result = library.searchBooks(query, limit);
+        writer.record(TraceOp.SEARCH, start, result.size(), query, limit);
+        return result;
+    }
+
+    public List<Book> getMostBorrowedBooks(int limit) {
+        long start = System.nanoTime();
+        List<Book> result = library.getMostBorrowedBooks(limit);
+        writer.record(TraceOp.MOST_BORROWED, start, result.size(), limit);
+        return result;
+    }
+
+    // ---------- Circulation ----------
+
+    public boolean checkoutBook(String patronId, String isbn) {
+        long start = System.nanoTime();
+        boolean ok = lending.checkoutBook(patronId, isbn);
+        writer.record(TraceOp.CHECKOUT, start, ok ? 1 : 0, patronId, isbn);
+        return ok;
+    }
+
+    public boolean returnBook(String patronId, String isbn) {
+        long start = System.nanoTime();
+        boolean ok = lending.returnBook(patronId, isbn);
+        writer.record(TraceOp.RETURN, start, ok ? 1 : 0, patronId, isbn);
+        return ok;
+    }
+
+    /** Reserves for a registered patron; false if there is none with that id. */
+    public boolean reserveBook(String isbn, String patronId) {
+        long start = System.nanoTime();
+        boolean ok = reserve(reservations, library, isbn, patronId);
+        writer.record(TraceOp.RESERVE, start, ok ? 1 : 0, patronId, isbn);
+        return ok;
+    }
+
+    public boolean cancelReservation(String isbn, String patronId) {
+        long start = System.nanoTime();
+        boolean ok = reservations.cancelReservation(isbn, patronId);
+        writer.record(TraceOp.CANCEL_RESERVATION, start, ok ? 1 : 0, patronId, isbn);
+        return ok;
+    }
+
+    public List<Book> recommendBooks(String patronId) {
+        long start = System.nanoTime();
+        List<Book> result = recommendations.recommendBooks(patronId);
+        writer.record(TraceOp.RECOMMEND, start, result.size(), patronId);
+        return result;
+    }
+
+    public TraceWriter getWriter() {
+        return writer;
+    }
+
+    /** Flushes and closes the trace; the services stay usable. */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    static boolean reserve(ReservationService reservations, Library library, String isbn, String patronId) {
+        Optional<Patron> patron = library.getPatron(patronId);
+        if (patron.isEmpty()) return false;
+        reservations.reserveBook(isbn, patron.get());
+        return true;
+    }
+}
@@ -0,0 +1,222 @@
+package com.lms.trace;
+
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationMetrics;
+import com.lms.metrics.OperationStats;
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.RecommendationService;
+import com.lms.service.ReservationService;
+import com.lms.strategy.IndexedSearchByTitle;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a recorded trace again against a set of library services and
+ * reports throughput, per-operation latency percentiles and allocation.
+ *
+ * <pre>
+ * java -cp library.jar com.lms.trace.TraceReplayer trace.bin [speedup] [threads]
+ * </pre>
+ *
+ * Events are issued open-loop at their recorded start times divided by the
+ * speedup (0 replays as fast as the workers can go). Each recorded thread's
+ * calls go to one worker, in order, so a patron's checkout still precedes
+ * its return; with fewer workers than recorded threads, threads share
+ * workers. Latency is measured from the moment an event was due, not from
+ * when a worker got to it, so a replay that falls behind shows it in the
+ * percentiles instead of hiding it; unpaced replays (speedup 0) measure
+ * each call alone.
+ *
+ * Allocation is read from the JVM's per-thread allocation counters for the
+ * worker threads (HotSpot and compatible JVMs).
+ */
+public class TraceReplayer {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final Scheduled STOP = new Scheduled(null, 0);
+
+    private final Logger logger = Logger.getLogger(TraceReplayer.class.getName());
+    private final Library library;
+    private final LendingService lending;
+    private final ReservationService reservations;
+    private final RecommendationService recommendations;
+
+    public TraceReplayer(Library library, LendingService lending, ReservationService reservations,
+                         RecommendationService recommendations) {
+        this.library = Objects.requireNonNull(library);
+        this.lending = Objects.requireNonNull(lending);
+        this.reservations = Objects.requireNonNull(reservations);
+        this.recommendations = Objects.requireNonNull(recommendations);
+    }
+
+    /** Replays into a new, empty library with an indexed title search, wired as LibraryHttpServer.over does. */
+    public static TraceReplayer onFreshLibrary() {
+        Library library = new Library();
+        library.setSearchStrategy(new IndexedSearchByTitle());
+        LendingService lending = new LendingService(library);
+        ReservationService reservations = new ReservationService(library);
+        lending.setReservationService(reservations);
+        return new TraceReplayer(library, lending, reservations, new RecommendationService(library));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) throw new IllegalArgumentException("usage: TraceReplayer <trace> [speedup] [threads]");
+        double speedup = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+        System.out.println(onFreshLibrary().replay(Paths.get(args[0]), speedup, threads));
+    }
+
+    /**
+     * Replays the trace and waits for every event to finish.
+     *
+     * @param speedup how many times faster than recorded to issue events; 0 for as fast as possible
+     * @param threads worker threads issuing the calls
+     */
+    public ReplayReport replay(Path trace, double speedup, int threads) throws IOException, InterruptedException {
+        if (speedup < 0 || Double.isNaN(speedup)) throw new IllegalArgumentException("speedup must not be negative");
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive");
+
+        MetricsRegistry metrics = new MetricsRegistry();
+        Map<TraceOp, OperationMetrics> perOp = new EnumMap<>(TraceOp.class);
+        for (TraceOp op : TraceOp.values()) perOp.put(op, metrics.operation("replay." + op.name().toLowerCase()));
+        AtomicLong errors = new AtomicLong();
+        AtomicLong divergences = new AtomicLong();
+        long[] allocated = new long[threads];   // per worker, read after join
+
+        List<BlockingQueue<Scheduled>> queues = new ArrayList<>(threads);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int w = 0; w < threads; w++) {
+            BlockingQueue<Scheduled> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            queues.add(queue);
+            int worker = w;
+            Thread t = new Thread(() -> allocated[worker] = work(queue, perOp, errors, divergences), "trace-replay-" + w);
+            t.setDaemon(true);
+            workers.add(t);
+        }
+        workers.forEach(Thread::start);
+
+        long events = 0;
+        long origin = System.nanoTime();
+        try (TraceReader reader = new TraceReader(trace)) {
+            long first = -1;
+            for (TraceEvent event = reader.next(); event != null; event = reader.next()) {
+                if (first < 0) first = event.getStartNanos();
+                long due = Scheduled.NOW;
+                if (speedup > 0) {
+                    due = origin + (long) ((event.getStartNanos() - first) / speedup);
+                    for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                queues.get(event.getThread() % threads).put(new Scheduled(event, due));
+                events++;
+            }
+        } finally {
+            for (BlockingQueue<Scheduled> queue : queues) queue.put(STOP);
+            for (Thread t : workers) t.join();
+        }
+        long elapsed = System.nanoTime() - origin;
+
+        long allocatedBytes = 0;
+        for (long bytes : allocated) allocatedBytes = bytes < 0 || allocatedBytes < 0 ? -1 : allocatedBytes + bytes;
+        List<OperationStats> stats = new ArrayList<>();
+        for (OperationStats s : metrics.snapshot()) {
+            if (s.getCalls() > 0) stats.add(s);
+        }
+        return new ReplayReport(events, errors.get(), divergences.get(), elapsed, allocatedBytes, speedup, threads, stats);
+    }
+
+    // ---------- Workers ----------
+
+    /** Runs events until STOP; returns the bytes the worker allocated, or -1 if unknown. */
+    private long work(BlockingQueue<Scheduled> queue, Map<TraceOp, OperationMetrics> perOp,
+                      AtomicLong errors, AtomicLong divergences) {
+        long allocatedBefore = allocatedBytes();
+        try {
+            for (Scheduled item = queue.take(); item != STOP; item = queue.take()) {
+                TraceEvent event = item.event;
+                long due = item.due == Scheduled.NOW ? System.nanoTime() : item.due;
+                try {
+                    long result = execute(event);
+                    if (result != event.getResult()) divergences.incrementAndGet();
+                    perOp.get(event.getOp()).record(due, result != 0);
+                } catch (RuntimeException e) {
+                    errors.incrementAndGet();
+                    perOp.get(event.getOp()).record(due, false);
+                    logger.log(Level.FINE, e, () -> "Replayed call failed: " + event);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long allocatedAfter = allocatedBytes();
+        return allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+    }
+
+    // An event and the System.nanoTime() it is due at
+    private static final class Scheduled {
+        static final long NOW = Long.MIN_VALUE;   // unpaced: due when a worker takes it
+
+        final TraceEvent event;
+        final long due;
+
+        Scheduled(TraceEvent event, long due) {
+            this.event = event;
+            this.due = due;
+        }
+    }
+
+    private long execute(TraceEvent e) {
+        switch (e.getOp()) {
+            case ADD_BOOK:
+                library.addBook(new Book(e.getString(0), e.getString(1), e.getString(2), e.getInt(3), e.getInt(4)));
+                return 1;
+            case ADD_PATRON:
+                library.addPatron(new Patron(e.getString(0), e.getString(1), e.getString(2)));
+                return 1;
+            case SEARCH:
+                return library.searchBooks(e.getString(0), e.getInt(1)).size();
+            case MOST_BORROWED:
+                return library.getMostBorrowedBooks(e.getInt(0)).size();
+            case CHECKOUT:
+                return lending.checkoutBook(e.getString(0), e.getString(1)) ? 1 : 0;
+            case RETURN:
+                return lending.returnBook(e.getString(0), e.getString(1)) ? 1 : 0;
+            case RESERVE:
+                return TraceRecorder.reserve(reservations, library, e.getString(1), e.getString(0)) ? 1 : 0;
+            case CANCEL_RESERVATION:
+                return reservations.cancelReservation(e.getString(1), e.getString(0)) ? 1 : 0;
+            case RECOMMEND:
+                return recommendations.recommendBooks(e.getString(0)).size();
+            default:
+                throw new IllegalStateException("Unhandled trace op: " + e.getOp());
+        }
+    }
+
+    // Bytes allocated so far by the calling thread, or -1 if the JVM does not say
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) return -1;
+        return hotspot.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,111 @@
+package com.lms.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends events to a binary trace (see TraceFormat). Thread-safe: each
+ * event is written under the writer's lock into a 64 KB buffer.
+ *
+ * Tracing must never take the traced service down, so the first write
+ * error is logged and turns the writer off; isFailed() reports it.
+ */
+public class TraceWriter implements Closeable {
+    private static final int BUFFER = 64 * 1024;
+    private static final int MAX_STRING_CHARS = 16 * 1024;
+
+    private final Logger logger = Logger.getLogger(TraceWriter.class.getName());
+    private final DataOutputStream out;
+    private final long originNanos = System.nanoTime();
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final ThreadLocal<Integer> threadId = ThreadLocal.withInitial(threadIds::getAndIncrement);
+    private long lastStart;
+    private long events;
+    private boolean failed;
+    private boolean closed;
+
+    public TraceWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    public TraceWriter(OutputStream stream) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER));
+        out.writeInt(TraceFormat.MAGIC);
+        out.writeShort(TraceFormat.VERSION);
+        out.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Records a call made on the current thread that started at startNanos
+     * (System.nanoTime()) and has just finished.
+     */
+    public void record(TraceOp op, long startNanos, long result, Object... args) {
+        long duration = System.nanoTime() - startNanos;
+        int thread = threadId.get();
+        synchronized (this) {
+            if (failed || closed) return;
+            try {
+                long start = startNanos - originNanos;
+                out.writeByte(op.code());
+                TraceFormat.writeZigZag(out, start - lastStart);
+                TraceFormat.writeVarLong(out, duration);
+                TraceFormat.writeVarLong(out, thread);
+                TraceFormat.writeZigZag(out, result);
+                String signature = op.signature();
+                for (int i = 0; i < signature.length(); i++) {
+                    if (signature.charAt(i) == 'I') TraceFormat.writeZigZag(out, (Integer) args[i]);
+                    else writeString((String) args[i]);
+                }
+                lastStart = start;
+                events++;
+            } catch (IOException e) {
+                failed = true;
+                logger.log(Level.WARNING, "Trace write failed; tracing stopped after " + events + " events", e);
+            }
+        }
+    }
+
+    public synchronized long getEventCount() {
+        return events;
+    }
+
+    public synchronized boolean isFailed() {
+        return failed;
+    }
+
+    public synchronized void flush() throws IOException {
+        if (!failed && !closed) out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        out.close();
+    }
+
+    private void writeString(String s) throws IOException {
+        if (s == null) s = "";
+        // writeUTF takes at most 64 KB of modified UTF-8; no real argument comes close
+        if (s.length() > MAX_STRING_CHARS) s = s.substring(0, MAX_STRING_CHARS);
+        Integer id = strings.get(s);
+        if (id != null) {
+            TraceFormat.writeVarLong(out, id + 1);
+            return;
+        }
+        TraceFormat.writeVarLong(out, 0);
+        out.writeUTF(s);
+        if (strings.size() < TraceFormat.MAX_STRINGS) strings.put(s, strings.size());
+    }
+}
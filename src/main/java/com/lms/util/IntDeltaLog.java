@@ -0,0 +1,123 @@
+package com.lms.util;
+
+import java.util.Arrays;
+
+/**
+ * Append-only log of ints, delta-encoded into a byte array.
+ *
+ * Each entry is stored as the zig-zag varint of its difference from the
+ * previous entry, so ids that are close together take one or two bytes
+ * instead of four. With a limit set, only the newest {@code limit} entries
+ * are visible; older bytes are cut off in batches, which keeps appends
+ * amortised O(1). Not thread-safe.
+ */
+public class IntDeltaLog {
+    private static final byte[] NO_BYTES = new byte[0];
+    // Hidden entries are only cut off once there are this many (or limit of them)
+    private static final int MIN_TRIM = 64;
+
+    private byte[] bytes = NO_BYTES;
+    private int length;     // bytes in use
+    private int count;      // entries encoded in bytes
+    private int hidden;     // leading entries past the limit, not yet cut off
+    private int last;       // value of the newest entry, base for the next delta
+    private int limit;      // 0 = unbounded
+
+    /** Number of visible entries. */
+    public int size() {
+        return count - hidden;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void append(int value) {
+        ensureCapacity(5);
+        int delta = value - last;
+        length = writeVarint(bytes, length, (delta << 1) ^ (delta >> 31));
+        last = value;
+        count++;
+        if (limit > 0 && count - hidden > limit) {
+            hidden++;
+            if (hidden >= Math.max(MIN_TRIM, limit)) trim();
+        }
+    }
+
+    /**
+     * Keeps only the newest {@code limit} entries from now on; 0 keeps
+     * everything. Lowering the limit hides older entries immediately.
+     */
+    public void setLimit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        this.limit = limit;
+        if (limit > 0 && count - hidden > limit) {
+            hidden = count - limit;
+            trim();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /** The visible entries, oldest first. */
+    public int[] toArray() {
+        int[] out = new int[size()];
+        int value = 0;
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            int zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[pos++];
+                zigzag |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+            }
+            value += (zigzag >>> 1) ^ -(zigzag & 1);
+            if (i >= hidden) out[i - hidden] = value;
+        }
+        return out;
+    }
+
+    /** Bytes held by the encoded entries, for sizing. */
+    public int encodedBytes() {
+        return length;
+    }
+
+    /** Drops every entry; the limit stays. */
+    public void clear() {
+        bytes = NO_BYTES;
+        length = count = hidden = last = 0;
+    }
+
+    // ---------- Internals ----------
+
+    // Re-encodes the visible entries from scratch, dropping the hidden ones
+    private void trim() {
+        int[] visible = toArray();
+        bytes = new byte[Math.max(16, visible.length * 2)];
+        length = count = hidden = last = 0;
+        for (int value : visible) {
+            ensureCapacity(5);
+            int delta = value - last;
+            length = writeVarint(bytes, length, (delta << 1) ^ (delta >> 31));
+            last = value;
+            count++;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(16, Math.max(length + extra, bytes.length + (bytes.length >> 1))));
+        }
+    }
+
+    private static int writeVarint(byte[] out, int pos, int v) {
+        while ((v & ~0x7F) != 0) {
+            out[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out[pos++] = (byte) v;
+        return pos;
+    }
+}
@@ -0,0 +1,107 @@
+package com.lms.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of ints with linear probing.
+ *
+ * Values sit in one primitive array, so a set of n values costs about 8n
+ * bytes with no per-entry objects or boxing. The table is allocated on the
+ * first add, so an empty set is just the object header. Value -1 is
+ * reserved as the empty marker. Not thread-safe.
+ */
+public class IntHashSet {
+    private static final int EMPTY = -1;
+    private static final int[] NO_TABLE = new int[0];
+
+    private int[] table = NO_TABLE;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        return size > 0 && table[indexOf(value)] != EMPTY;
+    }
+
+    /** Adds the value; false if it was already present. */
+    public boolean add(int value) {
+        checkValue(value);
+        if (table.length == 0) table = emptyTable(4);
+        int i = indexOf(value);
+        if (table[i] != EMPTY) return false;
+        table[i] = value;
+        size++;
+        if (size * 4 > table.length * 3) rehash(table.length * 2);
+        return true;
+    }
+
+    /** Removes the value; false if it was absent. */
+    public boolean remove(int value) {
+        if (size == 0) return false;
+        int m = table.length - 1;
+        int i = indexOf(value);
+        if (table[i] == EMPTY) return false;
+        // Backward-shift deletion: pull later entries of the probe run into the hole
+        int hole = i;
+        for (int j = (i + 1) & m; table[j] != EMPTY; j = (j + 1) & m) {
+            int home = mix(table[j]) & m;
+            if (((j - home) & m) >= ((j - hole) & m)) {
+                table[hole] = table[j];
+                hole = j;
+            }
+        }
+        table[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /** The values copied into a new array, in table order. */
+    public int[] toArray() {
+        int[] out = new int[size];
+        int n = 0;
+        for (int value : table) if (value != EMPTY) out[n++] = value;
+        return out;
+    }
+
+    public void clear() {
+        table = NO_TABLE;
+        size = 0;
+    }
+
+    // ---------- Internals ----------
+    private int indexOf(int value) {
+        int m = table.length - 1;
+        int i = mix(value) & m;
+        while (table[i] != EMPTY && table[i] != value) i = (i + 1) & m;
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        table = emptyTable(capacity);
+        for (int value : old) {
+            if (value != EMPTY) table[indexOf(value)] = value;
+        }
+    }
+
+    private static int[] emptyTable(int capacity) {
+        int[] t = new int[capacity];
+        Arrays.fill(t, EMPTY);
+        return t;
+    }
+
+    private static void checkValue(int value) {
+        if (value == EMPTY) throw new IllegalArgumentException("Value -1 is reserved");
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
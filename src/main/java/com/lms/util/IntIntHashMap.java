@@ -0,0 +1,139 @@
+package com.lms.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int -> int hash map with linear probing.
+ *
+ * Keys and values sit in two primitive arrays, so a map of n entries costs
+ * about 16n bytes with no per-entry objects or boxing. Key -1 is reserved as
+ * the empty marker. Not thread-safe.
+ */
+public class IntIntHashMap {
+    private static final int EMPTY = -1;
+
+    /** Callback for forEach, avoiding boxed entries. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntIntHashMap() {
+        this(8);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = 8;
+        while (capacity < expectedSize * 2) capacity <<= 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return keys[indexOf(key)] != EMPTY;
+    }
+
+    /** The value for key, or defaultValue if absent. */
+    public int get(int key, int defaultValue) {
+        int i = indexOf(key);
+        return keys[i] == EMPTY ? defaultValue : values[i];
+    }
+
+    public void put(int key, int value) {
+        checkKey(key);
+        int i = indexOf(key);
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            size++;
+            values[i] = value;
+            growIfNeeded();
+        } else {
+            values[i] = value;
+        }
+    }
+
+    /** Adds delta to the value for key (absent counts as 0) and returns the new value. */
+    public int addTo(int key, int delta) {
+        checkKey(key);
+        int i = indexOf(key);
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            values[i] = delta;
+            size++;
+            growIfNeeded();
+            return delta;
+        }
+        return values[i] += delta;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    /** Keys and values copied into parallel arrays, in table order. */
+    public int[][] toArrays() {
+        int[] k = new int[size];
+        int[] v = new int[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                k[n] = keys[i];
+                v[n++] = values[i];
+            }
+        }
+        return new int[][] { k, v };
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    // ---------- Internals ----------
+    private int indexOf(int key) {
+        int m = keys.length - 1;
+        int i = mix(key) & m;
+        while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & m;
+        return i;
+    }
+
+    private void growIfNeeded() {
+        if (size * 2 <= keys.length) return;
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = indexOf(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private static void checkKey(int key) {
+        if (key == EMPTY) throw new IllegalArgumentException("Key -1 is reserved");
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
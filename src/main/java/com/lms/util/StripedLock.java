@@ -0,0 +1,46 @@
+package com.lms.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks selected by key hash.
+ * Operations on different keys rarely share a stripe, so they run in parallel,
+ * while operations on the same key are serialized.
+ */
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int minStripes) {
+        if (minStripes <= 0) throw new IllegalArgumentException("stripes must be positive");
+        int n = 1;
+        while (n < minStripes) n <<= 1;
+        stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) stripes[i] = new ReentrantLock();
+        mask = n - 1;
+    }
+
+    /** Default sized to a small multiple of the available cores. */
+    public StripedLock() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public ReentrantLock lockFor(Object key) {
+        return stripes[stripeOf(key)];
+    }
+
+    /** Index of the stripe guarding this key, for callers that group work by stripe. */
+    public int stripeOf(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    public ReentrantLock lockAt(int stripe) {
+        return stripes[stripe];
+    }
+
+    public int stripes() {
+        return stripes.length;
+    }
+}
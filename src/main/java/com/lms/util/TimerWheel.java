@@ -0,0 +1,120 @@
+package com.lms.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel for large numbers of coarse deadlines (e.g. hold expiry).
+ *
+ * Deadlines are rounded up to whole ticks and hashed into a ring of slots,
+ * each a doubly linked list, so schedule and cancel are O(1) regardless of
+ * how many timers are pending. advance() visits only the slots for ticks that
+ * have elapsed; entries whose deadline is a later lap around the wheel stay
+ * where they are.
+ *
+ * Time is supplied by the caller, which keeps the wheel deterministic.
+ * Thread-safe; expiry callbacks run after the wheel's lock is released.
+ */
+public class TimerWheel<T> {
+
+    /** Handle for a scheduled timer, used to cancel it. */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private boolean linked;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T value() { return value; }
+    }
+
+    private final long tickMillis;
+    private final Timeout<T>[] heads;
+    private final int mask;
+    private long processedTick;
+    private int size;
+
+    /**
+     * @param tickMillis resolution; deadlines fire up to one tick late
+     * @param slots      ring size, rounded up to a power of two
+     * @param nowMillis  current time; ticks at or before it count as processed
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int slots, long nowMillis) {
+        if (tickMillis <= 0 || slots <= 0) throw new IllegalArgumentException("tickMillis and slots must be positive");
+        int n = 1;
+        while (n < slots) n <<= 1;
+        this.tickMillis = tickMillis;
+        this.heads = (Timeout<T>[]) new Timeout<?>[n];
+        this.mask = n - 1;
+        this.processedTick = nowMillis / tickMillis;
+    }
+
+    /** Schedules value to expire at the given time; past deadlines fire on the next advance. */
+    public synchronized Timeout<T> schedule(T value, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), processedTick + 1);
+        Timeout<T> timeout = new Timeout<>(value, tick);
+        int slot = (int) (tick & mask);
+        timeout.next = heads[slot];
+        if (heads[slot] != null) heads[slot].prev = timeout;
+        heads[slot] = timeout;
+        timeout.linked = true;
+        size++;
+        return timeout;
+    }
+
+    /** Cancels a pending timer; false if it already fired or was cancelled. */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || !timeout.linked) return false;
+        unlink(timeout);
+        return true;
+    }
+
+    /** Fires, in no particular order, every timer due at or before nowMillis. */
+    public void advance(long nowMillis, Consumer<T> onExpired) {
+        List<T> expired = collect(nowMillis / tickMillis);
+        for (T value : expired) onExpired.accept(value);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // ---------- Internals ----------
+    private synchronized List<T> collect(long nowTick) {
+        if (nowTick <= processedTick) return List.of();
+        List<T> expired = new ArrayList<>();
+        // After a full lap every slot has been visited once; no need to go round again
+        long from = Math.max(processedTick + 1, nowTick - mask);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Timeout<T> t = heads[(int) (tick & mask)];
+            while (t != null) {
+                Timeout<T> next = t.next;
+                if (t.deadlineTick <= nowTick) {
+                    unlink(t);
+                    expired.add(t.value);
+                }
+                t = next;
+            }
+        }
+        processedTick = nowTick;
+        return expired;
+    }
+
+    private void unlink(Timeout<T> t) {
+        int slot = (int) (t.deadlineTick & mask);
+        if (t.prev != null) t.prev.next = t.next;
+        else heads[slot] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+        t.linked = false;
+        size--;
+    }
+}
@@ -0,0 +1,127 @@
+package com.lms.analytics;
+
+import com.lms.model.Book;
+import com.lms.model.LendingRecord;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Both ways of building a CirculationReport agree with a plain loop over the loans. */
+class CirculationAnalyticsTest {
+    private static final String[] AUTHORS = {"Austen", "Borges", "Christie", "Dostoevsky"};
+    private static final int TITLES = 40;
+    private static final int PATRONS = 50;
+
+    private Library library;
+    private LendingService lending;
+    private CirculationAggregates aggregates;
+    private LocalDate today;
+
+    @BeforeAll
+    static void quietLogging() {
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+    }
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        for (int i = 0; i < TITLES; i++) {
+            library.addBook(new Book(isbn(i), "Title " + i, AUTHORS[i % AUTHORS.length], 1950 + i % 7, 3));
+        }
+        for (int i = 0; i < PATRONS; i++) library.addPatron(new Patron("P" + i, "Patron " + i, ""));
+        lending = new LendingService(library);
+        aggregates = new CirculationAggregates(lending, library);
+        today = LocalDate.now();
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 20_000; i++) {
+            LocalDate borrowed = today.minusDays(30 + random.nextInt(700));
+            lending.restoreClosedLoan(new LendingRecord("C" + i, isbn(random.nextInt(TITLES)),
+                    "P" + random.nextInt(PATRONS), "Title", borrowed, borrowed.plusWeeks(2),
+                    borrowed.plusDays(1 + random.nextInt(28))));
+        }
+        for (int i = 0; i < 500; i++) {
+            LocalDate borrowed = today.minusDays(random.nextInt(40));
+            lending.restoreOpenLoan(new LendingRecord("O" + i, isbn(random.nextInt(TITLES)),
+                    "R" + i, "Title", borrowed, borrowed.plusWeeks(2), null));
+        }
+    }
+
+    private static String isbn(int i) {
+        return String.format("978-0-00-%06d-0", i);
+    }
+
+    @Test
+    void parallelAndMaterializedReportsMatchAPlainLoop() {
+        CirculationReport expected = reference(lending.getAllLendingRecords(), library, today);
+        // A small threshold so the reduction really forks
+        CirculationAnalytics analytics = new CirculationAnalytics(ForkJoinPool.commonPool(), 64);
+        assertEquals(expected, analytics.report(lending, library, today));
+        assertEquals(expected, aggregates.report(today));
+        assertEquals(20_500, expected.getTotalLoans());
+        assertTrue(expected.getOverdueLoans() > 0);
+    }
+
+    @Test
+    void reportsFollowLiveCheckoutsAndReturns() {
+        for (int i = 0; i < PATRONS; i++) lending.checkoutBook("P" + i, isbn(i % TITLES));
+        for (int i = 0; i < PATRONS; i += 2) lending.returnBook("P" + i, isbn(i % TITLES));
+
+        CirculationReport expected = reference(lending.getAllLendingRecords(), library, today);
+        assertEquals(expected, new CirculationAnalytics().report(lending, library, today));
+        assertEquals(expected, aggregates.report(today));
+        assertEquals(lending.getOpenLoans().size(), expected.getOpenLoans());
+    }
+
+    @Test
+    void emptyHistoryGivesAnEmptyReport() {
+        LendingService fresh = new LendingService(library);
+        CirculationReport report = new CirculationAnalytics().report(fresh, library, today);
+        assertEquals(reference(List.of(), library, today), report);
+        assertEquals(0, report.getTotalLoans());
+    }
+
+    /** One pass over the records, looking each loan's book up as it goes. */
+    private static CirculationReport reference(List<LendingRecord> records, Library library, LocalDate asOf) {
+        long returned = 0;
+        long overdue = 0;
+        long returnedDays = 0;
+        Map<String, Long> perAuthor = new HashMap<>();
+        Map<Integer, Long> perYear = new HashMap<>();
+        Map<YearMonth, Long> perMonth = new HashMap<>();
+        for (LendingRecord r : records) {
+            Optional<Book> book = library.getBook(r.getBookIsbn());
+            if (book.isPresent()) {
+                perAuthor.merge(book.get().getAuthor(), 1L, Long::sum);
+                perYear.merge(book.get().getPublicationYear(), 1L, Long::sum);
+            }
+            perMonth.merge(YearMonth.from(r.getBorrowedDate()), 1L, Long::sum);
+            if (r.getReturnedDate() != null) {
+                returned++;
+                returnedDays += ChronoUnit.DAYS.between(r.getBorrowedDate(), r.getReturnedDate());
+                if (r.getReturnedDate().isAfter(r.getDueDate())) overdue++;
+            } else if (r.getDueDate().isBefore(asOf)) {
+                overdue++;
+            }
+        }
+        return new CirculationReport(asOf, records.size(), returned, overdue, returnedDays, perAuthor, perYear, perMonth);
+    }
+}
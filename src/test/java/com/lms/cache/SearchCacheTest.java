@@ -0,0 +1,93 @@
+package com.lms.cache;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.strategy.IndexedSearchByTitle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchCacheTest {
+    private static final String DUNE = "978-0-00-000001-1";
+    private static final String MESSIAH = "978-0-00-000002-2";
+    private static final String CHILDREN = "978-0-00-000003-3";
+
+    private Library library;
+    private LendingService lending;
+    private SearchCache cache;
+
+    @BeforeAll
+    static void quietLogging() {
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+    }
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.setSearchStrategy(new IndexedSearchByTitle());
+        cache = new SearchCache(1_000);
+        library.setSearchCache(cache);
+        library.addBook(book(DUNE, "Dune", 5));
+        library.addBook(book(MESSIAH, "Dune Messiah", 3));
+        library.addBook(book(CHILDREN, "Children of Dune", 1));
+        for (int i = 0; i < 4; i++) library.addPatron(new Patron("P" + i, "Patron " + i, ""));
+        lending = new LendingService(library);
+    }
+
+    private static Book book(String isbn, String title, int timesBorrowed) {
+        Book book = new Book(isbn, title, "Frank Herbert", 1965, 4);
+        book.setTimesBorrowed(timesBorrowed);
+        return book;
+    }
+
+    private List<String> search(String query) {
+        return library.searchBooks(query, 10).stream().map(Book::getIsbn).collect(Collectors.toList());
+    }
+
+    @Test
+    void checkoutKeepsCachedTitleResults() {
+        List<String> first = search("dune");
+        assertEquals(0, cache.stats().getHits());
+
+        // Takes a copy off the shelf and borrows the leader again: no ranking changes
+        assertTrue(lending.checkoutBook("P0", DUNE));
+        assertTrue(lending.returnBook("P0", DUNE));
+        assertEquals(first, search("dune"));
+        assertEquals(1, cache.stats().getHits());
+        assertEquals(0, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void borrowThatReordersResultsInvalidatesThem() {
+        assertEquals(List.of(DUNE, MESSIAH, CHILDREN), search("dune"));
+
+        // 1 -> 2 -> 3: level with Dune Messiah, which still wins on ISBN
+        assertTrue(lending.checkoutBook("P0", CHILDREN));
+        assertTrue(lending.checkoutBook("P1", CHILDREN));
+        assertEquals(List.of(DUNE, MESSIAH, CHILDREN), search("dune"));
+        assertEquals(1, cache.stats().getHits());
+
+        // 3 -> 4: passes it
+        assertTrue(lending.checkoutBook("P2", CHILDREN));
+        assertEquals(List.of(DUNE, CHILDREN, MESSIAH), search("dune"));
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    @Test
+    void editingATitleInvalidatesResults() {
+        assertEquals(3, search("dune").size());
+        Book renamed = book(CHILDREN, "Children of Arrakis", 1);
+        library.updateBook(renamed);
+        assertEquals(List.of(DUNE, MESSIAH), search("dune"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.lms.index;
+
+import com.lms.model.Patron;
+import com.lms.service.Library;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatronIndexTest {
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.addPatron(new Patron("P1", "Ann Smith", "ann@example.org"));
+        library.addPatron(new Patron("P2", "Annabel Smithers", "annabel@example.org"));
+        library.addPatron(new Patron("P3", "Bob Jones", "bob@example.org"));
+        library.addPatron(new Patron("P4", "Zoe Ann-Marie Cole", ""));
+    }
+
+    private List<String> byName(String query, int limit) {
+        return library.findPatronsByName(query, limit).stream().map(Patron::getId).sorted().collect(Collectors.toList());
+    }
+
+    private Optional<String> byEmail(String email) {
+        return library.findPatronByEmail(email).map(Patron::getId);
+    }
+
+    // ---------- Email ----------
+
+    @Test
+    void emailLookupIgnoresCaseAndSurroundingSpace() {
+        assertEquals(Optional.of("P1"), byEmail("  ANN@Example.org "));
+        assertEquals(Optional.empty(), byEmail("nobody@example.org"));
+        assertEquals(Optional.empty(), byEmail(""));
+    }
+
+    @Test
+    void addingATakenEmailIsRefused() {
+        assertThrows(IllegalArgumentException.class,
+                () -> library.addPatron(new Patron("P5", "Other Ann", "Ann@example.org")));
+        assertTrue(library.getPatron("P5").isEmpty());
+        assertEquals(Optional.of("P1"), byEmail("ann@example.org"));
+    }
+
+    @Test
+    void blankEmailsAreNotUnique() {
+        library.addPatron(new Patron("P5", "No Mail", ""));
+        library.addPatron(new Patron("P6", "No Mail Either", ""));
+        assertEquals(Optional.empty(), byEmail(""));
+    }
+
+    @Test
+    void setEmailFollowsTheIndexAndIsRefusedWhenTaken() {
+        Patron bob = library.getPatron("P3").orElseThrow();
+        assertThrows(IllegalArgumentException.class, () -> bob.setEmail("ANN@example.org"));
+        assertEquals("bob@example.org", bob.getEmail());
+        assertEquals(Optional.of("P1"), byEmail("ann@example.org"));
+
+        bob.setEmail("robert@example.org");
+        assertEquals(Optional.of("P3"), byEmail("robert@example.org"));
+        assertEquals(Optional.empty(), byEmail("bob@example.org"));
+    }
+
+    @Test
+    void updatePatronMovesTheEmailAndStopsFollowingTheOldObject() {
+        Patron old = library.getPatron("P3").orElseThrow();
+        library.updatePatron(new Patron("P3", "Robert Jones", "robert@example.org"));
+        assertEquals(Optional.of("P3"), byEmail("robert@example.org"));
+        assertEquals(Optional.empty(), byEmail("bob@example.org"));
+
+        old.setEmail("stale@example.org");
+        assertEquals(Optional.empty(), byEmail("stale@example.org"));
+        assertThrows(IllegalArgumentException.class,
+                () -> library.updatePatron(new Patron("P3", "Robert Jones", "annabel@example.org")));
+    }
+
+    @Test
+    void restoredDuplicateEmailStaysWithItsFirstOwner() {
+        library.restorePatron(new Patron("P5", "Old Record", "ann@example.org"));
+        assertEquals(Optional.of("P1"), byEmail("ann@example.org"));
+        assertTrue(library.getPatron("P5").isPresent());
+    }
+
+    // ---------- Name ----------
+
+    @Test
+    void everyQueryWordMatchesTheStartOfANameWord() {
+        assertEquals(List.of("P1", "P2", "P4"), byName("ann", 10));
+        assertEquals(List.of("P1", "P2"), byName("smi ann", 10));
+        assertEquals(List.of("P2"), byName("annab smith", 10));
+        assertEquals(List.of("P4"), byName("MARIE ann", 10));
+        assertEquals(List.of(), byName("ann jones", 10));
+        assertEquals(List.of(), byName("  ", 10));
+    }
+
+    @Test
+    void nameLookupStopsAtLimit() {
+        assertEquals(2, byName("ann", 2).size());
+        assertEquals(List.of(), byName("ann", 0));
+    }
+
+    @Test
+    void setNameFollowsTheIndex() {
+        library.getPatron("P3").orElseThrow().setName("Bobby Tables");
+        assertEquals(List.of("P3"), byName("tab", 10));
+        assertEquals(List.of(), byName("jones", 10));
+    }
+
+    @Test
+    void singleLetterQueriesStayBounded() {
+        PatronIndex index = new PatronIndex();
+        int patrons = 3 * PatronIndex.MAX_CANDIDATES;
+        for (int i = 0; i < patrons; i++) {
+            index.add(new Patron("X" + i, "a" + i + " b" + i + (i == patrons - 1 ? " rare" : ""), ""), true);
+        }
+        assertEquals(10, index.idsForName("a", 10).size());
+        // The rare word is the selective one, however common the other is
+        assertEquals(List.of("X" + (patrons - 1)), index.idsForName("a b r", 10));
+        // Only common prefixes: gives up after MAX_CANDIDATES instead of scanning everyone
+        assertTrue(index.idsForName("a b", patrons).size() <= PatronIndex.MAX_CANDIDATES);
+    }
+}
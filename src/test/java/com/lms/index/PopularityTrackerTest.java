@@ -0,0 +1,47 @@
+package com.lms.index;
+
+import com.lms.model.Book;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PopularityTrackerTest {
+
+    @Test
+    void borrowedMovesBookToItsTimesBorrowed() {
+        PopularityTracker tracker = new PopularityTracker();
+        Book a = new Book("A", "A", "", 2000);
+        Book b = new Book("B", "B", "", 2000);
+        tracker.add(a);
+        tracker.add(b);
+        for (int i = 0; i < 3; i++) {
+            a.incrementTimesBorrowed();
+            tracker.borrowed(a);
+        }
+        b.incrementTimesBorrowed();
+        tracker.borrowed(b);
+        assertEquals(List.of("A", "B"), tracker.top(2));
+        assertEquals(3, tracker.count("A"));
+    }
+
+    @Test
+    void borrowAfterResetFollowsTheBookNotTheTracker() {
+        PopularityTracker tracker = new PopularityTracker();
+        Book a = new Book("A", "A", "", 2000);
+        a.setTimesBorrowed(10);
+        tracker.add(a);
+        // An update reset the count between the borrow's increment and its tracker call
+        a.setTimesBorrowed(0);
+        a.incrementTimesBorrowed();
+        tracker.borrowed(a);
+        assertEquals(1, tracker.count("A"));
+
+        // Increments the tracker missed are picked up on the next borrow
+        a.setTimesBorrowed(7);
+        a.incrementTimesBorrowed();
+        tracker.borrowed(a);
+        assertEquals(8, tracker.count("A"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.lms.notify;
+
+import com.lms.event.EventPublisher;
+import com.lms.event.LibraryEvent;
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.ReservationService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationDispatcherTest {
+    private static final String ISBN = "978-0-00-000001-1";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private Library library;
+    private InMemoryMailSink mail;
+
+    @BeforeAll
+    static void quietLogging() {
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+    }
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.addBook(new Book(ISBN, "Dune", "Frank Herbert", 1965, 1));
+        for (int i = 0; i < 20; i++) library.addPatron(new Patron("P" + i, "Patron " + i, "p" + i + "@example.org"));
+        mail = new InMemoryMailSink();
+    }
+
+    @Test
+    void reservedPatronIsMailedWhenTheCopyComesBack() throws InterruptedException {
+        LendingService lending = new LendingService(library);
+        ReservationService reservations = new ReservationService(library);
+        lending.setReservationService(reservations);
+        try (EventPublisher events = new EventPublisher();
+             NotificationDispatcher dispatcher = new NotificationDispatcher(library, mail, 8, Duration.ofMillis(10))) {
+            events.subscribe(dispatcher);
+            lending.setEventSink(events);
+            reservations.setEventSink(events);
+
+            assertTrue(lending.checkoutBook("P0", ISBN));
+            reservations.reserveBook(ISBN, library.getPatron("P1").orElseThrow());
+            assertTrue(lending.returnBook("P0", ISBN));
+
+            assertTrue(mail.awaitMessages(2, TIMEOUT));
+            List<MailMessage> toP1 = mail.getMessagesTo("p1@example.org");
+            assertEquals(2, toP1.size());
+            assertTrue(toP1.get(0).getSubject().startsWith("Reservation confirmed"));
+            assertTrue(toP1.get(1).getSubject().startsWith("Ready for pickup"));
+            assertTrue(mail.getMessagesTo("p0@example.org").isEmpty());
+        }
+    }
+
+    @Test
+    void holdReadyIsNeverDroppedWhenTheDispatcherFallsBehind() throws InterruptedException {
+        CountDownLatch mailServerUp = new CountDownLatch(1);
+        MailSink slowSink = batch -> {
+            try {
+                mailServerUp.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mail.send(batch);
+        };
+        try (EventPublisher events = new EventPublisher(1, Duration.ofMillis(5));
+             NotificationDispatcher dispatcher = new NotificationDispatcher(library, slowSink, 1, Duration.ofMillis(10))) {
+            events.subscribe(dispatcher);
+            Instant until = Instant.now().plus(Duration.ofDays(3));
+            for (int i = 0; i < 20; i++) events.publish(new LibraryEvent.HoldReady("P" + i, ISBN, until));
+            // The dispatcher is stuck on its first batch and its one-event buffer is
+            // full: events it can do without are dropped, holds wait their turn
+            for (int i = 0; i < 10; i++) events.publish(new LibraryEvent.CheckedOut("P" + i, ISBN));
+            assertTrue(events.getDroppedCount() > 0);
+            assertTrue(events.getRetryingCount() > 0);
+
+            mailServerUp.countDown();
+            assertTrue(mail.awaitMessages(20, TIMEOUT));
+            for (int i = 0; i < 20; i++) {
+                List<MailMessage> messages = mail.getMessagesTo("p" + i + "@example.org");
+                assertEquals(1, messages.size(), "patron P" + i);
+                assertTrue(messages.get(0).getSubject().startsWith("Ready for pickup"));
+            }
+            assertTrue(events.getRedeliveredCount() > 0);
+        }
+    }
+}
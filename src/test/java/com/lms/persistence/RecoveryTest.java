@@ -0,0 +1,112 @@
+package com.lms.persistence;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import com.lms.service.LendingService;
+import com.lms.service.Library;
+import com.lms.service.ReservationService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Copy counts after a restart match the live library they were journaled from. */
+class RecoveryTest {
+    private static final String ISBN = "978-0-00-000001-1";
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void quietLogging() {
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+    }
+
+    /** A library, its services and their persistence, wired as an application would. */
+    private static final class Services implements AutoCloseable {
+        final Library library = new Library();
+        final LendingService lending = new LendingService(library);
+        final ReservationService reservations = new ReservationService(library);
+        final PersistenceManager persistence;
+
+        Services(Path dir) throws IOException {
+            lending.setReservationService(reservations);
+            persistence = PersistenceManager.open(dir, library, lending, reservations);
+        }
+
+        Book book() {
+            return library.getBook(ISBN).orElseThrow();
+        }
+
+        Patron patron(String id) {
+            return library.getPatron(id).orElseThrow();
+        }
+
+        @Override
+        public void close() throws IOException {
+            persistence.close();
+        }
+    }
+
+    @Test
+    void collectedHoldIsNotCountedTwiceOnReplay() throws IOException {
+        checkCollectedHold(false);
+    }
+
+    @Test
+    void collectedHoldIsNotCountedTwiceAfterSnapshot() throws IOException {
+        checkCollectedHold(true);
+    }
+
+    private void checkCollectedHold(boolean checkpointMidway) throws IOException {
+        try (Services live = new Services(dir)) {
+            live.library.addBook(new Book(ISBN, "Held", "Author", 2000, 1));
+            live.library.addPatron(new Patron("P1", "One", ""));
+            live.library.addPatron(new Patron("P2", "Two", ""));
+            assertTrue(live.lending.checkoutBook("P1", ISBN));
+            live.reservations.reserveBook(ISBN, live.patron("P2"));
+            assertTrue(live.lending.returnBook("P1", ISBN));   // held for P2
+            if (checkpointMidway) live.persistence.checkpoint();
+            assertTrue(live.lending.checkoutBook("P2", ISBN)); // collects the hold
+            assertEquals(0, live.book().getRawAvailableCopies());
+        }
+
+        try (Services recovered = new Services(dir)) {
+            assertEquals(0, recovered.book().getRawAvailableCopies());
+            assertFalse(recovered.lending.checkoutBook("P1", ISBN));
+            assertTrue(recovered.lending.returnBook("P2", ISBN));
+            assertEquals(1, recovered.book().getRawAvailableCopies());
+            assertTrue(recovered.lending.checkoutBook("P1", ISBN));
+        }
+    }
+
+    @Test
+    void withdrawnCopiesOnLoanSurviveSnapshot() throws IOException {
+        try (Services live = new Services(dir)) {
+            live.library.addBook(new Book(ISBN, "Withdrawn", "Author", 2000, 2));
+            for (String id : new String[] {"P1", "P2", "P3"}) live.library.addPatron(new Patron(id, id, ""));
+            assertTrue(live.lending.checkoutBook("P1", ISBN));
+            assertTrue(live.lending.checkoutBook("P2", ISBN));
+            live.library.setTotalCopies(ISBN, 1);
+            assertEquals(-1, live.book().getRawAvailableCopies());
+            live.persistence.checkpoint();
+        }
+
+        try (Services recovered = new Services(dir)) {
+            assertEquals(1, recovered.book().getTotalCopies());
+            assertEquals(-1, recovered.book().getRawAvailableCopies());
+            assertTrue(recovered.lending.returnBook("P1", ISBN));
+            assertFalse(recovered.lending.checkoutBook("P3", ISBN));
+            assertTrue(recovered.lending.returnBook("P2", ISBN));
+            assertTrue(recovered.lending.checkoutBook("P3", ISBN));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.lms.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** A record is durable only once its fsync succeeds. */
+class WriteAheadLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void failedForceIsNotReportedDurable() throws IOException {
+        WriteAheadLog.SegmentOpener failing = segment -> new UnforceableChannel(WriteAheadLog.SegmentOpener.FILES.open(segment));
+        WriteAheadLog wal = WriteAheadLog.open(dir, failing, 1, 10_000, 1 << 16);
+        long lsn = wal.append(WalOp.CHECKED_OUT, new byte[] {1, 2, 3});
+
+        IOException thrown = assertThrows(IOException.class, () -> wal.awaitDurable(lsn));
+        assertEquals("force failed", thrown.getMessage());
+        assertEquals(0, wal.durableLsn());
+        assertThrows(UncheckedIOException.class, () -> wal.append(WalOp.CHECKED_OUT, new byte[0]));
+        assertThrows(IOException.class, wal::close);
+    }
+
+    /** Writes through to a real file but fails every fsync, like a dying disk. */
+    private static final class UnforceableChannel extends FileChannel {
+        private final FileChannel file;
+
+        UnforceableChannel(FileChannel file) {
+            this.file = file;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            throw new IOException("force failed");
+        }
+
+        @Override public int write(ByteBuffer src) throws IOException { return file.write(src); }
+        @Override public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return file.write(srcs, offset, length);
+        }
+        @Override public int write(ByteBuffer src, long position) throws IOException { return file.write(src, position); }
+        @Override public int read(ByteBuffer dst) throws IOException { return file.read(dst); }
+        @Override public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return file.read(dsts, offset, length);
+        }
+        @Override public int read(ByteBuffer dst, long position) throws IOException { return file.read(dst, position); }
+        @Override public long position() throws IOException { return file.position(); }
+        @Override public FileChannel position(long newPosition) throws IOException {
+            file.position(newPosition);
+            return this;
+        }
+        @Override public long size() throws IOException { return file.size(); }
+        @Override public FileChannel truncate(long size) throws IOException {
+            file.truncate(size);
+            return this;
+        }
+        @Override public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return file.transferTo(position, count, target);
+        }
+        @Override public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return file.transferFrom(src, position, count);
+        }
+        @Override public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return file.map(mode, position, size);
+        }
+        @Override public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return file.lock(position, size, shared);
+        }
+        @Override public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return file.tryLock(position, size, shared);
+        }
+        @Override protected void implCloseChannel() throws IOException { file.close(); }
+    }
+}
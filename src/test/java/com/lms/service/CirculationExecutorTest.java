@@ -0,0 +1,64 @@
+package com.lms.service;
+
+import com.lms.metrics.MetricsRegistry;
+import com.lms.metrics.OperationStats;
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** A batch the journal cannot commit fails its ops without stopping the writer. */
+class CirculationExecutorTest {
+    private static final String ISBN = "978-0-00-000001-1";
+
+    @BeforeAll
+    static void quietLogging() {
+        Logger.getLogger("com.lms").setLevel(Level.OFF);
+    }
+
+    @Test
+    void failedCommitFailsBatchAndWriterCarriesOn() throws Exception {
+        Library library = new Library();
+        library.addBook(new Book(ISBN, "Title", "Author", 2000, 2));
+        library.addPatron(new Patron("P1", "One", ""));
+        library.addPatron(new Patron("P2", "Two", ""));
+        LendingService lending = new LendingService(library);
+        MetricsRegistry metrics = new MetricsRegistry();
+        lending.setMetrics(metrics);
+        AtomicBoolean failCommit = new AtomicBoolean(true);
+        lending.setJournal(new LibraryJournal() {
+            @Override
+            public void endMutation() {
+                if (failCommit.get()) throw new UncheckedIOException(new IOException("fsync failed"));
+            }
+        });
+
+        try (CirculationExecutor executor = new CirculationExecutor(lending, 4, 2)) {
+            CompletableFuture<Boolean> failed = executor.checkout("P1", ISBN);
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(UncheckedIOException.class, thrown.getCause());
+
+            failCommit.set(false);
+            assertTrue(executor.checkout("P2", ISBN).get(5, TimeUnit.SECONDS));
+            assertEquals(0, executor.pending());
+        }
+
+        OperationStats checkouts = metrics.operation("lending.checkout").snapshot();
+        assertEquals(2, checkouts.getCalls());
+        assertEquals(1, checkouts.getFailures());
+    }
+}
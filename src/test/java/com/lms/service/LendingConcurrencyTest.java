@@ -0,0 +1,118 @@
+package com.lms.service;
+
+import com.lms.model.Book;
+import com.lms.model.Patron;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Many threads checking out and returning one title that has a few copies. */
+class LendingConcurrencyTest {
+    private static final String ISBN = "978-0-00-000001-1";
+    private static final int COPIES = 5;
+    private static final int THREADS = 8;
+    private static final int PATRONS_PER_THREAD = 8;
+
+    @BeforeAll
+    static void quietLogging() {
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+    }
+
+    @Test
+    void concurrentCheckoutsNeverLendMoreCopiesThanExist() throws Exception {
+        Library library = new Library();
+        library.addBook(new Book(ISBN, "Contended", "Author", 2000, COPIES));
+        for (int i = 0; i < THREADS * PATRONS_PER_THREAD; i++) library.addPatron(new Patron("P" + i, "Patron " + i, ""));
+        LendingService lending = new LendingService(library);
+
+        AtomicInteger successes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int first = t * PATRONS_PER_THREAD;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int p = first; p < first + PATRONS_PER_THREAD; p++) {
+                        if (lending.checkoutBook("P" + p, ISBN)) successes.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Book book = library.getBook(ISBN).orElseThrow();
+        assertEquals(COPIES, successes.get());
+        assertEquals(0, book.getAvailableCopies());
+        assertEquals(COPIES, lending.getOpenLoans().size());
+    }
+
+    @Test
+    void checkoutReturnChurnKeepsCopiesConserved() throws Exception {
+        Library library = new Library();
+        library.addBook(new Book(ISBN, "Contended", "Author", 2000, COPIES));
+        for (int i = 0; i < THREADS * PATRONS_PER_THREAD; i++) library.addPatron(new Patron("P" + i, "Patron " + i, ""));
+        LendingService lending = new LendingService(library);
+        Book book = library.getBook(ISBN).orElseThrow();
+
+        AtomicInteger onLoan = new AtomicInteger();
+        AtomicInteger maxOnLoan = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int first = t * PATRONS_PER_THREAD;
+                SplittableRandom random = new SplittableRandom(t);
+                futures.add(pool.submit(() -> {
+                    // Each thread owns its patrons, so it knows which hold a copy and can
+                    // count a return before making it: onLoan never exceeds the real loans
+                    boolean[] holding = new boolean[PATRONS_PER_THREAD];
+                    start.await();
+                    for (int i = 0; i < 2_000; i++) {
+                        int p = random.nextInt(PATRONS_PER_THREAD);
+                        String patron = "P" + (first + p);
+                        if (holding[p]) {
+                            onLoan.decrementAndGet();
+                            assertTrue(lending.returnBook(patron, ISBN));
+                            holding[p] = false;
+                        } else if (lending.checkoutBook(patron, ISBN)) {
+                            maxOnLoan.accumulateAndGet(onLoan.incrementAndGet(), Math::max);
+                            holding[p] = true;
+                        }
+                        int available = book.getAvailableCopies();
+                        assertTrue(available >= 0 && available <= COPIES, "available out of range: " + available);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(maxOnLoan.get() <= COPIES, "lent " + maxOnLoan.get() + " copies of " + COPIES);
+        assertEquals(onLoan.get(), lending.getOpenLoans().size());
+        assertEquals(book.getTotalCopies(), book.getAvailableCopies() + lending.getOpenLoans().size());
+    }
+}
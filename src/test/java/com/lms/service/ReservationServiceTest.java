@@ -0,0 +1,180 @@
+package com.lms.service;
+
+import com.lms.model.Book;
+import com.lms.model.Hold;
+import com.lms.model.Patron;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Returned copies are held in queue order, and holds expire, cancel and restore cleanly. */
+class ReservationServiceTest {
+    private static final String ISBN = "978-0-00-000001-1";
+    private static final Duration HOLD_PERIOD = Duration.ofHours(1);
+
+    private final TestClock clock = new TestClock(Instant.parse("2026-01-01T09:00:00Z"));
+    private Library library;
+    private LendingService lending;
+    private ReservationService reservations;
+
+    @BeforeAll
+    static void quietLogging() {
+        Logger.getLogger("com.lms").setLevel(Level.WARNING);
+    }
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        lending = new LendingService(library);
+        reservations = new ReservationService(library, HOLD_PERIOD, clock);
+        lending.setReservationService(reservations);
+        library.addBook(new Book(ISBN, "Held", "Author", 2000, 1));
+        for (String id : List.of("P1", "P2", "P3")) library.addPatron(new Patron(id, id, ""));
+    }
+
+    @Test
+    void returnedCopyIsHeldForFirstInLine() {
+        assertTrue(lending.checkoutBook("P1", ISBN));
+        reserve("P2");
+        reserve("P3");
+
+        assertTrue(lending.returnBook("P1", ISBN));
+        assertEquals(List.of("P2"), holders());
+        assertEquals(List.of("P3"), queued());
+        assertEquals(0, book().getRawAvailableCopies());
+
+        assertFalse(lending.checkoutBook("P3", ISBN));
+        assertTrue(lending.checkoutBook("P2", ISBN));
+        assertEquals(List.of(), holders());
+        assertEquals(0, book().getRawAvailableCopies());
+    }
+
+    @Test
+    void expiredHoldPassesToNextPatron() {
+        assertTrue(lending.checkoutBook("P1", ISBN));
+        reserve("P2");
+        reserve("P3");
+        assertTrue(lending.returnBook("P1", ISBN));
+
+        clock.advance(HOLD_PERIOD.plusSeconds(1));
+        assertFalse(lending.checkoutBook("P2", ISBN));  // expired, even before the timer runs
+        reservations.expireHolds();
+        assertEquals(List.of("P3"), holders());
+        assertEquals(List.of(), queued());
+
+        clock.advance(HOLD_PERIOD.plusSeconds(1));
+        reservations.expireHolds();
+        assertEquals(List.of(), holders());
+        assertEquals(1, book().getRawAvailableCopies());
+    }
+
+    @Test
+    void cancelledReservationLeavesTheQueue() {
+        assertTrue(lending.checkoutBook("P1", ISBN));
+        reserve("P2");
+        reserve("P3");
+
+        assertTrue(reservations.cancelReservation(ISBN, "P2"));
+        assertFalse(reservations.cancelReservation(ISBN, "P2"));
+        assertEquals(List.of("P3"), queued());
+
+        assertTrue(lending.returnBook("P1", ISBN));
+        assertEquals(List.of("P3"), holders());
+    }
+
+    @Test
+    void cancelledHoldPassesCopyOn() {
+        assertTrue(lending.checkoutBook("P1", ISBN));
+        reserve("P2");
+        reserve("P3");
+        assertTrue(lending.returnBook("P1", ISBN));
+
+        assertTrue(reservations.cancelReservation(ISBN, "P2"));
+        assertEquals(List.of("P3"), holders());
+        assertEquals(0, book().getRawAvailableCopies());
+
+        assertTrue(reservations.cancelReservation(ISBN, "P3"));
+        assertEquals(List.of(), holders());
+        assertEquals(1, book().getRawAvailableCopies());
+        assertTrue(lending.checkoutBook("P1", ISBN));
+    }
+
+    @Test
+    void restoredHoldCanBeCollected() {
+        reserve("P2");
+        reservations.restoreHold(new Hold(ISBN, "P2", clock.instant().plus(HOLD_PERIOD)), true);
+        assertEquals(List.of("P2"), holders());
+        assertEquals(List.of(), queued());
+        assertEquals(0, book().getRawAvailableCopies());
+
+        assertFalse(lending.checkoutBook("P1", ISBN));
+        assertTrue(lending.checkoutBook("P2", ISBN));
+        assertEquals(0, book().getRawAvailableCopies());
+    }
+
+    @Test
+    void restoredHoldReleaseAndCollectReturnTheCopy() {
+        reservations.restoreHold(new Hold(ISBN, "P2", clock.instant().plus(HOLD_PERIOD)), true);
+        reservations.restoreHoldReleased(ISBN, "P2");
+        assertEquals(List.of(), holders());
+        assertEquals(1, book().getRawAvailableCopies());
+
+        reservations.restoreHold(new Hold(ISBN, "P3", clock.instant().plus(HOLD_PERIOD)), true);
+        assertTrue(reservations.restoreHoldCollected(ISBN, "P3"));
+        assertFalse(reservations.restoreHoldCollected(ISBN, "P3"));
+        assertEquals(1, book().getRawAvailableCopies());
+
+        // A hold restored from a snapshot leaves copies alone and still expires
+        reservations.restoreHold(new Hold(ISBN, "P1", clock.instant().plus(HOLD_PERIOD)), false);
+        assertEquals(1, book().getRawAvailableCopies());
+        clock.advance(HOLD_PERIOD.plusSeconds(1));
+        reservations.expireHolds();
+        assertEquals(List.of(), holders());
+    }
+
+    private void reserve(String patronId) {
+        reservations.reserveBook(ISBN, library.getPatron(patronId).orElseThrow());
+    }
+
+    private Book book() {
+        return library.getBook(ISBN).orElseThrow();
+    }
+
+    private List<String> holders() {
+        return reservations.getHolds(ISBN).stream().map(Hold::getPatronId).toList();
+    }
+
+    private List<String> queued() {
+        return reservations.getReservationQueue(ISBN).stream().map(Patron::getId).toList();
+    }
+
+    /** A clock the test moves forward by hand. */
+    private static final class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override public Instant instant() { return now; }
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+    }
+}
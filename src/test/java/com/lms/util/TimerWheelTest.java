@@ -0,0 +1,44 @@
+package com.lms.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Timers fire once their tick has passed, never earlier, and not after cancel. */
+class TimerWheelTest {
+    @Test
+    void firesDueTimersOnly() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 8, 0);
+        wheel.schedule("a", 1500);
+        wheel.schedule("b", 3000);
+        wheel.schedule("later-lap", 20_000);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(1999, fired::add);
+        assertEquals(List.of(), fired);   // 1500 rounds up to the 2000 tick
+        wheel.advance(3000, fired::add);
+        assertEquals(List.of("a", "b"), fired.stream().sorted().toList());
+        wheel.advance(19_999, fired::add);
+        assertEquals(2, fired.size());    // shares slots with earlier ticks, but a later lap
+        wheel.advance(20_000, fired::add);
+        assertEquals("later-lap", fired.get(2));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimerNeverFires() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 8, 0);
+        TimerWheel.Timeout<String> timeout = wheel.schedule("a", 1000);
+        assertTrue(wheel.cancel(timeout));
+        assertFalse(wheel.cancel(timeout));
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(5000, fired::add);
+        assertEquals(List.of(), fired);
+    }
+}